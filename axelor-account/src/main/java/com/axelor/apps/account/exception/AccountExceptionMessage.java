@@ -245,6 +245,8 @@ public final class AccountExceptionMessage {
   public static final String ACCOUNTING_REPORT_REPORT_TYPE_NOT_FOUND = /*$$(*/
       "Report type not found" /*)*/;
   public static final String ACCOUNTING_REPORT_ANOMALIES = /*$$(*/ "Anomalies generated" /*)*/;
+  public static final String ACCOUNTING_REPORT_NOT_STREAMABLE = /*$$(*/
+      "This report type can not be generated in this format." /*)*/;
 
   public static final String ACCOUNTING_REPORT_MISSING_COMPANY_PARTNER = /*$$(*/
       "DAS2 declarant company %s : Company partner is missing" /*)*/;
@@ -447,6 +449,9 @@ public final class AccountExceptionMessage {
   public static final String RECONCILE_MISSING_TAX = /*$$(*/
       "Move %s has a move line with a tax account but no tax assigned. Please fix this in order to proceed with this reconcile." /*)*/;
 
+  public static final String RECONCILE_LOCK_TIMEOUT = /*$$(*/
+      "These move lines are being reconciled by another operation, please try again." /*)*/;
+
   public static final String ALREADY_HAVE_PROPOSAL_RECONCILE = /*$$(*/
       "Some selected MoveLines already have a proposal ReconcileGroup" /*)*/;
 
@@ -75,6 +75,8 @@ import com.axelor.apps.account.db.repo.ReconcileRepository;
 import com.axelor.apps.account.db.repo.SubrogationReleaseManagementRepository;
 import com.axelor.apps.account.db.repo.SubrogationReleaseRepository;
 import com.axelor.apps.account.service.*;
+import com.axelor.apps.account.service.AccountingReportStreamService;
+import com.axelor.apps.account.service.AccountingReportStreamServiceImpl;
 import com.axelor.apps.account.service.accountingsituation.AccountingSituationAttrsService;
 import com.axelor.apps.account.service.accountingsituation.AccountingSituationAttrsServiceImpl;
 import com.axelor.apps.account.service.accountingsituation.AccountingSituationCheckService;
@@ -133,6 +135,8 @@ import com.axelor.apps.account.service.custom.AccountingReportValuePercentageSer
 import com.axelor.apps.account.service.custom.AccountingReportValuePercentageServiceImpl;
 import com.axelor.apps.account.service.custom.AccountingReportValueService;
 import com.axelor.apps.account.service.custom.AccountingReportValueServiceImpl;
+import com.axelor.apps.account.service.debtrecovery.DebtRecoveryAgingService;
+import com.axelor.apps.account.service.debtrecovery.DebtRecoveryAgingServiceImpl;
 import com.axelor.apps.account.service.debtrecovery.DebtRecoveryHistoryService;
 import com.axelor.apps.account.service.debtrecovery.DebtRecoveryHistoryServiceImpl;
 import com.axelor.apps.account.service.extract.ExtractContextMoveService;
@@ -197,6 +201,8 @@ import com.axelor.apps.account.service.invoice.InvoiceLineGroupService;
 import com.axelor.apps.account.service.invoice.InvoiceLineGroupServiceImpl;
 import com.axelor.apps.account.service.invoice.InvoiceLineService;
 import com.axelor.apps.account.service.invoice.InvoiceLineServiceImpl;
+import com.axelor.apps.account.service.invoice.InvoiceMassProcessService;
+import com.axelor.apps.account.service.invoice.InvoiceMassProcessServiceImpl;
 import com.axelor.apps.account.service.invoice.InvoiceMergingService;
 import com.axelor.apps.account.service.invoice.InvoiceMergingServiceImpl;
 import com.axelor.apps.account.service.invoice.InvoiceMergingViewService;
@@ -407,6 +413,8 @@ import com.axelor.apps.account.service.period.PeriodServiceAccount;
 import com.axelor.apps.account.service.period.PeriodServiceAccountImpl;
 import com.axelor.apps.account.service.reconcile.ReconcileCheckService;
 import com.axelor.apps.account.service.reconcile.ReconcileCheckServiceImpl;
+import com.axelor.apps.account.service.reconcile.ReconcileCoordinatorService;
+import com.axelor.apps.account.service.reconcile.ReconcileCoordinatorServiceImpl;
 import com.axelor.apps.account.service.reconcile.ReconcileInvoiceTermComputationService;
 import com.axelor.apps.account.service.reconcile.ReconcileInvoiceTermComputationServiceImpl;
 import com.axelor.apps.account.service.reconcile.ReconcileService;
@@ -978,5 +986,9 @@ public class AccountModule extends AxelorModule {
     bind(InvoiceTermDateComputeService.class).to(InvoiceTermDateComputeServiceImpl.class);
     bind(InvoiceLineCheckService.class).to(InvoiceLineCheckServiceImpl.class);
     bind(InvoiceGlobalDiscountService.class).to(InvoiceGlobalDiscountServiceImpl.class);
+    bind(InvoiceMassProcessService.class).to(InvoiceMassProcessServiceImpl.class);
+    bind(AccountingReportStreamService.class).to(AccountingReportStreamServiceImpl.class);
+    bind(ReconcileCoordinatorService.class).to(ReconcileCoordinatorServiceImpl.class);
+    bind(DebtRecoveryAgingService.class).to(DebtRecoveryAgingServiceImpl.class);
   }
 }
@@ -36,6 +36,7 @@ import com.axelor.apps.base.AxelorException;
 import com.axelor.apps.base.db.Company;
 import com.axelor.apps.base.db.Product;
 import com.axelor.apps.base.db.repo.TraceBackRepository;
+import com.axelor.apps.base.service.tax.AccountManagementCacheService;
 import com.axelor.apps.base.service.tax.AccountManagementServiceImpl;
 import com.axelor.apps.base.service.tax.FiscalPositionService;
 import com.axelor.apps.base.service.tax.TaxService;
@@ -64,8 +65,9 @@ public class AccountManagementServiceAccountImpl extends AccountManagementServic
       TaxService taxService,
       AccountConfigService accountConfigService,
       AccountRepository accountRepository,
-      FiscalPositionAccountService fiscalPositionAccountService) {
-    super(fiscalPositionService, taxService);
+      FiscalPositionAccountService fiscalPositionAccountService,
+      AccountManagementCacheService accountManagementCacheService) {
+    super(fiscalPositionService, taxService, accountManagementCacheService);
     this.accountConfigService = accountConfigService;
     this.accountRepository = accountRepository;
     this.fiscalPositionAccountService = fiscalPositionAccountService;
@@ -91,6 +93,28 @@ public class AccountManagementServiceAccountImpl extends AccountManagementServic
       boolean fixedAsset)
       throws AxelorException {
 
+    if (!isCacheable(product, company, fiscalPosition)) {
+      return computeProductAccount(product, company, fiscalPosition, isPurchase, fixedAsset);
+    }
+
+    Long accountId =
+        accountManagementCacheService.get(
+            product.getId(),
+            getCacheKey("account", company, fiscalPosition, isPurchase, fixedAsset),
+            () ->
+                computeProductAccount(product, company, fiscalPosition, isPurchase, fixedAsset)
+                    .getId());
+    return accountRepository.find(accountId);
+  }
+
+  protected Account computeProductAccount(
+      Product product,
+      Company company,
+      FiscalPosition fiscalPosition,
+      boolean isPurchase,
+      boolean fixedAsset)
+      throws AxelorException {
+
     log.debug(
         "Get the account for the product {} (company : {}, purchase : {}, fixed asset : {}, fiscal position : {})",
         new Object[] {
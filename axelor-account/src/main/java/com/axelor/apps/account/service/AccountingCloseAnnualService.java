@@ -28,6 +28,7 @@ import com.axelor.apps.base.db.Year;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import org.apache.commons.lang3.tuple.Pair;
 
@@ -73,6 +74,47 @@ public interface AccountingCloseAnnualService {
       Integer moveStatus)
       throws AxelorException;
 
+  /**
+   * Generate the closure and/or opening moves of an account and partner from an already computed
+   * balance.
+   */
+  public List<Move> generateCloseAndOpenAnnualAccount(
+      Account account,
+      Partner partner,
+      BigDecimal balance,
+      LocalDate endOfYearDate,
+      LocalDate reportedBalanceDate,
+      String origin,
+      String moveDescription,
+      boolean closeYear,
+      boolean openYear,
+      Integer moveStatus)
+      throws AxelorException;
+
+  /**
+   * Generate one closure and/or opening move for the account, with one line per partner balance.
+   */
+  public List<Move> generateConsolidatedCloseAndOpenAnnualAccount(
+      Account account,
+      Map<Partner, BigDecimal> partnerBalanceMap,
+      LocalDate endOfYearDate,
+      LocalDate reportedBalanceDate,
+      String origin,
+      String moveDescription,
+      boolean closeYear,
+      boolean openYear,
+      Integer moveStatus)
+      throws AxelorException;
+
+  /**
+   * Compute the balances of the year for all the given accounts with a single grouped query.
+   *
+   * @return the balances by account id and partner id, the partner id is null when the balance is
+   *     not allocated per partner for the account.
+   */
+  public Map<Pair<Long, Long>, BigDecimal> computeBalanceMap(
+      Year year, List<Long> accountIdList, boolean allocatePerPartner);
+
   public List<Long> getAllAccountOfYear(Set<Account> accountSet, Year year);
 
   public List<Pair<Long, Long>> assignPartner(
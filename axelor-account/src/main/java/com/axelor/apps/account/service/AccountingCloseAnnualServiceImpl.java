@@ -46,11 +46,16 @@ import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import javax.persistence.Query;
+import javax.persistence.TypedQuery;
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.lang3.tuple.Pair;
 import org.slf4j.Logger;
@@ -249,6 +254,133 @@ public class AccountingCloseAnnualServiceImpl implements AccountingCloseAnnualSe
     return moveList;
   }
 
+  @Override
+  @Transactional(rollbackOn = {Exception.class})
+  public List<Move> generateCloseAndOpenAnnualAccount(
+      Account account,
+      Partner partner,
+      BigDecimal balance,
+      LocalDate endOfYearDate,
+      LocalDate reportedBalanceDate,
+      String origin,
+      String moveDescription,
+      boolean closeYear,
+      boolean openYear,
+      Integer moveStatus)
+      throws AxelorException {
+
+    List<Move> moveList = new ArrayList<>();
+
+    Move closeYearMove = null;
+    Move openYearMove = null;
+
+    if (closeYear) {
+      closeYearMove =
+          generateCloseOrOpenAnnualAccountMove(
+              account,
+              endOfYearDate,
+              endOfYearDate,
+              origin,
+              moveDescription,
+              partner,
+              balance,
+              false,
+              moveStatus);
+
+      if (closeYearMove == null) {
+        return null;
+      }
+      moveList.add(closeYearMove);
+    }
+
+    if (openYear) {
+      openYearMove =
+          generateCloseOrOpenAnnualAccountMove(
+              account,
+              reportedBalanceDate,
+              endOfYearDate,
+              origin,
+              moveDescription,
+              partner,
+              balance,
+              true,
+              moveStatus);
+
+      if (openYearMove == null) {
+        return null;
+      }
+      moveList.add(openYearMove);
+    }
+
+    if (closeYearMove != null && openYearMove != null) {
+      reconcile(closeYearMove, openYearMove);
+    }
+
+    return moveList;
+  }
+
+  @Override
+  @Transactional(rollbackOn = {Exception.class})
+  public List<Move> generateConsolidatedCloseAndOpenAnnualAccount(
+      Account account,
+      Map<Partner, BigDecimal> partnerBalanceMap,
+      LocalDate endOfYearDate,
+      LocalDate reportedBalanceDate,
+      String origin,
+      String moveDescription,
+      boolean closeYear,
+      boolean openYear,
+      Integer moveStatus)
+      throws AxelorException {
+
+    List<Move> moveList = new ArrayList<>();
+
+    Move closeYearMove = null;
+    Move openYearMove = null;
+
+    if (closeYear) {
+      closeYearMove =
+          generateConsolidatedCloseOrOpenAnnualAccountMove(
+              account,
+              partnerBalanceMap,
+              endOfYearDate,
+              endOfYearDate,
+              origin,
+              moveDescription,
+              false,
+              moveStatus);
+
+      if (closeYearMove == null) {
+        return null;
+      }
+      moveList.add(closeYearMove);
+    }
+
+    if (openYear) {
+      openYearMove =
+          generateConsolidatedCloseOrOpenAnnualAccountMove(
+              account,
+              partnerBalanceMap,
+              reportedBalanceDate,
+              endOfYearDate,
+              origin,
+              moveDescription,
+              true,
+              moveStatus);
+
+      if (openYearMove == null) {
+        return null;
+      }
+      moveList.add(openYearMove);
+    }
+
+    if (closeYearMove != null && openYearMove != null) {
+      reconcile(closeYearMove, openYearMove);
+    }
+
+    return moveList;
+  }
+
   protected Move generateCloseOrOpenAnnualAccountMove(
       Year year,
       Account account,
@@ -262,50 +394,54 @@ public class AccountingCloseAnnualServiceImpl implements AccountingCloseAnnualSe
       Integer moveStatus)
       throws AxelorException {
 
-    Company company = account.getCompany();
+    BigDecimal balance = computeBalance(year, account, partner, allocatePerPartner);
 
-    AccountConfig accountConfig = accountConfigService.getAccountConfig(company);
+    return generateCloseOrOpenAnnualAccountMove(
+        account,
+        moveDate,
+        originDate,
+        origin,
+        moveDescription,
+        partner,
+        balance,
+        isReverse,
+        moveStatus);
+  }
 
-    BigDecimal balance = computeBalance(year, account, partner, allocatePerPartner);
+  protected Move generateCloseOrOpenAnnualAccountMove(
+      Account account,
+      LocalDate moveDate,
+      LocalDate originDate,
+      String origin,
+      String moveDescription,
+      Partner partner,
+      BigDecimal balance,
+      boolean isReverse,
+      Integer moveStatus)
+      throws AxelorException {
 
     if (balance.compareTo(BigDecimal.ZERO) == 0) {
       return null;
     }
 
-    Integer functionalOriginSelect = null;
-
     if (isReverse) {
       balance = balance.negate();
-      functionalOriginSelect = MoveRepository.FUNCTIONAL_ORIGIN_OPENING;
-    } else {
-      functionalOriginSelect = MoveRepository.FUNCTIONAL_ORIGIN_CLOSURE;
     }
 
-    BankDetails companyBankDetails = null;
-    if (company != null) {
-      companyBankDetails =
-          bankDetailsService.getDefaultCompanyBankDetails(company, null, partner, null);
-    }
+    Company company = account.getCompany();
+
+    AccountConfig accountConfig = accountConfigService.getAccountConfig(company);
 
     Move move =
-        moveCreateService.createMove(
-            accountConfigService.getReportedBalanceJournal(accountConfig),
+        createCloseOrOpenAnnualMove(
+            accountConfig,
             company,
-            company.getCurrency(),
             partner,
             moveDate,
             originDate,
-            null,
-            partner != null ? partner.getFiscalPosition() : null,
-            null,
-            MoveRepository.TECHNICAL_ORIGIN_AUTOMATIC,
-            functionalOriginSelect,
-            false,
-            false,
-            !isReverse,
             origin,
             moveDescription,
-            companyBankDetails);
+            isReverse);
     counter = 0;
 
     this.generateCloseOrOpenAnnualMoveLine(
@@ -319,6 +455,120 @@ public class AccountingCloseAnnualServiceImpl implements AccountingCloseAnnualSe
         originDate,
         balance);
 
+    return validateCloseOrOpenAnnualMove(move, accountConfig, moveStatus);
+  }
+
+  /**
+   * Generate a single closure or opening move for the account, with one line per partner balance
+   * and one counterpart line on the year closure or opening account.
+   */
+  protected Move generateConsolidatedCloseOrOpenAnnualAccountMove(
+      Account account,
+      Map<Partner, BigDecimal> partnerBalanceMap,
+      LocalDate moveDate,
+      LocalDate originDate,
+      String origin,
+      String moveDescription,
+      boolean isReverse,
+      Integer moveStatus)
+      throws AxelorException {
+
+    if (partnerBalanceMap.values().stream().allMatch(balance -> balance.signum() == 0)) {
+      return null;
+    }
+
+    Company company = account.getCompany();
+
+    AccountConfig accountConfig = accountConfigService.getAccountConfig(company);
+
+    Move move =
+        createCloseOrOpenAnnualMove(
+            accountConfig, company, null, moveDate, originDate, origin, moveDescription, isReverse);
+    counter = 0;
+
+    BigDecimal total = BigDecimal.ZERO;
+
+    for (Map.Entry<Partner, BigDecimal> partnerBalance : partnerBalanceMap.entrySet()) {
+      BigDecimal balance = partnerBalance.getValue();
+
+      if (balance.signum() == 0) {
+        continue;
+      }
+
+      if (isReverse) {
+        balance = balance.negate();
+      }
+
+      this.generateCloseOrOpenAnnualMoveLine(
+          move,
+          partnerBalance.getKey(),
+          origin,
+          account,
+          moveDescription,
+          originDate,
+          balance.negate());
+      total = total.add(balance);
+    }
+
+    if (total.signum() != 0) {
+      this.generateCloseOrOpenAnnualMoveLine(
+          move,
+          null,
+          origin,
+          getYearClosureOrOpeningAccount(accountConfig, isReverse),
+          moveDescription,
+          originDate,
+          total);
+    }
+
+    return validateCloseOrOpenAnnualMove(move, accountConfig, moveStatus);
+  }
+
+  protected Move createCloseOrOpenAnnualMove(
+      AccountConfig accountConfig,
+      Company company,
+      Partner partner,
+      LocalDate moveDate,
+      LocalDate originDate,
+      String origin,
+      String moveDescription,
+      boolean isReverse)
+      throws AxelorException {
+
+    Integer functionalOriginSelect =
+        isReverse
+            ? MoveRepository.FUNCTIONAL_ORIGIN_OPENING
+            : MoveRepository.FUNCTIONAL_ORIGIN_CLOSURE;
+
+    BankDetails companyBankDetails = null;
+    if (company != null) {
+      companyBankDetails =
+          bankDetailsService.getDefaultCompanyBankDetails(company, null, partner, null);
+    }
+
+    return moveCreateService.createMove(
+        accountConfigService.getReportedBalanceJournal(accountConfig),
+        company,
+        company.getCurrency(),
+        partner,
+        moveDate,
+        originDate,
+        null,
+        partner != null ? partner.getFiscalPosition() : null,
+        null,
+        MoveRepository.TECHNICAL_ORIGIN_AUTOMATIC,
+        functionalOriginSelect,
+        false,
+        false,
+        !isReverse,
+        origin,
+        moveDescription,
+        companyBankDetails);
+  }
+
+  protected Move validateCloseOrOpenAnnualMove(
+      Move move, AccountConfig accountConfig, Integer moveStatus) throws AxelorException {
+
     if (move.getMoveLineList() != null
         && !move.getMoveLineList().isEmpty()
         && move.getJournal() != null) {
@@ -359,12 +609,25 @@ public class AccountingCloseAnnualServiceImpl implements AccountingCloseAnnualSe
       LocalDate originDate,
       BigDecimal balance)
       throws AxelorException {
+    return generateCloseOrOpenAnnualMoveLine(
+        move, move.getPartner(), origin, account, moveDescription, originDate, balance);
+  }
+
+  protected MoveLine generateCloseOrOpenAnnualMoveLine(
+      Move move,
+      Partner partner,
+      String origin,
+      Account account,
+      String moveDescription,
+      LocalDate originDate,
+      BigDecimal balance)
+      throws AxelorException {
     LocalDate moveDate = move.getDate();
 
     MoveLine moveLine =
         moveLineCreateService.createMoveLine(
             move,
-            move.getPartner(),
+            partner,
             account,
             balance.abs(),
             balance.abs(),
@@ -421,6 +684,64 @@ public class AccountingCloseAnnualServiceImpl implements AccountingCloseAnnualSe
     }
   }
 
+  @Override
+  public Map<Pair<Long, Long>, BigDecimal> computeBalanceMap(
+      Year year, List<Long> accountIdList, boolean allocatePerPartner) {
+
+    Map<Pair<Long, Long>, BigDecimal> balanceMap = new LinkedHashMap<>();
+
+    if (CollectionUtils.isEmpty(accountIdList)) {
+      return balanceMap;
+    }
+
+    Set<Long> partnerBalanceAccountIdSet =
+        allocatePerPartner ? getPartnerBalanceAccountIdSet(accountIdList) : Collections.emptySet();
+
+    TypedQuery<Object[]> q =
+        JPA.em()
+            .createQuery(
+                "select self.account.id, partner.id, SUM(self.debit - self.credit) "
+                    + "FROM MoveLine as self LEFT JOIN self.partner as partner "
+                    + "WHERE self.move.ignoreInAccountingOk = false AND self.move.period.year = ?1 "
+                    + "AND self.account.id in (?2) AND self.move.statusSelect = ?3 "
+                    + "AND self.move.autoYearClosureMove is not true "
+                    + "GROUP BY self.account.id, partner.id "
+                    + "ORDER BY self.account.id, partner.id",
+                Object[].class);
+    q.setParameter(1, year);
+    q.setParameter(2, accountIdList);
+    q.setParameter(3, MoveRepository.STATUS_ACCOUNTED);
+
+    try (Stream<Object[]> resultStream = q.getResultStream()) {
+      resultStream.forEach(
+          row -> {
+            Long accountId = (Long) row[0];
+            Long partnerId = partnerBalanceAccountIdSet.contains(accountId) ? (Long) row[1] : null;
+            BigDecimal balance = row[2] != null ? (BigDecimal) row[2] : BigDecimal.ZERO;
+            balanceMap.merge(Pair.of(accountId, partnerId), balance, BigDecimal::add);
+          });
+    }
+
+    LOG.debug(
+        "{} balances computed for {} accounts and the year : {}",
+        balanceMap.size(),
+        accountIdList.size(),
+        year.getCode());
+
+    return balanceMap;
+  }
+
+  protected Set<Long> getPartnerBalanceAccountIdSet(List<Long> accountIdList) {
+    return new HashSet<>(
+        JPA.em()
+            .createQuery(
+                "select self.id FROM Account as self "
+                    + "WHERE self.id in (?1) AND self.useForPartnerBalance = true",
+                Long.class)
+            .setParameter(1, accountIdList)
+            .getResultList());
+  }
+
   protected void reconcile(Move move, Move reverseMove) throws AxelorException {
 
     List<MoveLine> moveLineSortedList = move.getMoveLineList();
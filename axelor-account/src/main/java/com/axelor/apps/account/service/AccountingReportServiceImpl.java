@@ -89,6 +89,7 @@ public class AccountingReportServiceImpl implements AccountingReportService {
   protected TaxPaymentMoveLineRepository taxPaymentMoveLineRepo;
   protected FixedAssetRepository fixedAssetRepo;
   protected AnalyticMoveLineRepository analyticMoveLineRepo;
+  protected AccountingReportStreamService accountingReportStreamService;
 
   protected String query = "";
   protected List<Object> params = new ArrayList<>();
@@ -112,7 +113,8 @@ public class AccountingReportServiceImpl implements AccountingReportService {
       MoveLineRepository moveLineRepo,
       TaxPaymentMoveLineRepository taxPaymentMoveLineRepo,
       FixedAssetRepository fixedAssetRepo,
-      AnalyticMoveLineRepository analyticMoveLineRepo) {
+      AnalyticMoveLineRepository analyticMoveLineRepo,
+      AccountingReportStreamService accountingReportStreamService) {
     this.accountingReportRepo = accountingReportRepo;
     this.appAccountService = appAccountService;
     this.appBaseService = appBaseService;
@@ -128,6 +130,7 @@ public class AccountingReportServiceImpl implements AccountingReportService {
     this.taxPaymentMoveLineRepo = taxPaymentMoveLineRepo;
     this.fixedAssetRepo = fixedAssetRepo;
     this.analyticMoveLineRepo = analyticMoveLineRepo;
+    this.accountingReportStreamService = accountingReportStreamService;
   }
 
   @Override
@@ -140,6 +143,10 @@ public class AccountingReportServiceImpl implements AccountingReportService {
             == AccountingReportRepository.REPORT_CUSTOM_STATE
         && !accountingReport.getReportType().getUseLegacyCustomReports()) {
       fileLink = accountingReportPrintService.printCustomReport(accountingReport);
+    } else if (accountingReportStreamService.isStreamable(accountingReport)) {
+      fileLink =
+          accountingReportStreamService.print(
+              accountingReport, this.getMoveLineList(accountingReport));
     } else {
       fileLink = accountingReportPrintService.print(accountingReport);
     }
@@ -696,7 +703,9 @@ public class AccountingReportServiceImpl implements AccountingReportService {
 
   @Override
   public boolean areThereTooManyLines(AccountingReport accountingReport) throws AxelorException {
-    if (accountingReport == null || accountingReport.getReportType() == null) {
+    if (accountingReport == null
+        || accountingReport.getReportType() == null
+        || accountingReportStreamService.isStreamable(accountingReport)) {
       return false;
     }
 
@@ -0,0 +1,48 @@
+/*
+ * Axelor Business Solutions
+ *
+ * Copyright (C) 2005-2025 Axelor (<http://axelor.com>).
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.axelor.apps.account.service;
+
+import com.axelor.apps.account.db.AccountingReport;
+import com.axelor.apps.base.AxelorException;
+import java.io.IOException;
+
+/**
+ * Generates the general ledger, general balance and partner balance reports by streaming the move
+ * lines from the database and writing the output file row by row, instead of going through the
+ * report engine.
+ */
+public interface AccountingReportStreamService {
+
+  /**
+   * @return true if the report type and export format of the accounting report can be generated
+   *     by this service.
+   */
+  boolean isStreamable(AccountingReport accountingReport);
+
+  /**
+   * Generate the report file and attach it to the accounting report.
+   *
+   * @param accountingReport the report to print
+   * @param moveLineDomain the filter on the move lines of the report, see {@link
+   *     AccountingReportService#getMoveLineList(AccountingReport)}
+   * @return the link to download the generated file
+   */
+  String print(AccountingReport accountingReport, String moveLineDomain)
+      throws AxelorException, IOException;
+}
@@ -0,0 +1,631 @@
+/*
+ * Axelor Business Solutions
+ *
+ * Copyright (C) 2005-2025 Axelor (<http://axelor.com>).
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.axelor.apps.account.service;
+
+import com.axelor.apps.account.db.AccountingReport;
+import com.axelor.apps.account.db.repo.AccountingReportRepository;
+import com.axelor.apps.account.db.repo.MoveRepository;
+import com.axelor.apps.account.exception.AccountExceptionMessage;
+import com.axelor.apps.base.AxelorException;
+import com.axelor.apps.base.db.Tag;
+import com.axelor.apps.base.db.repo.TraceBackRepository;
+import com.axelor.apps.base.service.app.AppBaseService;
+import com.axelor.db.JPA;
+import com.axelor.db.Model;
+import com.axelor.i18n.I18n;
+import com.axelor.meta.MetaFiles;
+import com.axelor.meta.MetaStore;
+import com.axelor.meta.db.MetaFile;
+import com.axelor.meta.db.MetaSelectItem;
+import com.google.inject.Inject;
+import com.google.inject.persist.Transactional;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.invoke.MethodHandles;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.persistence.TypedQuery;
+import org.apache.commons.collections.CollectionUtils;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Font;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class AccountingReportStreamServiceImpl implements AccountingReportStreamService {
+
+  private final Logger log = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+  protected static final String EXPORT_TYPE_XLSX = "xlsx";
+
+  /** Number of rows kept in memory by the workbook, older rows are flushed to disk. */
+  protected static final int ROW_ACCESS_WINDOW_SIZE = 500;
+
+  /** Number of rows fetched from the database at once while iterating on the result. */
+  protected static final int FETCH_SIZE = 1000;
+
+  /** Number of parent accounts whose tags are inherited, as in the report templates. */
+  protected static final int ACCOUNT_HIERARCHY_DEPTH = 7;
+
+  protected static final String MOVE_STATUS_SELECTION = "iaccount.move.status.select";
+
+  protected static final List<Integer> STREAMABLE_REPORT_TYPES =
+      List.of(
+          AccountingReportRepository.REPORT_GENERAL_LEDGER,
+          AccountingReportRepository.REPORT_GENERAL_LEDGER2,
+          AccountingReportRepository.REPORT_GENERAL_BALANCE,
+          AccountingReportRepository.REPORT_PARNER_BALANCE);
+
+  protected AccountingReportRepository accountingReportRepository;
+  protected AccountingReportPrintService accountingReportPrintService;
+  protected AppBaseService appBaseService;
+  protected MetaFiles metaFiles;
+
+  @Inject
+  public AccountingReportStreamServiceImpl(
+      AccountingReportRepository accountingReportRepository,
+      AccountingReportPrintService accountingReportPrintService,
+      AppBaseService appBaseService,
+      MetaFiles metaFiles) {
+    this.accountingReportRepository = accountingReportRepository;
+    this.accountingReportPrintService = accountingReportPrintService;
+    this.appBaseService = appBaseService;
+    this.metaFiles = metaFiles;
+  }
+
+  @Override
+  public boolean isStreamable(AccountingReport accountingReport) {
+    if (accountingReport.getReportType() == null
+        || accountingReport.getReportType().getTemplate() != null
+        || !EXPORT_TYPE_XLSX.equals(accountingReport.getExportTypeSelect())) {
+      return false;
+    }
+
+    int typeSelect = accountingReport.getReportType().getTypeSelect();
+
+    return STREAMABLE_REPORT_TYPES.contains(typeSelect)
+        && !(typeSelect == AccountingReportRepository.REPORT_GENERAL_BALANCE
+            && accountingReport.getIsComparativeBalance());
+  }
+
+  @Override
+  @Transactional(rollbackOn = {Exception.class})
+  public String print(AccountingReport accountingReport, String moveLineDomain)
+      throws AxelorException, IOException {
+
+    accountingReport.setPublicationDateTime(appBaseService.getTodayDateTime());
+    accountingReportRepository.save(accountingReport);
+
+    String fileName = accountingReportPrintService.computeName(accountingReport) + ".xlsx";
+    File file = MetaFiles.createTempFile(null, ".xlsx").toFile();
+
+    SXSSFWorkbook workbook = new SXSSFWorkbook(ROW_ACCESS_WINDOW_SIZE);
+    try {
+      SheetWriter writer =
+          new SheetWriter(workbook, accountingReport.getReportType().getName());
+
+      int typeSelect = accountingReport.getReportType().getTypeSelect();
+      String moveLineFilter = getMoveLineFilter(accountingReport, moveLineDomain);
+
+      switch (typeSelect) {
+        case AccountingReportRepository.REPORT_GENERAL_BALANCE:
+          writeGeneralBalance(writer, moveLineFilter);
+          break;
+        case AccountingReportRepository.REPORT_PARNER_BALANCE:
+          writePartnerBalance(writer, moveLineFilter);
+          break;
+        case AccountingReportRepository.REPORT_GENERAL_LEDGER:
+          writeGeneralLedger(writer, moveLineFilter);
+          break;
+        case AccountingReportRepository.REPORT_GENERAL_LEDGER2:
+          writeGeneralLedger2(writer, moveLineFilter);
+          break;
+        default:
+          throw new AxelorException(
+              accountingReport,
+              TraceBackRepository.CATEGORY_INCONSISTENCY,
+              I18n.get(AccountExceptionMessage.ACCOUNTING_REPORT_NOT_STREAMABLE));
+      }
+
+      try (OutputStream os = new FileOutputStream(file)) {
+        workbook.write(os);
+      }
+    } finally {
+      workbook.dispose();
+      workbook.close();
+    }
+
+    MetaFile metaFile;
+    try (InputStream is = new FileInputStream(file)) {
+      metaFile = metaFiles.attach(is, fileName, accountingReport).getMetaFile();
+    } finally {
+      Files.deleteIfExists(file.toPath());
+    }
+
+    return "ws/rest/com.axelor.meta.db.MetaFile/"
+        + metaFile.getId()
+        + "/content/download?v="
+        + metaFile.getVersion();
+  }
+
+  /**
+   * Add to the move line domain the filters which are applied by the report templates and not by
+   * the domain: opening and closing moves, account and partner tags, and the filters specific to
+   * each report type.
+   */
+  protected String getMoveLineFilter(AccountingReport accountingReport, String moveLineDomain) {
+    int typeSelect = accountingReport.getReportType().getTypeSelect();
+    List<String> filterList = new ArrayList<>();
+    filterList.add("(" + moveLineDomain + ")");
+
+    if (!accountingReport.getDisplayClosingAccountingMoves()) {
+      filterList.add(
+          "(self.move.functionalOriginSelect IS NULL OR self.move.functionalOriginSelect != "
+              + MoveRepository.FUNCTIONAL_ORIGIN_CLOSURE
+              + ")");
+    }
+    if (!accountingReport.getDisplayOpeningAccountingMoves()) {
+      filterList.add(
+          "(self.move.functionalOriginSelect IS NULL OR self.move.functionalOriginSelect != "
+              + MoveRepository.FUNCTIONAL_ORIGIN_OPENING
+              + ")");
+    }
+
+    if (CollectionUtils.isNotEmpty(accountingReport.getAccountTagSet())) {
+      Set<Long> accountIdSet =
+          getTaggedAccountIds(
+              accountingReport.getAccountTagSet(),
+              typeSelect != AccountingReportRepository.REPORT_GENERAL_LEDGER2);
+      filterList.add(
+          accountIdSet.isEmpty() ? "1 = 0" : "self.account.id IN (" + joinIds(accountIdSet) + ")");
+    }
+    if (CollectionUtils.isNotEmpty(accountingReport.getPartnerTagSet())) {
+      filterList.add(
+          "self.partner.id IN (SELECT taggedPartner.id FROM Partner taggedPartner"
+              + " JOIN taggedPartner.tagSet partnerTag WHERE partnerTag.id IN ("
+              + joinIds(getIds(accountingReport.getPartnerTagSet()))
+              + "))");
+    }
+
+    if (typeSelect == AccountingReportRepository.REPORT_PARNER_BALANCE) {
+      filterList.add("self.account.useForPartnerBalance IS TRUE");
+    }
+    if (typeSelect == AccountingReportRepository.REPORT_GENERAL_LEDGER
+        && accountingReport.getDisplayOnlyNotCompletelyLetteredMoveLines()) {
+      filterList.add("self.amountRemaining != 0");
+    }
+
+    return String.join(" AND ", filterList);
+  }
+
+  /**
+   * Get the ids of the accounts carrying one of the tags, and of their sub-accounts when the tags
+   * of the parent accounts are inherited, down to the depth handled by the report templates.
+   */
+  protected Set<Long> getTaggedAccountIds(Set<Tag> tagSet, boolean includeSubAccounts) {
+    Set<Long> accountIdSet =
+        new HashSet<>(
+            JPA.em()
+                .createQuery(
+                    "SELECT DISTINCT account.id FROM Account account JOIN account.tagSet tag"
+                        + " WHERE tag.id IN :tagIds",
+                    Long.class)
+                .setParameter("tagIds", getIds(tagSet))
+                .getResultList());
+
+    if (!includeSubAccounts) {
+      return accountIdSet;
+    }
+
+    Set<Long> parentIdSet = accountIdSet;
+    for (int depth = 0; depth < ACCOUNT_HIERARCHY_DEPTH && !parentIdSet.isEmpty(); depth++) {
+      parentIdSet =
+          new HashSet<>(
+              JPA.em()
+                  .createQuery(
+                      "SELECT account.id FROM Account account"
+                          + " WHERE account.parentAccount.id IN :parentIds",
+                      Long.class)
+                  .setParameter("parentIds", parentIdSet)
+                  .getResultList());
+      parentIdSet.removeAll(accountIdSet);
+      accountIdSet.addAll(parentIdSet);
+    }
+    return accountIdSet;
+  }
+
+  protected Set<Long> getIds(Set<? extends Model> modelSet) {
+    return modelSet.stream().map(Model::getId).collect(Collectors.toSet());
+  }
+
+  protected String joinIds(Set<Long> idSet) {
+    return idSet.stream().map(String::valueOf).collect(Collectors.joining(","));
+  }
+
+  /**
+   * Write the move lines ordered by account with the running balance of the account, a subtotal
+   * at each account change and a grand total, with the columns of the general ledger template.
+   */
+  protected void writeGeneralLedger(SheetWriter writer, String moveLineFilter) {
+    writer.writeHeader(
+        I18n.get("Account code"),
+        I18n.get("Account name"),
+        I18n.get("Date"),
+        I18n.get("Journal"),
+        I18n.get("Move"),
+        I18n.get("Move line"),
+        I18n.get("Origin"),
+        I18n.get("Origin date"),
+        I18n.get("Partner"),
+        I18n.get("Description"),
+        I18n.get("Due date"),
+        I18n.get("Lettering"),
+        I18n.get("Status"),
+        I18n.get("Amount in move currency"),
+        I18n.get("Currency"),
+        I18n.get("Currency rate"),
+        I18n.get("Debit"),
+        I18n.get("Credit"),
+        I18n.get("Balance"));
+
+    String query =
+        "SELECT self.accountCode, self.accountName, self.date, journal.code, move.reference, "
+            + "self.name, self.origin, self.originDate, self.partnerSeq, self.partnerFullName, "
+            + "self.description, self.dueDate, reconcileGroup.code, move.statusSelect, "
+            + "self.currencyAmount, move.currencyCode, self.currencyRate, self.debit, self.credit "
+            + "FROM MoveLine self JOIN self.move move LEFT JOIN move.journal journal "
+            + "LEFT JOIN self.reconcileGroup reconcileGroup "
+            + "WHERE "
+            + moveLineFilter
+            + " ORDER BY self.accountCode, self.accountName, self.date, self.name, self.id";
+
+    Map<Object, String> statusTitleMap = new HashMap<>();
+    writeLedger(
+        writer,
+        query,
+        row ->
+            new Object[] {
+              row[0],
+              row[1],
+              row[2],
+              row[3],
+              row[4],
+              row[5],
+              row[6],
+              row[7],
+              row[8] != null ? row[8] + " - " + row[9] : row[9],
+              row[10],
+              row[11],
+              row[12],
+              statusTitleMap.computeIfAbsent(row[13], this::getMoveStatusTitle),
+              row[14],
+              row[15],
+              row[16]
+            });
+  }
+
+  /** Write the move lines with the columns of the general ledger by partner template. */
+  protected void writeGeneralLedger2(SheetWriter writer, String moveLineFilter) {
+    writer.writeHeader(
+        I18n.get("Account code"),
+        I18n.get("Account name"),
+        I18n.get("Date"),
+        I18n.get("Move line"),
+        I18n.get("Description"),
+        I18n.get("Partner code"),
+        I18n.get("Partner"),
+        I18n.get("Debit"),
+        I18n.get("Credit"),
+        I18n.get("Balance"));
+
+    String query =
+        "SELECT self.accountCode, self.accountName, self.date, self.name, self.description, "
+            + "self.partnerSeq, self.partnerFullName, self.debit, self.credit "
+            + "FROM MoveLine self "
+            + "WHERE "
+            + moveLineFilter
+            + " ORDER BY self.accountCode, self.accountName, self.date, self.id";
+
+    writeLedger(writer, query, row -> Arrays.copyOf(row, row.length - 2));
+  }
+
+  /**
+   * Write ledger rows whose query starts with the account code and name and ends with the debit
+   * and credit. The balance column is the running balance of the account.
+   */
+  protected void writeLedger(
+      SheetWriter writer, String query, Function<Object[], Object[]> rowValuesFunction) {
+    Totals accountTotals = new Totals();
+    Totals grandTotals = new Totals();
+    String currentAccountCode = null;
+    boolean first = true;
+
+    try (Stream<Object[]> resultStream = stream(query)) {
+      for (Object[] row : (Iterable<Object[]>) resultStream::iterator) {
+        String accountCode = (String) row[0];
+
+        if (!first && !Objects.equals(currentAccountCode, accountCode)) {
+          writer.writeTotal(I18n.get("Total") + " " + currentAccountCode, accountTotals, true);
+          accountTotals = new Totals();
+        }
+        first = false;
+        currentAccountCode = accountCode;
+
+        BigDecimal debit = (BigDecimal) row[row.length - 2];
+        BigDecimal credit = (BigDecimal) row[row.length - 1];
+        accountTotals.add(debit, credit);
+        grandTotals.add(debit, credit);
+
+        Object[] values = rowValuesFunction.apply(row);
+        Object[] cells = Arrays.copyOf(values, values.length + 3);
+        cells[values.length] = debit;
+        cells[values.length + 1] = credit;
+        cells[values.length + 2] = accountTotals.getBalance();
+        writer.writeRow(cells);
+      }
+    }
+
+    if (!first) {
+      writer.writeTotal(I18n.get("Total") + " " + currentAccountCode, accountTotals, true);
+    }
+    writer.writeTotal(I18n.get("General total"), grandTotals, true);
+  }
+
+  protected String getMoveStatusTitle(Object statusSelect) {
+    if (statusSelect == null) {
+      return null;
+    }
+    MetaSelectItem item =
+        MetaStore.getSelectionItem(MOVE_STATUS_SELECTION, statusSelect.toString());
+    return item != null ? I18n.get(item.getTitle()) : statusSelect.toString();
+  }
+
+  /** Write the debit, credit and balance of each account in one grouped query. */
+  protected void writeGeneralBalance(SheetWriter writer, String moveLineFilter) {
+    writer.writeHeader(
+        I18n.get("Account code"),
+        I18n.get("Account name"),
+        I18n.get("Debit"),
+        I18n.get("Credit"),
+        I18n.get("Debit balance"),
+        I18n.get("Credit balance"));
+
+    String query =
+        "SELECT self.accountCode, self.accountName, SUM(self.debit), SUM(self.credit) "
+            + "FROM MoveLine self "
+            + "WHERE "
+            + moveLineFilter
+            + " GROUP BY self.accountCode, self.accountName "
+            + "ORDER BY self.accountCode, self.accountName";
+
+    Totals grandTotals = new Totals();
+
+    try (Stream<Object[]> resultStream = stream(query)) {
+      for (Object[] row : (Iterable<Object[]>) resultStream::iterator) {
+        Totals accountTotals = new Totals();
+        accountTotals.add((BigDecimal) row[2], (BigDecimal) row[3]);
+        grandTotals.add((BigDecimal) row[2], (BigDecimal) row[3]);
+
+        writer.writeRow(
+            row[0],
+            row[1],
+            accountTotals.debit,
+            accountTotals.credit,
+            accountTotals.getDebitBalance(),
+            accountTotals.getCreditBalance());
+      }
+    }
+
+    writer.writeTotal(I18n.get("General total"), grandTotals, false);
+  }
+
+  /** Write the debit, credit and balance of each partner by account, with account subtotals. */
+  protected void writePartnerBalance(SheetWriter writer, String moveLineFilter) {
+    writer.writeHeader(
+        I18n.get("Account code"),
+        I18n.get("Account name"),
+        I18n.get("Partner"),
+        I18n.get("Debit"),
+        I18n.get("Credit"),
+        I18n.get("Debit balance"),
+        I18n.get("Credit balance"));
+
+    String query =
+        "SELECT self.accountCode, self.accountName, partner.fullName, "
+            + "SUM(self.debit), SUM(self.credit) "
+            + "FROM MoveLine self LEFT JOIN self.partner partner "
+            + "WHERE "
+            + moveLineFilter
+            + " GROUP BY self.accountCode, self.accountName, partner.id, partner.fullName "
+            + "ORDER BY self.accountCode, self.accountName, partner.fullName, partner.id";
+
+    Totals accountTotals = new Totals();
+    Totals grandTotals = new Totals();
+    String currentAccountCode = null;
+    boolean first = true;
+
+    try (Stream<Object[]> resultStream = stream(query)) {
+      for (Object[] row : (Iterable<Object[]>) resultStream::iterator) {
+        String accountCode = (String) row[0];
+
+        if (!first && !Objects.equals(currentAccountCode, accountCode)) {
+          writer.writeTotal(I18n.get("Total") + " " + currentAccountCode, accountTotals, false);
+          accountTotals = new Totals();
+        }
+        first = false;
+        currentAccountCode = accountCode;
+
+        Totals partnerTotals = new Totals();
+        partnerTotals.add((BigDecimal) row[3], (BigDecimal) row[4]);
+        accountTotals.add(partnerTotals.debit, partnerTotals.credit);
+        grandTotals.add(partnerTotals.debit, partnerTotals.credit);
+
+        writer.writeRow(
+            row[0],
+            row[1],
+            row[2],
+            partnerTotals.debit,
+            partnerTotals.credit,
+            partnerTotals.getDebitBalance(),
+            partnerTotals.getCreditBalance());
+      }
+    }
+
+    if (!first) {
+      writer.writeTotal(I18n.get("Total") + " " + currentAccountCode, accountTotals, false);
+    }
+    writer.writeTotal(I18n.get("General total"), grandTotals, false);
+  }
+
+  protected Stream<Object[]> stream(String query) {
+    log.debug("Streaming accounting report query : {}", query);
+
+    TypedQuery<Object[]> typedQuery = JPA.em().createQuery(query, Object[].class);
+    typedQuery.setHint("org.hibernate.fetchSize", FETCH_SIZE);
+    typedQuery.setHint("org.hibernate.readOnly", true);
+    return typedQuery.getResultStream();
+  }
+
+  protected static class Totals {
+    protected BigDecimal debit = BigDecimal.ZERO;
+    protected BigDecimal credit = BigDecimal.ZERO;
+
+    protected void add(BigDecimal debit, BigDecimal credit) {
+      this.debit = this.debit.add(debit != null ? debit : BigDecimal.ZERO);
+      this.credit = this.credit.add(credit != null ? credit : BigDecimal.ZERO);
+    }
+
+    protected BigDecimal getBalance() {
+      return debit.subtract(credit);
+    }
+
+    protected BigDecimal getDebitBalance() {
+      return getBalance().max(BigDecimal.ZERO);
+    }
+
+    protected BigDecimal getCreditBalance() {
+      return getBalance().negate().max(BigDecimal.ZERO);
+    }
+  }
+
+  /** Appends rows to a sheet of a streaming workbook. */
+  protected static class SheetWriter {
+    protected final SXSSFSheet sheet;
+    protected final CellStyle boldStyle;
+    protected final CellStyle dateStyle;
+    protected final CellStyle amountStyle;
+    protected final CellStyle boldAmountStyle;
+    protected int rowIndex = 0;
+    protected int columnCount = 0;
+
+    protected SheetWriter(SXSSFWorkbook workbook, String sheetName) {
+      this.sheet = workbook.createSheet(sheetName);
+
+      Font boldFont = workbook.createFont();
+      boldFont.setBold(true);
+
+      boldStyle = workbook.createCellStyle();
+      boldStyle.setFont(boldFont);
+
+      dateStyle = workbook.createCellStyle();
+      dateStyle.setDataFormat(workbook.createDataFormat().getFormat("yyyy-mm-dd"));
+
+      amountStyle = workbook.createCellStyle();
+      amountStyle.setDataFormat(workbook.createDataFormat().getFormat("#,##0.00"));
+
+      boldAmountStyle = workbook.createCellStyle();
+      boldAmountStyle.cloneStyleFrom(amountStyle);
+      boldAmountStyle.setFont(boldFont);
+    }
+
+    protected void writeHeader(String... titles) {
+      columnCount = titles.length;
+      Row row = sheet.createRow(rowIndex++);
+      for (int i = 0; i < titles.length; i++) {
+        Cell cell = row.createCell(i);
+        cell.setCellValue(titles[i]);
+        cell.setCellStyle(boldStyle);
+      }
+      sheet.createFreezePane(0, 1);
+    }
+
+    protected void writeRow(Object... values) {
+      Row row = sheet.createRow(rowIndex++);
+      for (int i = 0; i < values.length; i++) {
+        setCellValue(row.createCell(i), values[i], false);
+      }
+    }
+
+    /**
+     * Write a total row, with the debit and credit followed either by the balance or by the debit
+     * and credit balances, aligned on the last columns of the header.
+     */
+    protected void writeTotal(String label, Totals totals, boolean singleBalance) {
+      Row row = sheet.createRow(rowIndex++);
+      Cell labelCell = row.createCell(0);
+      labelCell.setCellValue(label);
+      labelCell.setCellStyle(boldStyle);
+
+      Object[] amounts =
+          singleBalance
+              ? new Object[] {totals.debit, totals.credit, totals.getBalance()}
+              : new Object[] {
+                totals.debit, totals.credit, totals.getDebitBalance(), totals.getCreditBalance()
+              };
+      int firstColumn = columnCount - amounts.length;
+      for (int i = 0; i < amounts.length; i++) {
+        setCellValue(row.createCell(firstColumn + i), amounts[i], true);
+      }
+    }
+
+    protected void setCellValue(Cell cell, Object value, boolean bold) {
+      if (value == null) {
+        return;
+      }
+      if (value instanceof BigDecimal) {
+        cell.setCellValue(((BigDecimal) value).doubleValue());
+        cell.setCellStyle(bold ? boldAmountStyle : amountStyle);
+      } else if (value instanceof LocalDate) {
+        cell.setCellValue(java.sql.Date.valueOf((LocalDate) value));
+        cell.setCellStyle(dateStyle);
+      } else {
+        cell.setCellValue(value.toString());
+      }
+    }
+  }
+}
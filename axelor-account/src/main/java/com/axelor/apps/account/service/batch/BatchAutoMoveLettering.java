@@ -27,14 +27,18 @@ import com.axelor.apps.account.db.repo.MoveRepository;
 import com.axelor.apps.account.exception.AccountExceptionMessage;
 import com.axelor.apps.account.service.move.MoveLineControlService;
 import com.axelor.apps.account.service.payment.PaymentService;
+import com.axelor.apps.account.service.reconcile.ReconcileCoordinatorService;
 import com.axelor.apps.account.service.reconcile.ReconcileService;
 import com.axelor.apps.account.service.reconcilegroup.ReconcileGroupProposalService;
 import com.axelor.apps.base.AxelorException;
+import com.axelor.apps.base.db.Batch;
 import com.axelor.apps.base.db.Partner;
 import com.axelor.apps.base.db.repo.CompanyRepository;
 import com.axelor.apps.base.db.repo.ExceptionOriginRepository;
 import com.axelor.apps.base.service.exception.TraceBackService;
+import com.axelor.apps.base.service.parallel.ParallelProcessService;
 import com.axelor.db.JPA;
+import com.axelor.db.Model;
 import com.axelor.db.Query;
 import com.axelor.i18n.I18n;
 import com.google.inject.Inject;
@@ -45,10 +49,13 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Comparator;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import org.apache.commons.collections.CollectionUtils;
@@ -70,7 +77,11 @@ public class BatchAutoMoveLettering extends BatchStrategy {
   protected ReconcileGroupProposalService reconcileGroupProposalService;
 
   protected AccountingBatch accountingBatch;
-  protected Set<MoveLine> moveLineReconciledSet;
+  protected ReconcileCoordinatorService reconcileCoordinatorService;
+  protected ParallelProcessService parallelProcessService;
+
+  protected final Set<Long> moveLineReconciledIdSet = ConcurrentHashMap.newKeySet();
+  protected final AtomicInteger anomalyCount = new AtomicInteger();
 
   @Inject
   public BatchAutoMoveLettering(
@@ -80,7 +91,9 @@ public class BatchAutoMoveLettering extends BatchStrategy {
       MoveLineControlService moveLineControlService,
       PaymentService paymentService,
       ReconcileService reconcileService,
-      ReconcileGroupProposalService reconcileGroupProposalService) {
+      ReconcileGroupProposalService reconcileGroupProposalService,
+      ReconcileCoordinatorService reconcileCoordinatorService,
+      ParallelProcessService parallelProcessService) {
     super();
     this.accountingBatchRepository = accountingBatchRepository;
     this.moveLineRepository = moveLineRepository;
@@ -89,18 +102,22 @@ public class BatchAutoMoveLettering extends BatchStrategy {
     this.paymentService = paymentService;
     this.reconcileService = reconcileService;
     this.reconcileGroupProposalService = reconcileGroupProposalService;
+    this.reconcileCoordinatorService = reconcileCoordinatorService;
+    this.parallelProcessService = parallelProcessService;
   }
 
   @Override
   protected void process() {
     accountingBatch = batch.getAccountingBatch();
-    moveLineReconciledSet = new HashSet<>();
+    Long batchId = batch.getId();
 
     Map<List<Object>, Pair<List<MoveLine>, List<MoveLine>>> moveLineMap = getMoveLinesMap();
 
     int reconcileMethodSelect = accountingBatch.getReconcileMethodSelect();
 
-    for (Pair<List<MoveLine>, List<MoveLine>> moveLineLists : moveLineMap.values()) {
+    List<Runnable> tasks = new ArrayList<>();
+    for (List<Object> moveLineKey : getSortedMoveLineKeys(moveLineMap.keySet())) {
+      Pair<List<MoveLine>, List<MoveLine>> moveLineLists = moveLineMap.get(moveLineKey);
 
       List<MoveLine> companyPartnerCreditMoveLineList =
           moveLineLists.getLeft().stream()
@@ -117,27 +134,100 @@ public class BatchAutoMoveLettering extends BatchStrategy {
         continue;
       }
 
+      Long companyId = getKeyId(moveLineKey, 0);
+      Long accountId = getKeyId(moveLineKey, 1);
+      Long partnerId = getKeyId(moveLineKey, 2);
+      List<Long> debitMoveLineIdList = getIds(companyPartnerDebitMoveLineList);
+      List<Long> creditMoveLineIdList = getIds(companyPartnerCreditMoveLineList);
+
       if (reconcileMethodSelect
           == AccountingBatchRepository.AUTO_MOVE_LETTERING_RECONCILE_BY_BALANCED_MOVE) {
-        List<MoveLine> moveLines =
-            Stream.of(companyPartnerDebitMoveLineList, companyPartnerCreditMoveLineList)
-                .flatMap(Collection::stream)
-                .sorted(getMoveLineComparator())
-                .collect(Collectors.toList());
-        reconcileWithBalancedMove(moveLines);
+        List<Long> moveLineIdList =
+            getIds(
+                Stream.of(companyPartnerDebitMoveLineList, companyPartnerCreditMoveLineList)
+                    .flatMap(Collection::stream)
+                    .sorted(getMoveLineComparator())
+                    .collect(Collectors.toList()));
+        tasks.add(
+            () ->
+                reconcileWithBalancedMove(
+                    batchId, companyId, accountId, partnerId, findMoveLines(moveLineIdList)));
       } else {
-        reconcileWithMethod(
-            companyPartnerDebitMoveLineList,
-            companyPartnerCreditMoveLineList,
-            reconcileMethodSelect);
+        tasks.add(
+            () ->
+                reconcileWithMethod(
+                    batchId,
+                    companyId,
+                    accountId,
+                    partnerId,
+                    findMoveLines(debitMoveLineIdList),
+                    findMoveLines(creditMoveLineIdList),
+                    reconcileMethodSelect));
       }
     }
-    for (MoveLine moveLine : moveLineReconciledSet) {
-      incrementDone();
+
+    try {
+      parallelProcessService.runAll(tasks, parallelProcessService.getDefaultWorkerCount());
+    } catch (AxelorException e) {
+      TraceBackService.trace(e, ExceptionOriginRepository.MOVE_LINE_RECONCILE, batchId);
+      anomalyCount.incrementAndGet();
     }
+
+    LOG.debug(
+        "Reconcile coordinator : {} reconciliations, {} conflicts, {} retries, {} failures",
+        reconcileCoordinatorService.getExecutionCount(),
+        reconcileCoordinatorService.getConflictCount(),
+        reconcileCoordinatorService.getRetryCount(),
+        reconcileCoordinatorService.getFailureCount());
+
+    incrementDone(moveLineReconciledIdSet.size());
+    incrementAnomaly(anomalyCount.get());
+  }
+
+  /**
+   * Sort the keys of the move line map by company, account and partner so that the groups are
+   * always submitted in the same order.
+   */
+  protected List<List<Object>> getSortedMoveLineKeys(Collection<List<Object>> moveLineKeys) {
+    Comparator<Long> idComparator = Comparator.nullsFirst(Comparator.naturalOrder());
+    Comparator<List<Object>> keyComparator =
+        Comparator.comparing((List<Object> key) -> getKeyId(key, 0), idComparator)
+            .thenComparing(key -> getKeyId(key, 1), idComparator)
+            .thenComparing(key -> getKeyId(key, 2), idComparator);
+    return moveLineKeys.stream().sorted(keyComparator).collect(Collectors.toList());
+  }
+
+  protected Long getKeyId(List<Object> moveLineKey, int index) {
+    return index < moveLineKey.size() && moveLineKey.get(index) != null
+        ? ((Model) moveLineKey.get(index)).getId()
+        : null;
   }
 
-  protected void reconcileWithBalancedMove(List<MoveLine> moveLines) {
+  protected List<Long> getIds(List<MoveLine> moveLineList) {
+    return moveLineList.stream().map(MoveLine::getId).collect(Collectors.toList());
+  }
+
+  /**
+   * Load the move lines in the session of the current worker, keeping the order of the given ids.
+   * The lines loaded by the main thread are never shared with the workers.
+   */
+  protected List<MoveLine> findMoveLines(List<Long> moveLineIdList) {
+    Map<Long, MoveLine> moveLineMap =
+        moveLineRepository
+            .all()
+            .filter("self.id IN :ids")
+            .bind("ids", moveLineIdList)
+            .fetch()
+            .stream()
+            .collect(Collectors.toMap(MoveLine::getId, Function.identity()));
+    return moveLineIdList.stream()
+        .map(moveLineMap::get)
+        .filter(Objects::nonNull)
+        .collect(Collectors.toList());
+  }
+
+  protected void reconcileWithBalancedMove(
+      Long batchId, Long companyId, Long accountId, Long partnerId, List<MoveLine> moveLines) {
 
     List<MoveLine> debitMoveLines;
     List<MoveLine> creditMoveLines;
@@ -167,6 +257,10 @@ public class BatchAutoMoveLettering extends BatchStrategy {
                   .collect(Collectors.toList());
 
           reconcileWithMethod(
+              batchId,
+              companyId,
+              accountId,
+              partnerId,
               debitMoveLines,
               creditMoveLines,
               AccountingBatchRepository.AUTO_MOVE_LETTERING_RECONCILE_BY_BALANCED_MOVE);
@@ -177,8 +271,19 @@ public class BatchAutoMoveLettering extends BatchStrategy {
     }
   }
 
+  /**
+   * Reconcile the move lines of a company, account and partner. Runs on a worker thread, each
+   * reconciliation holding the locks of the key through the reconcile coordinator and reloading
+   * its move lines in its own transaction.
+   */
   protected void reconcileWithMethod(
-      List<MoveLine> debitMoveLines, List<MoveLine> creditMoveLines, int reconcileMethodSelect) {
+      Long batchId,
+      Long companyId,
+      Long accountId,
+      Long partnerId,
+      List<MoveLine> debitMoveLines,
+      List<MoveLine> creditMoveLines,
+      int reconcileMethodSelect) {
 
     BigDecimal debitTotalRemaining =
         debitMoveLines.stream()
@@ -214,15 +319,26 @@ public class BatchAutoMoveLettering extends BatchStrategy {
         }
 
         if (canBeReconciled(reconcileMethodSelect, debitMoveLine, creditMoveLine)) {
+          Long debitMoveLineId = debitMoveLine.getId();
+          Long creditMoveLineId = creditMoveLine.getId();
           try {
-            debitMoveLine = moveLineRepository.find(debitMoveLine.getId());
-            creditMoveLine = moveLineRepository.find(creditMoveLine.getId());
-
-            reconcile(debitMoveLine, creditMoveLine, debitTotalRemaining, creditTotalRemaining);
+            reconcileCoordinatorService.runLocked(
+                companyId,
+                accountId,
+                partnerId,
+                () -> {
+                  reconcile(
+                      batchId,
+                      moveLineRepository.find(debitMoveLineId),
+                      moveLineRepository.find(creditMoveLineId),
+                      debitTotalRemaining,
+                      creditTotalRemaining);
+                  return null;
+                });
             creditRemaining = nextCreditRemaining;
             debitRemaining.replace(debitMoveLine, nextDebitRemaining);
-            moveLineReconciledSet.add(debitMoveLine);
-            moveLineReconciledSet.add(creditMoveLine);
+            moveLineReconciledIdSet.add(debitMoveLineId);
+            moveLineReconciledIdSet.add(creditMoveLineId);
           } catch (Exception e) {
             TraceBackService.trace(
                 new Exception(
@@ -232,8 +348,8 @@ public class BatchAutoMoveLettering extends BatchStrategy {
                         creditMoveLine.getName()),
                     e),
                 ExceptionOriginRepository.MOVE_LINE_RECONCILE,
-                batch.getId());
-            incrementAnomaly();
+                batchId);
+            anomalyCount.incrementAndGet();
             LOG.error(
                 "Anomaly generated while lettering debit move line {} and credit move line {}",
                 debitMoveLine.getName(),
@@ -286,20 +402,21 @@ public class BatchAutoMoveLettering extends BatchStrategy {
 
   @Transactional
   protected void reconcile(
+      Long batchId,
       MoveLine debitMoveLine,
       MoveLine creditMoveLine,
       BigDecimal debitTotalRemaining,
       BigDecimal creditTotalRemaining)
       throws AxelorException {
 
-    findBatch();
+    Batch currentBatch = batchRepo.find(batchId);
 
-    if (accountingBatch.getIsProposal()) {
+    if (currentBatch.getAccountingBatch().getIsProposal()) {
       List<MoveLine> moveLineListToLetter = new ArrayList<>();
       moveLineListToLetter.add(debitMoveLine);
       moveLineListToLetter.add(creditMoveLine);
-      debitMoveLine.addBatchSetItem(batch);
-      creditMoveLine.addBatchSetItem(batch);
+      debitMoveLine.addBatchSetItem(currentBatch);
+      creditMoveLine.addBatchSetItem(currentBatch);
       reconcileGroupProposalService.createProposal(moveLineListToLetter);
       return;
     }
@@ -319,8 +436,6 @@ public class BatchAutoMoveLettering extends BatchStrategy {
     LOG.debug("creditTotalRemaining : {}", creditTotalRemaining);
     BigDecimal nextDebitTotalRemaining = debitTotalRemaining.subtract(amount);
     BigDecimal nextCreditTotalRemaining = creditTotalRemaining.subtract(amount);
-    accountingBatch = batch.getAccountingBatch();
-    accountingBatch.setCompany(companyRepository.find(accountingBatch.getCompany().getId()));
     // Gestion du passage en 580
     if (nextDebitTotalRemaining.compareTo(BigDecimal.ZERO) <= 0
         || nextCreditTotalRemaining.compareTo(BigDecimal.ZERO) <= 0) {
@@ -333,8 +448,8 @@ public class BatchAutoMoveLettering extends BatchStrategy {
 
     if (reconcile != null) {
       reconcileService.confirmReconcile(reconcile, true, true);
-      debitMoveLine.addBatchSetItem(batch);
-      creditMoveLine.addBatchSetItem(batch);
+      debitMoveLine.addBatchSetItem(currentBatch);
+      creditMoveLine.addBatchSetItem(currentBatch);
       moveLineRepository.save(debitMoveLine);
       moveLineRepository.save(creditMoveLine);
     }
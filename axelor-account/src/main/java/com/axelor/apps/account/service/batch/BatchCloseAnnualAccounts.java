@@ -57,6 +57,7 @@ import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -219,13 +220,18 @@ public class BatchCloseAnnualAccounts extends BatchStrategy {
           accountingCloseAnnualService.getAllAccountOfYear(
               accountingBatch.getOpeningAccountSet(), year);
 
+      Set<Long> accountIdSet = new LinkedHashSet<>(closureAccountIdList);
+      accountIdSet.addAll(openingAccountIdList);
+
+      Map<Pair<Long, Long>, BigDecimal> balanceMap =
+          accountingCloseAnnualService.computeBalanceMap(
+              year, new ArrayList<>(accountIdSet), allocatePerPartner);
+
       List<Pair<Long, Long>> closureAccountAndPartnerPairList =
-          accountingCloseAnnualService.assignPartner(
-              closureAccountIdList, year, allocatePerPartner);
+          getAccountAndPartnerPairList(balanceMap, closureAccountIdList);
 
       List<Pair<Long, Long>> openingAccountAndPartnerPairList =
-          accountingCloseAnnualService.assignPartner(
-              openingAccountIdList, year, allocatePerPartner);
+          getAccountAndPartnerPairList(balanceMap, openingAccountIdList);
       LinkedHashMap<AccountByPartner, Map<Boolean, Boolean>> map = new LinkedHashMap<>();
       map =
           openAndCloseProcess(
@@ -234,7 +240,11 @@ public class BatchCloseAnnualAccounts extends BatchStrategy {
           openAndCloseProcess(
               openingAccountAndPartnerPairList, false, accountingBatch.getOpenYear(), map);
 
-      generateMoves(map);
+      if (allocatePerPartner && accountingBatch.getConsolidatePerAccount()) {
+        generateConsolidatedMoves(map, balanceMap);
+      } else {
+        generateMoves(map, balanceMap);
+      }
 
       try {
         if (accountingBatch.getGenerateResultMove() && batch.getDone() > 0) {
@@ -259,9 +269,23 @@ public class BatchCloseAnnualAccounts extends BatchStrategy {
       boolean close,
       boolean open,
       LinkedHashMap<AccountByPartner, Map<Boolean, Boolean>> map) {
-    List<Long> idsDone = new ArrayList<>();
-    for (Account account : getSortedAccountList(accountAndPartnerPairList)) {
-      Partner partner = getPartner(accountAndPartnerPairList, account, idsDone);
+    Map<Long, Account> accountMap = new HashMap<>();
+    for (Pair<Long, Long> accountAndPartnerPair : accountAndPartnerPairList) {
+      accountMap.computeIfAbsent(
+          accountAndPartnerPair.getLeft(), accountId -> accountRepository.find(accountId));
+    }
+
+    List<Pair<Long, Long>> sortedAccountAndPartnerPairList =
+        new ArrayList<>(accountAndPartnerPairList);
+    sortedAccountAndPartnerPairList.sort(
+        Comparator.comparing(pair -> accountMap.get(pair.getLeft()).getCode()));
+
+    for (Pair<Long, Long> accountAndPartnerPair : sortedAccountAndPartnerPairList) {
+      Account account = accountMap.get(accountAndPartnerPair.getLeft());
+      Partner partner =
+          accountAndPartnerPair.getRight() != null
+              ? partnerRepository.find(accountAndPartnerPair.getRight())
+              : null;
 
       Map<Boolean, Boolean> value = new HashMap<>();
       if (close) {
@@ -282,39 +306,26 @@ public class BatchCloseAnnualAccounts extends BatchStrategy {
     return map;
   }
 
-  protected List<Account> getSortedAccountList(List<Pair<Long, Long>> accountAndPartnerPairList) {
-    List<Account> sortedAccountList = new ArrayList<>();
-    for (Pair<Long, Long> accountAndPartnerPair : accountAndPartnerPairList) {
-      sortedAccountList.add(accountRepository.find(accountAndPartnerPair.getLeft()));
-    }
-    sortedAccountList.sort(Comparator.comparing(Account::getCode));
-    return sortedAccountList;
-  }
-
-  protected Partner getPartner(
-      List<Pair<Long, Long>> accountAndPartnerPairList, Account account, List<Long> idsDone) {
-    Partner partner =
-        accountAndPartnerPairList.stream()
-            .filter(
-                pair ->
-                    pair.getLeft().equals(account.getId()) && !idsDone.contains(pair.getRight()))
-            .findFirst()
-            .map(Pair::getRight)
-            .map(id -> partnerRepository.find(id))
-            .orElse(null);
-
-    if (partner != null) {
-      idsDone.add(partner.getId());
-    }
-
-    return partner;
+  /**
+   * Get the account and partner pairs with a non zero balance for the given accounts, in the order
+   * of the balance map.
+   */
+  protected List<Pair<Long, Long>> getAccountAndPartnerPairList(
+      Map<Pair<Long, Long>, BigDecimal> balanceMap, List<Long> accountIdList) {
+    Set<Long> accountIdSet = new HashSet<>(accountIdList);
+    return balanceMap.entrySet().stream()
+        .filter(entry -> accountIdSet.contains(entry.getKey().getLeft()))
+        .filter(entry -> entry.getValue().signum() != 0)
+        .map(Map.Entry::getKey)
+        .collect(Collectors.toList());
   }
 
-  protected void generateMoves(Map<AccountByPartner, Map<Boolean, Boolean>> map) {
+  protected void generateMoves(
+      Map<AccountByPartner, Map<Boolean, Boolean>> map,
+      Map<Pair<Long, Long>, BigDecimal> balanceMap) {
     Map<Boolean, Boolean> value = new HashMap<Boolean, Boolean>();
     boolean close = false;
     boolean open = false;
-    boolean allocatePerPartner = accountingBatch.getAllocatePerPartner();
     boolean closeYear = accountingBatch.getCloseYear();
     boolean openYear = accountingBatch.getOpenYear();
     Integer generatedMoveStatus = accountingBatch.getGeneratedMoveStatusSelect();
@@ -337,50 +348,22 @@ public class BatchCloseAnnualAccounts extends BatchStrategy {
 
           close = value.containsKey(true);
           open = value.containsValue(true);
-          List<Move> generatedMoves = new ArrayList<Move>();
-          if (close && !open) {
-            generatedMoves =
-                accountingCloseAnnualService.generateCloseAnnualAccount(
-                    yearRepository.find(year.getId()),
-                    account,
-                    partner,
-                    endOfYearDate,
-                    reportedBalanceDate,
-                    origin,
-                    moveDescription,
-                    closeYear,
-                    allocatePerPartner,
-                    generatedMoveStatus);
-
-          } else if (open && !close) {
-            generatedMoves =
-                accountingCloseAnnualService.generateOpenAnnualAccount(
-                    yearRepository.find(year.getId()),
-                    account,
-                    partner,
-                    endOfYearDate,
-                    reportedBalanceDate,
-                    origin,
-                    moveDescription,
-                    openYear,
-                    allocatePerPartner,
-                    generatedMoveStatus);
-
-          } else if (open && close) {
-            generatedMoves =
-                accountingCloseAnnualService.generateCloseAndOpenAnnualAccount(
-                    yearRepository.find(year.getId()),
-                    account,
-                    partner,
-                    endOfYearDate,
-                    reportedBalanceDate,
-                    origin,
-                    moveDescription,
-                    closeYear,
-                    openYear,
-                    allocatePerPartner,
-                    generatedMoveStatus);
-          }
+          BigDecimal balance =
+              balanceMap.getOrDefault(
+                  Pair.of(account.getId(), partner != null ? partner.getId() : null),
+                  BigDecimal.ZERO);
+          List<Move> generatedMoves =
+              accountingCloseAnnualService.generateCloseAndOpenAnnualAccount(
+                  account,
+                  partner,
+                  balance,
+                  endOfYearDate,
+                  reportedBalanceDate,
+                  origin,
+                  moveDescription,
+                  close && closeYear,
+                  open && openYear,
+                  generatedMoveStatus);
           if (!CollectionUtils.isEmpty(generatedMoves)) {
             updateAccount(account);
 
@@ -415,6 +398,97 @@ public class BatchCloseAnnualAccounts extends BatchStrategy {
     }
   }
 
+  /**
+   * Generate one closure and one opening move per account, each partner balance being a line of
+   * these moves.
+   */
+  protected void generateConsolidatedMoves(
+      Map<AccountByPartner, Map<Boolean, Boolean>> map,
+      Map<Pair<Long, Long>, BigDecimal> balanceMap) {
+    boolean closeYear = accountingBatch.getCloseYear();
+    boolean openYear = accountingBatch.getOpenYear();
+    Integer generatedMoveStatus = accountingBatch.getGeneratedMoveStatusSelect();
+    Year year = accountingBatch.getYear();
+    LocalDate endOfYearDate = year.getToDate();
+    LocalDate reportedBalanceDate = year.getReportedBalanceDate();
+    String origin = accountingBatch.getCode();
+    String moveDescription = accountingBatch.getMoveDescription();
+
+    Map<Account, List<AccountByPartner>> accountByPartnerMap =
+        map.keySet().stream()
+            .collect(
+                Collectors.groupingBy(
+                    accountByPartner -> accountByPartner.account,
+                    LinkedHashMap::new,
+                    Collectors.toList()));
+
+    for (Map.Entry<Account, List<AccountByPartner>> entry : accountByPartnerMap.entrySet()) {
+      try {
+        Account account = accountRepository.find(entry.getKey().getId());
+        boolean close = false;
+        boolean open = false;
+        Map<Partner, BigDecimal> partnerBalanceMap = new LinkedHashMap<>();
+
+        for (AccountByPartner accountByPartner : entry.getValue()) {
+          Map<Boolean, Boolean> value = map.get(accountByPartner);
+          close |= value.containsKey(true);
+          open |= value.containsValue(true);
+
+          Partner partner = null;
+          if (accountByPartner.partner != null) {
+            partner = partnerRepository.find(accountByPartner.partner.getId());
+          }
+          partnerBalanceMap.put(
+              partner,
+              balanceMap.getOrDefault(
+                  Pair.of(account.getId(), partner != null ? partner.getId() : null),
+                  BigDecimal.ZERO));
+        }
+
+        validateStatusConfiguration(generatedMoveStatus, accountingBatch.getCompany());
+
+        List<Move> generatedMoves =
+            accountingCloseAnnualService.generateConsolidatedCloseAndOpenAnnualAccount(
+                account,
+                partnerBalanceMap,
+                endOfYearDate,
+                reportedBalanceDate,
+                origin,
+                moveDescription,
+                close && closeYear,
+                open && openYear,
+                generatedMoveStatus);
+
+        if (!CollectionUtils.isEmpty(generatedMoves)) {
+          updateAccount(account);
+
+          for (Move move : generatedMoves) {
+            updateAccountMove(move, false);
+          }
+        }
+      } catch (AxelorException e) {
+        TraceBackService.trace(
+            new AxelorException(
+                e, e.getCategory(), I18n.get("Account") + " %s", entry.getKey().getCode()),
+            null,
+            batch.getId());
+        incrementAnomaly();
+        break;
+      } catch (Exception e) {
+        TraceBackService.trace(
+            new Exception(
+                String.format(I18n.get("Account") + " %s", entry.getKey().getCode()), e),
+            null,
+            batch.getId());
+        incrementAnomaly();
+        LOG.error("Anomaly generated for the account {}", entry.getKey().getCode());
+        break;
+      } finally {
+        JPA.clear();
+      }
+    }
+  }
+
   protected void removeSimulatedMoves(AccountingBatch accountingBatch) {
     AccountConfig accountConfig = accountingBatch.getCompany().getAccountConfig();
     if (accountConfig != null
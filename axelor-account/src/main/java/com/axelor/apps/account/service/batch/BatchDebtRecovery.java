@@ -19,9 +19,11 @@
 package com.axelor.apps.account.service.batch;
 
 import com.axelor.apps.account.db.DebtRecovery;
+import com.axelor.apps.account.db.DebtRecoveryAging;
 import com.axelor.apps.account.db.repo.DebtRecoveryRepository;
 import com.axelor.apps.account.exception.AccountExceptionMessage;
 import com.axelor.apps.account.service.debtrecovery.DebtRecoveryActionService;
+import com.axelor.apps.account.service.debtrecovery.DebtRecoveryAgingService;
 import com.axelor.apps.account.service.debtrecovery.DebtRecoveryService;
 import com.axelor.apps.base.AxelorException;
 import com.axelor.apps.base.db.Company;
@@ -30,9 +32,11 @@ import com.axelor.apps.base.db.TradingName;
 import com.axelor.apps.base.db.repo.BlockingRepository;
 import com.axelor.apps.base.db.repo.ExceptionOriginRepository;
 import com.axelor.apps.base.db.repo.PartnerRepository;
+import com.axelor.apps.base.db.repo.TradingNameRepository;
 import com.axelor.apps.base.exceptions.BaseExceptionMessage;
 import com.axelor.apps.base.service.BlockingService;
 import com.axelor.apps.base.service.exception.TraceBackService;
+import com.axelor.apps.base.service.parallel.ParallelProcessService;
 import com.axelor.db.EntityHelper;
 import com.axelor.db.JPA;
 import com.axelor.db.Model;
@@ -40,9 +44,14 @@ import com.axelor.db.Query;
 import com.axelor.i18n.I18n;
 import com.axelor.inject.Beans;
 import com.axelor.message.db.repo.MessageRepository;
+import com.google.common.collect.Lists;
 import com.google.inject.Inject;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
 import javax.persistence.Table;
 import org.apache.commons.collections.CollectionUtils;
 
@@ -53,6 +62,12 @@ public class BatchDebtRecovery extends BatchStrategy {
   protected MessageRepository messageRepository;
   protected DebtRecoveryRepository debtRecoveryRepository;
   protected DebtRecoveryActionService debtRecoveryActionService;
+  protected DebtRecoveryAgingService debtRecoveryAgingService;
+  protected TradingNameRepository tradingNameRepository;
+  protected ParallelProcessService parallelProcessService;
+
+  protected final AtomicInteger doneCount = new AtomicInteger();
+  protected final AtomicInteger anomalyCount = new AtomicInteger();
 
   @Inject
   public BatchDebtRecovery(
@@ -60,12 +75,18 @@ public class BatchDebtRecovery extends BatchStrategy {
       PartnerRepository partnerRepository,
       DebtRecoveryRepository debtRecoveryRepository,
       DebtRecoveryActionService debtRecoveryActionService,
-      MessageRepository messageRepository) {
+      MessageRepository messageRepository,
+      DebtRecoveryAgingService debtRecoveryAgingService,
+      TradingNameRepository tradingNameRepository,
+      ParallelProcessService parallelProcessService) {
     super(debtRecoveryService);
     this.partnerRepository = partnerRepository;
     this.debtRecoveryRepository = debtRecoveryRepository;
     this.debtRecoveryActionService = debtRecoveryActionService;
     this.messageRepository = messageRepository;
+    this.debtRecoveryAgingService = debtRecoveryAgingService;
+    this.tradingNameRepository = tradingNameRepository;
+    this.parallelProcessService = parallelProcessService;
   }
 
   @Override
@@ -113,6 +134,10 @@ public class BatchDebtRecovery extends BatchStrategy {
       }
     }
 
+    Map<Long, List<DebtRecoveryAging>> agingByPartner =
+        debtRecoveryAgingService.computeSnapshot(company).stream()
+            .collect(Collectors.groupingBy(aging -> aging.getPartner().getId()));
+
     Query<Partner> query =
         partnerRepository
             .all()
@@ -128,112 +153,191 @@ public class BatchDebtRecovery extends BatchStrategy {
             .bind("_company", company)
             .order("id");
 
-    int offset = 0;
-    List<Partner> partnerList;
-
-    while (!(partnerList = query.fetch(getFetchLimit(), offset)).isEmpty()) {
-
-      for (Partner partner : partnerList) {
-        ++offset;
-
-        boolean remindedOk;
-        // if recovery handled by trading name
-        if (!CollectionUtils.isEmpty(tradingNameList)) {
-          boolean incrementPartner = false;
-          for (TradingName tradingName : tradingNameList) {
-            try {
-              remindedOk = debtRecoveryService.debtRecoveryGenerate(partner, company, tradingName);
-              if (remindedOk) {
-                DebtRecovery debtRecovery =
-                    debtRecoveryService.getDebtRecovery(partner, company, tradingName);
-                addBatchToModel(debtRecovery);
-                incrementPartner = true;
-              }
-              // Catching exceptions
-            } catch (AxelorException e) {
-              TraceBackService.trace(
-                  new AxelorException(
-                      e,
-                      e.getCategory(),
+    List<Long> partnerIdList =
+        query.select("id").fetch(0, 0).stream()
+            .map(partner -> (Long) partner.get("id"))
+            .collect(Collectors.toList());
+    List<Long> tradingNameIdList =
+        tradingNameList == null
+            ? Collections.emptyList()
+            : tradingNameList.stream().map(TradingName::getId).collect(Collectors.toList());
+    Long batchId = batch.getId();
+    Long companyId = company.getId();
+
+    List<Runnable> tasks = new ArrayList<>();
+    for (List<Long> partnerIdChunk : Lists.partition(partnerIdList, getFetchLimit())) {
+      tasks.add(
+          () ->
+              debtRecoveryPartners(
+                  batchId, companyId, tradingNameIdList, partnerIdChunk, agingByPartner));
+    }
+
+    try {
+      parallelProcessService.runAll(tasks, parallelProcessService.getDefaultWorkerCount());
+    } catch (AxelorException e) {
+      TraceBackService.trace(e, ExceptionOriginRepository.DEBT_RECOVERY, batchId);
+      anomalyCount.incrementAndGet();
+    }
+
+    incrementDone(doneCount.get());
+    incrementAnomaly(anomalyCount.get());
+  }
+
+  /**
+   * Run the debt recovery of a chunk of partners. Runs on a worker thread, so the company and the
+   * trading names are reloaded in the session of the worker.
+   */
+  protected void debtRecoveryPartners(
+      Long batchId,
+      Long companyId,
+      List<Long> tradingNameIdList,
+      List<Long> partnerIdList,
+      Map<Long, List<DebtRecoveryAging>> agingByPartner) {
+    int index = 0;
+    while (index < partnerIdList.size()) {
+      Company company = companyRepo.find(companyId);
+      List<TradingName> tradingNameList =
+          tradingNameIdList.stream().map(tradingNameRepository::find).collect(Collectors.toList());
+
+      while (index < partnerIdList.size()) {
+        Long partnerId = partnerIdList.get(index++);
+        if (!debtRecoveryPartner(
+            batchId,
+            partnerRepository.find(partnerId),
+            company,
+            tradingNameList,
+            agingByPartner.get(partnerId))) {
+          break;
+        }
+      }
+
+      // the session is cleared after a failure, before going on with the next partners
+      JPA.clear();
+    }
+  }
+
+  /**
+   * Run the debt recovery of a partner, with its balances taken from its agings.
+   *
+   * @return false if the debt recovery of the partner by company failed
+   */
+  protected boolean debtRecoveryPartner(
+      Long batchId,
+      Partner partner,
+      Company company,
+      List<TradingName> tradingNameList,
+      List<DebtRecoveryAging> partnerAgingList) {
+    boolean remindedOk;
+    // if recovery handled by trading name
+    if (!CollectionUtils.isEmpty(tradingNameList)) {
+      boolean incrementPartner = false;
+      for (TradingName tradingName : tradingNameList) {
+        try {
+          remindedOk =
+              debtRecoveryService.debtRecoveryGenerate(
+                  partner,
+                  company,
+                  tradingName,
+                  debtRecoveryAgingService.getBalanceDue(partnerAgingList, tradingName),
+                  debtRecoveryAgingService.getBalanceDueDebtRecovery(
+                      partnerAgingList, tradingName));
+          if (remindedOk) {
+            DebtRecovery debtRecovery =
+                debtRecoveryService.getDebtRecovery(partner, company, tradingName);
+            addBatchToModel(debtRecovery, batchId);
+            incrementPartner = true;
+          }
+          // Catching exceptions
+        } catch (AxelorException e) {
+          TraceBackService.trace(
+              new AxelorException(
+                  e,
+                  e.getCategory(),
+                  I18n.get("Partner") + " %s, " + I18n.get("Trading name") + " %s",
+                  partner.getName(),
+                  tradingName.getName()),
+              ExceptionOriginRepository.DEBT_RECOVERY,
+              batchId);
+          incrementAnomaly(partner);
+          break;
+        } catch (Exception e) {
+          TraceBackService.trace(
+              new Exception(
+                  String.format(
                       I18n.get("Partner") + " %s, " + I18n.get("Trading name") + " %s",
                       partner.getName(),
                       tradingName.getName()),
-                  ExceptionOriginRepository.DEBT_RECOVERY,
-                  batch.getId());
-              incrementAnomaly(partner);
-              break;
-            } catch (Exception e) {
-              TraceBackService.trace(
-                  new Exception(
-                      String.format(
-                          I18n.get("Partner") + " %s, " + I18n.get("Trading name") + " %s",
-                          partner.getName(),
-                          tradingName.getName()),
-                      e),
-                  ExceptionOriginRepository.DEBT_RECOVERY,
-                  batch.getId());
-              incrementAnomaly(partner);
-              break;
-            }
-            // \Catching exceptions
-          }
-          if (incrementPartner) {
-            incrementDone(partner);
-          }
-        } else { // if recovery handled by company
-          try {
-            remindedOk = debtRecoveryService.debtRecoveryGenerate(partner, company, null);
-            if (remindedOk) {
-              DebtRecovery debtRecovery = debtRecoveryService.getDebtRecovery(partner, company);
-              addBatchToModel(debtRecovery);
-              incrementDone(partner);
-            }
-            // Catching exceptions
-          } catch (AxelorException e) {
-            TraceBackService.trace(
-                new AxelorException(
-                    e, e.getCategory(), I18n.get("Partner") + " %s", partner.getName()),
-                ExceptionOriginRepository.DEBT_RECOVERY,
-                batch.getId());
-            incrementAnomaly(partner);
-            break;
-          } catch (Exception e) {
-            TraceBackService.trace(
-                new Exception(String.format(I18n.get("Partner") + " %s", partner.getName()), e),
-                ExceptionOriginRepository.DEBT_RECOVERY,
-                batch.getId());
-            incrementAnomaly(partner);
-            break;
-          }
-          // \Catching exceptions
+                  e),
+              ExceptionOriginRepository.DEBT_RECOVERY,
+              batchId);
+          incrementAnomaly(partner);
+          break;
         }
+        // \Catching exceptions
       }
-
-      JPA.clear();
-      findBatch();
+      if (incrementPartner) {
+        incrementDone(partner, batchId);
+      }
+    } else { // if recovery handled by company
+      try {
+        remindedOk =
+            debtRecoveryService.debtRecoveryGenerate(
+                partner,
+                company,
+                null,
+                debtRecoveryAgingService.getBalanceDue(partnerAgingList, null),
+                debtRecoveryAgingService.getBalanceDueDebtRecovery(partnerAgingList, null));
+        if (remindedOk) {
+          DebtRecovery debtRecovery = debtRecoveryService.getDebtRecovery(partner, company);
+          addBatchToModel(debtRecovery, batchId);
+          incrementDone(partner, batchId);
+        }
+        // Catching exceptions
+      } catch (AxelorException e) {
+        TraceBackService.trace(
+            new AxelorException(e, e.getCategory(), I18n.get("Partner") + " %s", partner.getName()),
+            ExceptionOriginRepository.DEBT_RECOVERY,
+            batchId);
+        incrementAnomaly(partner);
+        return false;
+      } catch (Exception e) {
+        TraceBackService.trace(
+            new Exception(String.format(I18n.get("Partner") + " %s", partner.getName()), e),
+            ExceptionOriginRepository.DEBT_RECOVERY,
+            batchId);
+        incrementAnomaly(partner);
+        return false;
+      }
+      // \Catching exceptions
     }
+    return true;
   }
 
   protected void incrementDone(Partner partner) {
-    addBatchToModel(partner);
-    _incrementDone();
+    incrementDone(partner, batch.getId());
+  }
+
+  protected void incrementDone(Partner partner, Long batchId) {
+    addBatchToModel(partner, batchId);
+    doneCount.incrementAndGet();
   }
 
   protected void incrementAnomaly(Partner partner) {
-    findBatch();
-    partner = partnerRepository.find(partner.getId());
-    // addBatchToModel(partner);
-    _incrementAnomaly();
+    anomalyCount.incrementAndGet();
   }
 
   protected void addBatchToModel(Model model) {
+    addBatchToModel(model, batch.getId());
+  }
+
+  protected void addBatchToModel(Model model, Long batchId) {
     String tableName = getBatchSetTableName(model);
 
     // Insert using native query for performance reasons in case of big batch set.
     String sqlString = String.format("INSERT INTO %s VALUES (:modelId, :batchId)", tableName);
     javax.persistence.Query query = JPA.em().createNativeQuery(sqlString);
     query.setParameter("modelId", model.getId());
-    query.setParameter("batchId", batch.getId());
+    query.setParameter("batchId", batchId);
     JPA.runInTransaction(query::executeUpdate);
   }
 
@@ -28,22 +28,35 @@ import com.axelor.apps.account.exception.AccountExceptionMessage;
 import com.axelor.apps.account.service.FindFixedAssetService;
 import com.axelor.apps.account.service.fixedasset.FixedAssetDerogatoryLineMoveService;
 import com.axelor.apps.account.service.fixedasset.FixedAssetLineMoveService;
+import com.axelor.apps.base.AxelorException;
+import com.axelor.apps.base.db.Batch;
 import com.axelor.apps.base.db.repo.BatchRepository;
 import com.axelor.apps.base.exceptions.BaseExceptionMessage;
 import com.axelor.apps.base.service.app.AppBaseService;
 import com.axelor.apps.base.service.exception.TraceBackService;
+import com.axelor.apps.base.service.parallel.ParallelProcessService;
 import com.axelor.auth.AuthUtils;
 import com.axelor.auth.db.User;
 import com.axelor.db.JPA;
+import com.axelor.db.Model;
+import com.axelor.db.Query;
 import com.axelor.i18n.I18n;
+import com.axelor.inject.Beans;
+import com.google.common.collect.Lists;
 import com.google.inject.Inject;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
-import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class BatchRealizeFixedAssetLine extends BatchStrategy {
 
@@ -53,10 +66,15 @@ public class BatchRealizeFixedAssetLine extends BatchStrategy {
   protected FixedAssetDerogatoryLineRepository fixedAssetDerogatoryLineRepo;
   protected FixedAssetDerogatoryLineMoveService fixedAssetDerogatoryLineMoveService;
   protected FindFixedAssetService findFixedAssetService;
+  protected ParallelProcessService parallelProcessService;
   protected static final int DEROGATORY_TYPE_SELECT = 99;
+  protected static final int FETCH_LIMIT = 1000;
+  protected static final int PROGRESS_INTERVAL = 100;
 
-  protected final Set<FixedAsset> fixedAssetSet = new HashSet<>();
-  protected final Map<Integer, Integer> typeCountMap = new HashMap<>();
+  protected final Set<Long> fixedAssetIdSet = ConcurrentHashMap.newKeySet();
+  protected final Map<Integer, Integer> typeCountMap = new ConcurrentHashMap<>();
+  protected final AtomicInteger doneCount = new AtomicInteger();
+  protected final AtomicInteger anomalyCount = new AtomicInteger();
 
   @Inject
   public BatchRealizeFixedAssetLine(
@@ -65,13 +83,15 @@ public class BatchRealizeFixedAssetLine extends BatchStrategy {
       FixedAssetLineRepository fixedAssetLineRepo,
       FixedAssetDerogatoryLineRepository fixedAssetDerogatoryLineRepo,
       FixedAssetDerogatoryLineMoveService fixedAssetDerogatoryLineMoveService,
-      FindFixedAssetService findFixedAssetService) {
+      FindFixedAssetService findFixedAssetService,
+      ParallelProcessService parallelProcessService) {
     this.fixedAssetLineMoveService = fixedAssetLineMoveService;
     this.appBaseService = appBaseService;
     this.fixedAssetLineRepo = fixedAssetLineRepo;
     this.fixedAssetDerogatoryLineRepo = fixedAssetDerogatoryLineRepo;
     this.fixedAssetDerogatoryLineMoveService = fixedAssetDerogatoryLineMoveService;
     this.findFixedAssetService = findFixedAssetService;
+    this.parallelProcessService = parallelProcessService;
   }
 
   @Override
@@ -104,72 +124,179 @@ public class BatchRealizeFixedAssetLine extends BatchStrategy {
                 : Optional.ofNullable(AuthUtils.getUser())
                     .map(User::getActiveCompany)
                     .orElse(null)));
-    List<FixedAssetLine> fixedAssetLineList =
-        fixedAssetLineRepo.all().filter(query).bind(queryParameters).fetch();
-    List<FixedAssetDerogatoryLine> fixedAssetDerogatoryLineList =
-        fixedAssetDerogatoryLineRepo.all().filter(query).bind(queryParameters).fetch();
-
-    fixedAssetLineMoveService.setBatch(batch);
-    realizeFixedAssetLineList(fixedAssetLineList);
-    realizeFixedAssetDerogatoryLineList(fixedAssetDerogatoryLineList);
+    Map<Long, List<Long>> fixedAssetLineIdMap =
+        getIdsByFixedAsset(fixedAssetLineRepo.all().filter(query).bind(queryParameters));
+    Map<Long, List<Long>> fixedAssetDerogatoryLineIdMap =
+        getIdsByFixedAsset(fixedAssetDerogatoryLineRepo.all().filter(query).bind(queryParameters));
+
+    Set<Long> fixedAssetIds = new LinkedHashSet<>(fixedAssetLineIdMap.keySet());
+    fixedAssetIds.addAll(fixedAssetDerogatoryLineIdMap.keySet());
+
+    Batch currentBatch = batch;
+    List<Runnable> tasks = new ArrayList<>();
+    for (List<Long> fixedAssetIdList : getPartitionsBySequence(fixedAssetIds)) {
+      tasks.add(
+          () ->
+              realizeFixedAssets(
+                  currentBatch,
+                  fixedAssetIdList,
+                  fixedAssetLineIdMap,
+                  fixedAssetDerogatoryLineIdMap));
+    }
+
+    try {
+      parallelProcessService.runAll(tasks, parallelProcessService.getDefaultWorkerCount());
+    } catch (AxelorException e) {
+      TraceBackService.trace(e, null, batch.getId());
+      anomalyCount.incrementAndGet();
+    }
+
+    incrementDone(doneCount.get());
+    incrementAnomaly(anomalyCount.get());
+  }
+
+  /**
+   * Get the ids of the lines returned by the query, grouped by fixed asset and sorted by
+   * depreciation date.
+   */
+  protected Map<Long, List<Long>> getIdsByFixedAsset(Query<? extends Model> query) {
+    Map<Long, List<Long>> idsByFixedAsset = new LinkedHashMap<>();
+    List<Map> lineList =
+        query.order("depreciationDate").order("id").select("id", "fixedAsset.id").fetch(0, 0);
+    for (Map line : lineList) {
+      idsByFixedAsset
+          .computeIfAbsent((Long) line.get("fixedAsset.id"), id -> new ArrayList<>())
+          .add((Long) line.get("id"));
+    }
+    return idsByFixedAsset;
   }
 
-  protected void realizeFixedAssetLineList(List<FixedAssetLine> fixedAssetLineList) {
-    for (FixedAssetLine fixedAssetLine : fixedAssetLineList) {
-      try {
-        fixedAssetLine = fixedAssetLineRepo.find(fixedAssetLine.getId());
-        FixedAsset fixedAsset = findFixedAssetService.getFixedAsset(fixedAssetLine);
-        if (fixedAsset != null
-            && fixedAsset.getStatusSelect() > FixedAssetRepository.STATUS_DRAFT) {
-          fixedAssetSet.add(fixedAsset);
-          fixedAssetLineMoveService.realize(fixedAssetLine, true, true, false);
-          incrementDone();
-          countFixedAssetLineType(fixedAssetLine);
-        }
-      } catch (Exception e) {
-        incrementAnomaly();
-        TraceBackService.trace(e, null, this.batch.getId());
+  /**
+   * Group the fixed assets by the sequence of their journal, as the depreciation moves of a journal
+   * are numbered with the sequence locked until their transaction ends. Each group is realized by a
+   * single worker, so that the workers do not wait for each other on the same sequence.
+   */
+  protected List<List<Long>> getPartitionsBySequence(Collection<Long> fixedAssetIds) {
+    Map<Long, String> sequenceKeyMap = new HashMap<>();
+    for (List<Long> idList : Lists.partition(new ArrayList<>(fixedAssetIds), FETCH_LIMIT)) {
+      List<Object[]> rowList =
+          JPA.em()
+              .createQuery(
+                  "SELECT self.id, journal.id, sequence.id FROM FixedAsset self"
+                      + " LEFT JOIN self.journal journal"
+                      + " LEFT JOIN journal.sequence sequence"
+                      + " WHERE self.id IN :ids",
+                  Object[].class)
+              .setParameter("ids", idList)
+              .getResultList();
+      for (Object[] row : rowList) {
+        sequenceKeyMap.put(
+            (Long) row[0], row[2] != null ? "sequence-" + row[2] : "journal-" + row[1]);
       }
-      JPA.clear();
     }
+
+    Map<String, List<Long>> partitionMap = new LinkedHashMap<>();
+    for (Long fixedAssetId : fixedAssetIds) {
+      partitionMap
+          .computeIfAbsent(sequenceKeyMap.get(fixedAssetId), key -> new ArrayList<>())
+          .add(fixedAssetId);
+    }
+    return new ArrayList<>(partitionMap.values());
   }
 
-  protected void realizeFixedAssetDerogatoryLineList(
-      List<FixedAssetDerogatoryLine> fixedAssetDerogatoryLineList) {
-    for (FixedAssetDerogatoryLine fixedAssetDerogatoryLine : fixedAssetDerogatoryLineList) {
-      try {
-        fixedAssetDerogatoryLine =
-            fixedAssetDerogatoryLineRepo.find(fixedAssetDerogatoryLine.getId());
-        FixedAsset fixedAsset = fixedAssetDerogatoryLine.getFixedAsset();
-        if (fixedAsset != null
-            && fixedAsset.getStatusSelect() > FixedAssetRepository.STATUS_DRAFT) {
-          fixedAssetSet.add(fixedAsset);
-          fixedAssetDerogatoryLineMoveService.realize(fixedAssetDerogatoryLine, true, true);
-          incrementDone();
-          countFixedAssetDerogatoryLineType(fixedAssetDerogatoryLine);
-        }
-      } catch (Exception e) {
-        incrementAnomaly();
-        TraceBackService.trace(e);
+  /**
+   * Realize the lines of the given fixed assets. Runs on a worker thread: all the lines of a fixed
+   * asset are handled by the same worker since realizing a line updates its fixed asset and the
+   * lines of the other depreciation plans at the same date.
+   */
+  protected void realizeFixedAssets(
+      Batch currentBatch,
+      List<Long> fixedAssetIdList,
+      Map<Long, List<Long>> fixedAssetLineIdMap,
+      Map<Long, List<Long>> fixedAssetDerogatoryLineIdMap) {
+    FixedAssetLineMoveService lineMoveService = Beans.get(FixedAssetLineMoveService.class);
+    FixedAssetDerogatoryLineMoveService derogatoryLineMoveService =
+        Beans.get(FixedAssetDerogatoryLineMoveService.class);
+    lineMoveService.setBatch(currentBatch);
+
+    for (Long fixedAssetId : fixedAssetIdList) {
+      for (Long fixedAssetLineId :
+          fixedAssetLineIdMap.getOrDefault(fixedAssetId, Collections.emptyList())) {
+        realizeFixedAssetLine(currentBatch, lineMoveService, fixedAssetLineId);
+      }
+      for (Long fixedAssetDerogatoryLineId :
+          fixedAssetDerogatoryLineIdMap.getOrDefault(fixedAssetId, Collections.emptyList())) {
+        realizeFixedAssetDerogatoryLine(derogatoryLineMoveService, fixedAssetDerogatoryLineId);
       }
-      JPA.clear();
     }
   }
 
-  protected void countFixedAssetLineType(FixedAssetLine fixedAssetLine) {
-    if (typeCountMap.containsKey(fixedAssetLine.getTypeSelect())) {
-      typeCountMap.compute(fixedAssetLine.getTypeSelect(), (k, v) -> ++v);
-    } else {
-      typeCountMap.put(fixedAssetLine.getTypeSelect(), 1);
+  protected void realizeFixedAssetLine(
+      Batch currentBatch, FixedAssetLineMoveService lineMoveService, Long fixedAssetLineId) {
+    try {
+      FixedAssetLine fixedAssetLine = fixedAssetLineRepo.find(fixedAssetLineId);
+      FixedAsset fixedAsset = findFixedAssetService.getFixedAsset(fixedAssetLine);
+      if (fixedAsset != null && fixedAsset.getStatusSelect() > FixedAssetRepository.STATUS_DRAFT) {
+        fixedAssetIdSet.add(fixedAsset.getId());
+        lineMoveService.realize(fixedAssetLine, true, true, false);
+        doneCount.incrementAndGet();
+        countFixedAssetLineType(fixedAssetLine);
+      }
+    } catch (Exception e) {
+      anomalyCount.incrementAndGet();
+      TraceBackService.trace(e, null, currentBatch.getId());
     }
+    JPA.clear();
+    reportProgress(currentBatch);
   }
 
-  protected void countFixedAssetDerogatoryLineType(FixedAssetDerogatoryLine fixedAssetLine) {
-    if (typeCountMap.containsKey(DEROGATORY_TYPE_SELECT)) {
-      typeCountMap.compute(DEROGATORY_TYPE_SELECT, (k, v) -> ++v);
-    } else {
-      typeCountMap.put(DEROGATORY_TYPE_SELECT, 1);
+  protected void realizeFixedAssetDerogatoryLine(
+      FixedAssetDerogatoryLineMoveService derogatoryLineMoveService,
+      Long fixedAssetDerogatoryLineId) {
+    try {
+      FixedAssetDerogatoryLine fixedAssetDerogatoryLine =
+          fixedAssetDerogatoryLineRepo.find(fixedAssetDerogatoryLineId);
+      FixedAsset fixedAsset = fixedAssetDerogatoryLine.getFixedAsset();
+      if (fixedAsset != null && fixedAsset.getStatusSelect() > FixedAssetRepository.STATUS_DRAFT) {
+        fixedAssetIdSet.add(fixedAsset.getId());
+        derogatoryLineMoveService.realize(fixedAssetDerogatoryLine, true, true);
+        doneCount.incrementAndGet();
+        countFixedAssetDerogatoryLineType(fixedAssetDerogatoryLine);
+      }
+    } catch (Exception e) {
+      anomalyCount.incrementAndGet();
+      TraceBackService.trace(e);
+    }
+    JPA.clear();
+  }
+
+  /**
+   * Periodically write the counters of the workers on the batch so that the progress can be
+   * followed while the batch is running. The batch entity of the main thread is updated at the
+   * end.
+   */
+  protected void reportProgress(Batch currentBatch) {
+    if ((doneCount.get() + anomalyCount.get()) % PROGRESS_INTERVAL != 0) {
+      return;
     }
+    JPA.runInTransaction(
+        () ->
+            JPA.em()
+                .createQuery(
+                    "UPDATE Batch self SET self.done = :done, self.anomaly = :anomaly "
+                        + "WHERE self.id = :id")
+                .setParameter("done", doneCount.get())
+                .setParameter("anomaly", anomalyCount.get())
+                .setParameter("id", currentBatch.getId())
+                .executeUpdate());
+  }
+
+  protected void countFixedAssetLineType(FixedAssetLine fixedAssetLine) {
+    typeCountMap.merge(fixedAssetLine.getTypeSelect(), 1, Integer::sum);
+  }
+
+  protected void countFixedAssetDerogatoryLineType(FixedAssetDerogatoryLine fixedAssetLine) {
+    typeCountMap.merge(DEROGATORY_TYPE_SELECT, 1, Integer::sum);
   }
 
   @Override
@@ -179,7 +306,7 @@ public class BatchRealizeFixedAssetLine extends BatchStrategy {
         new StringBuilder(
             String.format(
                 "\t* %s " + I18n.get(AccountExceptionMessage.BATCH_PROCESSED_FIXED_ASSET) + "\n",
-                fixedAssetSet.size()));
+                fixedAssetIdSet.size()));
 
     sbComment.append(
         String.format(
@@ -0,0 +1,78 @@
+/*
+ * Axelor Business Solutions
+ *
+ * Copyright (C) 2005-2025 Axelor (<http://axelor.com>).
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.axelor.apps.account.service.debtrecovery;
+
+import com.axelor.apps.account.db.DebtRecoveryAging;
+import com.axelor.apps.base.db.Company;
+import com.axelor.apps.base.db.TradingName;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+public interface DebtRecoveryAgingService {
+
+  /**
+   * Compute the aging of the customer balances of a company in one pass over the due dates of the
+   * invoice terms. One aging is created by partner and trading name of the moves, with its balance
+   * due and recoverable balance due.
+   *
+   * @param company the company
+   * @param agingDate the date from which the overdue days are counted
+   * @return the computed agings, not saved
+   */
+  List<DebtRecoveryAging> computeAging(Company company, LocalDate agingDate);
+
+  /**
+   * Replace the saved agings of a company, so that the last computation can be queried.
+   *
+   * @param company the company
+   * @param agingList the agings to save
+   */
+  void saveSnapshot(Company company, Collection<DebtRecoveryAging> agingList);
+
+  /**
+   * Compute and save the aging of a company at its today date.
+   *
+   * @param company the company
+   * @return the saved agings
+   */
+  List<DebtRecoveryAging> computeSnapshot(Company company);
+
+  /**
+   * Get the balance due of a partner from its agings, computed as {@link
+   * com.axelor.apps.account.service.AccountCustomerService#getBalanceDue}.
+   *
+   * @param partnerAgingList the agings of the partner, can be null
+   * @param tradingName the trading name, or null for all the trading names
+   * @return the balance due
+   */
+  BigDecimal getBalanceDue(Collection<DebtRecoveryAging> partnerAgingList, TradingName tradingName);
+
+  /**
+   * Get the recoverable balance due of a partner from its agings, computed as {@link
+   * com.axelor.apps.account.service.AccountCustomerService#getBalanceDueDebtRecovery}.
+   *
+   * @param partnerAgingList the agings of the partner, can be null
+   * @param tradingName the trading name, or null for all the trading names
+   * @return the recoverable balance due
+   */
+  BigDecimal getBalanceDueDebtRecovery(
+      Collection<DebtRecoveryAging> partnerAgingList, TradingName tradingName);
+}
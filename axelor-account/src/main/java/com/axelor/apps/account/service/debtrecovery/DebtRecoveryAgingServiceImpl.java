@@ -0,0 +1,260 @@
+/*
+ * Axelor Business Solutions
+ *
+ * Copyright (C) 2005-2025 Axelor (<http://axelor.com>).
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.axelor.apps.account.service.debtrecovery;
+
+import com.axelor.apps.account.db.AccountConfig;
+import com.axelor.apps.account.db.DebtRecoveryAging;
+import com.axelor.apps.account.db.repo.MoveRepository;
+import com.axelor.apps.account.service.app.AppAccountService;
+import com.axelor.apps.base.db.Company;
+import com.axelor.apps.base.db.Partner;
+import com.axelor.apps.base.db.TradingName;
+import com.axelor.db.JPA;
+import com.axelor.db.Model;
+import com.google.inject.Inject;
+import com.google.inject.persist.Transactional;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+import org.apache.commons.collections.CollectionUtils;
+import org.apache.commons.lang3.tuple.Pair;
+
+public class DebtRecoveryAgingServiceImpl implements DebtRecoveryAgingService {
+
+  protected static final int FETCH_SIZE = 1000;
+
+  protected int jpaLimit = 100;
+
+  protected AppAccountService appAccountService;
+
+  @Inject
+  public DebtRecoveryAgingServiceImpl(AppAccountService appAccountService) {
+    this.appAccountService = appAccountService;
+  }
+
+  @Override
+  public List<DebtRecoveryAging> computeAging(Company company, LocalDate agingDate) {
+    TypedQuery<Object[]> query =
+        JPA.em()
+            .createQuery(
+                "SELECT partner.id, tradingName.id, term.dueDate, moveLine.debit, "
+                    + "term.amountRemaining, move.date, invoice.debtRecoveryBlockingOk "
+                    + "FROM InvoiceTerm term "
+                    + "JOIN term.moveLine moveLine "
+                    + "JOIN moveLine.partner partner "
+                    + "JOIN moveLine.account account "
+                    + "JOIN moveLine.move move "
+                    + "LEFT JOIN move.tradingName tradingName "
+                    + "LEFT JOIN move.invoice invoice "
+                    + "WHERE move.company = :company "
+                    + "AND (move.ignoreInAccountingOk IS NULL "
+                    + "OR move.ignoreInAccountingOk = false) "
+                    + "AND account.useForPartnerBalance = true "
+                    + "AND move.statusSelect IN (:statusAccounted, :statusDaybook) "
+                    + "AND moveLine.amountRemaining != 0 "
+                    + "AND term.amountRemaining != 0",
+                Object[].class)
+            .setParameter("company", company)
+            .setParameter("statusAccounted", MoveRepository.STATUS_ACCOUNTED)
+            .setParameter("statusDaybook", MoveRepository.STATUS_DAYBOOK)
+            .setHint("org.hibernate.fetchSize", FETCH_SIZE)
+            .setHint("org.hibernate.readOnly", true);
+
+    AccountConfig accountConfig = company.getAccountConfig();
+    int mailTransitTime = accountConfig != null ? accountConfig.getMailTransitTime() : 0;
+    Map<Pair<Long, Long>, DebtRecoveryAging> agingMap = new LinkedHashMap<>();
+
+    try (Stream<Object[]> resultStream = query.getResultStream()) {
+      resultStream.forEach(
+          row -> addInvoiceTerm(agingMap, company, agingDate, mailTransitTime, row));
+    }
+
+    return new ArrayList<>(agingMap.values());
+  }
+
+  /**
+   * Add an invoice term, as selected by {@link #computeAging}, to the aging of its partner and
+   * trading name.
+   */
+  protected void addInvoiceTerm(
+      Map<Pair<Long, Long>, DebtRecoveryAging> agingMap,
+      Company company,
+      LocalDate agingDate,
+      int mailTransitTime,
+      Object[] row) {
+    Long partnerId = (Long) row[0];
+    Long tradingNameId = (Long) row[1];
+    DebtRecoveryAging aging =
+        agingMap.computeIfAbsent(
+            Pair.of(partnerId, tradingNameId),
+            key -> createAging(company, partnerId, tradingNameId, agingDate));
+
+    LocalDate dueDate = (LocalDate) row[2];
+    BigDecimal amount = (BigDecimal) row[4];
+    boolean isDebit = ((BigDecimal) row[3]).signum() > 0;
+    if (dueDate != null) {
+      addToBucket(aging, dueDate, isDebit ? amount : amount.negate(), isDebit);
+    }
+    if (!Boolean.TRUE.equals(row[6])) {
+      addToBalanceDueDebtRecovery(
+          aging, dueDate, (LocalDate) row[5], amount, isDebit, mailTransitTime);
+    }
+  }
+
+  protected DebtRecoveryAging createAging(
+      Company company, Long partnerId, Long tradingNameId, LocalDate agingDate) {
+    DebtRecoveryAging aging = new DebtRecoveryAging();
+    aging.setCompany(company);
+    aging.setPartner(getReference(Partner.class, partnerId));
+    if (tradingNameId != null) {
+      aging.setTradingName(getReference(TradingName.class, tradingNameId));
+    }
+    aging.setAgingDate(agingDate);
+    aging.setBalanceDue(BigDecimal.ZERO);
+    aging.setBalanceDueDebtRecovery(BigDecimal.ZERO);
+    aging.setNotDueAmount(BigDecimal.ZERO);
+    aging.setOverdue1To30Amount(BigDecimal.ZERO);
+    aging.setOverdue31To60Amount(BigDecimal.ZERO);
+    aging.setOverdue61To90Amount(BigDecimal.ZERO);
+    aging.setOverdueOver90Amount(BigDecimal.ZERO);
+    return aging;
+  }
+
+  protected <T extends Model> T getReference(Class<T> modelClass, Long id) {
+    return JPA.em().getReference(modelClass, id);
+  }
+
+  /**
+   * Add the remaining amount of an invoice term to the recoverable balance due, computed as {@link
+   * com.axelor.apps.account.service.AccountCustomerService#getBalanceDueDebtRecovery}: the due
+   * debit terms, minus the credit terms of the moves dated at least the mail transit time before
+   * the aging date. Terms of invoices blocked in debt recovery are not added.
+   */
+  protected void addToBalanceDueDebtRecovery(
+      DebtRecoveryAging aging,
+      LocalDate dueDate,
+      LocalDate moveDate,
+      BigDecimal amount,
+      boolean isDebit,
+      int mailTransitTime) {
+    LocalDate agingDate = aging.getAgingDate();
+    if (isDebit && dueDate != null && !dueDate.isAfter(agingDate)) {
+      aging.setBalanceDueDebtRecovery(aging.getBalanceDueDebtRecovery().add(amount));
+    } else if (!isDebit
+        && moveDate != null
+        && !moveDate.plusDays(mailTransitTime).isAfter(agingDate)) {
+      aging.setBalanceDueDebtRecovery(aging.getBalanceDueDebtRecovery().subtract(amount));
+    }
+  }
+
+  /**
+   * Add the signed remaining amount of an invoice term to the bucket of its due date. Terms due at
+   * the aging date are in the first overdue bucket, as they are part of the balance due.
+   */
+  protected void addToBucket(
+      DebtRecoveryAging aging, LocalDate dueDate, BigDecimal amount, boolean isDebit) {
+    long overdueDays = ChronoUnit.DAYS.between(dueDate, aging.getAgingDate());
+
+    if (overdueDays < 0) {
+      aging.setNotDueAmount(aging.getNotDueAmount().add(amount));
+      return;
+    }
+
+    aging.setBalanceDue(aging.getBalanceDue().add(amount));
+
+    if (overdueDays <= 30) {
+      aging.setOverdue1To30Amount(aging.getOverdue1To30Amount().add(amount));
+    } else if (overdueDays <= 60) {
+      aging.setOverdue31To60Amount(aging.getOverdue31To60Amount().add(amount));
+    } else if (overdueDays <= 90) {
+      aging.setOverdue61To90Amount(aging.getOverdue61To90Amount().add(amount));
+    } else {
+      aging.setOverdueOver90Amount(aging.getOverdueOver90Amount().add(amount));
+    }
+
+    if (isDebit
+        && (aging.getOldestDueDate() == null || dueDate.isBefore(aging.getOldestDueDate()))) {
+      aging.setOldestDueDate(dueDate);
+    }
+  }
+
+  @Override
+  @Transactional
+  public void saveSnapshot(Company company, Collection<DebtRecoveryAging> agingList) {
+    EntityManager em = JPA.em();
+    em.createQuery("DELETE FROM DebtRecoveryAging self WHERE self.company = :company")
+        .setParameter("company", company)
+        .executeUpdate();
+
+    int i = 0;
+    for (DebtRecoveryAging aging : agingList) {
+      em.persist(aging);
+      if (++i % jpaLimit == 0) {
+        em.flush();
+      }
+    }
+  }
+
+  @Override
+  public List<DebtRecoveryAging> computeSnapshot(Company company) {
+    List<DebtRecoveryAging> agingList =
+        computeAging(company, appAccountService.getTodayDate(company));
+    saveSnapshot(company, agingList);
+    return agingList;
+  }
+
+  @Override
+  public BigDecimal getBalanceDue(
+      Collection<DebtRecoveryAging> partnerAgingList, TradingName tradingName) {
+    return sum(partnerAgingList, tradingName, DebtRecoveryAging::getBalanceDue);
+  }
+
+  @Override
+  public BigDecimal getBalanceDueDebtRecovery(
+      Collection<DebtRecoveryAging> partnerAgingList, TradingName tradingName) {
+    return sum(partnerAgingList, tradingName, DebtRecoveryAging::getBalanceDueDebtRecovery);
+  }
+
+  protected BigDecimal sum(
+      Collection<DebtRecoveryAging> partnerAgingList,
+      TradingName tradingName,
+      Function<DebtRecoveryAging, BigDecimal> amountGetter) {
+    if (CollectionUtils.isEmpty(partnerAgingList)) {
+      return BigDecimal.ZERO;
+    }
+    return partnerAgingList.stream()
+        .filter(
+            aging ->
+                tradingName == null
+                    || (aging.getTradingName() != null
+                        && Objects.equals(aging.getTradingName().getId(), tradingName.getId())))
+        .map(amountGetter)
+        .reduce(BigDecimal.ZERO, BigDecimal::add);
+  }
+}
@@ -434,21 +434,48 @@ public class DebtRecoveryService {
           IllegalAccessException,
           IOException,
           JSONException {
+    BigDecimal balanceDue = accountCustomerService.getBalanceDue(partner, company, tradingName);
+    return this.debtRecoveryGenerate(
+        partner,
+        company,
+        tradingName,
+        balanceDue,
+        balanceDue.signum() > 0
+            ? accountCustomerService.getBalanceDueDebtRecovery(partner, company, tradingName)
+            : BigDecimal.ZERO);
+  }
+
+  /**
+   * Same as {@link #debtRecoveryGenerate(Partner, Company, TradingName)} with balances already
+   * computed, for instance from the {@link com.axelor.apps.account.db.DebtRecoveryAging} of the
+   * partner, so that no balance is queried.
+   *
+   * @param balanceDue the balance due of the partner
+   * @param balanceDueDebtRecovery the recoverable balance due of the partner
+   */
+  @Transactional(rollbackOn = {Exception.class})
+  public boolean debtRecoveryGenerate(
+      Partner partner,
+      Company company,
+      TradingName tradingName,
+      BigDecimal balanceDue,
+      BigDecimal balanceDueDebtRecovery)
+      throws AxelorException,
+          ClassNotFoundException,
+          InstantiationException,
+          IllegalAccessException,
+          IOException,
+          JSONException {
     boolean remindedOk = false;
 
     DebtRecovery debtRecovery =
         this.getDebtRecovery(
             partner, company, tradingName); // getDebtRecovery if one already exists
 
-    BigDecimal balanceDue = accountCustomerService.getBalanceDue(partner, company, tradingName);
-
     if (balanceDue.compareTo(BigDecimal.ZERO) > 0) {
 
       log.debug("balanceDue : {} ", balanceDue);
 
-      BigDecimal balanceDueDebtRecovery =
-          accountCustomerService.getBalanceDueDebtRecovery(partner, company, tradingName);
-
       if (balanceDueDebtRecovery.compareTo(BigDecimal.ZERO) > 0) {
         log.debug("balanceDueDebtRecovery : {} ", balanceDueDebtRecovery);
 
@@ -0,0 +1,53 @@
+/*
+ * Axelor Business Solutions
+ *
+ * Copyright (C) 2005-2025 Axelor (<http://axelor.com>).
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.axelor.apps.account.service.invoice;
+
+import com.axelor.apps.account.db.Invoice;
+import com.axelor.utils.ThrowConsumer;
+import java.util.Collection;
+import java.util.List;
+import org.apache.commons.lang3.tuple.Pair;
+
+public interface InvoiceMassProcessService {
+
+  /**
+   * Apply the given consumer to every invoice in the given status, on several workers. Invoices
+   * sharing a numbering sequence, a journal or a partner accounting situation are handled by the
+   * same worker, in chronological order, each invoice in its own transaction.
+   *
+   * @param invoiceIds
+   * @param consumer
+   * @param statusSelect only invoices in this status are processed
+   * @return pair of done/anomaly counts
+   */
+  Pair<Integer, Integer> process(
+      Collection<? extends Number> invoiceIds,
+      ThrowConsumer<Invoice, Exception> consumer,
+      int statusSelect);
+
+  /**
+   * Split the given invoices into independent groups: two invoices sharing a numbering sequence, a
+   * journal or a partner accounting situation always end up in the same group. Each group is
+   * sorted by invoice date then id.
+   *
+   * @param invoiceIds
+   * @return the list of invoice id groups
+   */
+  List<List<Long>> getPartitions(Collection<? extends Number> invoiceIds);
+}
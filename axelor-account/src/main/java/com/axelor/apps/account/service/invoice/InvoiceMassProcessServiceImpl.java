@@ -0,0 +1,238 @@
+/*
+ * Axelor Business Solutions
+ *
+ * Copyright (C) 2005-2025 Axelor (<http://axelor.com>).
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.axelor.apps.account.service.invoice;
+
+import com.axelor.apps.account.db.Invoice;
+import com.axelor.apps.account.db.Journal;
+import com.axelor.apps.account.db.repo.InvoiceRepository;
+import com.axelor.apps.base.AxelorException;
+import com.axelor.apps.base.db.repo.CompanyRepository;
+import com.axelor.apps.base.service.exception.TraceBackService;
+import com.axelor.apps.base.service.parallel.ParallelProcessService;
+import com.axelor.utils.ThrowConsumer;
+import com.axelor.utils.helpers.ModelHelper;
+import com.google.common.collect.Lists;
+import com.google.inject.Inject;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import org.apache.commons.lang3.tuple.Pair;
+
+public class InvoiceMassProcessServiceImpl implements InvoiceMassProcessService {
+
+  protected static final int FETCH_LIMIT = 1000;
+
+  protected InvoiceRepository invoiceRepository;
+  protected ParallelProcessService parallelProcessService;
+  protected InvoiceJournalService invoiceJournalService;
+  protected CompanyRepository companyRepository;
+
+  @Inject
+  public InvoiceMassProcessServiceImpl(
+      InvoiceRepository invoiceRepository,
+      ParallelProcessService parallelProcessService,
+      InvoiceJournalService invoiceJournalService,
+      CompanyRepository companyRepository) {
+    this.invoiceRepository = invoiceRepository;
+    this.parallelProcessService = parallelProcessService;
+    this.invoiceJournalService = invoiceJournalService;
+    this.companyRepository = companyRepository;
+  }
+
+  @Override
+  public Pair<Integer, Integer> process(
+      Collection<? extends Number> invoiceIds,
+      ThrowConsumer<Invoice, Exception> consumer,
+      int statusSelect) {
+    AtomicInteger doneCount = new AtomicInteger();
+    AtomicInteger errorCount = new AtomicInteger();
+
+    List<Runnable> tasks = new ArrayList<>();
+    for (List<Long> partition : getPartitions(invoiceIds)) {
+      tasks.add(
+          () ->
+              errorCount.addAndGet(
+                  ModelHelper.apply(
+                      Invoice.class,
+                      partition,
+                      invoice -> {
+                        if (invoice.getStatusSelect() == statusSelect) {
+                          consumer.accept(invoice);
+                          doneCount.incrementAndGet();
+                        }
+                      })));
+    }
+
+    try {
+      parallelProcessService.runAll(tasks, parallelProcessService.getDefaultWorkerCount());
+    } catch (AxelorException e) {
+      TraceBackService.trace(e);
+      errorCount.incrementAndGet();
+    }
+
+    return Pair.of(doneCount.get(), errorCount.get());
+  }
+
+  @Override
+  public List<List<Long>> getPartitions(Collection<? extends Number> invoiceIds) {
+    Set<Long> idSet =
+        invoiceIds.stream()
+            .map(Number::longValue)
+            .collect(Collectors.toCollection(LinkedHashSet::new));
+
+    List<Map> invoiceDataList = new ArrayList<>();
+    for (List<Long> idList : Lists.partition(new ArrayList<>(idSet), FETCH_LIMIT)) {
+      invoiceDataList.addAll(
+          invoiceRepository
+              .all()
+              .filter("self.id IN :ids")
+              .bind("ids", idList)
+              .select(
+                  "id",
+                  "company.id",
+                  "operationTypeSelect",
+                  "journal.id",
+                  "partner.id",
+                  "inTaxTotal",
+                  "invoiceDate")
+              .fetch(0, 0));
+    }
+
+    List<List<Long>> partitionList = getPartitions(invoiceDataList);
+    partitionList.forEach(idSet::removeAll);
+    if (!idSet.isEmpty()) {
+      // Unknown ids are kept so that they are reported as anomalies
+      partitionList.add(new ArrayList<>(idSet));
+    }
+    return partitionList;
+  }
+
+  protected List<List<Long>> getPartitions(List<Map> invoiceDataList) {
+    invoiceDataList.sort(
+        Comparator.comparing(
+                (Map invoiceData) -> (LocalDate) invoiceData.get("invoiceDate"),
+                Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(invoiceData -> (Long) invoiceData.get("id")));
+
+    // Invoices are linked through their sequence, their journal and their partner accounting
+    // situation, each connected group is handled by a single worker.
+    Map<String, String> parentKeyMap = new HashMap<>();
+    Map<List<Object>, Object> journalIdMap = new HashMap<>();
+    for (Map invoiceData : invoiceDataList) {
+      String sequenceKey = getSequenceKey(invoiceData);
+      Object companyId = invoiceData.get("company.id");
+      Object journalId = getJournalId(invoiceData, journalIdMap);
+      Object partnerId = invoiceData.get("partner.id");
+      if (journalId != null) {
+        union(parentKeyMap, sequenceKey, "journal-" + journalId);
+      } else {
+        // Without journal, the invoices of the company are kept together
+        union(parentKeyMap, sequenceKey, "company-" + companyId);
+      }
+      if (partnerId != null) {
+        union(parentKeyMap, sequenceKey, "partner-" + partnerId + "-" + companyId);
+      }
+    }
+
+    Map<String, List<Long>> partitionMap = new LinkedHashMap<>();
+    for (Map invoiceData : invoiceDataList) {
+      Long invoiceId = (Long) invoiceData.get("id");
+      String rootKey = find(parentKeyMap, getSequenceKey(invoiceData));
+      partitionMap.computeIfAbsent(rootKey, key -> new ArrayList<>()).add(invoiceId);
+    }
+
+    return new ArrayList<>(partitionMap.values());
+  }
+
+  /**
+   * Get the journal of the invoice, or the one it will be ventilated in when it has none yet, as
+   * draft and validated invoices get their journal on ventilation. Returns null when the journal
+   * can not be resolved.
+   */
+  protected Object getJournalId(Map invoiceData, Map<List<Object>, Object> journalIdMap) {
+    Object journalId = invoiceData.get("journal.id");
+    if (journalId != null) {
+      return journalId;
+    }
+
+    Long companyId = (Long) invoiceData.get("company.id");
+    Integer operationTypeSelect = (Integer) invoiceData.get("operationTypeSelect");
+    BigDecimal inTaxTotal = (BigDecimal) invoiceData.get("inTaxTotal");
+    if (companyId == null || operationTypeSelect == null) {
+      return null;
+    }
+
+    int sign = inTaxTotal != null ? inTaxTotal.signum() : 0;
+    List<Object> key = Arrays.asList(companyId, operationTypeSelect, sign < 0);
+    if (!journalIdMap.containsKey(key)) {
+      Invoice invoice = new Invoice();
+      invoice.setCompany(companyRepository.find(companyId));
+      invoice.setOperationTypeSelect(operationTypeSelect);
+      invoice.setInTaxTotal(inTaxTotal != null ? inTaxTotal : BigDecimal.ZERO);
+      Journal journal = null;
+      try {
+        journal = invoiceJournalService.getJournal(invoice);
+      } catch (AxelorException e) {
+        // The ventilation will fail on the missing configuration, the invoice is then only
+        // grouped with the other invoices of the company
+      }
+      journalIdMap.put(key, journal != null ? journal.getId() : null);
+    }
+    return journalIdMap.get(key);
+  }
+
+  protected String getSequenceKey(Map invoiceData) {
+    return "sequence-"
+        + invoiceData.get("company.id")
+        + "-"
+        + invoiceData.get("operationTypeSelect");
+  }
+
+  protected String find(Map<String, String> parentKeyMap, String key) {
+    String root = key;
+    while (parentKeyMap.containsKey(root)) {
+      root = parentKeyMap.get(root);
+    }
+    while (!key.equals(root)) {
+      String parentKey = parentKeyMap.get(key);
+      parentKeyMap.put(key, root);
+      key = parentKey;
+    }
+    return root;
+  }
+
+  protected void union(Map<String, String> parentKeyMap, String key1, String key2) {
+    String root1 = find(parentKeyMap, key1);
+    String root2 = find(parentKeyMap, key2);
+    if (!root1.equals(root2)) {
+      parentKeyMap.put(root2, root1);
+    }
+  }
+}
@@ -117,6 +117,7 @@ public class InvoiceServiceImpl extends InvoiceRepository implements InvoiceServ
   protected InvoiceTermFilterService invoiceTermFilterService;
   protected InvoicePrintService invoicePrintService;
   protected InvoiceTermPfpToolService invoiceTermPfpToolService;
+  protected InvoiceMassProcessService invoiceMassProcessService;
 
   @Inject
   public InvoiceServiceImpl(
@@ -136,7 +137,8 @@ public class InvoiceServiceImpl extends InvoiceRepository implements InvoiceServ
       TemplateMessageService templateMessageService,
       InvoiceTermFilterService invoiceTermFilterService,
       InvoicePrintService invoicePrintService,
-      InvoiceTermPfpToolService invoiceTermPfpToolService) {
+      InvoiceTermPfpToolService invoiceTermPfpToolService,
+      InvoiceMassProcessService invoiceMassProcessService) {
 
     this.validateFactory = validateFactory;
     this.ventilateFactory = ventilateFactory;
@@ -155,6 +157,7 @@ public class InvoiceServiceImpl extends InvoiceRepository implements InvoiceServ
     this.invoiceTermFilterService = invoiceTermFilterService;
     this.invoicePrintService = invoicePrintService;
     this.invoiceTermPfpToolService = invoiceTermPfpToolService;
+    this.invoiceMassProcessService = invoiceMassProcessService;
   }
 
   // WKF
@@ -985,12 +988,12 @@ public class InvoiceServiceImpl extends InvoiceRepository implements InvoiceServ
 
   @Override
   public Pair<Integer, Integer> massValidateAndVentilate(Collection<? extends Number> invoiceIds) {
-    return massProcess(invoiceIds, this::validateAndVentilate, STATUS_DRAFT);
+    return invoiceMassProcessService.process(invoiceIds, this::validateAndVentilate, STATUS_DRAFT);
   }
 
   @Override
   public Pair<Integer, Integer> massVentilate(Collection<? extends Number> invoiceIds) {
-    return massProcess(invoiceIds, this::ventilate, STATUS_VALIDATED);
+    return invoiceMassProcessService.process(invoiceIds, this::ventilate, STATUS_VALIDATED);
   }
 
   private Pair<Integer, Integer> massProcess(
@@ -70,6 +70,7 @@ import com.axelor.i18n.I18n;
 import com.axelor.meta.MetaStore;
 import com.axelor.meta.schema.views.Selection.Option;
 import com.google.common.base.Splitter;
+import com.google.common.collect.Lists;
 import com.google.inject.Inject;
 import com.google.inject.persist.Transactional;
 import com.google.inject.servlet.RequestScoped;
@@ -80,6 +81,7 @@ import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -682,6 +684,7 @@ public class MoveValidateServiceImpl implements MoveValidateService {
       return errors;
     }
     User user = userService.getUser();
+    Map<Long, Set<Long>> partnerIdSetByCompanyId = new HashMap<>();
     int i = 0;
     for (Integer moveId : moveIds) {
       Move move = moveRepository.find(moveId.longValue());
@@ -695,7 +698,8 @@ public class MoveValidateServiceImpl implements MoveValidateService {
         }
         if (move.getStatusSelect() != MoveRepository.STATUS_ACCOUNTED
             && move.getStatusSelect() != MoveRepository.STATUS_CANCELED) {
-          accounting(move);
+          accounting(move, false);
+          addPartnerOfMove(move, partnerIdSetByCompanyId);
         }
       } catch (Exception e) {
         TraceBackService.trace(e);
@@ -710,15 +714,113 @@ public class MoveValidateServiceImpl implements MoveValidateService {
       }
     }
 
+    try {
+      updateCustomerAccounts(partnerIdSetByCompanyId);
+    } catch (Exception e) {
+      TraceBackService.trace(e);
+    }
+
     return errors;
   }
 
+  /**
+   * Account all the moves of the query. Moves are accounted by chunks in a single transaction,
+   * with their lines and references loaded at once, and the partner balances are updated once at
+   * the end.
+   */
+  @Override
   public void accountingMultiple(Query<Move> moveListQuery) throws AxelorException {
-    Move move;
+    List<Long> moveIdList =
+        moveListQuery.select("id").fetch(0, 0).stream()
+            .map(moveMap -> (Long) moveMap.get("id"))
+            .collect(Collectors.toList());
+
+    Map<Long, Set<Long>> partnerIdSetByCompanyId = new HashMap<>();
+
+    for (List<Long> moveIdChunk : Lists.partition(moveIdList, jpaLimit)) {
+      try {
+        accountingChunk(moveIdChunk, partnerIdSetByCompanyId);
+      } finally {
+        JPA.clear();
+      }
+    }
+
+    updateCustomerAccounts(partnerIdSetByCompanyId);
+  }
+
+  @Transactional(rollbackOn = {Exception.class})
+  protected void accountingChunk(
+      List<Long> moveIdList, Map<Long, Set<Long>> partnerIdSetByCompanyId)
+      throws AxelorException {
+    for (Move move : fetchMovesForAccounting(moveIdList)) {
+      accounting(move, false);
+      addPartnerOfMove(move, partnerIdSetByCompanyId);
+    }
+  }
+
+  /**
+   * Load the moves with their lines, and the accounts, journals, periods and analytic lines they
+   * refer to, with a few queries instead of lazy loading them move by move.
+   *
+   * @return the moves in the order of the given ids
+   */
+  protected List<Move> fetchMovesForAccounting(List<Long> moveIdList) {
+    List<Move> moveList =
+        JPA.em()
+            .createQuery(
+                "SELECT DISTINCT self FROM Move self "
+                    + "LEFT JOIN FETCH self.moveLineList "
+                    + "LEFT JOIN FETCH self.journal "
+                    + "LEFT JOIN FETCH self.period "
+                    + "WHERE self.id IN (:moveIdList)",
+                Move.class)
+            .setParameter("moveIdList", moveIdList)
+            .getResultList();
+
+    JPA.em()
+        .createQuery(
+            "SELECT DISTINCT self FROM MoveLine self "
+                + "LEFT JOIN FETCH self.account "
+                + "LEFT JOIN FETCH self.analyticMoveLineList "
+                + "WHERE self.move.id IN (:moveIdList)",
+            MoveLine.class)
+        .setParameter("moveIdList", moveIdList)
+        .getResultList();
+
+    Map<Long, Integer> positionMap = new HashMap<>();
+    for (int i = 0; i < moveIdList.size(); i++) {
+      positionMap.put(moveIdList.get(i), i);
+    }
+    moveList.sort(Comparator.comparing(move -> positionMap.get(move.getId())));
+
+    return moveList;
+  }
+
+  protected void addPartnerOfMove(Move move, Map<Long, Set<Long>> partnerIdSetByCompanyId) {
+    List<Partner> partnerList = moveCustAccountService.getPartnerOfMove(move);
+
+    if (CollectionUtils.isEmpty(partnerList) || move.getCompany() == null) {
+      return;
+    }
+
+    Set<Long> partnerIdSet =
+        partnerIdSetByCompanyId.computeIfAbsent(move.getCompany().getId(), id -> new HashSet<>());
+    partnerList.stream().map(Partner::getId).forEach(partnerIdSet::add);
+  }
 
-    while (!((move = moveListQuery.fetchOne()) == null)) {
-      accounting(move);
-      JPA.clear();
+  /** Update the balances of the partners of the accounted moves, once per company and partner. */
+  protected void updateCustomerAccounts(Map<Long, Set<Long>> partnerIdSetByCompanyId)
+      throws AxelorException {
+    for (Map.Entry<Long, Set<Long>> entry : partnerIdSetByCompanyId.entrySet()) {
+      for (List<Long> partnerIdList :
+          Lists.partition(new ArrayList<>(entry.getValue()), jpaLimit)) {
+        Company company = JPA.find(Company.class, entry.getKey());
+        List<Partner> partnerList =
+            partnerRepository.all().filter("self.id IN (:ids)").bind("ids", partnerIdList).fetch();
+
+        moveCustAccountService.updateCustomerAccount(partnerList, company);
+        JPA.clear();
+      }
     }
   }
 
@@ -0,0 +1,66 @@
+/*
+ * Axelor Business Solutions
+ *
+ * Copyright (C) 2005-2025 Axelor (<http://axelor.com>).
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.axelor.apps.account.service.reconcile;
+
+import com.axelor.apps.account.db.Reconcile;
+import com.axelor.apps.base.AxelorException;
+import java.util.concurrent.Callable;
+
+/**
+ * Coordinates concurrent reconciliations. Work on the same company, account and partner, or on the
+ * same accounting situation, is serialized through a striped lock and retried when it fails on an
+ * optimistic lock conflict, while work on independent partners runs fully in parallel.
+ */
+public interface ReconcileCoordinatorService {
+
+  /**
+   * Run a reconciliation while holding the locks of its move lines and of the accounting situation
+   * of its partner.
+   *
+   * <p>The work is retried when it fails on an optimistic lock conflict, so it has to open its own
+   * transaction and reload the entities it updates.
+   *
+   * @param companyId the company of the reconciled move lines
+   * @param accountId the account of the reconciled move lines
+   * @param partnerId the partner of the reconciled move lines, can be null
+   * @param work the reconciliation to run
+   * @return the result of the work
+   * @throws AxelorException if the work fails, or still conflicts after the last attempt
+   */
+  <T> T runLocked(Long companyId, Long accountId, Long partnerId, Callable<T> work)
+      throws AxelorException;
+
+  /**
+   * Lock the move lines of a reconcile and the accounting situations of their partners in the
+   * database until the end of the current transaction. The rows are locked ordered by id, and a
+   * transaction waiting on another one which waits on it is rolled back by the database instead of
+   * waiting for a timeout.
+   *
+   * @param reconcile the reconcile about to be confirmed
+   */
+  void lockReconcile(Reconcile reconcile);
+
+  long getExecutionCount();
+
+  long getConflictCount();
+
+  long getRetryCount();
+
+  long getFailureCount();
+}
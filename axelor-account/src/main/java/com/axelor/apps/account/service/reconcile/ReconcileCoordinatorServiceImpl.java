@@ -0,0 +1,251 @@
+/*
+ * Axelor Business Solutions
+ *
+ * Copyright (C) 2005-2025 Axelor (<http://axelor.com>).
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.axelor.apps.account.service.reconcile;
+
+import com.axelor.apps.account.db.AccountingSituation;
+import com.axelor.apps.account.db.MoveLine;
+import com.axelor.apps.account.db.Reconcile;
+import com.axelor.apps.account.exception.AccountExceptionMessage;
+import com.axelor.apps.base.AxelorException;
+import com.axelor.apps.base.db.repo.TraceBackRepository;
+import com.axelor.db.JPA;
+import com.axelor.db.Model;
+import com.axelor.db.tenants.TenantResolver;
+import com.axelor.i18n.I18n;
+import com.google.common.base.Throwables;
+import com.google.common.util.concurrent.Striped;
+import com.google.inject.Singleton;
+import java.lang.invoke.MethodHandles;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import javax.persistence.LockModeType;
+import javax.persistence.OptimisticLockException;
+import javax.persistence.PessimisticLockException;
+import org.hibernate.StaleStateException;
+import org.hibernate.exception.LockAcquisitionException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+@Singleton
+public class ReconcileCoordinatorServiceImpl implements ReconcileCoordinatorService {
+
+  private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+  protected static final int STRIPE_COUNT = 1024;
+  protected static final int MAX_ATTEMPTS = 4;
+  protected static final long RETRY_DELAY_MS = 50;
+  protected static final long LOCK_TIMEOUT_SECONDS = 30;
+
+  protected final Striped<Lock> locks = Striped.lazyWeakLock(STRIPE_COUNT);
+
+  protected final AtomicLong executionCount = new AtomicLong();
+  protected final AtomicLong conflictCount = new AtomicLong();
+  protected final AtomicLong retryCount = new AtomicLong();
+  protected final AtomicLong failureCount = new AtomicLong();
+
+  @Override
+  public <T> T runLocked(Long companyId, Long accountId, Long partnerId, Callable<T> work)
+      throws AxelorException {
+    Set<List<Object>> keySet = new LinkedHashSet<>();
+    keySet.add(getMoveLineKey(companyId, accountId, partnerId));
+    keySet.add(getAccountingSituationKey(companyId, partnerId));
+
+    List<Lock> acquiredLocks = new ArrayList<>();
+    try {
+      for (Lock lock : locks.bulkGet(keySet)) {
+        acquire(lock);
+        acquiredLocks.add(lock);
+      }
+      executionCount.incrementAndGet();
+      return runWithRetry(work);
+    } finally {
+      Collections.reverse(acquiredLocks);
+      acquiredLocks.forEach(Lock::unlock);
+    }
+  }
+
+  @Override
+  public void lockReconcile(Reconcile reconcile) {
+    if (reconcile == null || !JPA.em().getTransaction().isActive()) {
+      return;
+    }
+
+    Set<Long> moveLineIdSet = new TreeSet<>();
+    Set<Long> companyIdSet = new HashSet<>();
+    Set<Long> partnerIdSet = new HashSet<>();
+    for (MoveLine moveLine :
+        Arrays.asList(reconcile.getDebitMoveLine(), reconcile.getCreditMoveLine())) {
+      if (moveLine == null || moveLine.getId() == null) {
+        continue;
+      }
+      moveLineIdSet.add(moveLine.getId());
+      Long companyId = getId(moveLine.getMove() != null ? moveLine.getMove().getCompany() : null);
+      Long partnerId = getId(moveLine.getPartner());
+      if (companyId != null && partnerId != null) {
+        companyIdSet.add(companyId);
+        partnerIdSet.add(partnerId);
+      }
+    }
+    if (moveLineIdSet.isEmpty()) {
+      return;
+    }
+
+    JPA.em()
+        .createQuery(
+            "SELECT self FROM MoveLine self WHERE self.id IN :ids ORDER BY self.id", MoveLine.class)
+        .setParameter("ids", moveLineIdSet)
+        .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+        .getResultList();
+
+    if (partnerIdSet.isEmpty()) {
+      return;
+    }
+
+    JPA.em()
+        .createQuery(
+            "SELECT self FROM AccountingSituation self"
+                + " WHERE self.company.id IN :companyIds AND self.partner.id IN :partnerIds"
+                + " ORDER BY self.id",
+            AccountingSituation.class)
+        .setParameter("companyIds", companyIdSet)
+        .setParameter("partnerIds", partnerIdSet)
+        .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+        .getResultList();
+  }
+
+  protected void acquire(Lock lock) throws AxelorException {
+    boolean acquired;
+    try {
+      acquired = lock.tryLock(LOCK_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new AxelorException(e, TraceBackRepository.CATEGORY_INCONSISTENCY);
+    }
+    if (!acquired) {
+      throw new AxelorException(
+          TraceBackRepository.CATEGORY_INCONSISTENCY,
+          I18n.get(AccountExceptionMessage.RECONCILE_LOCK_TIMEOUT));
+    }
+  }
+
+  protected <T> T runWithRetry(Callable<T> work) throws AxelorException {
+    for (int attempt = 1; ; attempt++) {
+      try {
+        return work.call();
+      } catch (Exception e) {
+        if (!isConflict(e)) {
+          failureCount.incrementAndGet();
+          throw toAxelorException(e);
+        }
+
+        conflictCount.incrementAndGet();
+        JPA.clear();
+
+        if (attempt >= MAX_ATTEMPTS) {
+          failureCount.incrementAndGet();
+          throw toAxelorException(e);
+        }
+
+        retryCount.incrementAndGet();
+        LOG.debug("Reconcile conflict, attempt {} of {}", attempt, MAX_ATTEMPTS);
+        waitBeforeRetry(attempt);
+      }
+    }
+  }
+
+  /**
+   * The lines of a same company, account and partner always get the same stripe. Stripes are
+   * shared between tenants and between keys having the same hash, which only costs some
+   * parallelism.
+   */
+  protected List<Object> getMoveLineKey(Long companyId, Long accountId, Long partnerId) {
+    return Arrays.asList(
+        "moveLine", TenantResolver.currentTenantIdentifier(), companyId, accountId, partnerId);
+  }
+
+  /**
+   * The accounting situation of a partner in a company is updated by the reconciliations of all
+   * its accounts.
+   */
+  protected List<Object> getAccountingSituationKey(Long companyId, Long partnerId) {
+    return Arrays.asList(
+        "accountingSituation", TenantResolver.currentTenantIdentifier(), companyId, partnerId);
+  }
+
+  protected Long getId(Model model) {
+    return model != null ? model.getId() : null;
+  }
+
+  protected boolean isConflict(Exception e) {
+    return Throwables.getCausalChain(e).stream()
+        .anyMatch(
+            cause ->
+                cause instanceof OptimisticLockException
+                    || cause instanceof StaleStateException
+                    || cause instanceof PessimisticLockException
+                    || cause instanceof LockAcquisitionException);
+  }
+
+  /** The delay only depends on the attempt so that retries are reproducible. */
+  protected void waitBeforeRetry(int attempt) throws AxelorException {
+    try {
+      Thread.sleep(RETRY_DELAY_MS * attempt);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new AxelorException(e, TraceBackRepository.CATEGORY_INCONSISTENCY);
+    }
+  }
+
+  protected AxelorException toAxelorException(Exception e) {
+    if (e instanceof AxelorException) {
+      return (AxelorException) e;
+    }
+    return new AxelorException(e, TraceBackRepository.CATEGORY_INCONSISTENCY);
+  }
+
+  @Override
+  public long getExecutionCount() {
+    return executionCount.get();
+  }
+
+  @Override
+  public long getConflictCount() {
+    return conflictCount.get();
+  }
+
+  @Override
+  public long getRetryCount() {
+    return retryCount.get();
+  }
+
+  @Override
+  public long getFailureCount() {
+    return failureCount.get();
+  }
+}
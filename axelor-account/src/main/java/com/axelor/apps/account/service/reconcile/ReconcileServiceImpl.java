@@ -106,6 +106,7 @@ public class ReconcileServiceImpl implements ReconcileService {
   protected ForeignExchangeGapToolService foreignExchangeGapToolService;
   protected InvoicePaymentToolService invoicePaymentToolService;
   protected InvoicePaymentRepository invoicePaymentRepository;
+  protected ReconcileCoordinatorService reconcileCoordinatorService;
 
   @Inject
   public ReconcileServiceImpl(
@@ -131,7 +132,8 @@ public class ReconcileServiceImpl implements ReconcileService {
       ForeignExchangeGapService foreignExchangeGapService,
       ForeignExchangeGapToolService foreignExchangeGapToolService,
       InvoicePaymentToolService invoicePaymentToolService,
-      InvoicePaymentRepository invoicePaymentRepository) {
+      InvoicePaymentRepository invoicePaymentRepository,
+      ReconcileCoordinatorService reconcileCoordinatorService) {
 
     this.moveToolService = moveToolService;
     this.accountConfigService = accountConfigService;
@@ -156,6 +158,7 @@ public class ReconcileServiceImpl implements ReconcileService {
     this.foreignExchangeGapToolService = foreignExchangeGapToolService;
     this.invoicePaymentToolService = invoicePaymentToolService;
     this.invoicePaymentRepository = invoicePaymentRepository;
+    this.reconcileCoordinatorService = reconcileCoordinatorService;
   }
 
   /**
@@ -220,6 +223,7 @@ public class ReconcileServiceImpl implements ReconcileService {
   public Reconcile confirmReconcile(
       Reconcile reconcile, boolean updateInvoicePayments, boolean updateInvoiceTerms)
       throws AxelorException {
+    reconcileCoordinatorService.lockReconcile(reconcile);
     this.computeForeignExchange(reconcile);
 
     return this.initConfirmAndValidateReconcile(
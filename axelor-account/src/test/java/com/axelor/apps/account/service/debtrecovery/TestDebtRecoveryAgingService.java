@@ -0,0 +1,189 @@
+/*
+ * Axelor Business Solutions
+ *
+ * Copyright (C) 2005-2025 Axelor (<http://axelor.com>).
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.axelor.apps.account.service.debtrecovery;
+
+import com.axelor.apps.account.db.DebtRecoveryAging;
+import com.axelor.apps.base.db.Company;
+import com.axelor.apps.base.db.Partner;
+import com.axelor.apps.base.db.TradingName;
+import com.axelor.db.Model;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import org.apache.commons.lang3.tuple.Pair;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class TestDebtRecoveryAgingService {
+
+  private static final LocalDate AGING_DATE = LocalDate.of(2026, 6, 30);
+  private static final int MAIL_TRANSIT_TIME = 5;
+  private static final Long PARTNER_ID = 1L;
+  private static final Long OTHER_PARTNER_ID = 2L;
+  private static final Long TRADING_NAME_ID = 7L;
+
+  private DebtRecoveryAgingServiceImpl debtRecoveryAgingService;
+  private Company company;
+  private List<Object[]> rowList;
+
+  @BeforeEach
+  void prepare() {
+    debtRecoveryAgingService =
+        new DebtRecoveryAgingServiceImpl(null) {
+          @Override
+          protected <T extends Model> T getReference(Class<T> modelClass, Long id) {
+            Model model = modelClass == Partner.class ? new Partner() : new TradingName();
+            model.setId(id);
+            return modelClass.cast(model);
+          }
+        };
+    company = new Company();
+
+    rowList = new ArrayList<>();
+    // due 20 days ago
+    rowList.add(debit(PARTNER_ID, null, "2026-06-10", "100", false));
+    // due 90 days ago
+    rowList.add(debit(PARTNER_ID, null, "2026-04-01", "50", false));
+    // not due yet
+    rowList.add(debit(PARTNER_ID, null, "2026-07-15", "30", false));
+    // invoice blocked in debt recovery
+    rowList.add(debit(PARTNER_ID, null, "2026-06-01", "70", true));
+    // credit still in the mail transit time
+    rowList.add(credit(PARTNER_ID, null, "2026-06-20", "2026-06-28", "40"));
+    // credit without due date, past the mail transit time
+    rowList.add(credit(PARTNER_ID, null, null, "2026-06-01", "10"));
+    rowList.add(debit(PARTNER_ID, TRADING_NAME_ID, "2026-06-29", "25", false));
+    rowList.add(debit(OTHER_PARTNER_ID, null, "2026-01-01", "1000", false));
+  }
+
+  @Test
+  void testBalancesOfAPartner() {
+    List<DebtRecoveryAging> partnerAgingList = computeAging(rowList).get(PARTNER_ID);
+
+    assertAmount("205", debtRecoveryAgingService.getBalanceDue(partnerAgingList, null));
+    assertAmount("165", debtRecoveryAgingService.getBalanceDueDebtRecovery(partnerAgingList, null));
+    assertAmount("25", debtRecoveryAgingService.getBalanceDue(partnerAgingList, tradingName()));
+    assertAmount(
+        "25",
+        debtRecoveryAgingService.getBalanceDueDebtRecovery(partnerAgingList, tradingName()));
+  }
+
+  @Test
+  void testBulkBalancesMatchPerPartnerBalances() {
+    Map<Long, List<DebtRecoveryAging>> bulkAgingMap = computeAging(rowList);
+
+    for (Long partnerId : List.of(PARTNER_ID, OTHER_PARTNER_ID)) {
+      // the invoice terms selected by the balance queries of one partner
+      List<DebtRecoveryAging> partnerAgingList =
+          computeAging(
+                  rowList.stream()
+                      .filter(row -> Objects.equals(row[0], partnerId))
+                      .collect(Collectors.toList()))
+              .get(partnerId);
+
+      for (TradingName tradingName : new TradingName[] {null, tradingName()}) {
+        Assertions.assertEquals(
+            debtRecoveryAgingService.getBalanceDue(partnerAgingList, tradingName),
+            debtRecoveryAgingService.getBalanceDue(bulkAgingMap.get(partnerId), tradingName));
+        Assertions.assertEquals(
+            debtRecoveryAgingService.getBalanceDueDebtRecovery(partnerAgingList, tradingName),
+            debtRecoveryAgingService.getBalanceDueDebtRecovery(
+                bulkAgingMap.get(partnerId), tradingName));
+      }
+    }
+    assertAmount(
+        "1000",
+        debtRecoveryAgingService.getBalanceDueDebtRecovery(
+            bulkAgingMap.get(OTHER_PARTNER_ID), null));
+  }
+
+  @Test
+  void testBuckets() {
+    DebtRecoveryAging aging =
+        computeAging(rowList).get(PARTNER_ID).stream()
+            .filter(partnerAging -> partnerAging.getTradingName() == null)
+            .findFirst()
+            .get();
+
+    assertAmount("30", aging.getNotDueAmount());
+    assertAmount("130", aging.getOverdue1To30Amount());
+    assertAmount("0", aging.getOverdue31To60Amount());
+    assertAmount("50", aging.getOverdue61To90Amount());
+    assertAmount("0", aging.getOverdueOver90Amount());
+    Assertions.assertEquals(LocalDate.of(2026, 4, 1), aging.getOldestDueDate());
+  }
+
+  @Test
+  void testPartnerWithoutAgingHasNoBalance() {
+    assertAmount("0", debtRecoveryAgingService.getBalanceDue(null, null));
+    assertAmount("0", debtRecoveryAgingService.getBalanceDueDebtRecovery(List.of(), null));
+  }
+
+  private Map<Long, List<DebtRecoveryAging>> computeAging(List<Object[]> invoiceTermRowList) {
+    Map<Pair<Long, Long>, DebtRecoveryAging> agingMap = new LinkedHashMap<>();
+    for (Object[] row : invoiceTermRowList) {
+      debtRecoveryAgingService.addInvoiceTerm(
+          agingMap, company, AGING_DATE, MAIL_TRANSIT_TIME, row);
+    }
+    return agingMap.values().stream()
+        .collect(Collectors.groupingBy(aging -> aging.getPartner().getId()));
+  }
+
+  private void assertAmount(String expected, BigDecimal amount) {
+    Assertions.assertEquals(0, new BigDecimal(expected).compareTo(amount));
+  }
+
+  private TradingName tradingName() {
+    TradingName tradingName = new TradingName();
+    tradingName.setId(TRADING_NAME_ID);
+    return tradingName;
+  }
+
+  private Object[] debit(
+      Long partnerId, Long tradingNameId, String dueDate, String amount, boolean blocked) {
+    return new Object[] {
+      partnerId,
+      tradingNameId,
+      LocalDate.parse(dueDate),
+      new BigDecimal(amount),
+      new BigDecimal(amount),
+      LocalDate.parse(dueDate).minusDays(30),
+      blocked
+    };
+  }
+
+  private Object[] credit(
+      Long partnerId, Long tradingNameId, String dueDate, String moveDate, String amount) {
+    return new Object[] {
+      partnerId,
+      tradingNameId,
+      dueDate != null ? LocalDate.parse(dueDate) : null,
+      BigDecimal.ZERO,
+      new BigDecimal(amount),
+      LocalDate.parse(moveDate),
+      null
+    };
+  }
+}
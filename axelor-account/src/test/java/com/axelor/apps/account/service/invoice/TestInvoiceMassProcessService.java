@@ -0,0 +1,169 @@
+/*
+ * Axelor Business Solutions
+ *
+ * Copyright (C) 2005-2025 Axelor (<http://axelor.com>).
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.axelor.apps.account.service.invoice;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.axelor.apps.account.db.Invoice;
+import com.axelor.apps.account.db.Journal;
+import com.axelor.apps.account.db.repo.InvoiceRepository;
+import com.axelor.apps.base.AxelorException;
+import com.axelor.apps.base.db.Company;
+import com.axelor.apps.base.db.repo.CompanyRepository;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class TestInvoiceMassProcessService {
+
+  private static final Long SALES_JOURNAL_ID = 1L;
+  private static final Long CREDIT_NOTE_JOURNAL_ID = 2L;
+  private static final Long COMPANY_WITHOUT_CONFIG_ID = 99L;
+  private static final int OPERATION_SALE = InvoiceRepository.OPERATION_TYPE_CLIENT_SALE;
+  private static final int OPERATION_REFUND = InvoiceRepository.OPERATION_TYPE_CLIENT_REFUND;
+
+  private InvoiceMassProcessServiceImpl invoiceMassProcessService;
+
+  @BeforeEach
+  void prepare() throws AxelorException {
+    InvoiceJournalService invoiceJournalService = mock(InvoiceJournalService.class);
+    when(invoiceJournalService.getJournal(any(Invoice.class)))
+        .thenAnswer(
+            invocation -> {
+              Invoice invoice = invocation.getArgument(0);
+              if (COMPANY_WITHOUT_CONFIG_ID.equals(invoice.getCompany().getId())) {
+                throw new AxelorException(0, "No journal");
+              }
+              boolean isRefund = invoice.getOperationTypeSelect() == OPERATION_REFUND;
+              boolean isNegative = invoice.getInTaxTotal().signum() < 0;
+              return createJournal(
+                  isRefund == isNegative ? SALES_JOURNAL_ID : CREDIT_NOTE_JOURNAL_ID);
+            });
+
+    CompanyRepository companyRepository = mock(CompanyRepository.class);
+    when(companyRepository.find(anyLong()))
+        .thenAnswer(
+            invocation -> {
+              Company company = new Company();
+              company.setId(invocation.getArgument(0));
+              return company;
+            });
+
+    invoiceMassProcessService =
+        new InvoiceMassProcessServiceImpl(null, null, invoiceJournalService, companyRepository);
+  }
+
+  @Test
+  void testSaleAndNegativeRefundShareTheSalesJournal() {
+    List<Map> invoiceDataList = new ArrayList<>();
+    invoiceDataList.add(createInvoiceData(1L, 1L, OPERATION_SALE, "100", null, 10L, 1));
+    invoiceDataList.add(createInvoiceData(2L, 1L, OPERATION_REFUND, "-50", null, 11L, 2));
+
+    Assertions.assertEquals(
+        List.of(List.of(1L, 2L)), invoiceMassProcessService.getPartitions(invoiceDataList));
+  }
+
+  @Test
+  void testSaleAndRefundWithDistinctJournalsAreIndependent() {
+    List<Map> invoiceDataList = new ArrayList<>();
+    invoiceDataList.add(createInvoiceData(1L, 1L, OPERATION_SALE, "100", null, 10L, 1));
+    invoiceDataList.add(createInvoiceData(2L, 1L, OPERATION_REFUND, "50", null, 11L, 2));
+
+    Assertions.assertEquals(
+        List.of(List.of(1L), List.of(2L)),
+        invoiceMassProcessService.getPartitions(invoiceDataList));
+  }
+
+  @Test
+  void testInvoicesOfTheSamePartnerAreGrouped() {
+    List<Map> invoiceDataList = new ArrayList<>();
+    invoiceDataList.add(createInvoiceData(1L, 1L, OPERATION_SALE, "100", null, 10L, 1));
+    invoiceDataList.add(createInvoiceData(2L, 1L, OPERATION_REFUND, "50", null, 10L, 2));
+
+    Assertions.assertEquals(
+        List.of(List.of(1L, 2L)), invoiceMassProcessService.getPartitions(invoiceDataList));
+  }
+
+  @Test
+  void testInvoicesSharingAnExistingJournalAreGrouped() {
+    List<Map> invoiceDataList = new ArrayList<>();
+    invoiceDataList.add(createInvoiceData(1L, 1L, OPERATION_SALE, "100", 5L, 10L, 1));
+    invoiceDataList.add(createInvoiceData(2L, 2L, OPERATION_SALE, "100", 5L, 11L, 2));
+
+    Assertions.assertEquals(
+        List.of(List.of(1L, 2L)), invoiceMassProcessService.getPartitions(invoiceDataList));
+  }
+
+  @Test
+  void testUnresolvedJournalGroupsTheInvoicesOfTheCompany() {
+    List<Map> invoiceDataList = new ArrayList<>();
+    invoiceDataList.add(
+        createInvoiceData(1L, COMPANY_WITHOUT_CONFIG_ID, OPERATION_SALE, "100", null, 10L, 1));
+    invoiceDataList.add(
+        createInvoiceData(2L, COMPANY_WITHOUT_CONFIG_ID, OPERATION_REFUND, "50", null, 11L, 2));
+
+    Assertions.assertEquals(
+        List.of(List.of(1L, 2L)), invoiceMassProcessService.getPartitions(invoiceDataList));
+  }
+
+  @Test
+  void testPartitionsAreSortedByInvoiceDate() {
+    List<Map> invoiceDataList = new ArrayList<>();
+    invoiceDataList.add(createInvoiceData(1L, 1L, OPERATION_SALE, "100", null, 10L, 3));
+    invoiceDataList.add(createInvoiceData(2L, 1L, OPERATION_SALE, "100", null, 11L, 1));
+    invoiceDataList.add(createInvoiceData(3L, 1L, OPERATION_SALE, "100", null, 12L, 2));
+
+    Assertions.assertEquals(
+        List.of(List.of(2L, 3L, 1L)), invoiceMassProcessService.getPartitions(invoiceDataList));
+  }
+
+  private static Journal createJournal(Long id) {
+    Journal journal = new Journal();
+    journal.setId(id);
+    return journal;
+  }
+
+  private static Map<String, Object> createInvoiceData(
+      Long id,
+      Long companyId,
+      int operationTypeSelect,
+      String inTaxTotal,
+      Long journalId,
+      Long partnerId,
+      int dayOfMonth) {
+    Map<String, Object> invoiceData = new HashMap<>();
+    invoiceData.put("id", id);
+    invoiceData.put("company.id", companyId);
+    invoiceData.put("operationTypeSelect", operationTypeSelect);
+    invoiceData.put("inTaxTotal", new BigDecimal(inTaxTotal));
+    invoiceData.put("journal.id", journalId);
+    invoiceData.put("partner.id", partnerId);
+    invoiceData.put("invoiceDate", LocalDate.of(2024, 1, dayOfMonth));
+    return invoiceData;
+  }
+}
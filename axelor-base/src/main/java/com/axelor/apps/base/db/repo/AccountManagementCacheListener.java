@@ -0,0 +1,50 @@
+/*
+ * Axelor Business Solutions
+ *
+ * Copyright (C) 2005-2025 Axelor (<http://axelor.com>).
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.axelor.apps.base.db.repo;
+
+import com.axelor.apps.base.db.Product;
+import com.axelor.apps.base.service.tax.AccountManagementCacheService;
+import com.axelor.inject.Beans;
+import javax.persistence.PostPersist;
+import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
+
+/**
+ * Invalidates the resolved tax and account lookups when one of the configurations they depend on
+ * is modified. Product changes only evict the entries of the product, an account management line
+ * may have been moved from one product to another so it evicts every entry of the tenant. Entries
+ * are evicted again once the transaction is committed.
+ */
+public class AccountManagementCacheListener {
+
+  @PostPersist
+  @PostUpdate
+  @PostRemove
+  protected void invalidateAccountManagementCache(Object entity) {
+    AccountManagementCacheService accountManagementCacheService =
+        Beans.get(AccountManagementCacheService.class);
+
+    if (entity instanceof Product) {
+      accountManagementCacheService.invalidateProduct(((Product) entity).getId());
+      return;
+    }
+
+    accountManagementCacheService.invalidateTenant();
+  }
+}
@@ -140,6 +140,8 @@ import com.axelor.apps.base.service.PeriodService;
 import com.axelor.apps.base.service.PeriodServiceImpl;
 import com.axelor.apps.base.service.PfxCertificateService;
 import com.axelor.apps.base.service.PfxCertificateServiceImpl;
+import com.axelor.apps.base.service.PriceListIndexService;
+import com.axelor.apps.base.service.PriceListIndexServiceImpl;
 import com.axelor.apps.base.service.PricedOrderDomainService;
 import com.axelor.apps.base.service.PricedOrderDomainServiceImpl;
 import com.axelor.apps.base.service.PrintFromBirtTemplateService;
@@ -249,6 +251,8 @@ import com.axelor.apps.base.service.meta.MetaViewServiceImpl;
 import com.axelor.apps.base.service.observer.ProductFireService;
 import com.axelor.apps.base.service.observer.ProductFireServiceImpl;
 import com.axelor.apps.base.service.pac4j.BaseAuthPac4jUserService;
+import com.axelor.apps.base.service.parallel.ParallelProcessService;
+import com.axelor.apps.base.service.parallel.ParallelProcessServiceImpl;
 import com.axelor.apps.base.service.partner.api.PartnerApiFetchService;
 import com.axelor.apps.base.service.partner.api.PartnerApiFetchServiceImpl;
 import com.axelor.apps.base.service.partner.api.PartnerGenerateService;
@@ -263,6 +267,8 @@ import com.axelor.apps.base.service.pdf.PdfService;
 import com.axelor.apps.base.service.pdf.PdfServiceImpl;
 import com.axelor.apps.base.service.pdf.PdfSignatureService;
 import com.axelor.apps.base.service.pdf.PdfSignatureServiceImpl;
+import com.axelor.apps.base.service.pricing.PricingCacheService;
+import com.axelor.apps.base.service.pricing.PricingCacheServiceImpl;
 import com.axelor.apps.base.service.pricing.PricingGenericService;
 import com.axelor.apps.base.service.pricing.PricingGenericServiceImpl;
 import com.axelor.apps.base.service.pricing.PricingGroupService;
@@ -297,6 +303,8 @@ import com.axelor.apps.base.service.research.ResearchRequestService;
 import com.axelor.apps.base.service.research.ResearchRequestServiceImpl;
 import com.axelor.apps.base.service.signature.SignatureService;
 import com.axelor.apps.base.service.signature.SignatureServiceImpl;
+import com.axelor.apps.base.service.tax.AccountManagementCacheService;
+import com.axelor.apps.base.service.tax.AccountManagementCacheServiceImpl;
 import com.axelor.apps.base.service.tax.AccountManagementService;
 import com.axelor.apps.base.service.tax.AccountManagementServiceImpl;
 import com.axelor.apps.base.service.tax.FiscalPositionService;
@@ -539,5 +547,9 @@ public class BaseModule extends AxelorModule {
     bind(PartnerRestService.class).to(PartnerRestServiceImpl.class);
     bind(ProductPriceListService.class).to(ProductPriceListServiceImpl.class);
     bind(AlternativeBarcodeService.class).to(AlternativeBarcodeServiceImpl.class);
+    bind(ParallelProcessService.class).to(ParallelProcessServiceImpl.class);
+    bind(PricingCacheService.class).to(PricingCacheServiceImpl.class);
+    bind(PriceListIndexService.class).to(PriceListIndexServiceImpl.class);
+    bind(AccountManagementCacheService.class).to(AccountManagementCacheServiceImpl.class);
   }
 }
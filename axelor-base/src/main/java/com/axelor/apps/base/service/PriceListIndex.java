@@ -0,0 +1,189 @@
+/*
+ * Axelor Business Solutions
+ *
+ * Copyright (C) 2005-2025 Axelor (<http://axelor.com>).
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.axelor.apps.base.service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable index of the lines of a price list. Lines are grouped by product and by product
+ * category and sorted by minimum quantity, so that the lines applicable to a quantity are found by
+ * binary search.
+ */
+public class PriceListIndex {
+
+  /** Price list line data needed to select the best line without loading the entity. */
+  public static class Line {
+
+    protected final Long id;
+    protected final BigDecimal minQty;
+    protected final int typeSelect;
+    protected final int amountTypeSelect;
+    protected final BigDecimal amount;
+
+    public Line(
+        Long id,
+        BigDecimal minQty,
+        Integer typeSelect,
+        Integer amountTypeSelect,
+        BigDecimal amount) {
+      this.id = id;
+      this.minQty = minQty;
+      this.typeSelect = typeSelect != null ? typeSelect : 0;
+      this.amountTypeSelect = amountTypeSelect != null ? amountTypeSelect : 0;
+      this.amount = amount;
+    }
+
+    public Long getId() {
+      return id;
+    }
+
+    public BigDecimal getMinQty() {
+      return minQty;
+    }
+
+    public int getTypeSelect() {
+      return typeSelect;
+    }
+
+    public int getAmountTypeSelect() {
+      return amountTypeSelect;
+    }
+
+    public BigDecimal getAmount() {
+      return amount;
+    }
+  }
+
+  protected static final Line[] EMPTY = new Line[0];
+
+  protected final Integer version;
+  protected final Map<Long, Line[]> productLineMap;
+  protected final Map<Long, Line[]> productCategoryLineMap;
+
+  protected PriceListIndex(
+      Integer version, Map<Long, Line[]> productLineMap, Map<Long, Line[]> productCategoryLineMap) {
+    this.version = version;
+    this.productLineMap = productLineMap;
+    this.productCategoryLineMap = productCategoryLineMap;
+  }
+
+  /**
+   * @return the version of the price list this index was built from
+   */
+  public Integer getVersion() {
+    return version;
+  }
+
+  /**
+   * Get the lines of the given product applicable to the given quantity.
+   *
+   * @param productId
+   * @param qty
+   * @return the lines with a minimum quantity lower or equal to qty, by decreasing minimum
+   *     quantity
+   */
+  public List<Line> getProductLines(Long productId, BigDecimal qty) {
+    return search(productLineMap.getOrDefault(productId, EMPTY), qty);
+  }
+
+  /**
+   * Get the lines of the given product category applicable to the given quantity.
+   *
+   * @param productCategoryId
+   * @param qty
+   * @return the lines with a minimum quantity lower or equal to qty, by decreasing minimum
+   *     quantity
+   */
+  public List<Line> getProductCategoryLines(Long productCategoryId, BigDecimal qty) {
+    return search(productCategoryLineMap.getOrDefault(productCategoryId, EMPTY), qty);
+  }
+
+  protected static List<Line> search(Line[] lines, BigDecimal qty) {
+    if (lines.length == 0 || qty == null) {
+      return Collections.emptyList();
+    }
+
+    // index of the first line with a minimum quantity greater than qty
+    int low = 0;
+    int high = lines.length;
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      if (lines[middle].getMinQty().compareTo(qty) <= 0) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+
+    List<Line> result = new ArrayList<>(low);
+    for (int i = low - 1; i >= 0; i--) {
+      result.add(lines[i]);
+    }
+    return result;
+  }
+
+  /** Builder collecting the lines of a single price list. */
+  public static class Builder {
+
+    protected final Integer version;
+    protected final Map<Long, List<Line>> productLineMap = new HashMap<>();
+    protected final Map<Long, List<Line>> productCategoryLineMap = new HashMap<>();
+
+    public Builder(Integer version) {
+      this.version = version;
+    }
+
+    public Builder add(Long productId, Long productCategoryId, Line line) {
+      if (line.getMinQty() == null) {
+        return this;
+      }
+      if (productId != null) {
+        productLineMap.computeIfAbsent(productId, key -> new ArrayList<>()).add(line);
+      }
+      if (productCategoryId != null) {
+        productCategoryLineMap
+            .computeIfAbsent(productCategoryId, key -> new ArrayList<>())
+            .add(line);
+      }
+      return this;
+    }
+
+    public PriceListIndex build() {
+      return new PriceListIndex(
+          version, toArrayMap(productLineMap), toArrayMap(productCategoryLineMap));
+    }
+
+    protected Map<Long, Line[]> toArrayMap(Map<Long, List<Line>> lineListMap) {
+      Map<Long, Line[]> lineArrayMap = new HashMap<>();
+      for (Map.Entry<Long, List<Line>> entry : lineListMap.entrySet()) {
+        Line[] lines = entry.getValue().toArray(EMPTY);
+        Arrays.sort(lines, Comparator.comparing(Line::getMinQty));
+        lineArrayMap.put(entry.getKey(), lines);
+      }
+      return Collections.unmodifiableMap(lineArrayMap);
+    }
+  }
+}
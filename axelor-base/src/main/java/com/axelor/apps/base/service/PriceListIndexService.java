@@ -0,0 +1,53 @@
+/*
+ * Axelor Business Solutions
+ *
+ * Copyright (C) 2005-2025 Axelor (<http://axelor.com>).
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.axelor.apps.base.service;
+
+import com.axelor.apps.base.db.PriceList;
+import java.util.Collection;
+
+public interface PriceListIndexService {
+
+  /**
+   * Get the index of the given price list, building it if it is missing or outdated.
+   *
+   * @param priceList
+   * @return the index of the price list lines
+   */
+  PriceListIndex getIndex(PriceList priceList);
+
+  /**
+   * Build the indexes of the given price lists with a single query per chunk of price lists, for
+   * instance after a mass import of price list lines.
+   *
+   * @param priceListIds
+   */
+  void rebuild(Collection<Long> priceListIds);
+
+  /**
+   * Drop the index of the given price list in the current tenant, called whenever the price list or
+   * one of its lines is modified. It is dropped again once the current transaction is completed, so
+   * that an index built meanwhile from the former lines is not kept.
+   *
+   * @param priceListId
+   */
+  void invalidate(Long priceListId);
+
+  /** Drop every index. */
+  void invalidateAll();
+}
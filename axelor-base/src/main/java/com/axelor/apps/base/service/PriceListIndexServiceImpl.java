@@ -0,0 +1,189 @@
+/*
+ * Axelor Business Solutions
+ *
+ * Copyright (C) 2005-2025 Axelor (<http://axelor.com>).
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.axelor.apps.base.service;
+
+import com.axelor.apps.base.db.PriceList;
+import com.axelor.apps.base.db.repo.PriceListLineRepository;
+import com.axelor.apps.base.db.repo.PriceListRepository;
+import com.axelor.db.JPA;
+import com.axelor.db.tenants.TenantResolver;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.Lists;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import javax.transaction.Synchronization;
+import org.hibernate.Session;
+import org.hibernate.Transaction;
+
+@Singleton
+public class PriceListIndexServiceImpl implements PriceListIndexService {
+
+  protected static final int FETCH_LIMIT = 500;
+  protected static final int MAXIMUM_SIZE = 1000;
+  protected static final int EXPIRATION_MINUTES = 10;
+
+  protected final Cache<String, PriceListIndex> indexCache =
+      CacheBuilder.newBuilder()
+          .maximumSize(MAXIMUM_SIZE)
+          .expireAfterWrite(EXPIRATION_MINUTES, TimeUnit.MINUTES)
+          .build();
+
+  /** Keys to drop again once the transaction of the current thread is completed. */
+  protected final ThreadLocal<Set<String>> pendingKeys = new ThreadLocal<>();
+
+  protected PriceListRepository priceListRepo;
+  protected PriceListLineRepository priceListLineRepo;
+
+  @Inject
+  public PriceListIndexServiceImpl(
+      PriceListRepository priceListRepo, PriceListLineRepository priceListLineRepo) {
+    this.priceListRepo = priceListRepo;
+    this.priceListLineRepo = priceListLineRepo;
+  }
+
+  @Override
+  public PriceListIndex getIndex(PriceList priceList) {
+    if (priceList.getId() == null) {
+      return new PriceListIndex.Builder(priceList.getVersion()).build();
+    }
+
+    String key = getKey(priceList.getId());
+    PriceListIndex index = indexCache.getIfPresent(key);
+    if (index == null || !Objects.equals(index.getVersion(), priceList.getVersion())) {
+      Map<Long, Integer> versionMap = new HashMap<>();
+      versionMap.put(priceList.getId(), priceList.getVersion());
+      index = buildIndexes(versionMap).get(priceList.getId());
+      indexCache.put(key, index);
+    }
+    return index;
+  }
+
+  @Override
+  public void rebuild(Collection<Long> priceListIds) {
+    for (List<Long> idList : Lists.partition(new ArrayList<>(priceListIds), FETCH_LIMIT)) {
+      Map<Long, Integer> versionMap = new HashMap<>();
+      List<Map> priceListDataList =
+          priceListRepo
+              .all()
+              .filter("self.id IN :ids")
+              .bind("ids", idList)
+              .select("id", "version")
+              .fetch(0, 0);
+      for (Map priceListData : priceListDataList) {
+        versionMap.put((Long) priceListData.get("id"), (Integer) priceListData.get("version"));
+      }
+
+      buildIndexes(versionMap).forEach((id, index) -> indexCache.put(getKey(id), index));
+    }
+  }
+
+  @Override
+  public void invalidate(Long priceListId) {
+    String key = getKey(priceListId);
+    indexCache.invalidate(key);
+    getPendingKeys().add(key);
+  }
+
+  @Override
+  public void invalidateAll() {
+    indexCache.invalidateAll();
+  }
+
+  protected Set<String> getPendingKeys() {
+    Set<String> keySet = pendingKeys.get();
+    if (keySet != null) {
+      return keySet;
+    }
+
+    Set<String> newKeySet = new HashSet<>();
+    Transaction transaction = JPA.em().unwrap(Session.class).getTransaction();
+    if (!transaction.isActive()) {
+      return newKeySet;
+    }
+    pendingKeys.set(newKeySet);
+    transaction.registerSynchronization(
+        new Synchronization() {
+          @Override
+          public void beforeCompletion() {}
+
+          @Override
+          public void afterCompletion(int status) {
+            pendingKeys.remove();
+            indexCache.invalidateAll(newKeySet);
+          }
+        });
+    return newKeySet;
+  }
+
+  protected Map<Long, PriceListIndex> buildIndexes(Map<Long, Integer> versionMap) {
+    Map<Long, PriceListIndex.Builder> builderMap = new HashMap<>();
+    versionMap.forEach((id, version) -> builderMap.put(id, new PriceListIndex.Builder(version)));
+
+    if (!versionMap.isEmpty()) {
+      List<Map> lineDataList =
+          priceListLineRepo
+              .all()
+              .filter("self.priceList.id IN :ids")
+              .bind("ids", versionMap.keySet())
+              .select(
+                  "id",
+                  "priceList.id",
+                  "product.id",
+                  "productCategory.id",
+                  "minQty",
+                  "typeSelect",
+                  "amountTypeSelect",
+                  "amount")
+              .fetch(0, 0);
+
+      for (Map lineData : lineDataList) {
+        builderMap
+            .get((Long) lineData.get("priceList.id"))
+            .add(
+                (Long) lineData.get("product.id"),
+                (Long) lineData.get("productCategory.id"),
+                new PriceListIndex.Line(
+                    (Long) lineData.get("id"),
+                    (BigDecimal) lineData.get("minQty"),
+                    (Integer) lineData.get("typeSelect"),
+                    (Integer) lineData.get("amountTypeSelect"),
+                    (BigDecimal) lineData.get("amount")));
+      }
+    }
+
+    Map<Long, PriceListIndex> indexMap = new HashMap<>();
+    builderMap.forEach((id, builder) -> indexMap.put(id, builder.build()));
+    return indexMap;
+  }
+
+  protected String getKey(Long priceListId) {
+    return TenantResolver.currentTenantIdentifier() + ":" + priceListId;
+  }
+}
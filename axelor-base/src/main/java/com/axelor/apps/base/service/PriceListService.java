@@ -47,9 +47,65 @@ public class PriceListService {
 
   @Inject protected AppBaseService appBaseService;
 
+  @Inject protected PriceListIndexService priceListIndexService;
+
   public PriceListLine getPriceListLine(
       Product product, BigDecimal qty, PriceList priceList, BigDecimal price) {
 
+    if (product == null || priceList == null) {
+      return null;
+    }
+
+    PriceListIndex.Line indexLine = getBestIndexLine(product, qty, priceList, price);
+    if (indexLine == null) {
+      return null;
+    }
+    PriceListLine priceListLine = priceListLineRepo.find(indexLine.getId());
+    if (priceListLine != null) {
+      return priceListLine;
+    }
+
+    // The line has been removed since the index was built
+    priceListIndexService.invalidate(priceList.getId());
+    return getPriceListLineFromQuery(product, qty, priceList, price);
+  }
+
+  /**
+   * Select the line giving the lowest discounted price among the lines of the product, or of its
+   * category if the product has none, without loading the price list lines.
+   */
+  protected PriceListIndex.Line getBestIndexLine(
+      Product product, BigDecimal qty, PriceList priceList, BigDecimal price) {
+    PriceListIndex index = priceListIndexService.getIndex(priceList);
+    List<PriceListIndex.Line> lineList = index.getProductLines(product.getId(), qty);
+    if (lineList.isEmpty() && product.getProductCategory() != null) {
+      lineList = index.getProductCategoryLines(product.getProductCategory().getId(), qty);
+    }
+
+    if (lineList.isEmpty()) {
+      return null;
+    }
+    if (lineList.size() == 1) {
+      return lineList.get(0);
+    }
+
+    PriceListIndex.Line bestLine = null;
+    BigDecimal bestPrice = null;
+    for (PriceListIndex.Line line : lineList) {
+      BigDecimal discountedPrice =
+          getUnitPriceDiscounted(
+              line.getTypeSelect(), line.getAmountTypeSelect(), line.getAmount(), price);
+      if (bestPrice == null || bestPrice.compareTo(discountedPrice) > 0) {
+        bestPrice = discountedPrice;
+        bestLine = line;
+      }
+    }
+    return bestLine;
+  }
+
+  protected PriceListLine getPriceListLineFromQuery(
+      Product product, BigDecimal qty, PriceList priceList, BigDecimal price) {
+
     PriceListLine priceListLine = null;
     List<PriceListLine> priceListLineList = getPriceListLineList(product, qty, priceList);
 
@@ -165,31 +221,37 @@ public class PriceListService {
 
   public BigDecimal getUnitPriceDiscounted(PriceListLine priceListLine, BigDecimal unitPrice) {
 
-    switch (priceListLine.getTypeSelect()) {
+    return getUnitPriceDiscounted(
+        priceListLine.getTypeSelect(),
+        priceListLine.getAmountTypeSelect(),
+        priceListLine.getAmount(),
+        unitPrice);
+  }
+
+  public BigDecimal getUnitPriceDiscounted(
+      int typeSelect, int amountTypeSelect, BigDecimal amount, BigDecimal unitPrice) {
+
+    switch (typeSelect) {
       case PriceListLineRepository.TYPE_INCREASE:
-        if (priceListLine.getAmountTypeSelect() == PriceListLineRepository.AMOUNT_TYPE_FIXED) {
-          return unitPrice.add(priceListLine.getAmount());
-        } else if (priceListLine.getAmountTypeSelect()
-            == PriceListLineRepository.AMOUNT_TYPE_PERCENT) {
-          return unitPrice.multiply(
-              BigDecimal.ONE.add(priceListLine.getAmount().divide(new BigDecimal(100))));
+        if (amountTypeSelect == PriceListLineRepository.AMOUNT_TYPE_FIXED) {
+          return unitPrice.add(amount);
+        } else if (amountTypeSelect == PriceListLineRepository.AMOUNT_TYPE_PERCENT) {
+          return unitPrice.multiply(BigDecimal.ONE.add(amount.divide(new BigDecimal(100))));
         }
 
         return unitPrice;
 
       case PriceListLineRepository.TYPE_DISCOUNT:
-        if (priceListLine.getAmountTypeSelect() == PriceListLineRepository.AMOUNT_TYPE_FIXED) {
-          return unitPrice.subtract(priceListLine.getAmount());
-        } else if (priceListLine.getAmountTypeSelect()
-            == PriceListLineRepository.AMOUNT_TYPE_PERCENT) {
-          return unitPrice.multiply(
-              BigDecimal.ONE.subtract(priceListLine.getAmount().divide(new BigDecimal(100))));
+        if (amountTypeSelect == PriceListLineRepository.AMOUNT_TYPE_FIXED) {
+          return unitPrice.subtract(amount);
+        } else if (amountTypeSelect == PriceListLineRepository.AMOUNT_TYPE_PERCENT) {
+          return unitPrice.multiply(BigDecimal.ONE.subtract(amount.divide(new BigDecimal(100))));
         }
 
         return unitPrice;
 
       case PriceListLineRepository.TYPE_REPLACE:
-        return priceListLine.getAmount();
+        return amount;
 
       default:
         return unitPrice;
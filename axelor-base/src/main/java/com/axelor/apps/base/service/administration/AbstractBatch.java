@@ -218,6 +218,16 @@ public abstract class AbstractBatch {
     _incrementDone();
   }
 
+  /** Add several processed records at once, used when records are counted by worker threads. */
+  protected void incrementDone(int count) {
+    findBatch();
+    done += count;
+    batch.setDone(done);
+    checkPoint();
+
+    LOG.debug("Done ::: {}", done);
+  }
+
   protected void _incrementDone() {
     done += 1;
     batch.setDone(done);
@@ -231,6 +241,15 @@ public abstract class AbstractBatch {
     _incrementAnomaly();
   }
 
+  protected void incrementAnomaly(int count) {
+    findBatch();
+    anomaly += count;
+    batch.setAnomaly(anomaly);
+    checkPoint();
+
+    LOG.debug("Anomaly ::: {}", anomaly);
+  }
+
   protected void _incrementAnomaly() {
     anomaly += 1;
     batch.setAnomaly(anomaly);
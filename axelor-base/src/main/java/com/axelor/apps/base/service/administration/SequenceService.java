@@ -50,6 +50,7 @@ import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.time.temporal.ChronoField;
 import java.time.temporal.IsoFields;
+import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Objects;
@@ -540,13 +541,7 @@ public class SequenceService {
   public String getSequenceNumber(
       Sequence sequence, LocalDate refDate, Class objectClass, String fieldName, Model model)
       throws AxelorException {
-    Sequence seq =
-        JPA.em()
-            .createQuery("SELECT self FROM Sequence self WHERE id = :id", Sequence.class)
-            .setParameter("id", sequence.getId())
-            .setLockMode(LockModeType.PESSIMISTIC_WRITE)
-            .setFlushMode(FlushModeType.COMMIT)
-            .getSingleResult();
+    Sequence seq = lockSequence(sequence);
     SequenceVersion sequenceVersion = getVersion(seq, refDate);
     String nextSeq = computeSequenceNumber(sequenceVersion, seq, refDate, model);
 
@@ -563,6 +558,58 @@ public class SequenceService {
     return nextSeq;
   }
 
+  /**
+   * Get the next numbers of the sequence for several records at once, the sequence being locked and
+   * its version updated only once.
+   *
+   * @param sequence
+   * @param refDate
+   * @param objectClass
+   * @param fieldName
+   * @param models the records to number, in order
+   * @return the numbers, in the order of the records
+   * @throws AxelorException
+   */
+  @Transactional(rollbackOn = {Exception.class})
+  public List<String> getSequenceNumbers(
+      Sequence sequence,
+      LocalDate refDate,
+      Class objectClass,
+      String fieldName,
+      List<? extends Model> models)
+      throws AxelorException {
+    Sequence seq = lockSequence(sequence);
+    SequenceVersion sequenceVersion = getVersion(seq, refDate);
+    boolean checkExistingSequence =
+        appBaseService.getAppBase().getCheckExistingSequenceOnGeneration()
+            && objectClass != null
+            && !Strings.isNullOrEmpty(fieldName);
+
+    List<String> sequenceNumberList = new ArrayList<>();
+    for (Model model : models) {
+      String nextSeq = computeSequenceNumber(sequenceVersion, seq, refDate, model);
+      if (checkExistingSequence) {
+        this.isSequenceAlreadyExisting(objectClass, fieldName, nextSeq, seq);
+      }
+      sequenceVersion.setNextNum(sequenceVersion.getNextNum() + seq.getToBeAdded());
+      sequenceNumberList.add(nextSeq);
+    }
+
+    if (sequenceVersion.getId() == null) {
+      sequenceVersionRepository.save(sequenceVersion);
+    }
+    return sequenceNumberList;
+  }
+
+  protected Sequence lockSequence(Sequence sequence) {
+    return JPA.em()
+        .createQuery("SELECT self FROM Sequence self WHERE id = :id", Sequence.class)
+        .setParameter("id", sequence.getId())
+        .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+        .setFlushMode(FlushModeType.COMMIT)
+        .getSingleResult();
+  }
+
   protected String computeSequenceNumber(
       SequenceVersion sequenceVersion, Sequence sequence, LocalDate refDate, Model model)
       throws AxelorException {
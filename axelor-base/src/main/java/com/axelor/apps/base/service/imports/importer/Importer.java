@@ -23,6 +23,7 @@ import com.axelor.apps.base.db.ImportConfiguration;
 import com.axelor.apps.base.db.ImportHistory;
 import com.axelor.apps.base.db.repo.TraceBackRepository;
 import com.axelor.apps.base.exceptions.BaseExceptionMessage;
+import com.axelor.apps.base.service.PriceListIndexService;
 import com.axelor.apps.base.service.imports.listener.ImporterListener;
 import com.axelor.auth.AuthUtils;
 import com.axelor.db.JPA;
@@ -68,6 +69,8 @@ public abstract class Importer {
 
   @Inject MetaFiles metaFiles;
 
+  @Inject PriceListIndexService priceListIndexService;
+
   public void setConfiguration(ImportConfiguration configuration) {
     this.configuration = configuration;
   }
@@ -206,6 +209,17 @@ public abstract class Importer {
     }
   }
 
+  /**
+   * Refresh the data derived from the imported records in bulk rather than record by record.
+   *
+   * @param listener
+   */
+  protected void afterImport(ImporterListener listener) {
+    if (!listener.getPriceListIdSet().isEmpty()) {
+      priceListIndexService.rebuild(listener.getPriceListIdSet());
+    }
+  }
+
   /**
    * Adds a new log in the history table for data configuration.
    *
@@ -43,6 +43,8 @@ class ImporterCSV extends Importer {
     importer.setContext(importContext);
     importer.run();
 
+    afterImport(listener);
+
     return addHistory(listener);
   }
 
@@ -43,6 +43,8 @@ class ImporterXML extends Importer {
     importer.setContext(importContext);
     importer.run();
 
+    afterImport(listener);
+
     return addHistory(listener);
   }
 
@@ -19,6 +19,8 @@
 package com.axelor.apps.base.service.imports.listener;
 
 import com.axelor.apps.base.AxelorException;
+import com.axelor.apps.base.db.PriceList;
+import com.axelor.apps.base.db.PriceListLine;
 import com.axelor.apps.base.db.repo.ExceptionOriginRepository;
 import com.axelor.apps.base.db.repo.TraceBackRepository;
 import com.axelor.apps.base.exceptions.BaseExceptionMessage;
@@ -27,6 +29,8 @@ import com.axelor.data.Listener;
 import com.axelor.db.Model;
 import com.axelor.i18n.I18n;
 import java.lang.invoke.MethodHandles;
+import java.util.HashSet;
+import java.util.Set;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -36,6 +40,7 @@ public class ImporterListener implements Listener {
 
   private String name, importLog = "";
   private int totalRecord, successRecord, notNull, anomaly;
+  private Set<Long> priceListIdSet = new HashSet<>();
 
   public ImporterListener(String name) {
     this.name = name;
@@ -67,6 +72,18 @@ public class ImporterListener implements Listener {
     if (bean != null) {
       ++notNull;
     }
+    if (bean instanceof PriceList && bean.getId() != null) {
+      priceListIdSet.add(bean.getId());
+    } else if (bean instanceof PriceListLine && ((PriceListLine) bean).getPriceList() != null) {
+      priceListIdSet.add(((PriceListLine) bean).getPriceList().getId());
+    }
+  }
+
+  /**
+   * @return the ids of the price lists created or modified by the import
+   */
+  public Set<Long> getPriceListIdSet() {
+    return priceListIdSet;
   }
 
   @Override
@@ -0,0 +1,45 @@
+/*
+ * Axelor Business Solutions
+ *
+ * Copyright (C) 2005-2025 Axelor (<http://axelor.com>).
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.axelor.apps.base.service.parallel;
+
+import com.axelor.apps.base.AxelorException;
+import java.util.Collection;
+
+/**
+ * Run independent units of work concurrently. Each task is executed on a worker thread with its
+ * own persistence context, bound to the tenant and the user of the calling thread.
+ */
+public interface ParallelProcessService {
+
+  /**
+   * @return the number of workers to use when the caller has no specific requirement.
+   */
+  int getDefaultWorkerCount();
+
+  /**
+   * Run the given tasks on at most <code>workerCount</code> threads and wait for all of them to
+   * finish. Tasks are responsible for their own transactions and error tracing.
+   *
+   * @param tasks the tasks to run
+   * @param workerCount maximum number of tasks running at the same time
+   * @throws AxelorException if a task ends with an unhandled exception or if the calling thread
+   *     is interrupted
+   */
+  void runAll(Collection<? extends Runnable> tasks, int workerCount) throws AxelorException;
+}
@@ -0,0 +1,52 @@
+/*
+ * Axelor Business Solutions
+ *
+ * Copyright (C) 2005-2025 Axelor (<http://axelor.com>).
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.axelor.apps.base.service.pricing;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+public interface PricingCacheService {
+
+  /**
+   * Get the ids of the candidate pricings matching the given key, computing them with the given
+   * loader if they are not cached yet.
+   *
+   * @param key the key built from the pricing search criteria
+   * @param loader the query returning the ordered list of pricing ids
+   * @return the ordered list of pricing ids
+   */
+  List<Long> getPricingIds(String key, Supplier<List<Long>> loader);
+
+  /**
+   * Clear the cached candidate pricing lists of the current tenant, called whenever a pricing is
+   * modified. They are cleared again once the current transaction is completed, so that a list
+   * loaded meanwhile from the former pricings is not kept.
+   */
+  void invalidate();
+
+  /**
+   * @return the number of lookups answered from the cache since the start of the application
+   */
+  long getHitCount();
+
+  /**
+   * @return the number of lookups that required a query since the start of the application
+   */
+  long getMissCount();
+}
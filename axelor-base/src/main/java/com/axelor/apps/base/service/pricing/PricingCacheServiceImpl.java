@@ -0,0 +1,123 @@
+/*
+ * Axelor Business Solutions
+ *
+ * Copyright (C) 2005-2025 Axelor (<http://axelor.com>).
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+package com.axelor.apps.base.service.pricing;
+
+import com.axelor.db.JPA;
+import com.axelor.db.tenants.TenantResolver;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.inject.Singleton;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import javax.transaction.Synchronization;
+import org.hibernate.Session;
+import org.hibernate.Transaction;
+
+@Singleton
+public class PricingCacheServiceImpl implements PricingCacheService {
+
+  protected static final int MAXIMUM_SIZE = 10000;
+  protected static final int EXPIRATION_MINUTES = 10;
+
+  protected final Cache<String, List<Long>> pricingIdsCache =
+      CacheBuilder.newBuilder()
+          .maximumSize(MAXIMUM_SIZE)
+          .expireAfterWrite(EXPIRATION_MINUTES, TimeUnit.MINUTES)
+          .recordStats()
+          .build();
+
+  /**
+   * Generation of the cached entries of each tenant, part of the cache keys. It is increased on
+   * every invalidation, so that a list loaded from the former state by a concurrent transaction is
+   * stored under a key that is never read again.
+   */
+  protected final Map<String, Long> generationMap = new ConcurrentHashMap<>();
+
+  /** Tenants to invalidate again once the transaction of the current thread is completed. */
+  protected final ThreadLocal<Set<String>> pendingTenants = new ThreadLocal<>();
+
+  @Override
+  public List<Long> getPricingIds(String key, Supplier<List<Long>> loader) {
+    try {
+      return pricingIdsCache.get(
+          getKeyPrefix(TenantResolver.currentTenantIdentifier()) + key,
+          () -> List.copyOf(loader.get()));
+    } catch (ExecutionException e) {
+      throw new IllegalStateException(e.getCause());
+    }
+  }
+
+  @Override
+  public void invalidate() {
+    String tenantId = TenantResolver.currentTenantIdentifier();
+    invalidate(tenantId);
+    getPendingTenants().add(tenantId);
+  }
+
+  protected void invalidate(String tenantId) {
+    String prefix = getKeyPrefix(tenantId);
+    generationMap.merge(String.valueOf(tenantId), 1L, Long::sum);
+    pricingIdsCache.asMap().keySet().removeIf(key -> key.startsWith(prefix));
+  }
+
+  protected String getKeyPrefix(String tenantId) {
+    return tenantId + ":" + generationMap.getOrDefault(String.valueOf(tenantId), 0L) + ":";
+  }
+
+  protected Set<String> getPendingTenants() {
+    Set<String> tenantSet = pendingTenants.get();
+    if (tenantSet != null) {
+      return tenantSet;
+    }
+
+    Set<String> newTenantSet = new HashSet<>();
+    Transaction transaction = JPA.em().unwrap(Session.class).getTransaction();
+    if (!transaction.isActive()) {
+      return newTenantSet;
+    }
+    pendingTenants.set(newTenantSet);
+    transaction.registerSynchronization(
+        new Synchronization() {
+          @Override
+          public void beforeCompletion() {}
+
+          @Override
+          public void afterCompletion(int status) {
+            pendingTenants.remove();
+            newTenantSet.forEach(PricingCacheServiceImpl.this::invalidate);
+          }
+        });
+    return newTenantSet;
+  }
+
+  @Override
+  public long getHitCount() {
+    return pricingIdsCache.stats().hitCount();
+  }
+
+  @Override
+  public long getMissCount() {
+    return pricingIdsCache.stats().missCount();
+  }
+}
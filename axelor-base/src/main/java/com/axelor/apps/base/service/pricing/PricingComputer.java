@@ -104,7 +104,7 @@ public class PricingComputer extends AbstractObservablePricing {
         model,
         klass.getSimpleName());
     try {
-      Context context = new Context(Mapper.toMap(model), klass);
+      Context context = new Context(new PricingContextMap(model), klass);
       return new PricingComputer(context, pricing, model);
 
     } catch (Exception e) {
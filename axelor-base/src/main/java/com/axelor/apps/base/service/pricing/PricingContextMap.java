@@ -0,0 +1,80 @@
+/*
+ * Axelor Business Solutions
+ *
+ * Copyright (C) 2005-2025 Axelor (<http://axelor.com>).
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.axelor.apps.base.service.pricing;
+
+import com.axelor.db.EntityHelper;
+import com.axelor.db.Model;
+import com.axelor.db.mapper.Mapper;
+import com.axelor.db.mapper.Property;
+import java.util.AbstractMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Script context values backed by a model. Unlike {@link Mapper#toMap(Object)}, a property is only
+ * read from the model when a formula asks for it. Values put in the map take precedence over the
+ * model properties.
+ */
+public class PricingContextMap extends AbstractMap<String, Object> {
+
+  protected final Model model;
+  protected final Mapper mapper;
+  protected final Map<String, Object> values = new HashMap<>();
+
+  public PricingContextMap(Model model) {
+    this.model = EntityHelper.getEntity(model);
+    this.mapper = Mapper.of(EntityHelper.getEntityClass(model));
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    return values.containsKey(key) || getProperty(key) != null;
+  }
+
+  @Override
+  public Object get(Object key) {
+    if (values.containsKey(key)) {
+      return values.get(key);
+    }
+    Property property = getProperty(key);
+    return property != null ? property.get(model) : null;
+  }
+
+  @Override
+  public Object put(String key, Object value) {
+    Object previousValue = get(key);
+    values.put(key, value);
+    return previousValue;
+  }
+
+  @Override
+  public Set<Entry<String, Object>> entrySet() {
+    Map<String, Object> map = new HashMap<>();
+    for (Property property : mapper.getProperties()) {
+      map.put(property.getName(), property.get(model));
+    }
+    map.putAll(values);
+    return map.entrySet();
+  }
+
+  protected Property getProperty(Object key) {
+    return key instanceof String ? mapper.getProperty((String) key) : null;
+  }
+}
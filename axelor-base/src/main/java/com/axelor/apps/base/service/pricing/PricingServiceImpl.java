@@ -32,7 +32,7 @@ import com.axelor.auth.AuthUtils;
 import com.axelor.common.ObjectUtils;
 import com.axelor.db.EntityHelper;
 import com.axelor.db.Model;
-import com.axelor.db.mapper.Mapper;
+import com.axelor.db.Query;
 import com.axelor.i18n.I18n;
 import com.axelor.rpc.Context;
 import com.axelor.script.GroovyScriptHelper;
@@ -48,6 +48,7 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -57,16 +58,19 @@ public class PricingServiceImpl implements PricingService {
   protected PricingRepository pricingRepo;
   protected AppBaseService appBaseService;
   protected PricingLineRepository pricingLineRepository;
+  protected PricingCacheService pricingCacheService;
   private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
 
   @Inject
   public PricingServiceImpl(
       PricingRepository pricingRepo,
       AppBaseService appBaseService,
-      PricingLineRepository pricingLineRepository) {
+      PricingLineRepository pricingLineRepository,
+      PricingCacheService pricingCacheService) {
     this.pricingRepo = pricingRepo;
     this.appBaseService = appBaseService;
     this.pricingLineRepository = pricingLineRepository;
+    this.pricingCacheService = pricingCacheService;
   }
 
   @Override
@@ -116,8 +120,11 @@ public class PricingServiceImpl implements PricingService {
 
     filter.append("AND (self.archived = false OR self.archived is null) ");
 
-    LOG.debug("Filtering pricing with {}", filter);
-    List<Pricing> pricings = pricingRepo.all().filter(filter.toString()).bind(bindings).fetch();
+    String cacheKey =
+        getPricingCacheKey(company, model, typeSelect)
+            + ":"
+            + (pricing != null ? pricing.getId() : "root");
+    List<Pricing> pricings = fetchPricings(cacheKey, filter.toString(), bindings);
 
     return appendFormulaFilter(pricings, model);
   }
@@ -130,12 +137,51 @@ public class PricingServiceImpl implements PricingService {
 
     filter.append("AND (self.archived = false OR self.archived is null) ");
 
-    LOG.debug("Filtering pricing with {}", filter);
-    List<Pricing> pricings = pricingRepo.all().filter(filter.toString()).bind(bindings).fetch();
+    String cacheKey = getPricingCacheKey(company, model, typeSelect) + ":all";
+    List<Pricing> pricings = fetchPricings(cacheKey, filter.toString(), bindings);
 
     return appendFormulaFilter(pricings, model);
   }
 
+  /**
+   * Candidate pricings only depend on the search criteria, their ids are cached until a pricing is
+   * modified. The pricings themselves are then loaded with a single query, in the cached order.
+   */
+  protected List<Pricing> fetchPricings(
+      String cacheKey, String filter, Map<String, Object> bindings) {
+    List<Long> pricingIds =
+        pricingCacheService.getPricingIds(
+            cacheKey,
+            () -> {
+              LOG.debug("Filtering pricing with {}", filter);
+              Query<Pricing> query = pricingRepo.all().filter(filter).bind(bindings);
+              return query.select("id").fetch(0, 0).stream()
+                  .map(map -> (Long) map.get("id"))
+                  .collect(Collectors.toList());
+            });
+
+    if (pricingIds.isEmpty()) {
+      return new ArrayList<>();
+    }
+
+    Map<Long, Pricing> pricingMap =
+        pricingRepo.all().filter("self.id IN :ids").bind("ids", pricingIds).fetch().stream()
+            .collect(Collectors.toMap(Pricing::getId, Function.identity()));
+    return pricingIds.stream()
+        .map(pricingMap::get)
+        .filter(Objects::nonNull)
+        .collect(Collectors.toList());
+  }
+
+  protected String getPricingCacheKey(Company company, Model model, String typeSelect) {
+    return String.join(
+        ":",
+        String.valueOf(appBaseService.getTodayDate(company)),
+        company != null ? String.valueOf(company.getId()) : "",
+        model != null ? EntityHelper.getEntityClass(model).getSimpleName() : "",
+        Objects.toString(typeSelect, ""));
+  }
+
   protected void pricingFetchFilter(
       StringBuilder filter,
       Map<String, Object> bindings,
@@ -166,7 +212,8 @@ public class PricingServiceImpl implements PricingService {
 
   @Override
   public List<Pricing> appendFormulaFilter(List<Pricing> pricings, Model model) {
-    Context scriptContext = new Context(Mapper.toMap(model), EntityHelper.getEntityClass(model));
+    Context scriptContext =
+        new Context(new PricingContextMap(model), EntityHelper.getEntityClass(model));
     ScriptHelper scriptHelper = new GroovyScriptHelper(scriptContext);
     List<Pricing> filteredPricings = new ArrayList<>();
     for (Pricing pricing : pricings) {
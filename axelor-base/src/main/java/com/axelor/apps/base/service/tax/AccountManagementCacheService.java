@@ -0,0 +1,67 @@
+/*
+ * Axelor Business Solutions
+ *
+ * Copyright (C) 2005-2025 Axelor (<http://axelor.com>).
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.axelor.apps.base.service.tax;
+
+import com.axelor.apps.base.AxelorException;
+import java.util.concurrent.Callable;
+
+/**
+ * Read-through cache of the accounting configuration resolved for a product: accounts, tax lines
+ * and tax equivalences. Only ids are cached so that callers always get entities attached to their
+ * own persistence context.
+ */
+public interface AccountManagementCacheService {
+
+  /**
+   * Get the value cached for the given product and key, resolving it with the given loader if
+   * missing. A null value is cached as well.
+   *
+   * @param productId the product the value was resolved for
+   * @param key the other criteria of the resolution (company, fiscal position, date, ...)
+   * @param loader the resolution, its exceptions are not cached
+   * @return the cached value
+   * @throws AxelorException if the loader fails
+   */
+  <T> T get(Long productId, String key, Callable<T> loader) throws AxelorException;
+
+  /**
+   * Drop the values resolved for the given product in the current tenant. They are dropped again
+   * once the current transaction is completed, so that values resolved meanwhile from the former
+   * configuration are not kept.
+   */
+  void invalidateProduct(Long productId);
+
+  /**
+   * Drop every value of the current tenant, called whenever the tax or accounting configuration
+   * changes. They are dropped again once the current transaction is completed.
+   */
+  void invalidateTenant();
+
+  /** Drop every value of every tenant. */
+  void invalidateAll();
+
+  long getHitCount();
+
+  long getMissCount();
+
+  /**
+   * @return the ratio of lookups answered from the cache, 1 if there was no lookup yet
+   */
+  double getHitRate();
+}
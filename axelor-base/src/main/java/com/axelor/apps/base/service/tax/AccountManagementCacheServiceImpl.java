@@ -0,0 +1,175 @@
+/*
+ * Axelor Business Solutions
+ *
+ * Copyright (C) 2005-2025 Axelor (<http://axelor.com>).
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.axelor.apps.base.service.tax;
+
+import com.axelor.apps.base.AxelorException;
+import com.axelor.apps.base.db.repo.TraceBackRepository;
+import com.axelor.db.JPA;
+import com.axelor.db.tenants.TenantResolver;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import com.google.inject.Singleton;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import javax.transaction.Synchronization;
+import org.hibernate.Session;
+import org.hibernate.Transaction;
+
+@Singleton
+public class AccountManagementCacheServiceImpl implements AccountManagementCacheService {
+
+  protected static final int MAXIMUM_SIZE = 10000;
+  protected static final int EXPIRATION_MINUTES = 30;
+  protected static final String SEPARATOR = "|";
+
+  /**
+   * The values of each tenant and product, so that the values of a product are dropped at once. A
+   * value loaded while its product is dropped is put in the dropped map and is not kept.
+   */
+  protected final Cache<String, ConcurrentMap<String, Optional<Object>>> cache =
+      CacheBuilder.newBuilder()
+          .maximumSize(MAXIMUM_SIZE)
+          .expireAfterWrite(EXPIRATION_MINUTES, TimeUnit.MINUTES)
+          .build();
+
+  /** Keys to drop again once the transaction of the current thread is completed. */
+  protected final ThreadLocal<Set<String>> pendingKeys = new ThreadLocal<>();
+
+  protected final LongAdder hitCount = new LongAdder();
+  protected final LongAdder missCount = new LongAdder();
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public <T> T get(Long productId, String key, Callable<T> loader) throws AxelorException {
+    try {
+      ConcurrentMap<String, Optional<Object>> valueMap =
+          cache.get(getProductKey(productId), ConcurrentHashMap::new);
+      Optional<Object> value = valueMap.get(key);
+      if (value != null) {
+        hitCount.increment();
+        return (T) value.orElse(null);
+      }
+      missCount.increment();
+      // Not loaded in computeIfAbsent as the loader may read other values of the same product
+      Optional<Object> loadedValue = Optional.ofNullable(loader.call());
+      value = valueMap.putIfAbsent(key, loadedValue);
+      return (T) (value != null ? value : loadedValue).orElse(null);
+    } catch (AxelorException e) {
+      throw e;
+    } catch (ExecutionException | UncheckedExecutionException e) {
+      throw new AxelorException(e.getCause(), TraceBackRepository.CATEGORY_INCONSISTENCY);
+    } catch (Exception e) {
+      throw new AxelorException(e, TraceBackRepository.CATEGORY_INCONSISTENCY);
+    }
+  }
+
+  @Override
+  public void invalidateProduct(Long productId) {
+    String productKey = getProductKey(productId);
+    invalidate(productKey);
+    getPendingKeys().add(productKey);
+  }
+
+  @Override
+  public void invalidateTenant() {
+    String tenantKey = getTenantKey();
+    invalidate(tenantKey);
+    getPendingKeys().add(tenantKey);
+  }
+
+  @Override
+  public void invalidateAll() {
+    cache.invalidateAll();
+  }
+
+  /**
+   * Drop the values of the given product key, or of every product of the tenant if the key is a
+   * tenant key.
+   */
+  protected void invalidate(String key) {
+    if (key.endsWith(SEPARATOR)) {
+      cache.asMap().keySet().removeIf(productKey -> productKey.startsWith(key));
+    } else {
+      cache.invalidate(key);
+    }
+  }
+
+  /**
+   * Get the keys to drop again once the transaction of the current thread is completed, as values
+   * may have been loaded from the former configuration until then.
+   */
+  protected Set<String> getPendingKeys() {
+    Set<String> keySet = pendingKeys.get();
+    if (keySet != null) {
+      return keySet;
+    }
+
+    Set<String> newKeySet = new HashSet<>();
+    Transaction transaction = JPA.em().unwrap(Session.class).getTransaction();
+    if (!transaction.isActive()) {
+      return newKeySet;
+    }
+    pendingKeys.set(newKeySet);
+    transaction.registerSynchronization(
+        new Synchronization() {
+          @Override
+          public void beforeCompletion() {}
+
+          @Override
+          public void afterCompletion(int status) {
+            pendingKeys.remove();
+            newKeySet.forEach(AccountManagementCacheServiceImpl.this::invalidate);
+          }
+        });
+    return newKeySet;
+  }
+
+  @Override
+  public long getHitCount() {
+    return hitCount.sum();
+  }
+
+  @Override
+  public long getMissCount() {
+    return missCount.sum();
+  }
+
+  @Override
+  public double getHitRate() {
+    long hits = hitCount.sum();
+    long requests = hits + missCount.sum();
+    return requests == 0 ? 1.0 : (double) hits / requests;
+  }
+
+  protected String getProductKey(Long productId) {
+    return getTenantKey() + productId;
+  }
+
+  protected String getTenantKey() {
+    return TenantResolver.currentTenantIdentifier() + SEPARATOR;
+  }
+}
@@ -29,12 +29,17 @@ import com.axelor.apps.base.db.Product;
 import com.axelor.apps.base.db.ProductFamily;
 import com.axelor.apps.base.db.repo.TraceBackRepository;
 import com.axelor.apps.base.exceptions.BaseExceptionMessage;
+import com.axelor.db.JPA;
 import com.axelor.i18n.I18n;
 import com.google.inject.Inject;
 import java.lang.invoke.MethodHandles;
 import java.time.LocalDate;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Objects;
 import java.util.Set;
+import java.util.StringJoiner;
+import java.util.stream.Collectors;
 import org.apache.commons.collections.CollectionUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -50,11 +55,40 @@ public class AccountManagementServiceImpl implements AccountManagementService {
 
   private TaxService taxService;
 
+  protected AccountManagementCacheService accountManagementCacheService;
+
   @Inject
   public AccountManagementServiceImpl(
-      FiscalPositionService fiscalPositionService, TaxService taxService) {
+      FiscalPositionService fiscalPositionService,
+      TaxService taxService,
+      AccountManagementCacheService accountManagementCacheService) {
     this.fiscalPositionService = fiscalPositionService;
     this.taxService = taxService;
+    this.accountManagementCacheService = accountManagementCacheService;
+  }
+
+  /**
+   * Resolutions are only cached for persisted configurations, in-memory ones are resolved each
+   * time.
+   */
+  protected boolean isCacheable(Product product, Company company, FiscalPosition fiscalPosition) {
+    return product != null
+        && product.getId() != null
+        && company != null
+        && company.getId() != null
+        && (fiscalPosition == null || fiscalPosition.getId() != null);
+  }
+
+  protected String getCacheKey(
+      String type, Company company, FiscalPosition fiscalPosition, Object... criteria) {
+    StringJoiner key = new StringJoiner("|");
+    key.add(type);
+    key.add(String.valueOf(company.getId()));
+    key.add(fiscalPosition != null ? String.valueOf(fiscalPosition.getId()) : "");
+    for (Object criterion : criteria) {
+      key.add(String.valueOf(criterion));
+    }
+    return key.toString();
   }
 
   /**
@@ -139,6 +173,25 @@ public class AccountManagementServiceImpl implements AccountManagementService {
   public TaxEquiv getProductTaxEquiv(
       Product product, Company company, FiscalPosition fiscalPosition, boolean isPurchase)
       throws AxelorException {
+    if (!isCacheable(product, company, fiscalPosition)) {
+      return computeProductTaxEquiv(product, company, fiscalPosition, isPurchase);
+    }
+
+    Long taxEquivId =
+        accountManagementCacheService.get(
+            product.getId(),
+            getCacheKey("taxEquiv", company, fiscalPosition, isPurchase),
+            () -> {
+              TaxEquiv taxEquiv =
+                  computeProductTaxEquiv(product, company, fiscalPosition, isPurchase);
+              return taxEquiv != null ? taxEquiv.getId() : null;
+            });
+    return taxEquivId != null ? JPA.find(TaxEquiv.class, taxEquivId) : null;
+  }
+
+  protected TaxEquiv computeProductTaxEquiv(
+      Product product, Company company, FiscalPosition fiscalPosition, boolean isPurchase)
+      throws AxelorException {
     Set<Tax> taxSet = getProductTax(product, company, isPurchase);
     return fiscalPositionService.getTaxEquiv(fiscalPosition, taxSet);
   }
@@ -252,6 +305,35 @@ public class AccountManagementServiceImpl implements AccountManagementService {
       boolean isPurchase)
       throws AxelorException {
 
+    if (!isCacheable(product, company, fiscalPosition) || date == null) {
+      return computeTaxLineSet(date, product, company, fiscalPosition, isPurchase);
+    }
+
+    Set<Long> taxLineIdSet =
+        accountManagementCacheService.get(
+            product.getId(),
+            getCacheKey("taxLineSet", company, fiscalPosition, isPurchase, date),
+            () ->
+                computeTaxLineSet(date, product, company, fiscalPosition, isPurchase).stream()
+                    .filter(Objects::nonNull)
+                    .map(TaxLine::getId)
+                    .collect(Collectors.toSet()));
+
+    Set<TaxLine> taxLineSet = new HashSet<>();
+    for (Long taxLineId : taxLineIdSet) {
+      taxLineSet.add(JPA.find(TaxLine.class, taxLineId));
+    }
+    return taxLineSet;
+  }
+
+  protected Set<TaxLine> computeTaxLineSet(
+      LocalDate date,
+      Product product,
+      Company company,
+      FiscalPosition fiscalPosition,
+      boolean isPurchase)
+      throws AxelorException {
+
     Set<TaxLine> taxLineSet =
         taxService.getTaxLineSet(
             this.getProductTax(product, company, fiscalPosition, isPurchase), date);
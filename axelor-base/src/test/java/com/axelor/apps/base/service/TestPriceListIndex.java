@@ -0,0 +1,86 @@
+/*
+ * Axelor Business Solutions
+ *
+ * Copyright (C) 2005-2025 Axelor (<http://axelor.com>).
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.axelor.apps.base.service;
+
+import com.axelor.apps.base.db.repo.PriceListLineRepository;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+class TestPriceListIndex {
+
+  private static PriceListIndex priceListIndex;
+
+  @BeforeAll
+  static void prepare() {
+    priceListIndex =
+        new PriceListIndex.Builder(0)
+            .add(1L, null, createLine(10L, "10"))
+            .add(1L, null, createLine(11L, "0"))
+            .add(1L, null, createLine(12L, "100"))
+            .add(1L, null, createLine(13L, null))
+            .add(null, 5L, createLine(20L, "1"))
+            .build();
+  }
+
+  private static PriceListIndex.Line createLine(Long id, String minQty) {
+    return new PriceListIndex.Line(
+        id,
+        minQty != null ? new BigDecimal(minQty) : null,
+        PriceListLineRepository.TYPE_DISCOUNT,
+        PriceListLineRepository.AMOUNT_TYPE_PERCENT,
+        BigDecimal.TEN);
+  }
+
+  private List<Long> getProductLineIds(Long productId, String qty) {
+    return priceListIndex.getProductLines(productId, new BigDecimal(qty)).stream()
+        .map(PriceListIndex.Line::getId)
+        .collect(Collectors.toList());
+  }
+
+  @Test
+  void testProductLinesAreSortedByDecreasingMinQty() {
+    Assertions.assertEquals(List.of(12L, 10L, 11L), getProductLineIds(1L, "150"));
+  }
+
+  @Test
+  void testProductLinesOnMinQtyBoundary() {
+    Assertions.assertEquals(List.of(10L, 11L), getProductLineIds(1L, "10"));
+    Assertions.assertEquals(List.of(11L), getProductLineIds(1L, "9.99"));
+  }
+
+  @Test
+  void testProductLinesBelowEveryMinQty() {
+    Assertions.assertTrue(getProductLineIds(1L, "-1").isEmpty());
+  }
+
+  @Test
+  void testUnknownProduct() {
+    Assertions.assertTrue(getProductLineIds(2L, "10").isEmpty());
+  }
+
+  @Test
+  void testProductCategoryLines() {
+    Assertions.assertEquals(1, priceListIndex.getProductCategoryLines(5L, BigDecimal.ONE).size());
+    Assertions.assertTrue(priceListIndex.getProductCategoryLines(5L, BigDecimal.ZERO).isEmpty());
+  }
+}
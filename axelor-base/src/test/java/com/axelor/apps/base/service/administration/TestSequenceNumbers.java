@@ -0,0 +1,185 @@
+/*
+ * Axelor Business Solutions
+ *
+ * Copyright (C) 2005-2025 Axelor (<http://axelor.com>).
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.axelor.apps.base.service.administration;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.axelor.apps.base.AxelorException;
+import com.axelor.apps.base.db.AppBase;
+import com.axelor.apps.base.db.Sequence;
+import com.axelor.apps.base.db.SequenceTypeSelect;
+import com.axelor.apps.base.db.SequenceVersion;
+import com.axelor.apps.base.db.repo.SequenceRepository;
+import com.axelor.apps.base.db.repo.SequenceVersionRepository;
+import com.axelor.apps.base.db.repo.TraceBackRepository;
+import com.axelor.apps.base.service.app.AppBaseService;
+import com.axelor.db.Model;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class TestSequenceNumbers {
+
+  private static final LocalDate REF_DATE = LocalDate.of(2024, 3, 15);
+  private static final String FIELD_NAME = "fullName";
+
+  private Sequence sequence;
+  private SequenceVersionRepository sequenceVersionRepository;
+  private SequenceVersionGeneratorService sequenceVersionGeneratorService;
+  private TestService sequenceService;
+
+  @BeforeEach
+  void prepare() {
+    sequence = new Sequence();
+    sequence.setId(1L);
+    sequence.setSequenceTypeSelect(SequenceTypeSelect.NUMBERS);
+    sequence.setPrefixe("MO%YY-");
+    sequence.setPadding(4);
+    sequence.setToBeAdded(2);
+
+    AppBase appBase = new AppBase();
+    appBase.setCheckExistingSequenceOnGeneration(true);
+    AppBaseService appBaseService = mock(AppBaseService.class);
+    when(appBaseService.getAppBase()).thenReturn(appBase);
+
+    sequenceVersionRepository = mock(SequenceVersionRepository.class);
+    sequenceVersionGeneratorService = mock(SequenceVersionGeneratorService.class);
+    sequenceService =
+        new TestService(
+            sequenceVersionRepository,
+            appBaseService,
+            mock(SequenceRepository.class),
+            sequenceVersionGeneratorService);
+  }
+
+  private SequenceVersion createVersion(Long id, long nextNum) {
+    SequenceVersion sequenceVersion = new SequenceVersion();
+    sequenceVersion.setId(id);
+    sequenceVersion.setSequence(sequence);
+    sequenceVersion.setNextNum(nextNum);
+    return sequenceVersion;
+  }
+
+  private List<String> getSequenceNumberOneByOne(int count) throws AxelorException {
+    List<String> sequenceNumberList = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      sequenceNumberList.add(
+          sequenceService.getSequenceNumber(sequence, REF_DATE, Sequence.class, FIELD_NAME, null));
+    }
+    return sequenceNumberList;
+  }
+
+  private List<String> getSequenceNumbers(int count) throws AxelorException {
+    return sequenceService.getSequenceNumbers(
+        sequence, REF_DATE, Sequence.class, FIELD_NAME, Collections.nCopies(count, (Model) null));
+  }
+
+  @Test
+  void testSameNumbersAsOneByOne() throws AxelorException {
+    SequenceVersion sequenceVersion = createVersion(1L, 3L);
+    when(sequenceVersionRepository.findByDate(any(), any())).thenReturn(sequenceVersion);
+    List<String> expectedList = getSequenceNumberOneByOne(3);
+    Assertions.assertEquals(List.of("MO24-0003", "MO24-0005", "MO24-0007"), expectedList);
+    Assertions.assertEquals(9L, sequenceVersion.getNextNum());
+
+    sequenceVersion.setNextNum(3L);
+    Assertions.assertEquals(expectedList, getSequenceNumbers(3));
+    Assertions.assertEquals(9L, sequenceVersion.getNextNum());
+  }
+
+  @Test
+  void testSequenceLockedAndVersionSavedOnce() throws AxelorException {
+    SequenceVersion sequenceVersion = createVersion(null, 1L);
+    when(sequenceVersionGeneratorService.createNewSequenceVersion(any(), any()))
+        .thenReturn(sequenceVersion);
+
+    Assertions.assertEquals(
+        List.of("MO24-0001", "MO24-0003", "MO24-0005", "MO24-0007"), getSequenceNumbers(4));
+    Assertions.assertEquals(9L, sequenceVersion.getNextNum());
+    Assertions.assertEquals(1, sequenceService.lockCount);
+    verify(sequenceVersionRepository, times(1)).save(sequenceVersion);
+  }
+
+  @Test
+  void testExistingNumberRejectedAsOneByOne() throws AxelorException {
+    SequenceVersion sequenceVersion = createVersion(1L, 1L);
+    when(sequenceVersionRepository.findByDate(any(), any())).thenReturn(sequenceVersion);
+    sequenceService.existingNumberSet.add("MO24-0005");
+
+    getSequenceNumberOneByOne(2);
+    Assertions.assertThrows(AxelorException.class, () -> getSequenceNumberOneByOne(1));
+    Assertions.assertEquals(List.of("MO24-0001", "MO24-0003"), sequenceService.checkedNumberList);
+
+    sequenceVersion.setNextNum(1L);
+    sequenceService.checkedNumberList.clear();
+    Assertions.assertThrows(AxelorException.class, () -> getSequenceNumbers(3));
+    Assertions.assertEquals(List.of("MO24-0001", "MO24-0003"), sequenceService.checkedNumberList);
+  }
+
+  @Test
+  void testNoNumber() throws AxelorException {
+    SequenceVersion sequenceVersion = createVersion(1L, 3L);
+    when(sequenceVersionRepository.findByDate(any(), any())).thenReturn(sequenceVersion);
+
+    Assertions.assertTrue(getSequenceNumbers(0).isEmpty());
+    Assertions.assertEquals(3L, sequenceVersion.getNextNum());
+  }
+
+  private static class TestService extends SequenceService {
+
+    private final Set<String> existingNumberSet = new HashSet<>();
+    private final List<String> checkedNumberList = new ArrayList<>();
+    private int lockCount;
+
+    TestService(
+        SequenceVersionRepository sequenceVersionRepository,
+        AppBaseService appBaseService,
+        SequenceRepository sequenceRepo,
+        SequenceVersionGeneratorService sequenceVersionGeneratorService) {
+      super(
+          sequenceVersionRepository, appBaseService, sequenceRepo, sequenceVersionGeneratorService);
+    }
+
+    @Override
+    protected Sequence lockSequence(Sequence sequence) {
+      lockCount++;
+      return sequence;
+    }
+
+    @Override
+    protected void isSequenceAlreadyExisting(
+        Class objectClass, String fieldName, String nextSeq, Sequence seq)
+        throws AxelorException {
+      if (existingNumberSet.contains(nextSeq)) {
+        throw new AxelorException(TraceBackRepository.CATEGORY_CONFIGURATION_ERROR, nextSeq);
+      }
+      checkedNumberList.add(nextSeq);
+    }
+  }
+}
@@ -0,0 +1,152 @@
+/*
+ * Axelor Business Solutions
+ *
+ * Copyright (C) 2005-2025 Axelor (<http://axelor.com>).
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.axelor.apps.base.service.tax;
+
+import com.axelor.apps.base.AxelorException;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class TestAccountManagementCacheService {
+
+  private TestCacheService cacheService;
+  private AtomicInteger loadCount;
+
+  @BeforeEach
+  void prepare() {
+    cacheService = new TestCacheService();
+    loadCount = new AtomicInteger();
+  }
+
+  private String load(Long productId, String key, String value) throws AxelorException {
+    return cacheService.get(
+        productId,
+        key,
+        () -> {
+          loadCount.incrementAndGet();
+          return value;
+        });
+  }
+
+  @Test
+  void testHit() throws AxelorException {
+    Assertions.assertEquals("A", load(1L, "company", "A"));
+    Assertions.assertEquals("A", load(1L, "company", "B"));
+    Assertions.assertEquals(1, loadCount.get());
+    Assertions.assertEquals(1, cacheService.getHitCount());
+    Assertions.assertEquals(1, cacheService.getMissCount());
+    Assertions.assertEquals(0.5, cacheService.getHitRate());
+  }
+
+  @Test
+  void testNullValueIsCached() throws AxelorException {
+    Assertions.assertNull(load(1L, "company", null));
+    Assertions.assertNull(load(1L, "company", "A"));
+    Assertions.assertEquals(1, loadCount.get());
+  }
+
+  @Test
+  void testMissOnOtherKeyProductOrTenant() throws AxelorException {
+    load(1L, "company", "A");
+    Assertions.assertEquals("B", load(1L, "otherCompany", "B"));
+    Assertions.assertEquals("C", load(2L, "company", "C"));
+    cacheService.tenantId = "other";
+    Assertions.assertEquals("D", load(1L, "company", "D"));
+    Assertions.assertEquals(4, loadCount.get());
+    Assertions.assertEquals(0, cacheService.getHitCount());
+    Assertions.assertEquals(4, cacheService.getMissCount());
+  }
+
+  @Test
+  void testFailedLoadIsNotCached() throws AxelorException {
+    Assertions.assertThrows(
+        AxelorException.class,
+        () ->
+            cacheService.get(
+                1L,
+                "company",
+                () -> {
+                  throw new IllegalStateException();
+                }));
+    Assertions.assertEquals("A", load(1L, "company", "A"));
+  }
+
+  @Test
+  void testInvalidateProduct() throws AxelorException {
+    load(1L, "company", "A");
+    load(10L, "company", "B");
+    cacheService.invalidateProduct(1L);
+
+    Assertions.assertEquals("C", load(1L, "company", "C"));
+    Assertions.assertEquals("B", load(10L, "company", "D"));
+    Assertions.assertEquals(Set.of("tenant|1"), cacheService.pendingKeySet);
+  }
+
+  @Test
+  void testInvalidateTenant() throws AxelorException {
+    load(1L, "company", "A");
+    load(2L, "company", "B");
+    cacheService.tenantId = "other";
+    load(1L, "company", "C");
+
+    cacheService.tenantId = "tenant";
+    cacheService.invalidateTenant();
+    Assertions.assertEquals("D", load(1L, "company", "D"));
+    Assertions.assertEquals("E", load(2L, "company", "E"));
+    Assertions.assertEquals(Set.of("tenant|"), cacheService.pendingKeySet);
+
+    cacheService.tenantId = "other";
+    Assertions.assertEquals("C", load(1L, "company", "F"));
+  }
+
+  @Test
+  void testInvalidateAgainAfterCompletion() throws AxelorException {
+    load(1L, "company", "A");
+    load(2L, "company", "B");
+    cacheService.invalidateProduct(1L);
+    cacheService.invalidateTenant();
+
+    // Values loaded by another transaction before the commit
+    load(1L, "company", "A");
+    load(2L, "company", "B");
+
+    cacheService.pendingKeySet.forEach(cacheService::invalidate);
+    Assertions.assertEquals("C", load(1L, "company", "C"));
+    Assertions.assertEquals("D", load(2L, "company", "D"));
+  }
+
+  private static class TestCacheService extends AccountManagementCacheServiceImpl {
+
+    private String tenantId = "tenant";
+    private final Set<String> pendingKeySet = new HashSet<>();
+
+    @Override
+    protected String getTenantKey() {
+      return tenantId + SEPARATOR;
+    }
+
+    @Override
+    protected Set<String> getPendingKeys() {
+      return pendingKeySet;
+    }
+  }
+}
@@ -27,6 +27,7 @@ import com.axelor.apps.account.db.repo.InvoiceRepository;
 import com.axelor.apps.account.service.app.AppAccountService;
 import com.axelor.apps.account.service.config.AccountConfigService;
 import com.axelor.apps.account.service.invoice.InvoiceLineService;
+import com.axelor.apps.account.service.invoice.InvoiceMassProcessService;
 import com.axelor.apps.account.service.invoice.InvoiceTermFilterService;
 import com.axelor.apps.account.service.invoice.InvoiceTermPfpService;
 import com.axelor.apps.account.service.invoice.InvoiceTermPfpToolService;
@@ -70,6 +71,7 @@ public class InvoiceServiceProjectImpl extends InvoiceServiceSupplychainImpl
       InvoiceTermFilterService invoiceTermFilterService,
       InvoicePrintService invoicePrintService,
       InvoiceTermPfpToolService invoiceTermPfpToolService,
+      InvoiceMassProcessService invoiceMassProcessService,
       InvoiceLineRepository invoiceLineRepo,
       IntercoService intercoService,
       StockMoveRepository stockMoveRepository) {
@@ -91,6 +93,7 @@ public class InvoiceServiceProjectImpl extends InvoiceServiceSupplychainImpl
         invoiceTermFilterService,
         invoicePrintService,
         invoiceTermPfpToolService,
+        invoiceMassProcessService,
         invoiceLineRepo,
         intercoService,
         stockMoveRepository);
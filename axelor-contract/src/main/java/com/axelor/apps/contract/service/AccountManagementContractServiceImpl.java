@@ -28,6 +28,7 @@ import com.axelor.apps.account.service.config.AccountConfigService;
 import com.axelor.apps.base.AxelorException;
 import com.axelor.apps.base.db.Company;
 import com.axelor.apps.base.db.Product;
+import com.axelor.apps.base.service.tax.AccountManagementCacheService;
 import com.axelor.apps.base.service.tax.FiscalPositionService;
 import com.axelor.apps.base.service.tax.TaxService;
 import com.google.inject.Inject;
@@ -40,13 +41,15 @@ public class AccountManagementContractServiceImpl extends AccountManagementServi
       TaxService taxService,
       AccountConfigService accountConfigService,
       AccountRepository accountRepository,
-      FiscalPositionAccountService fiscalPositionAccountService) {
+      FiscalPositionAccountService fiscalPositionAccountService,
+      AccountManagementCacheService accountManagementCacheService) {
     super(
         fiscalPositionService,
         taxService,
         accountConfigService,
         accountRepository,
-        fiscalPositionAccountService);
+        fiscalPositionAccountService,
+        accountManagementCacheService);
   }
 
   @Override
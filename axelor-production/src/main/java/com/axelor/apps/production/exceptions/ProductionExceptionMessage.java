@@ -51,6 +51,16 @@ public final class ProductionExceptionMessage {
   /** Batch Fill SOP real values */
   public static final String BATCH_FILL_SOP = /*$$(*/ "* %s Filled SOP lines" /*)*/;
 
+  /** Batch Replan manufacturing orders */
+  public static final String BATCH_REPLAN_MANUF_ORDERS = /*$$(*/
+      "* %s Replanned operation orders" /*)*/;
+
+  public static final String BATCH_REPLAN_MANUF_ORDERS_DRY_RUN = /*$$(*/
+      "Dry run, the new planned dates below were not saved:" /*)*/;
+
+  public static final String MANUF_ORDER_REPLANNING_CONCURRENT_UPDATE = /*$$(*/
+      "These orders were modified during the re-planning, nothing was saved, please run it again: %s" /*)*/;
+
   public static final String IN_OR_OUT_INVALID_ARG = /*$$(*/ "inOrOut is invalid" /*)*/;
 
   /** Bill of Materials Service */
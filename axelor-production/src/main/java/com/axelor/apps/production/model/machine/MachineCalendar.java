@@ -0,0 +1,143 @@
+/*
+ * Axelor Business Solutions
+ *
+ * Copyright (C) 2005-2025 Axelor (<http://axelor.com>).
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.axelor.apps.production.model.machine;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+
+/**
+ * Slots booked on a machine by its operation orders and public holidays of the machine, kept in
+ * memory while planning. Overlapping or adjacent slots are merged into busy periods indexed by
+ * their start, so that the slots conflicting with a period are found without scanning every slot.
+ */
+public class MachineCalendar {
+
+  private final Set<LocalDate> publicHolidaySet;
+
+  private final Supplier<Map<Long, MachineTimeSlot>> bookedSlotLoader;
+
+  /** Booked slot by operation order id, loaded on first use. */
+  private Map<Long, MachineTimeSlot> bookedSlotMap;
+
+  /** End of each busy period by its start, rebuilt on the first search after a change. */
+  private TreeMap<LocalDateTime, LocalDateTime> busyPeriodMap;
+
+  public MachineCalendar(
+      Set<LocalDate> publicHolidaySet, Supplier<Map<Long, MachineTimeSlot>> bookedSlotLoader) {
+    this.publicHolidaySet = publicHolidaySet;
+    this.bookedSlotLoader = bookedSlotLoader;
+  }
+
+  public boolean isPublicHoliday(LocalDate date) {
+    return publicHolidaySet.contains(date);
+  }
+
+  public void book(Long operationOrderId, MachineTimeSlot machineTimeSlot) {
+    getBookedSlotMap().put(operationOrderId, machineTimeSlot);
+    busyPeriodMap = null;
+  }
+
+  public void release(Long operationOrderId) {
+    if (getBookedSlotMap().remove(operationOrderId) != null) {
+      busyPeriodMap = null;
+    }
+  }
+
+  /**
+   * Find the busy period conflicting with a slot planned as soon as possible: starting before the
+   * end of the slot, or at its end, and ending after its start minus the given margin.
+   *
+   * @return the end of the latest conflicting busy period
+   */
+  public Optional<LocalDateTime> findLastConflictEnd(
+      LocalDateTime startDateT, LocalDateTime endDateT, long marginSeconds) {
+    Entry<LocalDateTime, LocalDateTime> busyPeriod = getBusyPeriodMap().floorEntry(endDateT);
+    if (busyPeriod == null
+        || !busyPeriod.getValue().isAfter(startDateT.minusSeconds(marginSeconds))) {
+      return Optional.empty();
+    }
+    return Optional.of(busyPeriod.getValue());
+  }
+
+  /**
+   * Find the busy period conflicting with a slot planned at the latest: starting strictly before
+   * the end of the slot and ending after its start minus the given margin.
+   *
+   * @return the start of the earliest conflicting busy period
+   */
+  public Optional<LocalDateTime> findFirstConflictStart(
+      LocalDateTime startDateT, LocalDateTime endDateT, long marginSeconds) {
+    LocalDateTime minEndDateT = startDateT.minusSeconds(marginSeconds);
+    TreeMap<LocalDateTime, LocalDateTime> periodMap = getBusyPeriodMap();
+    Entry<LocalDateTime, LocalDateTime> busyPeriod = periodMap.floorEntry(minEndDateT);
+    if (busyPeriod == null || !busyPeriod.getValue().isAfter(minEndDateT)) {
+      busyPeriod = periodMap.higherEntry(minEndDateT);
+    }
+    if (busyPeriod == null || !busyPeriod.getKey().isBefore(endDateT)) {
+      return Optional.empty();
+    }
+    return Optional.of(busyPeriod.getKey());
+  }
+
+  protected Map<Long, MachineTimeSlot> getBookedSlotMap() {
+    if (bookedSlotMap == null) {
+      bookedSlotMap = new HashMap<>(bookedSlotLoader.get());
+    }
+    return bookedSlotMap;
+  }
+
+  protected TreeMap<LocalDateTime, LocalDateTime> getBusyPeriodMap() {
+    if (busyPeriodMap != null) {
+      return busyPeriodMap;
+    }
+
+    List<MachineTimeSlot> slotList = new ArrayList<>(getBookedSlotMap().values());
+    slotList.sort(Comparator.comparing(MachineTimeSlot::getStartDateT));
+    busyPeriodMap = new TreeMap<>();
+    LocalDateTime periodStartDateT = null;
+    LocalDateTime periodEndDateT = null;
+    for (MachineTimeSlot slot : slotList) {
+      if (periodEndDateT != null && !slot.getStartDateT().isAfter(periodEndDateT)) {
+        if (slot.getEndDateT().isAfter(periodEndDateT)) {
+          periodEndDateT = slot.getEndDateT();
+        }
+        continue;
+      }
+      if (periodStartDateT != null) {
+        busyPeriodMap.put(periodStartDateT, periodEndDateT);
+      }
+      periodStartDateT = slot.getStartDateT();
+      periodEndDateT = slot.getEndDateT();
+    }
+    if (periodStartDateT != null) {
+      busyPeriodMap.put(periodStartDateT, periodEndDateT);
+    }
+    return busyPeriodMap;
+  }
+}
@@ -0,0 +1,88 @@
+/*
+ * Axelor Business Solutions
+ *
+ * Copyright (C) 2005-2025 Axelor (<http://axelor.com>).
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.axelor.apps.production.model.machine;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/** Slot of an operation order computed by a re-planning, one bar of the resulting Gantt chart. */
+public class OperationOrderPlannedSlot {
+
+  private final Long operationOrderId;
+  private final String operationOrderName;
+  private final Long manufOrderId;
+  private final String manufOrderSeq;
+  private final Long machineId;
+  private final LocalDateTime startDateT;
+  private final LocalDateTime endDateT;
+  private final boolean changed;
+
+  public OperationOrderPlannedSlot(
+      Long operationOrderId,
+      String operationOrderName,
+      Long manufOrderId,
+      String manufOrderSeq,
+      Long machineId,
+      LocalDateTime startDateT,
+      LocalDateTime endDateT,
+      boolean changed) {
+    this.operationOrderId = Objects.requireNonNull(operationOrderId);
+    this.operationOrderName = operationOrderName;
+    this.manufOrderId = Objects.requireNonNull(manufOrderId);
+    this.manufOrderSeq = manufOrderSeq;
+    this.machineId = machineId;
+    this.startDateT = Objects.requireNonNull(startDateT);
+    this.endDateT = Objects.requireNonNull(endDateT);
+    this.changed = changed;
+  }
+
+  public Long getOperationOrderId() {
+    return operationOrderId;
+  }
+
+  public String getOperationOrderName() {
+    return operationOrderName;
+  }
+
+  public Long getManufOrderId() {
+    return manufOrderId;
+  }
+
+  public String getManufOrderSeq() {
+    return manufOrderSeq;
+  }
+
+  /** The machine of the operation order, null if it is outsourced or has no machine. */
+  public Long getMachineId() {
+    return machineId;
+  }
+
+  public LocalDateTime getStartDateT() {
+    return startDateT;
+  }
+
+  public LocalDateTime getEndDateT() {
+    return endDateT;
+  }
+
+  /** Whether the slot differs from the planned dates of the operation order before re-planning. */
+  public boolean isChanged() {
+    return changed;
+  }
+}
@@ -56,6 +56,8 @@ import com.axelor.apps.production.service.BillOfMaterialComputeNameService;
 import com.axelor.apps.production.service.BillOfMaterialComputeNameServiceImpl;
 import com.axelor.apps.production.service.BillOfMaterialDummyService;
 import com.axelor.apps.production.service.BillOfMaterialDummyServiceImpl;
+import com.axelor.apps.production.service.BillOfMaterialGraphService;
+import com.axelor.apps.production.service.BillOfMaterialGraphServiceImpl;
 import com.axelor.apps.production.service.BillOfMaterialLineService;
 import com.axelor.apps.production.service.BillOfMaterialLineServiceImpl;
 import com.axelor.apps.production.service.BillOfMaterialMrpLineService;
@@ -73,6 +75,9 @@ import com.axelor.apps.production.service.MpsWeeklyScheduleServiceImpl;
 import com.axelor.apps.production.service.MrpForecastProductionService;
 import com.axelor.apps.production.service.MrpForecastProductionServiceImpl;
 import com.axelor.apps.production.service.MrpLineServiceProductionImpl;
+import com.axelor.apps.production.service.MrpManufOrderGenerationService;
+import com.axelor.apps.production.service.MrpManufOrderGenerationServiceImpl;
+import com.axelor.apps.production.service.MrpProposalServiceProductionImpl;
 import com.axelor.apps.production.service.MrpServiceProductionImpl;
 import com.axelor.apps.production.service.ProdProcessComputationService;
 import com.axelor.apps.production.service.ProdProcessComputationServiceImpl;
@@ -139,6 +144,7 @@ import com.axelor.apps.production.service.StockMoveLineProductionServiceImpl;
 import com.axelor.apps.production.service.StockMoveMergingServiceProductionImpl;
 import com.axelor.apps.production.service.StockMoveProductionService;
 import com.axelor.apps.production.service.StockMoveServiceProductionImpl;
+import com.axelor.apps.production.service.StockMoveToolServiceProductionImpl;
 import com.axelor.apps.production.service.StockRulesSupplychainServiceProductionImpl;
 import com.axelor.apps.production.service.SubSaleOrderLineComputeServiceProductionImpl;
 import com.axelor.apps.production.service.TrackingNumberCompanyProductionServiceImpl;
@@ -170,6 +176,8 @@ import com.axelor.apps.production.service.costsheet.UnitCostCalcLineService;
 import com.axelor.apps.production.service.costsheet.UnitCostCalcLineServiceImpl;
 import com.axelor.apps.production.service.costsheet.UnitCostCalculationService;
 import com.axelor.apps.production.service.costsheet.UnitCostCalculationServiceImpl;
+import com.axelor.apps.production.service.machine.MachineCalendarService;
+import com.axelor.apps.production.service.machine.MachineCalendarServiceImpl;
 import com.axelor.apps.production.service.machine.MachineService;
 import com.axelor.apps.production.service.machine.MachineServiceImpl;
 import com.axelor.apps.production.service.manuforder.ManufOrderCheckStockMoveLineService;
@@ -192,6 +200,8 @@ import com.axelor.apps.production.service.manuforder.ManufOrderPlanService;
 import com.axelor.apps.production.service.manuforder.ManufOrderPlanServiceImpl;
 import com.axelor.apps.production.service.manuforder.ManufOrderPlanStockMoveService;
 import com.axelor.apps.production.service.manuforder.ManufOrderPlanStockMoveServiceImpl;
+import com.axelor.apps.production.service.manuforder.ManufOrderReplanningService;
+import com.axelor.apps.production.service.manuforder.ManufOrderReplanningServiceImpl;
 import com.axelor.apps.production.service.manuforder.ManufOrderReservedQtyService;
 import com.axelor.apps.production.service.manuforder.ManufOrderReservedQtyServiceImpl;
 import com.axelor.apps.production.service.manuforder.ManufOrderResidualProductService;
@@ -243,11 +253,13 @@ import com.axelor.apps.sale.service.configurator.ConfiguratorServiceImpl;
 import com.axelor.apps.sale.service.saleorderline.SaleOrderLineCostPriceComputeServiceImpl;
 import com.axelor.apps.sale.service.saleorderline.subline.SubSaleOrderLineComputeServiceImpl;
 import com.axelor.apps.stock.db.repo.ProductStockRepository;
+import com.axelor.apps.stock.service.StockMoveToolServiceImpl;
 import com.axelor.apps.stock.service.config.StockConfigService;
 import com.axelor.apps.supplychain.db.repo.StockMoveLineSupplychainRepository;
 import com.axelor.apps.supplychain.db.repo.StockMoveSupplychainRepository;
 import com.axelor.apps.supplychain.service.ConfiguratorCheckServiceSupplychainImpl;
 import com.axelor.apps.supplychain.service.MrpLineServiceImpl;
+import com.axelor.apps.supplychain.service.MrpProposalServiceImpl;
 import com.axelor.apps.supplychain.service.MrpServiceImpl;
 import com.axelor.apps.supplychain.service.ProductStockLocationServiceImpl;
 import com.axelor.apps.supplychain.service.PurchaseOrderMergingServiceSupplyChainImpl;
@@ -278,6 +290,7 @@ public class ProductionModule extends AxelorModule {
     bind(ProductionOrderSaleOrderService.class).to(ProductionOrderSaleOrderServiceImpl.class);
     bind(MrpLineServiceImpl.class).to(MrpLineServiceProductionImpl.class);
     bind(MrpServiceImpl.class).to(MrpServiceProductionImpl.class);
+    bind(MrpProposalServiceImpl.class).to(MrpProposalServiceProductionImpl.class);
     bind(CostSheetService.class).to(CostSheetServiceImpl.class);
     bind(CostSheetLineService.class).to(CostSheetLineServiceImpl.class);
     bind(StockRulesSupplychainServiceImpl.class)
@@ -318,6 +331,7 @@ public class ProductionModule extends AxelorModule {
     bind(OperationOrderRestService.class).to(OperationOrderRestServiceImpl.class);
     bind(ManufOrderWorkflowService.class).to(ManufOrderWorkflowServiceImpl.class);
     bind(StockMoveServiceSupplychainImpl.class).to(StockMoveServiceProductionImpl.class);
+    bind(StockMoveToolServiceImpl.class).to(StockMoveToolServiceProductionImpl.class);
     bind(StockMoveProductionService.class).to(StockMoveServiceProductionImpl.class);
     bind(MachineService.class).to(MachineServiceImpl.class);
     bind(OperationOrderWorkflowService.class).to(OperationOrderWorkflowServiceImpl.class);
@@ -418,5 +432,9 @@ public class ProductionModule extends AxelorModule {
         .to(SaleOrderLineDummyProductionServiceImpl.class);
     bind(ProdProcessComputationService.class).to(ProdProcessComputationServiceImpl.class);
     bind(BillOfMaterialDummyService.class).to(BillOfMaterialDummyServiceImpl.class);
+    bind(MachineCalendarService.class).to(MachineCalendarServiceImpl.class);
+    bind(ManufOrderReplanningService.class).to(ManufOrderReplanningServiceImpl.class);
+    bind(BillOfMaterialGraphService.class).to(BillOfMaterialGraphServiceImpl.class);
+    bind(MrpManufOrderGenerationService.class).to(MrpManufOrderGenerationServiceImpl.class);
   }
 }
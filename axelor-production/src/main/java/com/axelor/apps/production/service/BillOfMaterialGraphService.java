@@ -0,0 +1,47 @@
+/*
+ * Axelor Business Solutions
+ *
+ * Copyright (C) 2005-2025 Axelor (<http://axelor.com>).
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.axelor.apps.production.service;
+
+import com.axelor.apps.base.AxelorException;
+import com.axelor.apps.base.db.Company;
+import com.axelor.apps.base.db.Product;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Graph of the products and their components, as given by the bills of materials used for each
+ * product in a company. The graph is built for each calculation, so that each bill of materials is
+ * resolved and read once whatever the number of parents sharing it.
+ */
+public interface BillOfMaterialGraphService {
+
+  /**
+   * Compute the low-level code of the given products and of all their components: 0 for a product
+   * that is not a component of another one, else 1 more than the highest low-level code of its
+   * parents. The components of a line come from its sub bill of materials when it has one. The
+   * graph is sorted topologically, so each product is visited once.
+   *
+   * @param productList the products to start from
+   * @param company the company of the bills of materials
+   * @return the low-level code by product id
+   * @throws AxelorException if the bills of materials contain a loop
+   */
+  Map<Long, Integer> getLowLevelCodes(Collection<Product> productList, Company company)
+      throws AxelorException;
+}
@@ -0,0 +1,177 @@
+/*
+ * Axelor Business Solutions
+ *
+ * Copyright (C) 2005-2025 Axelor (<http://axelor.com>).
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.axelor.apps.production.service;
+
+import com.axelor.apps.base.AxelorException;
+import com.axelor.apps.base.db.Company;
+import com.axelor.apps.base.db.Product;
+import com.axelor.apps.base.db.repo.TraceBackRepository;
+import com.axelor.apps.production.db.BillOfMaterial;
+import com.axelor.apps.production.db.BillOfMaterialLine;
+import com.axelor.apps.production.exceptions.ProductionExceptionMessage;
+import com.axelor.i18n.I18n;
+import com.google.inject.Inject;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import org.apache.commons.collections.CollectionUtils;
+import org.apache.commons.lang3.tuple.Pair;
+
+public class BillOfMaterialGraphServiceImpl implements BillOfMaterialGraphService {
+
+  protected BillOfMaterialService billOfMaterialService;
+
+  @Inject
+  public BillOfMaterialGraphServiceImpl(BillOfMaterialService billOfMaterialService) {
+    this.billOfMaterialService = billOfMaterialService;
+  }
+
+  @Override
+  public Map<Long, Integer> getLowLevelCodes(Collection<Product> productList, Company company)
+      throws AxelorException {
+    return computeLowLevelCodes(buildGraph(productList, company));
+  }
+
+  /**
+   * Build the graph of the products reachable from the given ones. The components of a line are
+   * read from the sub bill of materials of the line when it has one, as the cost calculation does,
+   * else from the bill of materials of the component. Each bill of materials is resolved and read
+   * once for the graph, whatever the number of parents sharing it.
+   */
+  protected BillOfMaterialGraph buildGraph(Collection<Product> productList, Company company)
+      throws AxelorException {
+    BillOfMaterialGraph graph = new BillOfMaterialGraph();
+    Deque<Pair<Product, BillOfMaterial>> deque = new ArrayDeque<>();
+
+    for (Product product : productList) {
+      graph.addProduct(product.getId());
+      deque.add(Pair.of(product, getBillOfMaterial(graph, product, company)));
+    }
+
+    while (!deque.isEmpty()) {
+      Pair<Product, BillOfMaterial> productBillOfMaterial = deque.poll();
+      Long productId = productBillOfMaterial.getLeft().getId();
+      BillOfMaterial billOfMaterial = productBillOfMaterial.getRight();
+      if (billOfMaterial == null
+          || CollectionUtils.isEmpty(billOfMaterial.getBillOfMaterialLineList())
+          || !graph.visitedSet.add(Arrays.asList(productId, billOfMaterial.getId()))) {
+        continue;
+      }
+
+      for (BillOfMaterialLine billOfMaterialLine : billOfMaterial.getBillOfMaterialLineList()) {
+        Product component = billOfMaterialLine.getProduct();
+        if (component == null) {
+          continue;
+        }
+        graph.addComponent(productId, component.getId());
+        deque.add(
+            Pair.of(
+                component,
+                billOfMaterialLine.getBillOfMaterial() != null
+                    ? billOfMaterialLine.getBillOfMaterial()
+                    : getBillOfMaterial(graph, component, company)));
+      }
+    }
+    return graph;
+  }
+
+  protected BillOfMaterial getBillOfMaterial(
+      BillOfMaterialGraph graph, Product product, Company company) throws AxelorException {
+    Optional<BillOfMaterial> billOfMaterial = graph.billOfMaterialMap.get(product.getId());
+    if (billOfMaterial == null) {
+      billOfMaterial = Optional.ofNullable(billOfMaterialService.getBOM(product, company));
+      graph.billOfMaterialMap.put(product.getId(), billOfMaterial);
+    }
+    return billOfMaterial.orElse(null);
+  }
+
+  /**
+   * Visit the products of the graph in topological order, each one after all its parents, so
+   * that the low-level code of a product is final when it is visited.
+   */
+  protected Map<Long, Integer> computeLowLevelCodes(BillOfMaterialGraph graph)
+      throws AxelorException {
+    Map<Long, Integer> parentCountMap = new HashMap<>();
+    for (Long productId : graph.componentMap.keySet()) {
+      parentCountMap.putIfAbsent(productId, 0);
+      for (Long componentId : graph.componentMap.get(productId)) {
+        parentCountMap.merge(componentId, 1, Integer::sum);
+      }
+    }
+
+    Deque<Long> productIdDeque = new ArrayDeque<>();
+    Map<Long, Integer> lowLevelCodeMap = new HashMap<>();
+    for (Map.Entry<Long, Integer> entry : parentCountMap.entrySet()) {
+      if (entry.getValue() == 0) {
+        productIdDeque.add(entry.getKey());
+        lowLevelCodeMap.put(entry.getKey(), 0);
+      }
+    }
+    int visitedCount = 0;
+    while (!productIdDeque.isEmpty()) {
+      Long productId = productIdDeque.poll();
+      visitedCount++;
+      int componentLevel = lowLevelCodeMap.get(productId) + 1;
+      for (Long componentId : graph.componentMap.get(productId)) {
+        lowLevelCodeMap.merge(componentId, componentLevel, Math::max);
+        if (parentCountMap.merge(componentId, -1, Integer::sum) == 0) {
+          productIdDeque.add(componentId);
+        }
+      }
+    }
+
+    // The products left with a parent not visited are part of a loop
+    if (visitedCount < parentCountMap.size()) {
+      throw new AxelorException(
+          TraceBackRepository.CATEGORY_CONFIGURATION_ERROR,
+          I18n.get(ProductionExceptionMessage.LOOP_IN_BILL_OF_MATERIALS));
+    }
+    return lowLevelCodeMap;
+  }
+
+  /** Graph of the bills of materials, built for a single calculation. */
+  protected static class BillOfMaterialGraph {
+    /** Ids of the distinct components by product id, for all the products of the graph. */
+    protected final Map<Long, Set<Long>> componentMap = new HashMap<>();
+
+    /** Bill of materials of each product, resolved once. */
+    protected final Map<Long, Optional<BillOfMaterial>> billOfMaterialMap = new HashMap<>();
+
+    /** Product and bill of materials ids already read. */
+    protected final Set<List<Long>> visitedSet = new HashSet<>();
+
+    protected void addProduct(Long productId) {
+      componentMap.computeIfAbsent(productId, key -> new LinkedHashSet<>());
+    }
+
+    protected void addComponent(Long productId, Long componentId) {
+      addProduct(productId);
+      addProduct(componentId);
+      componentMap.get(productId).add(componentId);
+    }
+  }
+}
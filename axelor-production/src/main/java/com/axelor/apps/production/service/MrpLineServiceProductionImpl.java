@@ -19,22 +19,14 @@
 package com.axelor.apps.production.service;
 
 import com.axelor.apps.base.AxelorException;
-import com.axelor.apps.base.db.Company;
 import com.axelor.apps.base.db.Partner;
-import com.axelor.apps.base.db.Product;
 import com.axelor.apps.base.service.app.AppBaseService;
-import com.axelor.apps.production.db.BillOfMaterial;
 import com.axelor.apps.production.db.ManufOrder;
 import com.axelor.apps.production.db.OperationOrder;
-import com.axelor.apps.production.db.ProdProcess;
-import com.axelor.apps.production.db.ProductionConfig;
 import com.axelor.apps.production.db.repo.ManufOrderRepository;
 import com.axelor.apps.production.db.repo.OperationOrderRepository;
-import com.axelor.apps.production.db.repo.ProductionConfigRepository;
 import com.axelor.apps.production.service.app.AppProductionService;
-import com.axelor.apps.production.service.config.ProductionConfigService;
 import com.axelor.apps.production.service.manuforder.ManufOrderService;
-import com.axelor.apps.production.service.manuforder.ManufOrderService.ManufOrderOriginTypeProduction;
 import com.axelor.apps.purchase.db.PurchaseOrder;
 import com.axelor.apps.purchase.db.repo.PurchaseOrderLineRepository;
 import com.axelor.apps.purchase.db.repo.PurchaseOrderRepository;
@@ -54,11 +46,8 @@ import com.axelor.db.Model;
 import com.axelor.inject.Beans;
 import com.google.inject.Inject;
 import com.google.inject.persist.Transactional;
-import java.math.BigDecimal;
 import java.time.LocalDate;
-import java.time.LocalDateTime;
 import java.util.Map;
-import java.util.concurrent.TimeUnit;
 import org.apache.commons.lang3.tuple.Pair;
 
 public class MrpLineServiceProductionImpl extends MrpLineServiceImpl {
@@ -66,10 +55,8 @@ public class MrpLineServiceProductionImpl extends MrpLineServiceImpl {
   protected ManufOrderService manufOrderService;
   protected ManufOrderRepository manufOrderRepository;
   protected OperationOrderRepository operationOrderRepository;
-  protected BillOfMaterialService billOfMaterialService;
   protected ProdProcessLineService prodProcessLineService;
-  protected ProductionConfigService productionConfigService;
-  protected final ProdProcessComputationService prodProcessComputationService;
+  protected MrpManufOrderGenerationService mrpManufOrderGenerationService;
 
   @Inject
   public MrpLineServiceProductionImpl(
@@ -86,10 +73,8 @@ public class MrpLineServiceProductionImpl extends MrpLineServiceImpl {
       ManufOrderRepository manufOrderRepository,
       OperationOrderRepository operationOrderRepository,
       MrpLineRepository mrpLineRepo,
-      BillOfMaterialService billOfMaterialService,
       ProdProcessLineService prodProcessLineService,
-      ProductionConfigService productionConfigService,
-      ProdProcessComputationService prodProcessComputationService) {
+      MrpManufOrderGenerationService mrpManufOrderGenerationService) {
     super(
         appBaseService,
         purchaseOrderCreateSupplychainService,
@@ -104,10 +89,8 @@ public class MrpLineServiceProductionImpl extends MrpLineServiceImpl {
     this.manufOrderService = manufOrderService;
     this.manufOrderRepository = manufOrderRepository;
     this.operationOrderRepository = operationOrderRepository;
-    this.billOfMaterialService = billOfMaterialService;
     this.prodProcessLineService = prodProcessLineService;
-    this.productionConfigService = productionConfigService;
-    this.prodProcessComputationService = prodProcessComputationService;
+    this.mrpManufOrderGenerationService = mrpManufOrderGenerationService;
   }
 
   @Override
@@ -131,66 +114,7 @@ public class MrpLineServiceProductionImpl extends MrpLineServiceImpl {
 
   @Transactional(rollbackOn = {Exception.class})
   protected void generateManufacturingProposal(MrpLine mrpLine) throws AxelorException {
-
-    Product product = mrpLine.getProduct();
-    Company company = mrpLine.getStockLocation().getCompany();
-
-    ProductionConfig productionConfig = productionConfigService.getProductionConfig(company);
-
-    boolean isAsapScheduling =
-        productionConfig.getScheduling()
-            == ProductionConfigRepository.AS_SOON_AS_POSSIBLE_SCHEDULING;
-
-    LocalDate maturityDate = mrpLine.getMaturityDate();
-    BigDecimal qty = mrpLine.getQty();
-
-    LocalDateTime plannedStartDateT = null;
-    LocalDateTime plannedEndDateT = null;
-
-    BillOfMaterial billOfMaterial = mrpLine.getBillOfMaterial();
-    if (billOfMaterial == null) {
-      billOfMaterial = billOfMaterialService.getDefaultBOM(product, company);
-    }
-
-    if (isAsapScheduling) {
-      plannedStartDateT = maturityDate.atStartOfDay();
-    } else {
-
-      // The +2 adds 2 minutes to the plannedEndDateT to avoid the overflowing of the calculated
-      // plannedStartDateT on the current date time.
-      LocalDateTime maturityDateTime =
-          maturityDate.isEqual(LocalDate.now())
-              ? maturityDate.atTime(
-                  appBaseService.getTodayDateTime(company).toLocalTime().plusMinutes(2))
-              : maturityDate.atStartOfDay();
-      plannedEndDateT =
-          maturityDateTime.plusMinutes(
-              getTotalDurationInMinutes(billOfMaterial.getProdProcess(), qty));
-    }
-
-    ManufOrder manufOrder =
-        manufOrderService.generateManufOrder(
-            product,
-            mrpLine.getQty(),
-            ManufOrderService.DEFAULT_PRIORITY,
-            ManufOrderService.IS_TO_INVOICE,
-            billOfMaterial,
-            plannedStartDateT,
-            plannedEndDateT,
-            ManufOrderOriginTypeProduction
-                .ORIGIN_TYPE_MRP); // TODO compute the time to produce to put the manuf order at the
-    // correct day
-
-    linkToOrder(mrpLine, manufOrder);
-  }
-
-  protected long getTotalDurationInMinutes(ProdProcess prodProcess, BigDecimal qty)
-      throws AxelorException {
-    long totalDuration = 0;
-    if (prodProcess != null) {
-      totalDuration = prodProcessComputationService.getLeadTime(prodProcess, qty);
-    }
-    return TimeUnit.SECONDS.toMinutes(totalDuration);
+    linkToOrder(mrpLine, mrpManufOrderGenerationService.generateManufOrder(mrpLine));
   }
 
   @Override
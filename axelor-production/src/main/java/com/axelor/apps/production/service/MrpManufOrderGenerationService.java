@@ -0,0 +1,59 @@
+/*
+ * Axelor Business Solutions
+ *
+ * Copyright (C) 2005-2025 Axelor (<http://axelor.com>).
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.axelor.apps.production.service;
+
+import com.axelor.apps.base.AxelorException;
+import com.axelor.apps.production.db.ManufOrder;
+import com.axelor.apps.supplychain.db.Mrp;
+import com.axelor.apps.supplychain.db.MrpLine;
+
+public interface MrpManufOrderGenerationService {
+
+  /**
+   * Create the draft manufacturing order of a manufacturing proposal, with the bill of materials of
+   * the line or the default one of the product, planned from the maturity date of the line.
+   *
+   * @param mrpLine a manufacturing proposal
+   * @return the draft manufacturing order, neither numbered nor planned
+   * @throws AxelorException
+   */
+  ManufOrder createManufOrder(MrpLine mrpLine) throws AxelorException;
+
+  /**
+   * Generate, plan and save the manufacturing order of a manufacturing proposal.
+   *
+   * @param mrpLine a manufacturing proposal
+   * @return the planned manufacturing order
+   * @throws AxelorException
+   */
+  ManufOrder generateManufOrder(MrpLine mrpLine) throws AxelorException;
+
+  /**
+   * Generate the manufacturing orders of the manufacturing proposals of the MRP which are not
+   * generated yet. The proposals are processed by chunks, in the order of their maturity date: the
+   * orders of a chunk are created in memory, numbered with one block of sequence numbers and
+   * planned in one transaction, the calendars of the machines being kept for the whole generation.
+   *
+   * @param mrp the MRP
+   * @param selectedOnly whether to generate only the proposals selected to be processed
+   * @return the number of generated manufacturing orders
+   * @throws AxelorException
+   */
+  int generateManufOrders(Mrp mrp, boolean selectedOnly) throws AxelorException;
+}
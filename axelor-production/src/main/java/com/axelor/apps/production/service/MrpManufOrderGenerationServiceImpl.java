@@ -0,0 +1,295 @@
+/*
+ * Axelor Business Solutions
+ *
+ * Copyright (C) 2005-2025 Axelor (<http://axelor.com>).
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.axelor.apps.production.service;
+
+import com.axelor.apps.base.AxelorException;
+import com.axelor.apps.base.db.Company;
+import com.axelor.apps.base.db.Product;
+import com.axelor.apps.base.db.Sequence;
+import com.axelor.apps.base.service.administration.SequenceService;
+import com.axelor.apps.base.service.app.AppBaseService;
+import com.axelor.apps.production.db.BillOfMaterial;
+import com.axelor.apps.production.db.ManufOrder;
+import com.axelor.apps.production.db.ProdProcess;
+import com.axelor.apps.production.db.ProductionConfig;
+import com.axelor.apps.production.db.repo.BillOfMaterialRepository;
+import com.axelor.apps.production.db.repo.ManufOrderRepository;
+import com.axelor.apps.production.db.repo.ProductionConfigRepository;
+import com.axelor.apps.production.service.config.ProductionConfigService;
+import com.axelor.apps.production.service.machine.MachineCalendarService;
+import com.axelor.apps.production.service.manuforder.ManufOrderCreatePurchaseOrderService;
+import com.axelor.apps.production.service.manuforder.ManufOrderPlanService;
+import com.axelor.apps.production.service.manuforder.ManufOrderService;
+import com.axelor.apps.supplychain.db.Mrp;
+import com.axelor.apps.supplychain.db.MrpLine;
+import com.axelor.apps.supplychain.db.repo.MrpLineRepository;
+import com.axelor.apps.supplychain.db.repo.MrpLineTypeRepository;
+import com.axelor.db.JPA;
+import com.google.common.collect.Lists;
+import com.google.inject.Inject;
+import com.google.inject.persist.Transactional;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import javax.persistence.TypedQuery;
+
+public class MrpManufOrderGenerationServiceImpl implements MrpManufOrderGenerationService {
+
+  protected static final int MRP_LINE_CHUNK_SIZE = 50;
+
+  protected MrpLineRepository mrpLineRepo;
+  protected ManufOrderRepository manufOrderRepo;
+  protected BillOfMaterialRepository billOfMaterialRepo;
+  protected ManufOrderService manufOrderService;
+  protected ManufOrderPlanService manufOrderPlanService;
+  protected ManufOrderCreatePurchaseOrderService manufOrderCreatePurchaseOrderService;
+  protected BillOfMaterialService billOfMaterialService;
+  protected ProductionConfigService productionConfigService;
+  protected ProdProcessComputationService prodProcessComputationService;
+  protected MachineCalendarService machineCalendarService;
+  protected SequenceService sequenceService;
+  protected AppBaseService appBaseService;
+
+  @Inject
+  public MrpManufOrderGenerationServiceImpl(
+      MrpLineRepository mrpLineRepo,
+      ManufOrderRepository manufOrderRepo,
+      BillOfMaterialRepository billOfMaterialRepo,
+      ManufOrderService manufOrderService,
+      ManufOrderPlanService manufOrderPlanService,
+      ManufOrderCreatePurchaseOrderService manufOrderCreatePurchaseOrderService,
+      BillOfMaterialService billOfMaterialService,
+      ProductionConfigService productionConfigService,
+      ProdProcessComputationService prodProcessComputationService,
+      MachineCalendarService machineCalendarService,
+      SequenceService sequenceService,
+      AppBaseService appBaseService) {
+    this.mrpLineRepo = mrpLineRepo;
+    this.manufOrderRepo = manufOrderRepo;
+    this.billOfMaterialRepo = billOfMaterialRepo;
+    this.manufOrderService = manufOrderService;
+    this.manufOrderPlanService = manufOrderPlanService;
+    this.manufOrderCreatePurchaseOrderService = manufOrderCreatePurchaseOrderService;
+    this.billOfMaterialService = billOfMaterialService;
+    this.productionConfigService = productionConfigService;
+    this.prodProcessComputationService = prodProcessComputationService;
+    this.machineCalendarService = machineCalendarService;
+    this.sequenceService = sequenceService;
+    this.appBaseService = appBaseService;
+  }
+
+  @Override
+  public ManufOrder createManufOrder(MrpLine mrpLine) throws AxelorException {
+    return createManufOrder(mrpLine, new HashMap<>());
+  }
+
+  @Override
+  @Transactional(rollbackOn = {Exception.class})
+  public ManufOrder generateManufOrder(MrpLine mrpLine) throws AxelorException {
+    ManufOrder manufOrder = manufOrderPlanService.plan(createManufOrder(mrpLine));
+    manufOrderCreatePurchaseOrderService.createPurchaseOrders(manufOrder);
+    return manufOrderRepo.save(manufOrder);
+  }
+
+  @Override
+  public int generateManufOrders(Mrp mrp, boolean selectedOnly) throws AxelorException {
+
+    List<Long> mrpLineIdList = getManufacturingProposalIdList(mrp, selectedOnly);
+    Map<List<Long>, Long> billOfMaterialIdMap = new HashMap<>();
+
+    // The calendars of the machines are loaded once, the orders of each chunk being booked in them
+    machineCalendarService.startPlanning();
+    try {
+      for (List<Long> mrpLineIdChunk : Lists.partition(mrpLineIdList, MRP_LINE_CHUNK_SIZE)) {
+        generateManufOrders(mrpLineIdChunk, billOfMaterialIdMap);
+        JPA.clear();
+      }
+    } finally {
+      machineCalendarService.endPlanning();
+    }
+
+    return mrpLineIdList.size();
+  }
+
+  protected List<Long> getManufacturingProposalIdList(Mrp mrp, boolean selectedOnly) {
+    TypedQuery<Long> query =
+        JPA.em()
+            .createQuery(
+                "SELECT self.id FROM MrpLine self"
+                    + " WHERE self.mrp.id = :mrpId"
+                    + " AND self.proposalGenerated = false"
+                    + " AND self.mrpLineType.elementSelect = :manufProposal"
+                    + (selectedOnly ? " AND self.proposalToProcess = true" : "")
+                    + " ORDER BY self.maturityDate, self.id",
+                Long.class)
+            .setParameter("mrpId", mrp.getId())
+            .setParameter("manufProposal", MrpLineTypeRepository.ELEMENT_MANUFACTURING_PROPOSAL);
+    return query.getResultList();
+  }
+
+  @Transactional(rollbackOn = {Exception.class})
+  protected void generateManufOrders(
+      List<Long> mrpLineIdList, Map<List<Long>, Long> billOfMaterialIdMap)
+      throws AxelorException {
+
+    List<MrpLine> mrpLineList = fetchMrpLines(mrpLineIdList);
+
+    List<ManufOrder> manufOrderList = new ArrayList<>();
+    for (MrpLine mrpLine : mrpLineList) {
+      manufOrderList.add(createManufOrder(mrpLine, billOfMaterialIdMap));
+    }
+
+    assignManufOrderSeqs(manufOrderList);
+
+    for (int i = 0; i < mrpLineList.size(); i++) {
+      ManufOrder manufOrder = manufOrderPlanService.plan(manufOrderList.get(i));
+      manufOrderCreatePurchaseOrderService.createPurchaseOrders(manufOrder);
+
+      MrpLine mrpLine = mrpLineList.get(i);
+      mrpLine.setProposalSelect(ManufOrder.class.getName());
+      mrpLine.setProposalSelectId(manufOrder.getId());
+      mrpLine.setProposalGenerated(true);
+      mrpLine.setProposalToProcess(false);
+    }
+  }
+
+  protected List<MrpLine> fetchMrpLines(List<Long> mrpLineIdList) {
+    return mrpLineRepo
+        .all()
+        .filter("self.id IN (:mrpLineIdList)")
+        .bind("mrpLineIdList", mrpLineIdList)
+        .order("maturityDate")
+        .order("id")
+        .fetch();
+  }
+
+  protected ManufOrder createManufOrder(MrpLine mrpLine, Map<List<Long>, Long> billOfMaterialIdMap)
+      throws AxelorException {
+
+    Company company = mrpLine.getStockLocation().getCompany();
+    ProductionConfig productionConfig = productionConfigService.getProductionConfig(company);
+
+    boolean isAsapScheduling =
+        productionConfig.getScheduling()
+            == ProductionConfigRepository.AS_SOON_AS_POSSIBLE_SCHEDULING;
+
+    LocalDate maturityDate = mrpLine.getMaturityDate();
+    BigDecimal qty = mrpLine.getQty();
+
+    LocalDateTime plannedStartDateT = null;
+    LocalDateTime plannedEndDateT = null;
+
+    BillOfMaterial billOfMaterial = getBillOfMaterial(mrpLine, company, billOfMaterialIdMap);
+
+    if (isAsapScheduling) {
+      plannedStartDateT = maturityDate.atStartOfDay();
+    } else {
+
+      // The +2 adds 2 minutes to the plannedEndDateT to avoid the overflowing of the calculated
+      // plannedStartDateT on the current date time.
+      LocalDateTime maturityDateTime =
+          maturityDate.isEqual(LocalDate.now())
+              ? maturityDate.atTime(
+                  appBaseService.getTodayDateTime(company).toLocalTime().plusMinutes(2))
+              : maturityDate.atStartOfDay();
+      plannedEndDateT =
+          maturityDateTime.plusMinutes(
+              getTotalDurationInMinutes(billOfMaterial.getProdProcess(), qty));
+    }
+
+    return manufOrderService.generateDraftManufOrder(
+        mrpLine.getProduct(),
+        qty,
+        ManufOrderService.DEFAULT_PRIORITY,
+        billOfMaterial,
+        plannedStartDateT,
+        plannedEndDateT);
+  }
+
+  /**
+   * Get the bill of materials of the line, or the default one of the product, the default bills of
+   * materials being resolved once per product and company.
+   */
+  protected BillOfMaterial getBillOfMaterial(
+      MrpLine mrpLine, Company company, Map<List<Long>, Long> billOfMaterialIdMap)
+      throws AxelorException {
+
+    if (mrpLine.getBillOfMaterial() != null) {
+      return mrpLine.getBillOfMaterial();
+    }
+
+    Product product = mrpLine.getProduct();
+    List<Long> key = Arrays.asList(product.getId(), company.getId());
+    if (!billOfMaterialIdMap.containsKey(key)) {
+      BillOfMaterial billOfMaterial = billOfMaterialService.getDefaultBOM(product, company);
+      billOfMaterialIdMap.put(key, billOfMaterial != null ? billOfMaterial.getId() : null);
+    }
+
+    Long billOfMaterialId = billOfMaterialIdMap.get(key);
+    return billOfMaterialId != null ? billOfMaterialRepo.find(billOfMaterialId) : null;
+  }
+
+  protected long getTotalDurationInMinutes(ProdProcess prodProcess, BigDecimal qty)
+      throws AxelorException {
+    long totalDuration = 0;
+    if (prodProcess != null) {
+      totalDuration = prodProcessComputationService.getLeadTime(prodProcess, qty);
+    }
+    return TimeUnit.SECONDS.toMinutes(totalDuration);
+  }
+
+  /**
+   * Number the manufacturing orders with one block of numbers per sequence, instead of locking the
+   * sequence for each order.
+   */
+  protected void assignManufOrderSeqs(List<ManufOrder> manufOrderList) throws AxelorException {
+
+    Map<Sequence, List<ManufOrder>> manufOrderMap = new LinkedHashMap<>();
+    for (ManufOrder manufOrder : manufOrderList) {
+      ProductionConfig productionConfig =
+          productionConfigService.getProductionConfig(manufOrder.getCompany());
+      Sequence sequence =
+          productionConfigService.getManufOrderSequence(
+              productionConfig, manufOrder.getWorkshopStockLocation());
+      manufOrderMap.computeIfAbsent(sequence, key -> new ArrayList<>()).add(manufOrder);
+    }
+
+    for (Map.Entry<Sequence, List<ManufOrder>> entry : manufOrderMap.entrySet()) {
+      Sequence sequence = entry.getKey();
+      List<ManufOrder> sequenceManufOrderList = entry.getValue();
+      List<String> manufOrderSeqList =
+          sequenceService.getSequenceNumbers(
+              sequence,
+              appBaseService.getTodayDate(sequence.getCompany()),
+              ManufOrder.class,
+              "manufOrderSeq",
+              sequenceManufOrderList);
+      for (int i = 0; i < sequenceManufOrderList.size(); i++) {
+        sequenceManufOrderList.get(i).setManufOrderSeq(manufOrderSeqList.get(i));
+      }
+    }
+  }
+}
@@ -0,0 +1,53 @@
+/*
+ * Axelor Business Solutions
+ *
+ * Copyright (C) 2005-2025 Axelor (<http://axelor.com>).
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.axelor.apps.production.service;
+
+import com.axelor.apps.base.AxelorException;
+import com.axelor.apps.production.service.app.AppProductionService;
+import com.axelor.apps.supplychain.db.Mrp;
+import com.axelor.apps.supplychain.db.repo.MrpLineRepository;
+import com.axelor.apps.supplychain.db.repo.MrpRepository;
+import com.axelor.apps.supplychain.service.MrpLineService;
+import com.axelor.apps.supplychain.service.MrpProposalServiceImpl;
+import com.google.inject.Inject;
+
+public class MrpProposalServiceProductionImpl extends MrpProposalServiceImpl {
+
+  protected AppProductionService appProductionService;
+  protected MrpManufOrderGenerationService mrpManufOrderGenerationService;
+
+  @Inject
+  public MrpProposalServiceProductionImpl(
+      MrpRepository mrpRepository,
+      MrpLineRepository mrpLineRepository,
+      MrpLineService mrpLineService,
+      AppProductionService appProductionService,
+      MrpManufOrderGenerationService mrpManufOrderGenerationService) {
+    super(mrpRepository, mrpLineRepository, mrpLineService);
+    this.appProductionService = appProductionService;
+    this.mrpManufOrderGenerationService = mrpManufOrderGenerationService;
+  }
+
+  @Override
+  protected void generateProposalsInBulk(Mrp mrp, boolean selectedOnly) throws AxelorException {
+    if (appProductionService.isApp("production")) {
+      mrpManufOrderGenerationService.generateManufOrders(mrp, selectedOnly);
+    }
+  }
+}
@@ -37,6 +37,8 @@ import com.axelor.apps.stock.db.repo.StockMoveLineRepository;
 import com.axelor.apps.stock.db.repo.StockMoveRepository;
 import com.axelor.apps.stock.service.PartnerProductQualityRatingService;
 import com.axelor.apps.stock.service.PartnerStockSettingsService;
+import com.axelor.apps.stock.service.StockLedgerService;
+import com.axelor.apps.stock.service.StockLocationLineLockService;
 import com.axelor.apps.stock.service.StockMoveLineService;
 import com.axelor.apps.stock.service.StockMoveToolService;
 import com.axelor.apps.stock.service.app.AppStockService;
@@ -64,6 +66,8 @@ public class StockMoveServiceProductionImpl extends StockMoveServiceSupplychainI
       StockConfigService stockConfigService,
       AppStockService appStockService,
       ProductCompanyService productCompanyService,
+      StockLedgerService stockLedgerService,
+      StockLocationLineLockService stockLocationLineLockService,
       AppSupplychainService appSupplyChainService,
       AppAccountService appAccountService,
       PurchaseOrderRepository purchaseOrderRepo,
@@ -87,6 +91,8 @@ public class StockMoveServiceProductionImpl extends StockMoveServiceSupplychainI
         stockConfigService,
         appStockService,
         productCompanyService,
+        stockLedgerService,
+        stockLocationLineLockService,
         appSupplyChainService,
         appAccountService,
         purchaseOrderRepo,
@@ -0,0 +1,59 @@
+/*
+ * Axelor Business Solutions
+ *
+ * Copyright (C) 2005-2025 Axelor (<http://axelor.com>).
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.axelor.apps.production.service;
+
+import com.axelor.apps.base.service.administration.SequenceService;
+import com.axelor.apps.base.service.app.AppBaseService;
+import com.axelor.apps.stock.db.repo.StockMoveLineRepository;
+import com.axelor.apps.stock.db.repo.StockMoveRepository;
+import com.axelor.apps.stock.service.PartnerProductQualityRatingService;
+import com.axelor.apps.stock.service.StockMoveLineService;
+import com.axelor.apps.stock.service.StockMoveToolServiceImpl;
+import com.google.inject.Inject;
+import java.util.List;
+
+public class StockMoveToolServiceProductionImpl extends StockMoveToolServiceImpl {
+
+  @Inject
+  public StockMoveToolServiceProductionImpl(
+      StockMoveLineService stockMoveLineService,
+      SequenceService sequenceService,
+      StockMoveLineRepository stockMoveLineRepository,
+      AppBaseService appBaseService,
+      StockMoveRepository stockMoveRepository,
+      PartnerProductQualityRatingService partnerProductQualityRatingService) {
+    super(
+        stockMoveLineService,
+        sequenceService,
+        stockMoveLineRepository,
+        appBaseService,
+        stockMoveRepository,
+        partnerProductQualityRatingService);
+  }
+
+  @Override
+  protected List<String> getResetFieldNamesOfMovedLines() {
+    List<String> fieldNameList = super.getResetFieldNamesOfMovedLines();
+    fieldNameList.add("producedManufOrder");
+    fieldNameList.add("consumedManufOrder");
+    fieldNameList.add("consumedOperationOrder");
+    fieldNameList.add("residualManufOrder");
+    return fieldNameList;
+  }
+}
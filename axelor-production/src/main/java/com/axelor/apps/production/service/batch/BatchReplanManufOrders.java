@@ -0,0 +1,134 @@
+/*
+ * Axelor Business Solutions
+ *
+ * Copyright (C) 2005-2025 Axelor (<http://axelor.com>).
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.axelor.apps.production.service.batch;
+
+import com.axelor.apps.base.db.Company;
+import com.axelor.apps.base.db.repo.BatchRepository;
+import com.axelor.apps.base.db.repo.CompanyRepository;
+import com.axelor.apps.base.db.repo.ExceptionOriginRepository;
+import com.axelor.apps.base.exceptions.BaseExceptionMessage;
+import com.axelor.apps.base.service.administration.AbstractBatch;
+import com.axelor.apps.base.service.exception.TraceBackService;
+import com.axelor.apps.production.db.ProductionBatch;
+import com.axelor.apps.production.db.ProductionConfig;
+import com.axelor.apps.production.db.repo.ProductionConfigRepository;
+import com.axelor.apps.production.exceptions.ProductionExceptionMessage;
+import com.axelor.apps.production.model.machine.OperationOrderPlannedSlot;
+import com.axelor.apps.production.service.manuforder.ManufOrderReplanningService;
+import com.axelor.db.JPA;
+import com.axelor.i18n.I18n;
+import com.google.inject.Inject;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+public class BatchReplanManufOrders extends AbstractBatch {
+
+  protected ManufOrderReplanningService manufOrderReplanningService;
+  protected ProductionConfigRepository productionConfigRepo;
+  protected CompanyRepository companyRepo;
+
+  /** New planned dates of the operation orders, listed in the comment of a dry run. */
+  protected StringBuilder dryRunComment = new StringBuilder();
+
+  @Inject
+  public BatchReplanManufOrders(
+      ManufOrderReplanningService manufOrderReplanningService,
+      ProductionConfigRepository productionConfigRepo,
+      CompanyRepository companyRepo) {
+    this.manufOrderReplanningService = manufOrderReplanningService;
+    this.productionConfigRepo = productionConfigRepo;
+    this.companyRepo = companyRepo;
+  }
+
+  @Override
+  protected void process() {
+    ProductionBatch productionBatch = batch.getProductionBatch();
+    boolean dryRun = Boolean.TRUE.equals(productionBatch.getDryRun());
+
+    for (Long companyId : getCompanyIdList(productionBatch)) {
+      try {
+        List<OperationOrderPlannedSlot> plannedSlotList =
+            manufOrderReplanningService.replan(companyRepo.find(companyId), dryRun);
+        int changedCount = 0;
+        for (OperationOrderPlannedSlot plannedSlot : plannedSlotList) {
+          if (plannedSlot.isChanged()) {
+            changedCount++;
+            if (dryRun) {
+              appendDryRunComment(plannedSlot);
+            }
+          }
+        }
+        incrementDone(changedCount);
+      } catch (Exception e) {
+        JPA.clear();
+        incrementAnomaly();
+        TraceBackService.trace(e, ExceptionOriginRepository.MANUF_ORDER_REPLANNING, batch.getId());
+      }
+    }
+  }
+
+  protected List<Long> getCompanyIdList(ProductionBatch productionBatch) {
+    List<Long> companyIdList = new ArrayList<>();
+    if (productionBatch.getCompany() != null) {
+      companyIdList.add(productionBatch.getCompany().getId());
+      return companyIdList;
+    }
+    for (ProductionConfig productionConfig : productionConfigRepo.all().fetch()) {
+      Company company = productionConfig.getCompany();
+      if (company != null) {
+        companyIdList.add(company.getId());
+      }
+    }
+    return companyIdList;
+  }
+
+  protected void appendDryRunComment(OperationOrderPlannedSlot plannedSlot) {
+    dryRunComment
+        .append("\n")
+        .append(
+            String.format(
+                "%s - %s : %s - %s",
+                plannedSlot.getManufOrderSeq(),
+                plannedSlot.getOperationOrderName(),
+                DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(plannedSlot.getStartDateT()),
+                DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(plannedSlot.getEndDateT())));
+  }
+
+  @Override
+  protected void stop() {
+    String comment =
+        String.format(
+            I18n.get(ProductionExceptionMessage.BATCH_REPLAN_MANUF_ORDERS), batch.getDone());
+    comment += "\n";
+    comment += String.format(I18n.get(BaseExceptionMessage.BASE_BATCH_3), batch.getAnomaly());
+    if (dryRunComment.length() > 0) {
+      comment += "\n";
+      comment += I18n.get(ProductionExceptionMessage.BATCH_REPLAN_MANUF_ORDERS_DRY_RUN);
+      comment += dryRunComment;
+    }
+
+    addComment(comment);
+    super.stop();
+  }
+
+  protected void setBatchTypeSelect() {
+    this.batch.setBatchTypeSelect(BatchRepository.BATCH_TYPE_PRODUCTION_BATCH);
+  }
+}
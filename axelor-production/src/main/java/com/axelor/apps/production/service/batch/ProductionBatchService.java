@@ -49,6 +49,9 @@ public class ProductionBatchService extends AbstractBatchService {
       case ProductionBatchRepository.ACTION_FILL_SOP_REAL_VALUES:
         batch = fillSopRealValues(productionBatch);
         break;
+      case ProductionBatchRepository.ACTION_REPLAN_MANUF_ORDERS:
+        batch = replanManufOrders(productionBatch);
+        break;
       default:
         throw new AxelorException(
             TraceBackRepository.CATEGORY_INCONSISTENCY,
@@ -66,4 +69,8 @@ public class ProductionBatchService extends AbstractBatchService {
   public Batch fillSopRealValues(ProductionBatch productionBatch) {
     return Beans.get(BatchFillSopRealValues.class).run(productionBatch);
   }
+
+  public Batch replanManufOrders(ProductionBatch productionBatch) {
+    return Beans.get(BatchReplanManufOrders.class).run(productionBatch);
+  }
 }
@@ -44,6 +44,26 @@ public interface CostSheetService {
       BillOfMaterial billOfMaterial, int origin, UnitCostCalculation unitCostCalculation)
       throws AxelorException;
 
+  /**
+   * Same as {@link #computeCostPrice(BillOfMaterial, int, UnitCostCalculation)}, but when a cache
+   * is given, the sub-assemblies are not detailed in the cost sheet: the cost of each of them is
+   * read from the cache, or computed once and stored in it.
+   *
+   * @param billOfMaterial
+   * @param origin
+   * @param unitCostCalculation
+   * @param subAssemblyCostCache the cache shared by the calculation, or null to detail the
+   *     sub-assemblies
+   * @return
+   * @throws AxelorException
+   */
+  public CostSheet computeCostPrice(
+      BillOfMaterial billOfMaterial,
+      int origin,
+      UnitCostCalculation unitCostCalculation,
+      SubAssemblyCostCache subAssemblyCostCache)
+      throws AxelorException;
+
   public CostSheet computeCostPrice(
       ManufOrder manufOrder, int calculationTypeSelect, LocalDate calculationDate)
       throws AxelorException;
@@ -61,9 +61,11 @@ import java.time.LocalDate;
 import java.time.Period;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -81,6 +83,7 @@ public class CostSheetServiceImpl implements CostSheetService {
   protected Unit cycleUnit;
   protected boolean manageResidualProductOnBom;
   protected CostSheet costSheet;
+  protected SubAssemblyCostCache subAssemblyCostCache;
 
   @Inject
   public CostSheetServiceImpl(
@@ -106,6 +109,7 @@ public class CostSheetServiceImpl implements CostSheetService {
     this.manageResidualProductOnBom = appProduction.getManageResidualProductOnBom();
 
     costSheet = new CostSheet();
+    subAssemblyCostCache = null;
   }
 
   @Override
@@ -113,8 +117,20 @@ public class CostSheetServiceImpl implements CostSheetService {
   public CostSheet computeCostPrice(
       BillOfMaterial billOfMaterial, int origin, UnitCostCalculation unitCostCalculation)
       throws AxelorException {
+    return computeCostPrice(billOfMaterial, origin, unitCostCalculation, null);
+  }
+
+  @Override
+  @Transactional(rollbackOn = {Exception.class})
+  public CostSheet computeCostPrice(
+      BillOfMaterial billOfMaterial,
+      int origin,
+      UnitCostCalculation unitCostCalculation,
+      SubAssemblyCostCache subAssemblyCostCache)
+      throws AxelorException {
 
     this.init();
+    this.subAssemblyCostCache = subAssemblyCostCache;
 
     billOfMaterial.addCostSheetListItem(costSheet);
 
@@ -147,6 +163,14 @@ public class CostSheetServiceImpl implements CostSheetService {
         origin,
         unitCostCalculation);
 
+    if (subAssemblyCostCache != null && hasChildren(producedCostSheetLine)) {
+      subAssemblyCostCache.put(
+          billOfMaterial,
+          company,
+          billOfMaterial.getProduct(),
+          this.computeCostPrice(producedCostSheetLine));
+    }
+
     this.computeResidualProduct(billOfMaterial);
 
     billOfMaterial.setCostPrice(this.computeCostPrice(costSheet));
@@ -322,6 +346,7 @@ public class CostSheetServiceImpl implements CostSheetService {
     if (billOfMaterial.getBillOfMaterialLineList() != null) {
 
       BigDecimal qtyRatio = getQtyRatio(billOfMaterial);
+      Map<CostSheetLine, BigDecimal> subAssemblyCostMap = new IdentityHashMap<>();
 
       for (BillOfMaterialLine billOfMaterialLine : billOfMaterial.getBillOfMaterialLineList()) {
 
@@ -355,7 +380,11 @@ public class CostSheetServiceImpl implements CostSheetService {
                 unitCostCalculation);
           }
 
-          if (billOfMaterialLine.getBillOfMaterial() != null) {
+          if (billOfMaterialLine.getBillOfMaterial() == null) {
+            continue;
+          }
+
+          if (subAssemblyCostCache == null) {
             this._computeCostPrice(
                 company,
                 billOfMaterialLine.getBillOfMaterial(),
@@ -363,10 +392,66 @@ public class CostSheetServiceImpl implements CostSheetService {
                 costSheetLine,
                 origin,
                 unitCostCalculation);
+          } else {
+            this.getSubAssemblyCostPrice(
+                    company,
+                    billOfMaterialLine.getBillOfMaterial(),
+                    bomLevel,
+                    costSheetLine,
+                    origin,
+                    unitCostCalculation)
+                .ifPresent(
+                    costPrice ->
+                        subAssemblyCostMap.merge(costSheetLine, costPrice, BigDecimal::add));
           }
         }
       }
+
+      subAssemblyCostMap.forEach(CostSheetLine::setCostPrice);
+    }
+  }
+
+  /**
+   * Get the cost of a sub-assembly from the cache, or compute it under a cost sheet line which is
+   * not attached to the cost sheet, so that its lines are not saved.
+   *
+   * @return the cost of the sub-assembly, or an empty optional if its bill of materials has no
+   *     component nor operation
+   */
+  protected Optional<BigDecimal> getSubAssemblyCostPrice(
+      Company company,
+      BillOfMaterial billOfMaterial,
+      int bomLevel,
+      CostSheetLine costSheetLine,
+      int origin,
+      UnitCostCalculation unitCostCalculation)
+      throws AxelorException {
+
+    Product product = costSheetLine.getProduct();
+    Optional<BigDecimal> costPrice = subAssemblyCostCache.get(billOfMaterial, company, product);
+    if (costPrice.isPresent()) {
+      return costPrice;
     }
+
+    CostSheetLine subAssemblyCostSheetLine = new CostSheetLine();
+    subAssemblyCostSheetLine.setProduct(product);
+    subAssemblyCostSheetLine.setBomLevel(costSheetLine.getBomLevel());
+
+    this._computeCostPrice(
+        company, billOfMaterial, bomLevel, subAssemblyCostSheetLine, origin, unitCostCalculation);
+
+    if (!hasChildren(subAssemblyCostSheetLine)) {
+      return Optional.empty();
+    }
+
+    BigDecimal subAssemblyCostPrice = this.computeCostPrice(subAssemblyCostSheetLine);
+    subAssemblyCostCache.put(billOfMaterial, company, product, subAssemblyCostPrice);
+    return Optional.of(subAssemblyCostPrice);
+  }
+
+  protected boolean hasChildren(CostSheetLine costSheetLine) {
+    return costSheetLine.getCostSheetLineList() != null
+        && !costSheetLine.getCostSheetLineList().isEmpty();
   }
 
   protected void _computeProcess(
@@ -0,0 +1,56 @@
+/*
+ * Axelor Business Solutions
+ *
+ * Copyright (C) 2005-2025 Axelor (<http://axelor.com>).
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.axelor.apps.production.service.costsheet;
+
+import com.axelor.apps.base.db.Company;
+import com.axelor.apps.base.db.Product;
+import com.axelor.apps.production.db.BillOfMaterial;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Rolled-up costs of the sub-assemblies computed during a cost calculation, by bill of materials,
+ * company and consumed product, so that a sub-assembly shared by several bills of materials is
+ * computed once. Instances are thread safe and are meant to be created for one calculation, as the
+ * costs depend on the unit costs computed during it.
+ */
+public class SubAssemblyCostCache {
+
+  protected final Map<List<Long>, BigDecimal> costPriceMap = new ConcurrentHashMap<>();
+
+  public Optional<BigDecimal> get(BillOfMaterial billOfMaterial, Company company, Product product) {
+    return Optional.ofNullable(costPriceMap.get(getKey(billOfMaterial, company, product)));
+  }
+
+  public void put(
+      BillOfMaterial billOfMaterial, Company company, Product product, BigDecimal costPrice) {
+    costPriceMap.putIfAbsent(getKey(billOfMaterial, company, product), costPrice);
+  }
+
+  protected List<Long> getKey(BillOfMaterial billOfMaterial, Company company, Product product) {
+    return Arrays.asList(
+        billOfMaterial.getId(),
+        company != null ? company.getId() : null,
+        product != null ? product.getId() : null);
+  }
+}
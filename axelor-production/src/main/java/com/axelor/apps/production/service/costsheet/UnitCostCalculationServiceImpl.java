@@ -30,15 +30,15 @@ import com.axelor.apps.base.service.ProductCompanyService;
 import com.axelor.apps.base.service.ProductService;
 import com.axelor.apps.base.service.app.AppBaseService;
 import com.axelor.apps.base.service.exception.TraceBackService;
+import com.axelor.apps.base.service.parallel.ParallelProcessService;
 import com.axelor.apps.production.db.BillOfMaterial;
-import com.axelor.apps.production.db.BillOfMaterialLine;
 import com.axelor.apps.production.db.CostSheet;
 import com.axelor.apps.production.db.UnitCostCalcLine;
 import com.axelor.apps.production.db.UnitCostCalculation;
-import com.axelor.apps.production.db.repo.BillOfMaterialRepository;
 import com.axelor.apps.production.db.repo.UnitCostCalcLineRepository;
 import com.axelor.apps.production.db.repo.UnitCostCalculationRepository;
 import com.axelor.apps.production.exceptions.ProductionExceptionMessage;
+import com.axelor.apps.production.service.BillOfMaterialGraphService;
 import com.axelor.apps.production.service.BillOfMaterialService;
 import com.axelor.apps.production.service.app.AppProductionService;
 import com.axelor.auth.AuthUtils;
@@ -69,18 +69,16 @@ import java.lang.invoke.MethodHandles;
 import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
-import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 import javax.validation.ValidationException;
-import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.io.IOUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -99,6 +97,10 @@ public class UnitCostCalculationServiceImpl implements UnitCostCalculationServic
   protected ProductCompanyService productCompanyService;
   protected AppBaseService appBaseService;
   protected BillOfMaterialService billOfMaterialService;
+  protected BillOfMaterialGraphService billOfMaterialGraphService;
+  protected ParallelProcessService parallelProcessService;
+
+  protected static final int PRODUCT_CHUNK_SIZE = 10;
 
   protected Map<Long, Integer> productMap;
 
@@ -113,7 +115,9 @@ public class UnitCostCalculationServiceImpl implements UnitCostCalculationServic
       ProductService productService,
       ProductCompanyService productCompanyService,
       AppBaseService appBaseService,
-      BillOfMaterialService billOfMaterialService) {
+      BillOfMaterialService billOfMaterialService,
+      BillOfMaterialGraphService billOfMaterialGraphService,
+      ParallelProcessService parallelProcessService) {
     this.productRepository = productRepository;
     this.unitCostCalculationRepository = unitCostCalculationRepository;
     this.unitCostCalcLineService = unitCostCalcLineService;
@@ -124,6 +128,8 @@ public class UnitCostCalculationServiceImpl implements UnitCostCalculationServic
     this.productCompanyService = productCompanyService;
     this.appBaseService = appBaseService;
     this.billOfMaterialService = billOfMaterialService;
+    this.billOfMaterialGraphService = billOfMaterialGraphService;
+    this.parallelProcessService = parallelProcessService;
   }
 
   @Override
@@ -247,24 +253,93 @@ public class UnitCostCalculationServiceImpl implements UnitCostCalculationServic
     unitCostCalculationRepository.save(unitCostCalculation);
   }
 
+  /**
+   * Compute the costs level by level, from the lowest components to the finished products. The
+   * products of a level are not components of each other, so their costs only depend on the lines
+   * of the lower levels, already saved, and are computed in parallel by chunks. Unless detailed
+   * cost sheets are asked, the sub-assembly costs are shared by the workers for the whole run.
+   */
   protected void calculationProcess(UnitCostCalculation unitCostCalculation)
       throws AxelorException {
 
-    for (int level = this.getMaxLevel(); level >= 0; level--) {
+    Long unitCostCalculationId = unitCostCalculation.getId();
+    AtomicReference<AxelorException> failure = new AtomicReference<>();
+    SubAssemblyCostCache subAssemblyCostCache =
+        Boolean.TRUE.equals(unitCostCalculation.getDetailedCostSheets())
+            ? null
+            : new SubAssemblyCostCache();
 
-      for (Product product : this.getProductList(level)) {
+    for (int level = this.getMaxLevel(); level >= 0; level--) {
 
-        this.calculationProductProcess(
-            unitCostCalculationRepository.find(unitCostCalculation.getId()),
-            productRepository.find(product.getId()));
+      List<Runnable> tasks = new ArrayList<>();
+      for (List<Long> productIdChunk :
+          Lists.partition(this.getProductIdList(level), PRODUCT_CHUNK_SIZE)) {
+        tasks.add(
+            () ->
+                calculationProductsProcess(
+                    unitCostCalculationId, productIdChunk, subAssemblyCostCache, failure));
+      }
+      parallelProcessService.runAll(tasks, parallelProcessService.getDefaultWorkerCount());
 
-        JPA.clear();
+      if (failure.get() != null) {
+        throw failure.get();
       }
     }
   }
 
+  /** Compute the costs of a chunk of products. Runs on a worker thread. */
+  protected void calculationProductsProcess(
+      Long unitCostCalculationId,
+      List<Long> productIdList,
+      SubAssemblyCostCache subAssemblyCostCache,
+      AtomicReference<AxelorException> failure) {
+    if (failure.get() != null) {
+      return;
+    }
+    try {
+      this.calculationProductsProcess(
+          unitCostCalculationRepository.find(unitCostCalculationId),
+          productIdList,
+          subAssemblyCostCache);
+    } catch (AxelorException e) {
+      failure.compareAndSet(null, e);
+    } catch (Exception e) {
+      failure.compareAndSet(
+          null, new AxelorException(e, TraceBackRepository.CATEGORY_INCONSISTENCY));
+    } finally {
+      JPA.clear();
+    }
+  }
+
+  /**
+   * Compute the costs of a chunk of products and save their lines in one transaction. The cost
+   * sheet service keeps the cost sheet being computed, so each worker uses its own instance.
+   */
   @Transactional(rollbackOn = {Exception.class})
-  protected void calculationProductProcess(UnitCostCalculation unitCostCalculation, Product product)
+  protected void calculationProductsProcess(
+      UnitCostCalculation unitCostCalculation,
+      List<Long> productIdList,
+      SubAssemblyCostCache subAssemblyCostCache)
+      throws AxelorException {
+
+    CostSheetService workerCostSheetService = Beans.get(CostSheetService.class);
+    for (Long productId : productIdList) {
+      UnitCostCalcLine unitCostCalcLine =
+          this.calculationProductProcess(
+              unitCostCalculation,
+              productRepository.find(productId),
+              workerCostSheetService,
+              subAssemblyCostCache);
+      unitCostCalcLine.setUnitCostCalculation(unitCostCalculation);
+      unitCostCalcLineRepository.save(unitCostCalcLine);
+    }
+  }
+
+  protected UnitCostCalcLine calculationProductProcess(
+      UnitCostCalculation unitCostCalculation,
+      Product product,
+      CostSheetService costSheetService,
+      SubAssemblyCostCache subAssemblyCostCache)
       throws AxelorException {
 
     int level = this.productMap.get(product.getId()).intValue();
@@ -287,13 +362,11 @@ public class UnitCostCalculationServiceImpl implements UnitCostCalculationServic
     }
 
     CostSheet costSheet =
-        costSheetService.computeCostPrice(billOfMaterial, origin, unitCostCalculation);
+        costSheetService.computeCostPrice(
+            billOfMaterial, origin, unitCostCalculation, subAssemblyCostCache);
 
-    UnitCostCalcLine unitCostCalcLine =
-        unitCostCalcLineService.createUnitCostCalcLine(
-            product, billOfMaterial.getCompany(), level, costSheet);
-    unitCostCalculation.addUnitCostCalcLineListItem(unitCostCalcLine);
-    unitCostCalculationRepository.save(unitCostCalculation);
+    return unitCostCalcLineService.createUnitCostCalcLine(
+        product, billOfMaterial.getCompany(), level, costSheet);
   }
 
   protected Set<Product> getProductList(UnitCostCalculation unitCostCalculation)
@@ -362,117 +435,54 @@ public class UnitCostCalculationServiceImpl implements UnitCostCalculationServic
           I18n.get(ProductionExceptionMessage.UNIT_COST_CALCULATION_NO_PRODUCT_FOUND));
     }
 
-    Company company = this.getSingleCompany(unitCostCalculation);
-
-    Map<Product, Integer> productLevelMap = new HashMap<>();
-    for (Product product : productSet) {
-      productLevelMap.put(
-          product, calculateHierarchyDepth(product, company, unitCostCalculation, new HashSet<>()));
-    }
-
-    return productSet.stream()
-        .sorted(
-            Comparator.comparing(Product::getProductSubTypeSelect)
-                .reversed()
-                .thenComparing(productLevelMap::get))
-        .collect(Collectors.toCollection(LinkedHashSet::new));
-  }
-
-  public int calculateHierarchyDepth(
-      Product product,
-      Company company,
-      UnitCostCalculation unitCostCalculation,
-      Set<Product> visited)
-      throws AxelorException {
-    if (visited.contains(product)) {
-      return 0;
-    }
-    visited.add(product);
-
-    BillOfMaterial bom = billOfMaterialService.getBOM(product, company);
-    if (bom == null || ObjectUtils.isEmpty(bom.getBillOfMaterialLineList())) {
-      return 0;
-    }
-
-    int maxDepth = 0;
-    for (BillOfMaterialLine line : bom.getBillOfMaterialLineList()) {
-      Product subProduct = line.getProduct();
-      int subDepth = calculateHierarchyDepth(subProduct, company, unitCostCalculation, visited);
-      maxDepth = Math.max(maxDepth, subDepth);
-    }
-    return maxDepth + 1;
+    return productSet;
   }
 
   /**
-   * Get the list of product for a level
+   * Get the ids of the products of a level
    *
    * @param level
    * @return
    */
-  protected List<Product> getProductList(int level) {
+  protected List<Long> getProductIdList(int level) {
 
-    List<Product> productList = Lists.newArrayList();
+    List<Long> productIdList = Lists.newArrayList();
 
-    for (Long productId : this.productMap.keySet()) {
+    for (Map.Entry<Long, Integer> entry : this.productMap.entrySet()) {
 
-      if (this.productMap.get(productId) == level) {
-        productList.add(productRepository.find(productId));
+      if (entry.getValue() == level) {
+        productIdList.add(entry.getKey());
       }
     }
 
-    return productList;
+    return productIdList;
   }
 
+  /**
+   * Assign to each product its low-level code in the bills of materials of the company (0: product
+   * that is not a component, 1: component of a product of level 0, ...), the highest when the
+   * product is a component of several products. The codes are computed once on the graph of the
+   * bills of materials, whatever the number of parents sharing a component.
+   *
+   * @param productList
+   * @param company
+   * @throws AxelorException
+   */
   protected void assignProductAndLevel(Set<Product> productList, Company company)
       throws AxelorException {
 
+    Map<Long, Integer> lowLevelCodeMap =
+        billOfMaterialGraphService.getLowLevelCodes(productList, company);
+
     productMap = Maps.newHashMap();
 
     for (Product product : productList) {
 
-      this.assignProductAndLevel(product, company);
+      log.debug("Add of the product : {}", product.getFullName());
+      this.productMap.put(product.getId(), lowLevelCodeMap.get(product.getId()));
     }
   }
 
-  protected boolean hasValidBillOfMaterial(Product product, Company company)
-      throws AxelorException {
-
-    BillOfMaterial defaultBillOfMaterial = billOfMaterialService.getDefaultBOM(product, company);
-
-    if (defaultBillOfMaterial != null
-        && (defaultBillOfMaterial.getStatusSelect() == BillOfMaterialRepository.STATUS_VALIDATED
-            || defaultBillOfMaterial.getStatusSelect()
-                == BillOfMaterialRepository.STATUS_APPLICABLE)
-        && (product
-                .getProcurementMethodSelect()
-                .equals(ProductRepository.PROCUREMENT_METHOD_BUYANDPRODUCE)
-            || product
-                .getProcurementMethodSelect()
-                .equals(ProductRepository.PROCUREMENT_METHOD_PRODUCE))) {
-      return true;
-    }
-    return false;
-  }
-
-  protected void assignProductAndLevel(Product product, Company company) throws AxelorException {
-
-    log.debug("Add of the product : {}", product.getFullName());
-    this.productMap.put(product.getId(), this.getMaxLevel(product, 0));
-
-    if (hasValidBillOfMaterial(product, company)) {
-      this.assignProductLevel(billOfMaterialService.getDefaultBOM(product, company), 0, company);
-    }
-  }
-
-  protected int getMaxLevel(Product product, int level) {
-
-    if (this.productMap.containsKey(product.getId())) {
-      return Math.max(level, this.productMap.get(product.getId()));
-    }
-
-    return level;
-  }
-
   protected int getMaxLevel() {
 
     int maxLevel = 0;
@@ -487,50 +497,6 @@ public class UnitCostCalculationServiceImpl implements UnitCostCalculationServic
     return maxLevel;
   }
 
-  /**
-   * Update the level of Bill of materials. The highest for each product (0: product with parent, 1:
-   * product with a parent, 2: product with a parent that have a parent, ...)
-   *
-   * @param billOfMaterial
-   * @param level
-   * @param company
-   * @throws AxelorException
-   */
-  protected void assignProductLevel(BillOfMaterial billOfMaterial, int level, Company company)
-      throws AxelorException {
-
-    if (level > 50) {
-      throw new AxelorException(
-          TraceBackRepository.CATEGORY_CONFIGURATION_ERROR,
-          I18n.get(ProductionExceptionMessage.LOOP_IN_BILL_OF_MATERIALS));
-    }
-
-    Product product = billOfMaterial.getProduct();
-
-    log.debug("Add of the sub product : {} for the level : {} ", product.getFullName(), level);
-    this.productMap.put(product.getId(), this.getMaxLevel(product, level));
-
-    if (CollectionUtils.isNotEmpty(billOfMaterial.getBillOfMaterialLineList())) {
-
-      level = level + 1;
-
-      for (BillOfMaterialLine billOfMaterialLines : billOfMaterial.getBillOfMaterialLineList()) {
-
-        Product subProduct = billOfMaterialLines.getProduct();
-
-        if (this.productMap.containsKey(subProduct.getId())
-            && billOfMaterialLines.getBillOfMaterial() != null) {
-          this.assignProductLevel(billOfMaterialLines.getBillOfMaterial(), level, company);
-
-          if (hasValidBillOfMaterial(subProduct, company)) {
-            this.assignProductLevel(
-                billOfMaterialService.getDefaultBOM(subProduct, company), level, company);
-          }
-        }
-      }
-    }
-  }
-
   public void updateUnitCosts(UnitCostCalculation unitCostCalculation) throws AxelorException {
 
     for (UnitCostCalcLine unitCostCalcLine : unitCostCalculation.getUnitCostCalcLineList()) {
@@ -0,0 +1,59 @@
+/*
+ * Axelor Business Solutions
+ *
+ * Copyright (C) 2005-2025 Axelor (<http://axelor.com>).
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.axelor.apps.production.service.machine;
+
+import com.axelor.apps.production.db.Machine;
+import com.axelor.apps.production.db.OperationOrder;
+import com.axelor.apps.production.model.machine.MachineCalendar;
+import com.axelor.apps.production.model.machine.MachineTimeSlot;
+
+/**
+ * Provides the calendars used by {@link MachineService} to find available time slots in memory
+ * instead of querying the operation orders of the machine for each candidate slot.
+ */
+public interface MachineCalendarService {
+
+  /**
+   * Keep the calendars of the machines in memory until the matching {@link #endPlanning()}, the
+   * operation orders planned in the meantime being booked in them. Calls can be nested, the
+   * calendars are dropped by the outermost {@link #endPlanning()}.
+   */
+  void startPlanning();
+
+  void endPlanning();
+
+  /**
+   * Get the calendar of the machine: the slots of its planned operation orders, loaded with one
+   * query, and its public holidays. While planning, the same calendar is returned for each call.
+   *
+   * @param machine the machine
+   * @return the calendar of the machine
+   */
+  MachineCalendar getCalendar(Machine machine);
+
+  /**
+   * Book the slot of an operation order on the calendar of a machine, releasing the slot it had on
+   * another machine. Does nothing outside of a planning.
+   *
+   * @param machine the machine
+   * @param operationOrder the planned operation order
+   * @param machineTimeSlot the planned slot
+   */
+  void book(Machine machine, OperationOrder operationOrder, MachineTimeSlot machineTimeSlot);
+}
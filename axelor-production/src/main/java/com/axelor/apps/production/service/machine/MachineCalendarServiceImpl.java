@@ -0,0 +1,141 @@
+/*
+ * Axelor Business Solutions
+ *
+ * Copyright (C) 2005-2025 Axelor (<http://axelor.com>).
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.axelor.apps.production.service.machine;
+
+import com.axelor.apps.base.db.EventsPlanning;
+import com.axelor.apps.base.db.EventsPlanningLine;
+import com.axelor.apps.production.db.Machine;
+import com.axelor.apps.production.db.OperationOrder;
+import com.axelor.apps.production.db.repo.ManufOrderRepository;
+import com.axelor.apps.production.model.machine.MachineCalendar;
+import com.axelor.apps.production.model.machine.MachineTimeSlot;
+import com.axelor.db.JPA;
+import com.google.inject.Singleton;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@Singleton
+public class MachineCalendarServiceImpl implements MachineCalendarService {
+
+  protected final ThreadLocal<PlanningSession> planningSession = new ThreadLocal<>();
+
+  @Override
+  public void startPlanning() {
+    PlanningSession session = planningSession.get();
+    if (session == null) {
+      session = new PlanningSession();
+      planningSession.set(session);
+    }
+    session.depth++;
+  }
+
+  @Override
+  public void endPlanning() {
+    PlanningSession session = planningSession.get();
+    if (session != null && --session.depth <= 0) {
+      planningSession.remove();
+    }
+  }
+
+  @Override
+  public MachineCalendar getCalendar(Machine machine) {
+    PlanningSession session = planningSession.get();
+    if (session == null) {
+      return loadCalendar(machine);
+    }
+    return session.calendarMap.computeIfAbsent(machine.getId(), id -> loadCalendar(machine));
+  }
+
+  @Override
+  public void book(
+      Machine machine, OperationOrder operationOrder, MachineTimeSlot machineTimeSlot) {
+    PlanningSession session = planningSession.get();
+    Long operationOrderId = operationOrder.getId();
+    if (session == null || operationOrderId == null) {
+      return;
+    }
+
+    Long previousMachineId = session.machineIdMap.put(operationOrderId, machine.getId());
+    if (previousMachineId != null && !previousMachineId.equals(machine.getId())) {
+      MachineCalendar previousCalendar = session.calendarMap.get(previousMachineId);
+      if (previousCalendar != null) {
+        previousCalendar.release(operationOrderId);
+      }
+    }
+    getCalendar(machine).book(operationOrderId, machineTimeSlot);
+  }
+
+  protected MachineCalendar loadCalendar(Machine machine) {
+    Long machineId = machine.getId();
+    return new MachineCalendar(getPublicHolidaySet(machine), () -> loadBookedSlots(machineId));
+  }
+
+  /** Load the slots of the operation orders planned on the machine, in one query. */
+  protected Map<Long, MachineTimeSlot> loadBookedSlots(Long machineId) {
+    List<Object[]> rowList =
+        JPA.em()
+            .createQuery(
+                "SELECT self.id, self.plannedStartDateT, self.plannedEndDateT"
+                    + " FROM OperationOrder self"
+                    + " WHERE self.machine.id = :machineId"
+                    + " AND self.manufOrder.statusSelect NOT IN (:statusList)"
+                    + " AND self.outsourcing = false"
+                    + " AND self.plannedStartDateT IS NOT NULL"
+                    + " AND self.plannedEndDateT IS NOT NULL",
+                Object[].class)
+            .setParameter("machineId", machineId)
+            .setParameter(
+                "statusList",
+                Arrays.asList(
+                    ManufOrderRepository.STATUS_CANCELED, ManufOrderRepository.STATUS_FINISHED))
+            .getResultList();
+
+    Map<Long, MachineTimeSlot> bookedSlotMap = new HashMap<>();
+    for (Object[] row : rowList) {
+      bookedSlotMap.put(
+          (Long) row[0], new MachineTimeSlot((LocalDateTime) row[1], (LocalDateTime) row[2]));
+    }
+    return bookedSlotMap;
+  }
+
+  protected Set<LocalDate> getPublicHolidaySet(Machine machine) {
+    Set<LocalDate> publicHolidaySet = new HashSet<>();
+    EventsPlanning planning = machine.getPublicHolidayEventsPlanning();
+    if (planning != null && planning.getEventsPlanningLineList() != null) {
+      for (EventsPlanningLine eventsPlanningLine : planning.getEventsPlanningLineList()) {
+        publicHolidaySet.add(eventsPlanningLine.getDate());
+      }
+    }
+    return publicHolidaySet;
+  }
+
+  protected static class PlanningSession {
+    protected int depth;
+    protected final Map<Long, MachineCalendar> calendarMap = new HashMap<>();
+
+    /** Machine on which each operation order was booked during the planning. */
+    protected final Map<Long, Long> machineIdMap = new HashMap<>();
+  }
+}
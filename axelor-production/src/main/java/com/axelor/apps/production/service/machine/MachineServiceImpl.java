@@ -20,16 +20,15 @@ package com.axelor.apps.production.service.machine;
 
 import com.axelor.apps.base.AxelorException;
 import com.axelor.apps.base.db.DayPlanning;
-import com.axelor.apps.base.db.EventsPlanning;
 import com.axelor.apps.base.db.repo.TraceBackRepository;
 import com.axelor.apps.base.service.dayplanning.DayPlanningService;
 import com.axelor.apps.base.service.weeklyplanning.WeeklyPlanningService;
 import com.axelor.apps.production.db.Machine;
 import com.axelor.apps.production.db.OperationOrder;
 import com.axelor.apps.production.db.WorkCenter;
-import com.axelor.apps.production.db.repo.ManufOrderRepository;
 import com.axelor.apps.production.db.repo.OperationOrderRepository;
 import com.axelor.apps.production.exceptions.ProductionExceptionMessage;
+import com.axelor.apps.production.model.machine.MachineCalendar;
 import com.axelor.apps.production.model.machine.MachineTimeSlot;
 import com.axelor.i18n.I18n;
 import com.axelor.utils.helpers.date.DurationHelper;
@@ -37,7 +36,6 @@ import com.google.inject.Inject;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
-import java.util.List;
 import java.util.Optional;
 
 public class MachineServiceImpl implements MachineService {
@@ -47,15 +45,18 @@ public class MachineServiceImpl implements MachineService {
   protected OperationOrderRepository operationOrderRepository;
   protected WeeklyPlanningService weeklyPlanningService;
   protected DayPlanningService dayPlanningService;
+  protected MachineCalendarService machineCalendarService;
 
   @Inject
   public MachineServiceImpl(
       OperationOrderRepository operationOrderRepository,
       WeeklyPlanningService weeklyPlanningService,
-      DayPlanningService dayPlanningService) {
+      DayPlanningService dayPlanningService,
+      MachineCalendarService machineCalendarService) {
     this.operationOrderRepository = operationOrderRepository;
     this.weeklyPlanningService = weeklyPlanningService;
     this.dayPlanningService = dayPlanningService;
+    this.machineCalendarService = machineCalendarService;
   }
 
   @Override
@@ -94,7 +95,6 @@ public class MachineServiceImpl implements MachineService {
         0);
   }
 
-  @SuppressWarnings("unchecked")
   protected MachineTimeSlot getClosestAvailableTimeSlotFrom(
       Machine machine,
       LocalDateTime startDateT,
@@ -105,29 +105,43 @@ public class MachineServiceImpl implements MachineService {
       int loopNb)
       throws AxelorException {
 
-    EventsPlanning planning = machine.getPublicHolidayEventsPlanning();
+    MachineCalendar calendar = machineCalendarService.getCalendar(machine);
+    MachineTimeSlot machineTimeSlot =
+        getClosestTimeSlotFrom(
+            machine, calendar, startDateT, endDateT, operationOrder, initialDuration);
+
+    if (ignoreConcurrency) {
+      return machineTimeSlot;
+    }
+
+    calendar.release(operationOrder.getId());
+    machineTimeSlot =
+        getClosestAvailableMachineTimeSlot(
+            machine, calendar, operationOrder, initialDuration, machineTimeSlot, loopNb);
+    machineCalendarService.book(machine, operationOrder, machineTimeSlot);
+    return machineTimeSlot;
+  }
+
+  /** Get the closest slot from startDateT in the weekly planning of the machine. */
+  protected MachineTimeSlot getClosestTimeSlotFrom(
+      Machine machine,
+      MachineCalendar calendar,
+      LocalDateTime startDateT,
+      LocalDateTime endDateT,
+      OperationOrder operationOrder,
+      long initialDuration)
+      throws AxelorException {
 
     // If startDate is not available because of planning
     // Then we try for the next day
-    LocalDateTime nextDayDateT = startDateT.plusDays(1).with(LocalTime.MIN);
+    while (calendar.isPublicHoliday(startDateT.toLocalDate())) {
+      startDateT = startDateT.plusDays(1).with(LocalTime.MIN);
+      endDateT = startDateT.plusSeconds(initialDuration);
+    }
+
     LocalDateTime plannedStartDateT = null;
     LocalDateTime plannedEndDateT = null;
 
-    if (planning != null
-        && planning.getEventsPlanningLineList() != null
-        && planning.getEventsPlanningLineList().stream()
-            .anyMatch(epl -> epl.getDate().equals(startDateT.toLocalDate()))) {
-
-      return getClosestAvailableTimeSlotFrom(
-          machine,
-          nextDayDateT,
-          nextDayDateT.plusSeconds(initialDuration),
-          operationOrder,
-          initialDuration,
-          ignoreConcurrency,
-          loopNb);
-    }
-
     if (machine.getWeeklyPlanning() != null) {
       // Planning on date at startDateT
       DayPlanning dayPlanning =
@@ -187,62 +201,40 @@ public class MachineServiceImpl implements MachineService {
       plannedEndDateT = endDateT;
     }
 
-    if (ignoreConcurrency) {
-      return new MachineTimeSlot(plannedStartDateT, plannedEndDateT);
-    }
-
-    return getClosestAvailableMachineTimeSlot(
-        machine, operationOrder, initialDuration, plannedStartDateT, plannedEndDateT, loopNb);
+    return new MachineTimeSlot(plannedStartDateT, plannedEndDateT);
   }
 
   protected MachineTimeSlot getClosestAvailableMachineTimeSlot(
       Machine machine,
+      MachineCalendar calendar,
       OperationOrder operationOrder,
       long initialDuration,
-      LocalDateTime plannedStartDateT,
-      LocalDateTime plannedEndDateT,
+      MachineTimeSlot machineTimeSlot,
       int loopNb)
       throws AxelorException {
     long timeBeforeNextOperation =
         Optional.ofNullable(operationOrder.getWorkCenter())
             .map(WorkCenter::getTimeBeforeNextOperation)
             .orElse(0l);
-    // Must check if dates are occupied by other operation orders
-    // The first one of the list will be the last to finish
-
-    if (loopNb >= MAX_RECURSIVE_CALL) {
-      throw new AxelorException(
-          TraceBackRepository.CATEGORY_INCONSISTENCY,
-          ProductionExceptionMessage.TOO_MANY_CALL_GETTING_TIME_SLOT,
-          operationOrder.getName());
-    }
 
-    List<OperationOrder> concurrentOperationOrders =
-        operationOrderRepository
-            .all()
-            .filter(
-                "self.machine = :machine"
-                    + " AND ((self.plannedStartDateT <= :startDate AND self.plannedEndDateT > :startDateWithTime)"
-                    + " OR (self.plannedStartDateT <= :endDate AND self.plannedEndDateT > :endDateWithTime)"
-                    + " OR (self.plannedStartDateT >= :startDate AND self.plannedEndDateT <= :endDateWithTime))"
-                    + " AND (self.manufOrder.statusSelect != :cancelled AND self.manufOrder.statusSelect != :finished)"
-                    + " AND self.id != :operationOrderId"
-                    + " AND self.outsourcing = false")
-            .bind("startDate", plannedStartDateT)
-            .bind("endDate", plannedEndDateT)
-            .bind("startDateWithTime", plannedStartDateT.minusSeconds(timeBeforeNextOperation))
-            .bind("endDateWithTime", plannedEndDateT.minusSeconds(timeBeforeNextOperation))
-            .bind("machine", machine)
-            .bind("cancelled", ManufOrderRepository.STATUS_CANCELED)
-            .bind("finished", ManufOrderRepository.STATUS_FINISHED)
-            .bind("operationOrderId", operationOrder.getId())
-            .order("-plannedEndDateT")
-            .fetch();
-
-    if (concurrentOperationOrders.isEmpty()) {
-      return new MachineTimeSlot(plannedStartDateT, plannedEndDateT);
-    } else {
-      OperationOrder lastOperationOrder = concurrentOperationOrders.get(0);
+    while (true) {
+      if (loopNb >= MAX_RECURSIVE_CALL) {
+        throw new AxelorException(
+            TraceBackRepository.CATEGORY_INCONSISTENCY,
+            ProductionExceptionMessage.TOO_MANY_CALL_GETTING_TIME_SLOT,
+            operationOrder.getName());
+      }
+
+      // Must check if dates are occupied by other operation orders
+      Optional<LocalDateTime> lastConflictEndDateT =
+          calendar.findLastConflictEnd(
+              machineTimeSlot.getStartDateT(),
+              machineTimeSlot.getEndDateT(),
+              timeBeforeNextOperation);
+
+      if (lastConflictEndDateT.isEmpty()) {
+        return machineTimeSlot;
+      }
 
       if (timeBeforeNextOperation == 0 && initialDuration == 0) {
         throw new AxelorException(
@@ -252,16 +244,17 @@ public class MachineServiceImpl implements MachineService {
             operationOrder.getName());
       }
 
-      return getClosestAvailableTimeSlotFrom(
-          machine,
-          lastOperationOrder.getPlannedEndDateT().plusSeconds(timeBeforeNextOperation),
-          lastOperationOrder
-              .getPlannedEndDateT()
-              .plusSeconds(timeBeforeNextOperation + initialDuration),
-          operationOrder,
-          initialDuration,
-          false,
-          loopNb + 1);
+      LocalDateTime nextStartDateT =
+          lastConflictEndDateT.get().plusSeconds(timeBeforeNextOperation);
+      machineTimeSlot =
+          getClosestTimeSlotFrom(
+              machine,
+              calendar,
+              nextStartDateT,
+              nextStartDateT.plusSeconds(initialDuration),
+              operationOrder,
+              initialDuration);
+      loopNb++;
     }
   }
 
@@ -301,7 +294,6 @@ public class MachineServiceImpl implements MachineService {
         0);
   }
 
-  @SuppressWarnings("unchecked")
   protected MachineTimeSlot getFurthestAvailableTimeSlotFrom(
       Machine machine,
       LocalDateTime startDateT,
@@ -312,25 +304,39 @@ public class MachineServiceImpl implements MachineService {
       int loopNb)
       throws AxelorException {
 
-    EventsPlanning planning = machine.getPublicHolidayEventsPlanning();
+    MachineCalendar calendar = machineCalendarService.getCalendar(machine);
+    MachineTimeSlot machineTimeSlot =
+        getFurthestTimeSlotFrom(
+            machine, calendar, startDateT, endDateT, operationOrder, initialDuration);
 
-    if (planning != null
-        && planning.getEventsPlanningLineList() != null
-        && planning.getEventsPlanningLineList().stream()
-            .anyMatch(epl -> epl.getDate().equals(endDateT.toLocalDate()))) {
+    if (ignoreConcurrency) {
+      return machineTimeSlot;
+    }
 
+    calendar.release(operationOrder.getId());
+    machineTimeSlot =
+        getFurthestAvailableMachineTimeSlot(
+            machine, calendar, operationOrder, initialDuration, machineTimeSlot, loopNb);
+    machineCalendarService.book(machine, operationOrder, machineTimeSlot);
+    return machineTimeSlot;
+  }
+
+  /** Get the furthest slot until endDateT in the weekly planning of the machine. */
+  protected MachineTimeSlot getFurthestTimeSlotFrom(
+      Machine machine,
+      MachineCalendar calendar,
+      LocalDateTime startDateT,
+      LocalDateTime endDateT,
+      OperationOrder operationOrder,
+      long initialDuration)
+      throws AxelorException {
+
+    while (calendar.isPublicHoliday(endDateT.toLocalDate())) {
       // If endDate is not available because of planning
       // Then we try for the previous day
       LocalDateTime previousDayDateT = endDateT.plusDays(1).with(LocalTime.MIN);
-
-      return getFurthestAvailableTimeSlotFrom(
-          machine,
-          previousDayDateT.minusSeconds(initialDuration),
-          previousDayDateT,
-          operationOrder,
-          initialDuration,
-          ignoreConcurrency,
-          loopNb);
+      startDateT = previousDayDateT.minusSeconds(initialDuration);
+      endDateT = previousDayDateT;
     }
 
     LocalDateTime plannedStartDateT = null;
@@ -394,60 +400,40 @@ public class MachineServiceImpl implements MachineService {
       plannedEndDateT = endDateT;
     }
 
-    if (ignoreConcurrency) {
-      return new MachineTimeSlot(plannedStartDateT, plannedEndDateT);
-    }
-    return getFurthestAvailableMachineTimeSlot(
-        machine, operationOrder, initialDuration, plannedStartDateT, plannedEndDateT, loopNb);
+    return new MachineTimeSlot(plannedStartDateT, plannedEndDateT);
   }
 
   protected MachineTimeSlot getFurthestAvailableMachineTimeSlot(
       Machine machine,
+      MachineCalendar calendar,
       OperationOrder operationOrder,
       long initialDuration,
-      LocalDateTime plannedStartDateT,
-      LocalDateTime plannedEndDateT,
+      MachineTimeSlot machineTimeSlot,
       int loopNb)
       throws AxelorException {
-
-    if (loopNb >= MAX_RECURSIVE_CALL) {
-      throw new AxelorException(
-          TraceBackRepository.CATEGORY_INCONSISTENCY,
-          ProductionExceptionMessage.TOO_MANY_CALL_GETTING_TIME_SLOT,
-          operationOrder.getName());
-    }
     long timeBeforeNextOperation =
         Optional.ofNullable(operationOrder.getWorkCenter())
             .map(WorkCenter::getTimeBeforeNextOperation)
             .orElse(0l);
-    // Must check if dates are occupied by other operation orders
-    // The first one of the list will be the first to start
-    List<OperationOrder> concurrentOperationOrders =
-        operationOrderRepository
-            .all()
-            .filter(
-                "self.machine = :machine"
-                    + " AND ((self.plannedStartDateT <= :startDate AND self.plannedEndDateT > :startDateWithTime)"
-                    + " OR (self.plannedStartDateT < :endDate AND self.plannedEndDateT > :endDateWithTime)"
-                    + " OR (self.plannedStartDateT >= :startDate AND self.plannedEndDateT <= :endDateWithTime))"
-                    + " AND (self.manufOrder.statusSelect != :cancelled AND self.manufOrder.statusSelect != :finished)"
-                    + " AND self.id != :operationOrderId"
-                    + " AND self.outsourcing = false")
-            .bind("startDate", plannedStartDateT)
-            .bind("endDate", plannedEndDateT)
-            .bind("startDateWithTime", plannedStartDateT.minusSeconds(timeBeforeNextOperation))
-            .bind("endDateWithTime", plannedEndDateT.minusSeconds(timeBeforeNextOperation))
-            .bind("machine", machine)
-            .bind("cancelled", ManufOrderRepository.STATUS_CANCELED)
-            .bind("finished", ManufOrderRepository.STATUS_FINISHED)
-            .bind("operationOrderId", operationOrder.getId())
-            .order("plannedStartDateT")
-            .fetch();
-
-    if (concurrentOperationOrders.isEmpty()) {
-      return new MachineTimeSlot(plannedStartDateT, plannedEndDateT);
-    } else {
-      OperationOrder firstOperationOrder = concurrentOperationOrders.get(0);
+
+    while (true) {
+      if (loopNb >= MAX_RECURSIVE_CALL) {
+        throw new AxelorException(
+            TraceBackRepository.CATEGORY_INCONSISTENCY,
+            ProductionExceptionMessage.TOO_MANY_CALL_GETTING_TIME_SLOT,
+            operationOrder.getName());
+      }
+
+      // Must check if dates are occupied by other operation orders
+      Optional<LocalDateTime> firstConflictStartDateT =
+          calendar.findFirstConflictStart(
+              machineTimeSlot.getStartDateT(),
+              machineTimeSlot.getEndDateT(),
+              timeBeforeNextOperation);
+
+      if (firstConflictStartDateT.isEmpty()) {
+        return machineTimeSlot;
+      }
 
       // Can not compute next slot with concurrency if these values are 0
       if (timeBeforeNextOperation == 0 && initialDuration == 0) {
@@ -458,16 +444,17 @@ public class MachineServiceImpl implements MachineService {
             operationOrder.getName());
       }
 
-      return getFurthestAvailableTimeSlotFrom(
-          machine,
-          firstOperationOrder
-              .getPlannedStartDateT()
-              .minusSeconds(initialDuration + timeBeforeNextOperation),
-          firstOperationOrder.getPlannedStartDateT().minusSeconds(timeBeforeNextOperation),
-          operationOrder,
-          initialDuration,
-          false,
-          loopNb + 1);
+      LocalDateTime nextEndDateT =
+          firstConflictStartDateT.get().minusSeconds(timeBeforeNextOperation);
+      machineTimeSlot =
+          getFurthestTimeSlotFrom(
+              machine,
+              calendar,
+              nextEndDateT.minusSeconds(initialDuration),
+              nextEndDateT,
+              operationOrder,
+              initialDuration);
+      loopNb++;
     }
   }
 }
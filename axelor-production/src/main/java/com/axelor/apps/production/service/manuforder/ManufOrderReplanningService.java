@@ -0,0 +1,41 @@
+/*
+ * Axelor Business Solutions
+ *
+ * Copyright (C) 2005-2025 Axelor (<http://axelor.com>).
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.axelor.apps.production.service.manuforder;
+
+import com.axelor.apps.base.AxelorException;
+import com.axelor.apps.base.db.Company;
+import com.axelor.apps.production.model.machine.OperationOrderPlannedSlot;
+import java.util.List;
+
+public interface ManufOrderReplanningService {
+
+  /**
+   * Re-plan the open manufacturing orders of a company together. The operation orders are loaded
+   * with one query and scheduled in memory by priority of their manufacturing order, following the
+   * scheduling and the capacity of the production configuration, then the new dates are written
+   * with batched updates. Only the planned operation orders are moved, the ones in progress, on
+   * standby or finished keep their dates and hold their machine.
+   *
+   * @param company the company of the manufacturing orders
+   * @param dryRun if true, the slots are computed but nothing is saved
+   * @return the slots of the operation orders of the open manufacturing orders
+   * @throws AxelorException
+   */
+  List<OperationOrderPlannedSlot> replan(Company company, boolean dryRun) throws AxelorException;
+}
@@ -0,0 +1,522 @@
+/*
+ * Axelor Business Solutions
+ *
+ * Copyright (C) 2005-2025 Axelor (<http://axelor.com>).
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.axelor.apps.production.service.manuforder;
+
+import com.axelor.apps.base.AxelorException;
+import com.axelor.apps.base.db.Company;
+import com.axelor.apps.base.db.repo.TraceBackRepository;
+import com.axelor.apps.base.service.app.AppBaseService;
+import com.axelor.apps.production.db.Machine;
+import com.axelor.apps.production.db.ManufOrder;
+import com.axelor.apps.production.db.OperationOrder;
+import com.axelor.apps.production.db.ProdProcessLine;
+import com.axelor.apps.production.db.ProductionConfig;
+import com.axelor.apps.production.db.repo.ManufOrderRepository;
+import com.axelor.apps.production.db.repo.OperationOrderRepository;
+import com.axelor.apps.production.db.repo.ProductionConfigRepository;
+import com.axelor.apps.production.exceptions.ProductionExceptionMessage;
+import com.axelor.apps.production.model.machine.MachineTimeSlot;
+import com.axelor.apps.production.model.machine.OperationOrderPlannedSlot;
+import com.axelor.apps.production.service.config.ProductionConfigService;
+import com.axelor.apps.production.service.machine.MachineCalendarService;
+import com.axelor.apps.production.service.machine.MachineService;
+import com.axelor.apps.production.service.operationorder.OperationOrderOutsourceService;
+import com.axelor.apps.production.service.operationorder.OperationOrderService;
+import com.axelor.db.JPA;
+import com.axelor.i18n.I18n;
+import com.axelor.utils.helpers.date.DurationHelper;
+import com.axelor.utils.helpers.date.LocalDateTimeHelper;
+import com.google.common.collect.Iterables;
+import com.google.inject.Inject;
+import com.google.inject.persist.Transactional;
+import java.math.RoundingMode;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
+
+public class ManufOrderReplanningServiceImpl implements ManufOrderReplanningService {
+
+  protected static final int UPDATE_BATCH_SIZE = 500;
+
+  protected ProductionConfigService productionConfigService;
+  protected AppBaseService appBaseService;
+  protected OperationOrderService operationOrderService;
+  protected OperationOrderOutsourceService operationOrderOutsourceService;
+  protected MachineService machineService;
+  protected MachineCalendarService machineCalendarService;
+
+  @Inject
+  public ManufOrderReplanningServiceImpl(
+      ProductionConfigService productionConfigService,
+      AppBaseService appBaseService,
+      OperationOrderService operationOrderService,
+      OperationOrderOutsourceService operationOrderOutsourceService,
+      MachineService machineService,
+      MachineCalendarService machineCalendarService) {
+    this.productionConfigService = productionConfigService;
+    this.appBaseService = appBaseService;
+    this.operationOrderService = operationOrderService;
+    this.operationOrderOutsourceService = operationOrderOutsourceService;
+    this.machineService = machineService;
+    this.machineCalendarService = machineCalendarService;
+  }
+
+  @Override
+  public List<OperationOrderPlannedSlot> replan(Company company, boolean dryRun)
+      throws AxelorException {
+    ProductionConfig productionConfig = productionConfigService.getProductionConfig(company);
+    boolean useAsapScheduling =
+        productionConfig.getScheduling()
+            == ProductionConfigRepository.AS_SOON_AS_POSSIBLE_SCHEDULING;
+    boolean useFiniteCapacity =
+        productionConfig.getCapacity() == ProductionConfigRepository.FINITE_CAPACITY_SCHEDULING;
+    LocalDateTime todayDateT = appBaseService.getTodayDateTime(company).toLocalDateTime();
+
+    Map<ManufOrder, List<OperationOrder>> operationOrderMap = loadOperationOrders(company);
+    List<ManufOrder> manufOrderList = new ArrayList<>(operationOrderMap.keySet());
+    manufOrderList.sort(getManufOrderComparator(useAsapScheduling));
+
+    Map<OperationOrder, MachineTimeSlot> slotMap = new HashMap<>();
+    machineCalendarService.startPlanning();
+    try {
+      if (useFiniteCapacity) {
+        releaseMovableOperationOrders(operationOrderMap);
+      }
+      for (ManufOrder manufOrder : manufOrderList) {
+        List<OperationOrder> operationOrderList = operationOrderMap.get(manufOrder);
+        if (useAsapScheduling) {
+          planAsap(manufOrder, operationOrderList, useFiniteCapacity, todayDateT, slotMap);
+        } else {
+          planAtTheLatest(
+              manufOrder, operationOrderList, useFiniteCapacity, todayDateT, slotMap);
+        }
+      }
+    } finally {
+      machineCalendarService.endPlanning();
+    }
+
+    List<OperationOrderPlannedSlot> plannedSlotList = new ArrayList<>();
+    Map<OperationOrder, MachineTimeSlot> changedOperationOrderMap = new LinkedHashMap<>();
+    Map<ManufOrder, MachineTimeSlot> changedManufOrderMap = new LinkedHashMap<>();
+    for (ManufOrder manufOrder : manufOrderList) {
+      List<OperationOrder> operationOrderList =
+          operationOrderService.getSortedOperationOrderList(operationOrderMap.get(manufOrder));
+      LocalDateTime manufOrderStartDateT = null;
+      LocalDateTime manufOrderEndDateT = null;
+      for (OperationOrder operationOrder : operationOrderList) {
+        MachineTimeSlot slot = slotMap.get(operationOrder);
+        if (slot == null) {
+          continue;
+        }
+        boolean changed = isChanged(operationOrder, slot);
+        if (changed) {
+          changedOperationOrderMap.put(operationOrder, slot);
+        }
+        plannedSlotList.add(createPlannedSlot(manufOrder, operationOrder, slot, changed));
+        manufOrderStartDateT =
+            manufOrderStartDateT == null
+                ? slot.getStartDateT()
+                : LocalDateTimeHelper.min(manufOrderStartDateT, slot.getStartDateT());
+        manufOrderEndDateT =
+            manufOrderEndDateT == null
+                ? slot.getEndDateT()
+                : LocalDateTimeHelper.max(manufOrderEndDateT, slot.getEndDateT());
+      }
+      if (manufOrderStartDateT != null
+          && (!manufOrderStartDateT.equals(manufOrder.getPlannedStartDateT())
+              || !manufOrderEndDateT.equals(manufOrder.getPlannedEndDateT()))) {
+        changedManufOrderMap.put(
+            manufOrder, new MachineTimeSlot(manufOrderStartDateT, manufOrderEndDateT));
+      }
+    }
+
+    if (!dryRun) {
+      savePlannedDates(changedOperationOrderMap, changedManufOrderMap);
+    }
+    return plannedSlotList;
+  }
+
+  /**
+   * Load the operation orders of the open manufacturing orders of the company, with their machine,
+   * work center and production process line, in one query.
+   */
+  protected Map<ManufOrder, List<OperationOrder>> loadOperationOrders(Company company) {
+    List<OperationOrder> operationOrderList =
+        JPA.em()
+            .createQuery(
+                "SELECT self FROM OperationOrder self"
+                    + " JOIN FETCH self.manufOrder manufOrder"
+                    + " LEFT JOIN FETCH self.machine"
+                    + " LEFT JOIN FETCH self.workCenter"
+                    + " LEFT JOIN FETCH self.prodProcessLine"
+                    + " WHERE manufOrder.company = :company"
+                    + " AND manufOrder.statusSelect IN (:manufOrderStatusList)"
+                    + " AND self.statusSelect != :operationOrderStatusCanceled",
+                OperationOrder.class)
+            .setParameter("company", company)
+            .setParameter(
+                "manufOrderStatusList",
+                Arrays.asList(
+                    ManufOrderRepository.STATUS_PLANNED,
+                    ManufOrderRepository.STATUS_IN_PROGRESS,
+                    ManufOrderRepository.STATUS_STANDBY))
+            .setParameter(
+                "operationOrderStatusCanceled", OperationOrderRepository.STATUS_CANCELED)
+            .getResultList();
+
+    Map<ManufOrder, List<OperationOrder>> operationOrderMap = new LinkedHashMap<>();
+    for (OperationOrder operationOrder : operationOrderList) {
+      operationOrderMap
+          .computeIfAbsent(operationOrder.getManufOrder(), manufOrder -> new ArrayList<>())
+          .add(operationOrder);
+    }
+    return operationOrderMap;
+  }
+
+  /**
+   * Manufacturing orders with the highest priority are planned first, then the ones to start or
+   * to finish first depending on the scheduling.
+   */
+  protected Comparator<ManufOrder> getManufOrderComparator(boolean useAsapScheduling) {
+    Comparator<ManufOrder> byPriority =
+        Comparator.comparing(
+            ManufOrder::getPrioritySelect, Comparator.nullsLast(Comparator.reverseOrder()));
+    Function<ManufOrder, LocalDateTime> dateGetter =
+        useAsapScheduling ? ManufOrder::getPlannedStartDateT : ManufOrder::getPlannedEndDateT;
+    Comparator<ManufOrder> byDate =
+        Comparator.comparing(dateGetter, Comparator.nullsLast(Comparator.naturalOrder()));
+    return byPriority.thenComparing(byDate).thenComparing(ManufOrder::getId);
+  }
+
+  /**
+   * The operation orders to re-plan must not hold their current slot on their machine while the
+   * operation orders of the manufacturing orders with a higher priority are planned.
+   */
+  protected void releaseMovableOperationOrders(
+      Map<ManufOrder, List<OperationOrder>> operationOrderMap) {
+    for (List<OperationOrder> operationOrderList : operationOrderMap.values()) {
+      for (OperationOrder operationOrder : operationOrderList) {
+        Machine machine = operationOrder.getMachine();
+        if (isMovable(operationOrder) && !operationOrder.getOutsourcing() && machine != null) {
+          machineCalendarService.getCalendar(machine).release(operationOrder.getId());
+        }
+      }
+    }
+  }
+
+  protected void planAsap(
+      ManufOrder manufOrder,
+      List<OperationOrder> operationOrderList,
+      boolean useFiniteCapacity,
+      LocalDateTime todayDateT,
+      Map<OperationOrder, MachineTimeSlot> slotMap)
+      throws AxelorException {
+    LocalDateTime manufOrderStartDateT =
+        manufOrder.getPlannedStartDateT() == null
+            ? todayDateT
+            : LocalDateTimeHelper.max(manufOrder.getPlannedStartDateT(), todayDateT);
+
+    for (OperationOrder operationOrder :
+        operationOrderService.getSortedOperationOrderList(operationOrderList)) {
+      if (!isMovable(operationOrder)) {
+        getCurrentSlot(operationOrder).ifPresent(slot -> slotMap.put(operationOrder, slot));
+        continue;
+      }
+
+      // Start after the operation orders planned before this one and their waiting time
+      LocalDateTime startDateT = manufOrderStartDateT;
+      for (OperationOrder previousOperationOrder : operationOrderList) {
+        MachineTimeSlot previousSlot = slotMap.get(previousOperationOrder);
+        if (previousSlot != null && isPlannedAfter(operationOrder, previousOperationOrder)) {
+          startDateT =
+              LocalDateTimeHelper.max(
+                  startDateT,
+                  previousSlot
+                      .getEndDateT()
+                      .plusSeconds(getTimeBeforeNextOperation(previousOperationOrder)));
+        }
+      }
+
+      LocalDateTime endDateT = startDateT.plusSeconds(getDuration(operationOrder));
+      Machine machine = operationOrder.getMachine();
+      MachineTimeSlot slot;
+      if (operationOrder.getOutsourcing() || machine == null) {
+        slot = new MachineTimeSlot(startDateT, endDateT);
+      } else if (useFiniteCapacity) {
+        slot =
+            machineService.getClosestAvailableTimeSlotFrom(
+                machine, startDateT, endDateT, operationOrder);
+      } else {
+        slot = machineService.getClosestTimeSlotFrom(machine, startDateT, endDateT, operationOrder);
+      }
+      slotMap.put(operationOrder, slot);
+    }
+  }
+
+  protected void planAtTheLatest(
+      ManufOrder manufOrder,
+      List<OperationOrder> operationOrderList,
+      boolean useFiniteCapacity,
+      LocalDateTime todayDateT,
+      Map<OperationOrder, MachineTimeSlot> slotMap)
+      throws AxelorException {
+    LocalDateTime manufOrderEndDateT = manufOrder.getPlannedEndDateT();
+
+    for (OperationOrder operationOrder :
+        operationOrderService.getReversedSortedOperationOrderList(operationOrderList)) {
+      if (!isMovable(operationOrder) || manufOrderEndDateT == null) {
+        getCurrentSlot(operationOrder).ifPresent(slot -> slotMap.put(operationOrder, slot));
+        continue;
+      }
+
+      // End before the operation orders planned after this one, keeping the waiting time
+      LocalDateTime endDateT = manufOrderEndDateT;
+      long timeBeforeNextOperation = getTimeBeforeNextOperation(operationOrder);
+      for (OperationOrder nextOperationOrder : operationOrderList) {
+        MachineTimeSlot nextSlot = slotMap.get(nextOperationOrder);
+        if (nextSlot != null && isPlannedAfter(nextOperationOrder, operationOrder)) {
+          endDateT =
+              LocalDateTimeHelper.min(
+                  endDateT, nextSlot.getStartDateT().minusSeconds(timeBeforeNextOperation));
+        }
+      }
+
+      LocalDateTime startDateT = endDateT.minusSeconds(getDuration(operationOrder));
+      Machine machine = operationOrder.getMachine();
+      MachineTimeSlot slot;
+      if (operationOrder.getOutsourcing() || machine == null) {
+        slot = new MachineTimeSlot(startDateT, endDateT);
+      } else if (useFiniteCapacity) {
+        slot =
+            machineService.getFurthestAvailableTimeSlotFrom(
+                machine, startDateT, endDateT, operationOrder);
+      } else {
+        slot =
+            machineService.getFurthestTimeSlotFrom(machine, startDateT, endDateT, operationOrder);
+      }
+      checkIfPlannedStartDateTimeIsBeforeCurrentDateTime(manufOrder, slot, todayDateT);
+      slotMap.put(operationOrder, slot);
+    }
+  }
+
+  /** As when planning a single order at the latest, an operation can not start before today. */
+  protected void checkIfPlannedStartDateTimeIsBeforeCurrentDateTime(
+      ManufOrder manufOrder, MachineTimeSlot slot, LocalDateTime todayDateT)
+      throws AxelorException {
+    if (!slot.getStartDateT().isBefore(todayDateT)) {
+      return;
+    }
+    int qtyScale = appBaseService.getNbDecimalDigitForQty();
+    throw new AxelorException(
+        TraceBackRepository.CATEGORY_INCONSISTENCY,
+        I18n.get(ProductionExceptionMessage.PLAN_IS_BEFORE_TODAY_DATE),
+        String.format(
+            "%s %s",
+            manufOrder.getQty() != null
+                ? manufOrder.getQty().setScale(qtyScale, RoundingMode.HALF_UP)
+                : null,
+            manufOrder.getProduct() != null ? manufOrder.getProduct().getFullName() : null),
+        DateTimeFormatter.ISO_DATE_TIME.format(slot.getStartDateT()));
+  }
+
+  protected boolean isMovable(OperationOrder operationOrder) {
+    return operationOrder.getStatusSelect() == OperationOrderRepository.STATUS_PLANNED;
+  }
+
+  protected Optional<MachineTimeSlot> getCurrentSlot(OperationOrder operationOrder) {
+    if (operationOrder.getPlannedStartDateT() == null
+        || operationOrder.getPlannedEndDateT() == null) {
+      return Optional.empty();
+    }
+    return Optional.of(
+        new MachineTimeSlot(
+            operationOrder.getPlannedStartDateT(), operationOrder.getPlannedEndDateT()));
+  }
+
+  /**
+   * Whether the operation order must be planned after the other one: it has a higher priority, or
+   * the same priority on the same machine, as when planning a single manufacturing order.
+   */
+  protected boolean isPlannedAfter(
+      OperationOrder operationOrder, OperationOrder otherOperationOrder) {
+    int priorityComparison = comparePriority(operationOrder, otherOperationOrder);
+    if (priorityComparison != 0) {
+      return priorityComparison > 0;
+    }
+    Machine machine = operationOrder.getMachine();
+    return machine != null
+        && !operationOrder.getOutsourcing()
+        && !otherOperationOrder.getOutsourcing()
+        && machine.equals(otherOperationOrder.getMachine());
+  }
+
+  protected int comparePriority(OperationOrder operationOrder, OperationOrder otherOperationOrder) {
+    return Integer.compare(
+        Optional.ofNullable(operationOrder.getPriority()).orElse(0),
+        Optional.ofNullable(otherOperationOrder.getPriority()).orElse(0));
+  }
+
+  protected long getDuration(OperationOrder operationOrder) throws AxelorException {
+    if (operationOrder.getOutsourcing()) {
+      return operationOrderOutsourceService.getOutsourcingDuration(operationOrder);
+    }
+    return operationOrderService.getDuration(operationOrder);
+  }
+
+  protected long getTimeBeforeNextOperation(OperationOrder operationOrder) {
+    return Optional.ofNullable(operationOrder.getProdProcessLine())
+        .map(ProdProcessLine::getTimeBeforeNextOperation)
+        .orElse(0L);
+  }
+
+  protected boolean isChanged(OperationOrder operationOrder, MachineTimeSlot slot) {
+    return !Objects.equals(operationOrder.getPlannedStartDateT(), slot.getStartDateT())
+        || !Objects.equals(operationOrder.getPlannedEndDateT(), slot.getEndDateT());
+  }
+
+  protected OperationOrderPlannedSlot createPlannedSlot(
+      ManufOrder manufOrder,
+      OperationOrder operationOrder,
+      MachineTimeSlot slot,
+      boolean changed) {
+    Machine machine = operationOrder.getOutsourcing() ? null : operationOrder.getMachine();
+    return new OperationOrderPlannedSlot(
+        operationOrder.getId(),
+        operationOrder.getName(),
+        manufOrder.getId(),
+        manufOrder.getManufOrderSeq(),
+        machine != null ? machine.getId() : null,
+        slot.getStartDateT(),
+        slot.getEndDateT(),
+        changed);
+  }
+
+  /**
+   * Write the new planned dates with batched JDBC statements. An order is only updated if its
+   * version has not changed since it was loaded, and its version is incremented, so that an order
+   * modified during the re-planning is neither overwritten nor overwrites the new dates. In that
+   * case nothing is saved. The updated orders are detached so that their stale state is not used
+   * afterwards.
+   */
+  @Transactional(rollbackOn = {Exception.class})
+  protected void savePlannedDates(
+      Map<OperationOrder, MachineTimeSlot> operationOrderSlotMap,
+      Map<ManufOrder, MachineTimeSlot> manufOrderSlotMap)
+      throws AxelorException {
+    if (operationOrderSlotMap.isEmpty() && manufOrderSlotMap.isEmpty()) {
+      return;
+    }
+    JPA.em().flush();
+
+    List<Map.Entry<OperationOrder, MachineTimeSlot>> operationOrderEntryList =
+        new ArrayList<>(operationOrderSlotMap.entrySet());
+    List<Map.Entry<ManufOrder, MachineTimeSlot>> manufOrderEntryList =
+        new ArrayList<>(manufOrderSlotMap.entrySet());
+    List<String> staleNameList = new ArrayList<>();
+    JPA.jdbcWork(
+        connection -> {
+          try (PreparedStatement statement =
+              connection.prepareStatement(
+                  "UPDATE production_operation_order"
+                      + " SET planned_start_date_t = ?, planned_end_date_t = ?,"
+                      + " planned_end_with_waiting_date_t = ?, planned_duration = ?,"
+                      + " version = version + 1"
+                      + " WHERE id = ? AND version = ?")) {
+            for (List<Map.Entry<OperationOrder, MachineTimeSlot>> chunk :
+                Iterables.partition(operationOrderEntryList, UPDATE_BATCH_SIZE)) {
+              for (Map.Entry<OperationOrder, MachineTimeSlot> entry : chunk) {
+                MachineTimeSlot slot = entry.getValue();
+                statement.setTimestamp(1, Timestamp.valueOf(slot.getStartDateT()));
+                statement.setTimestamp(2, Timestamp.valueOf(slot.getEndDateT()));
+                statement.setTimestamp(
+                    3,
+                    Timestamp.valueOf(
+                        slot.getEndDateT()
+                            .plusSeconds(getTimeBeforeNextOperation(entry.getKey()))));
+                statement.setLong(
+                    4,
+                    DurationHelper.getSecondsDuration(
+                        Duration.between(slot.getStartDateT(), slot.getEndDateT())));
+                statement.setLong(5, entry.getKey().getId());
+                statement.setInt(6, entry.getKey().getVersion());
+                statement.addBatch();
+              }
+              addStaleNames(
+                  statement.executeBatch(), chunk, OperationOrder::getName, staleNameList);
+            }
+          }
+
+          try (PreparedStatement statement =
+              connection.prepareStatement(
+                  "UPDATE production_manuf_order"
+                      + " SET planned_start_date_t = ?, planned_end_date_t = ?,"
+                      + " version = version + 1"
+                      + " WHERE id = ? AND version = ?")) {
+            for (List<Map.Entry<ManufOrder, MachineTimeSlot>> chunk :
+                Iterables.partition(manufOrderEntryList, UPDATE_BATCH_SIZE)) {
+              for (Map.Entry<ManufOrder, MachineTimeSlot> entry : chunk) {
+                MachineTimeSlot slot = entry.getValue();
+                statement.setTimestamp(1, Timestamp.valueOf(slot.getStartDateT()));
+                statement.setTimestamp(2, Timestamp.valueOf(slot.getEndDateT()));
+                statement.setLong(3, entry.getKey().getId());
+                statement.setInt(4, entry.getKey().getVersion());
+                statement.addBatch();
+              }
+              addStaleNames(
+                  statement.executeBatch(), chunk, ManufOrder::getManufOrderSeq, staleNameList);
+            }
+          }
+        });
+
+    if (!staleNameList.isEmpty()) {
+      throw new AxelorException(
+          TraceBackRepository.CATEGORY_INCONSISTENCY,
+          I18n.get(ProductionExceptionMessage.MANUF_ORDER_REPLANNING_CONCURRENT_UPDATE),
+          String.join(", ", staleNameList));
+    }
+
+    operationOrderSlotMap.keySet().forEach(JPA.em()::detach);
+    manufOrderSlotMap.keySet().forEach(JPA.em()::detach);
+  }
+
+  /** Collect the names of the orders of the chunk whose update matched no row. */
+  protected <T> void addStaleNames(
+      int[] updateCounts,
+      List<Map.Entry<T, MachineTimeSlot>> chunk,
+      Function<T, String> nameGetter,
+      List<String> staleNameList) {
+    for (int i = 0; i < updateCounts.length; i++) {
+      if (updateCounts[i] == 0) {
+        staleNameList.add(nameGetter.apply(chunk.get(i).getKey()));
+      }
+    }
+  }
+}
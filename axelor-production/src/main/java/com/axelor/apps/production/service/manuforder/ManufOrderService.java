@@ -69,6 +69,28 @@ public interface ManufOrderService {
       ManufOrderOriginType manufOrderOriginType)
       throws AxelorException;
 
+  /**
+   * Create a draft manufacturing order for the requested quantity of the product, converted in the
+   * unit of the bill of materials. The order is neither planned nor numbered.
+   *
+   * @param product
+   * @param qtyRequested
+   * @param priority
+   * @param billOfMaterial the bill of materials, or null to use the default one of the product
+   * @param plannedStartDateT
+   * @param plannedEndDateT
+   * @return the draft manufacturing order
+   * @throws AxelorException
+   */
+  public ManufOrder generateDraftManufOrder(
+      Product product,
+      BigDecimal qtyRequested,
+      int priority,
+      BillOfMaterial billOfMaterial,
+      LocalDateTime plannedStartDateT,
+      LocalDateTime plannedEndDateT)
+      throws AxelorException;
+
   public void createToConsumeProdProductList(ManufOrder manufOrder);
 
   /**
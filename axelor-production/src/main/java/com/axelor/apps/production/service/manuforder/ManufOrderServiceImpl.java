@@ -195,6 +195,31 @@ public class ManufOrderServiceImpl implements ManufOrderService {
       ManufOrderOriginType manufOrderOrigin)
       throws AxelorException {
 
+    ManufOrder manufOrder =
+        this.generateDraftManufOrder(
+            product, qtyRequested, priority, billOfMaterial, plannedStartDateT, plannedEndDateT);
+
+    if (manufOrderOrigin.equals(ManufOrderOriginTypeProduction.ORIGIN_TYPE_SALE_ORDER)
+            && appProductionService.getAppProduction().getAutoPlanManufOrderFromSO()
+        || manufOrderOrigin.equals(ManufOrderOriginTypeProduction.ORIGIN_TYPE_MRP)
+        || manufOrderOrigin.equals(ManufOrderOriginTypeProduction.ORIGIN_TYPE_OTHER)) {
+      manufOrder = manufOrderPlanService.plan(manufOrder);
+      manufOrderCreatePurchaseOrderService.createPurchaseOrders(manufOrder);
+    }
+
+    return manufOrderRepo.save(manufOrder);
+  }
+
+  @Override
+  public ManufOrder generateDraftManufOrder(
+      Product product,
+      BigDecimal qtyRequested,
+      int priority,
+      BillOfMaterial billOfMaterial,
+      LocalDateTime plannedStartDateT,
+      LocalDateTime plannedEndDateT)
+      throws AxelorException {
+
     if (billOfMaterial == null) {
       billOfMaterial = this.getBillOfMaterial(product);
     }
@@ -231,27 +256,16 @@ public class ManufOrderServiceImpl implements ManufOrderService {
             appBaseService.getNbDecimalDigitForQty(),
             RoundingMode.HALF_UP);
 
-    ManufOrder manufOrder =
-        this.createManufOrder(
-            product,
-            qty,
-            unit,
-            priority,
-            IS_TO_INVOICE,
-            company,
-            billOfMaterial,
-            plannedStartDateT,
-            plannedEndDateT);
-
-    if (manufOrderOrigin.equals(ManufOrderOriginTypeProduction.ORIGIN_TYPE_SALE_ORDER)
-            && appProductionService.getAppProduction().getAutoPlanManufOrderFromSO()
-        || manufOrderOrigin.equals(ManufOrderOriginTypeProduction.ORIGIN_TYPE_MRP)
-        || manufOrderOrigin.equals(ManufOrderOriginTypeProduction.ORIGIN_TYPE_OTHER)) {
-      manufOrder = manufOrderPlanService.plan(manufOrder);
-      manufOrderCreatePurchaseOrderService.createPurchaseOrders(manufOrder);
-    }
-
-    return manufOrderRepo.save(manufOrder);
+    return this.createManufOrder(
+        product,
+        qty,
+        unit,
+        priority,
+        IS_TO_INVOICE,
+        company,
+        billOfMaterial,
+        plannedStartDateT,
+        plannedEndDateT);
   }
 
   @Override
@@ -41,10 +41,12 @@ import com.axelor.apps.stock.db.StockMove;
 import com.axelor.apps.stock.db.StockMoveLine;
 import com.axelor.apps.stock.db.repo.StockMoveLineRepository;
 import com.axelor.apps.stock.db.repo.StockMoveRepository;
+import com.axelor.apps.stock.service.StockLocationLineLockService;
 import com.axelor.apps.stock.service.StockMoveLineService;
 import com.axelor.apps.supplychain.service.config.SupplyChainConfigService;
 import com.axelor.i18n.I18n;
 import com.axelor.inject.Beans;
+import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
 import com.google.inject.Inject;
 import com.google.inject.persist.Transactional;
@@ -79,6 +81,7 @@ public class ManufOrderStockMoveServiceImpl implements ManufOrderStockMoveServic
   protected ManufOrderOutgoingStockMoveService manufOrderOutgoingStockMoveService;
   protected ManufOrderGetStockMoveService manufOrderGetStockMoveService;
   protected ManufOrderCreateStockMoveLineService manufOrderCreateStockMoveLineService;
+  protected StockLocationLineLockService stockLocationLineLockService;
 
   @Inject
   public ManufOrderStockMoveServiceImpl(
@@ -93,7 +96,8 @@ public class ManufOrderStockMoveServiceImpl implements ManufOrderStockMoveServic
       StockMoveLineRepository stockMoveLineRepository,
       ManufOrderOutgoingStockMoveService manufOrderOutgoingStockMoveService,
       ManufOrderGetStockMoveService manufOrderGetStockMoveService,
-      ManufOrderCreateStockMoveLineService manufOrderCreateStockMoveLineService) {
+      ManufOrderCreateStockMoveLineService manufOrderCreateStockMoveLineService,
+      StockLocationLineLockService stockLocationLineLockService) {
     this.supplyChainConfigService = supplyChainConfigService;
     this.stockMoveProductionService = stockMoveProductionService;
     this.stockMoveLineService = stockMoveLineService;
@@ -106,6 +110,7 @@ public class ManufOrderStockMoveServiceImpl implements ManufOrderStockMoveServic
     this.manufOrderOutgoingStockMoveService = manufOrderOutgoingStockMoveService;
     this.manufOrderGetStockMoveService = manufOrderGetStockMoveService;
     this.manufOrderCreateStockMoveLineService = manufOrderCreateStockMoveLineService;
+    this.stockLocationLineLockService = stockLocationLineLockService;
   }
 
   @Override
@@ -198,6 +203,8 @@ public class ManufOrderStockMoveServiceImpl implements ManufOrderStockMoveServic
         .getOutStockMoveList()
         .removeIf(stockMove -> CollectionUtils.isEmpty(stockMove.getStockMoveLineList()));
 
+    lockStockLocationLines(manufOrder);
+
     // finish remaining stock move
     for (StockMove stockMove : manufOrder.getInStockMoveList()) {
       this.finishStockMove(stockMove);
@@ -208,6 +215,27 @@ public class ManufOrderStockMoveServiceImpl implements ManufOrderStockMoveServic
     }
   }
 
+  /**
+   * Lock the stock location lines of every stock move finished with the manufacturing order at
+   * once, so that the locks are taken in one global order instead of one stock move after another.
+   *
+   * @param manufOrder
+   * @throws AxelorException
+   */
+  protected void lockStockLocationLines(ManufOrder manufOrder) throws AxelorException {
+    List<StockMoveLine> stockMoveLineList = new ArrayList<>();
+    for (StockMove stockMove :
+        Iterables.concat(manufOrder.getInStockMoveList(), manufOrder.getOutStockMoveList())) {
+      if (stockMove.getStatusSelect() != StockMoveRepository.STATUS_PLANNED) {
+        continue;
+      }
+      stockMoveLineList.addAll(stockMove.getStockMoveLineList());
+      Optional.ofNullable(stockMove.getPlannedStockMoveLineList())
+          .ifPresent(stockMoveLineList::addAll);
+    }
+    stockLocationLineLockService.lockStockLocationLines(stockMoveLineList);
+  }
+
   /**
    * Update price in stock move line: if the product price is configured to be real, then we use the
    * cost price from costsheet. Else, we do nothing as the planned price is already filled.
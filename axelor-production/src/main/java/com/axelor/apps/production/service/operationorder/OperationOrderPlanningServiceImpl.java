@@ -32,6 +32,7 @@ import com.axelor.apps.production.db.repo.OperationOrderRepository;
 import com.axelor.apps.production.db.repo.ProductionConfigRepository;
 import com.axelor.apps.production.exceptions.ProductionExceptionMessage;
 import com.axelor.apps.production.service.config.ProductionConfigService;
+import com.axelor.apps.production.service.machine.MachineCalendarService;
 import com.axelor.apps.production.service.machine.MachineService;
 import com.axelor.apps.production.service.manuforder.ManufOrderService;
 import com.axelor.apps.production.service.manuforder.ManufOrderWorkflowService;
@@ -66,6 +67,7 @@ public class OperationOrderPlanningServiceImpl implements OperationOrderPlanning
       operationOrderPlanningInfiniteCapacityService;
   protected ManufOrderWorkflowService manufOrderWorkflowService;
   protected OperationOrderOutsourceService operationOrderOutsourceService;
+  protected MachineCalendarService machineCalendarService;
 
   @Inject
   public OperationOrderPlanningServiceImpl(
@@ -78,7 +80,8 @@ public class OperationOrderPlanningServiceImpl implements OperationOrderPlanning
       OperationOrderService operationOrderService,
       OperationOrderPlanningInfiniteCapacityService operationOrderPlanningInfiniteCapacityService,
       ManufOrderWorkflowService manufOrderWorkflowService,
-      OperationOrderOutsourceService operationOrderOutsourceService) {
+      OperationOrderOutsourceService operationOrderOutsourceService,
+      MachineCalendarService machineCalendarService) {
     this.productionConfigService = productionConfigService;
     this.operationOrderStockMoveService = operationOrderStockMoveService;
     this.machineService = machineService;
@@ -90,6 +93,7 @@ public class OperationOrderPlanningServiceImpl implements OperationOrderPlanning
         operationOrderPlanningInfiniteCapacityService;
     this.manufOrderWorkflowService = manufOrderWorkflowService;
     this.operationOrderOutsourceService = operationOrderOutsourceService;
+    this.machineCalendarService = machineCalendarService;
   }
 
   @Override
@@ -150,8 +154,14 @@ public class OperationOrderPlanningServiceImpl implements OperationOrderPlanning
             ? operationOrderService.getSortedOperationOrderList(operationOrders)
             : operationOrderService.getReversedSortedOperationOrderList(operationOrders);
 
-    for (OperationOrder operationOrder : sortedOperationOrders) {
-      operationOrderPlanningCommonService.plan(operationOrder);
+    // The slots of the machines are searched in memory, the planned orders being booked in them
+    machineCalendarService.startPlanning();
+    try {
+      for (OperationOrder operationOrder : sortedOperationOrders) {
+        operationOrderPlanningCommonService.plan(operationOrder);
+      }
+    } finally {
+      machineCalendarService.endPlanning();
     }
     manufOrderWorkflowService.setOperationOrderMaxPriority(manufOrder);
   }
@@ -266,6 +276,21 @@ public class OperationOrderPlanningServiceImpl implements OperationOrderPlanning
                 .filter(oo -> oo.getStatusSelect() != OperationOrderRepository.STATUS_FINISHED)
                 .collect(Collectors.toList());
 
+    machineCalendarService.startPlanning();
+    try {
+      planFrom(operationOrder, operationOrders, productionConfig);
+    } finally {
+      machineCalendarService.endPlanning();
+    }
+
+    return computeDuration(operationOrder);
+  }
+
+  protected void planFrom(
+      OperationOrder operationOrder,
+      List<OperationOrder> operationOrders,
+      ProductionConfig productionConfig)
+      throws AxelorException {
     plan(operationOrders);
     manufOrderService.updatePlannedDates(operationOrder.getManufOrder());
 
@@ -283,8 +308,6 @@ public class OperationOrderPlanningServiceImpl implements OperationOrderPlanning
         operationOrderPlanningCommonService.plan(oo);
       }
     }
-
-    return computeDuration(operationOrder);
   }
 
   @Override
@@ -0,0 +1,134 @@
+/*
+ * Axelor Business Solutions
+ *
+ * Copyright (C) 2005-2025 Axelor (<http://axelor.com>).
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.axelor.apps.production.model.machine;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class TestMachineCalendar {
+
+  private static final LocalDate DAY = LocalDate.of(2026, 1, 5);
+
+  private MachineCalendar machineCalendar;
+  private AtomicInteger loadCount;
+
+  @BeforeEach
+  void prepare() {
+    // 8:00-10:00, 9:00-11:00 and 11:00-12:00 form one busy period, 14:00-15:00 another one
+    Map<Long, MachineTimeSlot> bookedSlotMap = new HashMap<>();
+    bookedSlotMap.put(1L, slot(8, 0, 10, 0));
+    bookedSlotMap.put(2L, slot(9, 0, 11, 0));
+    bookedSlotMap.put(3L, slot(11, 0, 12, 0));
+    bookedSlotMap.put(4L, slot(14, 0, 15, 0));
+    loadCount = new AtomicInteger();
+    machineCalendar =
+        new MachineCalendar(
+            Collections.singleton(DAY.plusDays(1)),
+            () -> {
+              loadCount.incrementAndGet();
+              return bookedSlotMap;
+            });
+  }
+
+  @Test
+  void testOverlappingAndAdjacentSlotsAreMerged() {
+    Assertions.assertEquals(
+        Optional.of(time(12, 0)),
+        machineCalendar.findLastConflictEnd(time(7, 0), time(8, 30), 0));
+    Assertions.assertEquals(
+        Optional.of(time(8, 0)),
+        machineCalendar.findFirstConflictStart(time(11, 30), time(13, 0), 0));
+  }
+
+  @Test
+  void testLastConflictEndWithMargin() {
+    Assertions.assertEquals(
+        Optional.empty(), machineCalendar.findLastConflictEnd(time(12, 0), time(13, 0), 0));
+    Assertions.assertEquals(
+        Optional.of(time(12, 0)),
+        machineCalendar.findLastConflictEnd(time(12, 0), time(13, 0), 600));
+  }
+
+  @Test
+  void testLastConflictEndIncludesPeriodStartingAtSlotEnd() {
+    Assertions.assertEquals(
+        Optional.of(time(15, 0)),
+        machineCalendar.findLastConflictEnd(time(13, 0), time(14, 0), 0));
+  }
+
+  @Test
+  void testFirstConflictStartExcludesPeriodStartingAtSlotEnd() {
+    Assertions.assertEquals(
+        Optional.empty(), machineCalendar.findFirstConflictStart(time(13, 0), time(14, 0), 0));
+    Assertions.assertEquals(
+        Optional.of(time(14, 0)),
+        machineCalendar.findFirstConflictStart(time(12, 30), time(14, 30), 0));
+  }
+
+  @Test
+  void testFirstConflictStartWithMargin() {
+    Assertions.assertEquals(
+        Optional.empty(), machineCalendar.findFirstConflictStart(time(12, 10), time(13, 0), 0));
+    Assertions.assertEquals(
+        Optional.of(time(8, 0)),
+        machineCalendar.findFirstConflictStart(time(12, 10), time(13, 0), 1200));
+  }
+
+  @Test
+  void testBookAndRelease() {
+    Assertions.assertEquals(
+        Optional.empty(), machineCalendar.findLastConflictEnd(time(16, 0), time(17, 0), 0));
+
+    machineCalendar.book(5L, slot(15, 0, 16, 30));
+    Assertions.assertEquals(
+        Optional.of(time(16, 30)),
+        machineCalendar.findLastConflictEnd(time(16, 0), time(17, 0), 0));
+    Assertions.assertEquals(
+        Optional.of(time(14, 0)),
+        machineCalendar.findFirstConflictStart(time(16, 0), time(17, 0), 0));
+
+    machineCalendar.release(5L);
+    machineCalendar.release(4L);
+    Assertions.assertEquals(
+        Optional.empty(), machineCalendar.findLastConflictEnd(time(13, 0), time(17, 0), 0));
+    Assertions.assertEquals(1, loadCount.get());
+  }
+
+  @Test
+  void testPublicHoliday() {
+    Assertions.assertFalse(machineCalendar.isPublicHoliday(DAY));
+    Assertions.assertTrue(machineCalendar.isPublicHoliday(DAY.plusDays(1)));
+  }
+
+  private static LocalDateTime time(int hour, int minute) {
+    return DAY.atTime(hour, minute);
+  }
+
+  private static MachineTimeSlot slot(int startHour, int startMinute, int endHour, int endMinute) {
+    return new MachineTimeSlot(time(startHour, startMinute), time(endHour, endMinute));
+  }
+}
@@ -0,0 +1,171 @@
+/*
+ * Axelor Business Solutions
+ *
+ * Copyright (C) 2005-2025 Axelor (<http://axelor.com>).
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.axelor.apps.production.service;
+
+import com.axelor.apps.base.AxelorException;
+import com.axelor.apps.base.db.Company;
+import com.axelor.apps.base.db.Product;
+import com.axelor.apps.production.db.BillOfMaterial;
+import com.axelor.apps.production.db.BillOfMaterialLine;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class TestBillOfMaterialGraphService {
+
+  private Map<Long, BillOfMaterial> defaultBillOfMaterialMap;
+  private BillOfMaterialGraphServiceImpl billOfMaterialGraphService;
+  private long nextBillOfMaterialId;
+
+  @BeforeEach
+  void prepare() {
+    defaultBillOfMaterialMap = new HashMap<>();
+    nextBillOfMaterialId = 1;
+    billOfMaterialGraphService =
+        new BillOfMaterialGraphServiceImpl(null) {
+          @Override
+          protected BillOfMaterial getBillOfMaterial(
+              BillOfMaterialGraph graph, Product product, Company company) {
+            return defaultBillOfMaterialMap.get(product.getId());
+          }
+        };
+  }
+
+  @Test
+  void testLowLevelCodesAreTheLongestPathFromARoot() throws AxelorException {
+    Product a = product(1L);
+    Product b = product(2L);
+    Product c = product(3L);
+    Product d = product(4L);
+    Product e = product(5L);
+    setDefaultBillOfMaterial(a, b, c, d);
+    setDefaultBillOfMaterial(b, d);
+    setDefaultBillOfMaterial(c, d);
+    setDefaultBillOfMaterial(d, e);
+
+    Map<Long, Integer> lowLevelCodeMap =
+        billOfMaterialGraphService.getLowLevelCodes(List.of(a), null);
+
+    Assertions.assertEquals(0, lowLevelCodeMap.get(1L));
+    Assertions.assertEquals(1, lowLevelCodeMap.get(2L));
+    Assertions.assertEquals(1, lowLevelCodeMap.get(3L));
+    Assertions.assertEquals(2, lowLevelCodeMap.get(4L));
+    Assertions.assertEquals(3, lowLevelCodeMap.get(5L));
+    Assertions.assertEquals(5, lowLevelCodeMap.size());
+  }
+
+  @Test
+  void testSelectedComponentIsNotARoot() throws AxelorException {
+    Product a = product(1L);
+    Product b = product(2L);
+    Product c = product(3L);
+    setDefaultBillOfMaterial(a, b);
+    setDefaultBillOfMaterial(b, c);
+
+    Map<Long, Integer> lowLevelCodeMap =
+        billOfMaterialGraphService.getLowLevelCodes(List.of(c, b, a), null);
+
+    Assertions.assertEquals(0, lowLevelCodeMap.get(1L));
+    Assertions.assertEquals(1, lowLevelCodeMap.get(2L));
+    Assertions.assertEquals(2, lowLevelCodeMap.get(3L));
+  }
+
+  @Test
+  void testLineSubBillOfMaterialIsFollowed() throws AxelorException {
+    Product a = product(1L);
+    Product b = product(2L);
+    Product f = product(6L);
+    Product g = product(7L);
+    BillOfMaterial subBillOfMaterial = billOfMaterial(f);
+    BillOfMaterial billOfMaterial = billOfMaterial();
+    billOfMaterial.getBillOfMaterialLineList().add(line(b, subBillOfMaterial));
+    defaultBillOfMaterialMap.put(a.getId(), billOfMaterial);
+    setDefaultBillOfMaterial(b, g);
+
+    Map<Long, Integer> lowLevelCodeMap =
+        billOfMaterialGraphService.getLowLevelCodes(List.of(a), null);
+
+    Assertions.assertEquals(1, lowLevelCodeMap.get(2L));
+    Assertions.assertEquals(2, lowLevelCodeMap.get(6L));
+    Assertions.assertFalse(lowLevelCodeMap.containsKey(7L));
+  }
+
+  @Test
+  void testSubBillOfMaterialAndDefaultBillOfMaterialAreBothFollowed() throws AxelorException {
+    Product a = product(1L);
+    Product b = product(2L);
+    Product c = product(3L);
+    Product f = product(6L);
+    Product g = product(7L);
+    BillOfMaterial billOfMaterial = billOfMaterial(c);
+    billOfMaterial.getBillOfMaterialLineList().add(line(b, billOfMaterial(f)));
+    defaultBillOfMaterialMap.put(a.getId(), billOfMaterial);
+    setDefaultBillOfMaterial(c, b);
+    setDefaultBillOfMaterial(b, g);
+
+    Map<Long, Integer> lowLevelCodeMap =
+        billOfMaterialGraphService.getLowLevelCodes(List.of(a), null);
+
+    Assertions.assertEquals(2, lowLevelCodeMap.get(2L));
+    Assertions.assertEquals(3, lowLevelCodeMap.get(6L));
+    Assertions.assertEquals(3, lowLevelCodeMap.get(7L));
+  }
+
+  @Test
+  void testLoopIsReported() {
+    Product a = product(1L);
+    Product b = product(2L);
+    setDefaultBillOfMaterial(a, b);
+    setDefaultBillOfMaterial(b, a);
+
+    Assertions.assertThrows(
+        AxelorException.class, () -> billOfMaterialGraphService.getLowLevelCodes(List.of(a), null));
+  }
+
+  private Product product(Long id) {
+    Product product = new Product();
+    product.setId(id);
+    return product;
+  }
+
+  private BillOfMaterial billOfMaterial(Product... components) {
+    BillOfMaterial billOfMaterial = new BillOfMaterial();
+    billOfMaterial.setId(nextBillOfMaterialId++);
+    billOfMaterial.setBillOfMaterialLineList(new ArrayList<>());
+    for (Product component : components) {
+      billOfMaterial.getBillOfMaterialLineList().add(line(component, null));
+    }
+    return billOfMaterial;
+  }
+
+  private BillOfMaterialLine line(Product component, BillOfMaterial subBillOfMaterial) {
+    BillOfMaterialLine billOfMaterialLine = new BillOfMaterialLine();
+    billOfMaterialLine.setProduct(component);
+    billOfMaterialLine.setBillOfMaterial(subBillOfMaterial);
+    return billOfMaterialLine;
+  }
+
+  private void setDefaultBillOfMaterial(Product product, Product... components) {
+    defaultBillOfMaterialMap.put(product.getId(), billOfMaterial(components));
+  }
+}
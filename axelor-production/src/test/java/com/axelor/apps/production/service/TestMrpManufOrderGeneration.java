@@ -0,0 +1,176 @@
+/*
+ * Axelor Business Solutions
+ *
+ * Copyright (C) 2005-2025 Axelor (<http://axelor.com>).
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.axelor.apps.production.service;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.axelor.apps.base.AxelorException;
+import com.axelor.apps.base.db.Company;
+import com.axelor.apps.base.db.Product;
+import com.axelor.apps.base.db.Sequence;
+import com.axelor.apps.base.service.administration.SequenceService;
+import com.axelor.apps.base.service.app.AppBaseService;
+import com.axelor.apps.production.db.BillOfMaterial;
+import com.axelor.apps.production.db.ManufOrder;
+import com.axelor.apps.production.db.ProductionConfig;
+import com.axelor.apps.production.db.repo.ManufOrderRepository;
+import com.axelor.apps.production.db.repo.ProductionConfigRepository;
+import com.axelor.apps.production.service.config.ProductionConfigService;
+import com.axelor.apps.production.service.manuforder.ManufOrderCreatePurchaseOrderService;
+import com.axelor.apps.production.service.manuforder.ManufOrderPlanService;
+import com.axelor.apps.production.service.manuforder.ManufOrderService;
+import com.axelor.apps.stock.db.StockLocation;
+import com.axelor.apps.supplychain.db.MrpLine;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class TestMrpManufOrderGeneration {
+
+  private StockLocation stockLocation;
+  private BillOfMaterial billOfMaterial;
+  private long nextManufOrderId;
+  private List<MrpLine> fetchedMrpLineList;
+  private MrpManufOrderGenerationServiceImpl generationService;
+
+  @BeforeEach
+  void prepare() throws AxelorException {
+    Company company = new Company();
+    company.setId(1L);
+    stockLocation = new StockLocation();
+    stockLocation.setCompany(company);
+    billOfMaterial = new BillOfMaterial();
+    billOfMaterial.setId(1L);
+    nextManufOrderId = 100L;
+    fetchedMrpLineList = new ArrayList<>();
+
+    ProductionConfig productionConfig = new ProductionConfig();
+    productionConfig.setScheduling(ProductionConfigRepository.AS_SOON_AS_POSSIBLE_SCHEDULING);
+    ProductionConfigService productionConfigService = mock(ProductionConfigService.class);
+    when(productionConfigService.getProductionConfig(any())).thenReturn(productionConfig);
+    Sequence sequence = new Sequence();
+    when(productionConfigService.getManufOrderSequence(any(), any())).thenReturn(sequence);
+
+    ManufOrderService manufOrderService = mock(ManufOrderService.class);
+    when(manufOrderService.generateDraftManufOrder(
+            any(), any(), anyInt(), any(), any(), any()))
+        .thenAnswer(invocation -> new ManufOrder());
+
+    ManufOrderPlanService manufOrderPlanService = mock(ManufOrderPlanService.class);
+    when(manufOrderPlanService.plan(any(ManufOrder.class)))
+        .thenAnswer(
+            invocation -> {
+              ManufOrder manufOrder = invocation.getArgument(0);
+              manufOrder.setId(nextManufOrderId++);
+              return manufOrder;
+            });
+
+    ManufOrderRepository manufOrderRepo = mock(ManufOrderRepository.class);
+    when(manufOrderRepo.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+    SequenceService sequenceService = mock(SequenceService.class);
+    when(sequenceService.getSequenceNumbers(any(), any(), any(), any(), any()))
+        .thenAnswer(
+            invocation ->
+                IntStream.range(0, invocation.<List<?>>getArgument(4).size())
+                    .mapToObj(i -> "MO" + i)
+                    .collect(Collectors.toList()));
+
+    AppBaseService appBaseService = mock(AppBaseService.class);
+    when(appBaseService.getTodayDate(any())).thenReturn(LocalDate.of(2024, 3, 15));
+
+    generationService =
+        new MrpManufOrderGenerationServiceImpl(
+            null,
+            manufOrderRepo,
+            null,
+            manufOrderService,
+            manufOrderPlanService,
+            mock(ManufOrderCreatePurchaseOrderService.class),
+            null,
+            productionConfigService,
+            null,
+            null,
+            sequenceService,
+            appBaseService) {
+          @Override
+          protected List<MrpLine> fetchMrpLines(List<Long> mrpLineIdList) {
+            return fetchedMrpLineList;
+          }
+        };
+  }
+
+  private MrpLine createMrpLine(Long id) {
+    MrpLine mrpLine = new MrpLine();
+    mrpLine.setId(id);
+    mrpLine.setProduct(new Product());
+    mrpLine.setStockLocation(stockLocation);
+    mrpLine.setBillOfMaterial(billOfMaterial);
+    mrpLine.setMaturityDate(LocalDate.of(2024, 4, id.intValue()));
+    mrpLine.setQty(BigDecimal.TEN);
+    mrpLine.setProposalToProcess(true);
+    return mrpLine;
+  }
+
+  /** Generate the proposal as the MRP line and proposal services do for a single line. */
+  private void generateProposal(MrpLine mrpLine) throws AxelorException {
+    MrpLineServiceProductionImpl mrpLineService =
+        new MrpLineServiceProductionImpl(
+            null, null, null, null, null, null, null, null, null, null, null, null, null, null,
+            generationService);
+    mrpLineService.generateManufacturingProposal(mrpLine);
+    mrpLine.setProposalToProcess(false);
+  }
+
+  private void assertSameProposal(MrpLine expectedMrpLine, MrpLine mrpLine) {
+    Assertions.assertEquals(expectedMrpLine.getProposalSelect(), mrpLine.getProposalSelect());
+    Assertions.assertEquals(expectedMrpLine.getProposalGenerated(), mrpLine.getProposalGenerated());
+    Assertions.assertEquals(
+        expectedMrpLine.getProposalToProcess(), mrpLine.getProposalToProcess());
+  }
+
+  @Test
+  void testProposalFieldsAsSingleLineGeneration() throws AxelorException {
+    MrpLine expectedMrpLine = createMrpLine(1L);
+    generateProposal(expectedMrpLine);
+    Assertions.assertEquals(ManufOrder.class.getName(), expectedMrpLine.getProposalSelect());
+    Assertions.assertEquals(100L, expectedMrpLine.getProposalSelectId());
+    Assertions.assertTrue(expectedMrpLine.getProposalGenerated());
+    Assertions.assertFalse(expectedMrpLine.getProposalToProcess());
+
+    fetchedMrpLineList.add(createMrpLine(1L));
+    fetchedMrpLineList.add(createMrpLine(2L));
+    generationService.generateManufOrders(List.of(1L, 2L), new HashMap<>());
+
+    assertSameProposal(expectedMrpLine, fetchedMrpLineList.get(0));
+    assertSameProposal(expectedMrpLine, fetchedMrpLineList.get(1));
+    Assertions.assertEquals(101L, fetchedMrpLineList.get(0).getProposalSelectId());
+    Assertions.assertEquals(102L, fetchedMrpLineList.get(1).getProposalSelectId());
+  }
+}
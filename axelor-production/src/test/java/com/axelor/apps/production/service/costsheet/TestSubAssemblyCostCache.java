@@ -0,0 +1,207 @@
+/*
+ * Axelor Business Solutions
+ *
+ * Copyright (C) 2005-2025 Axelor (<http://axelor.com>).
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.axelor.apps.production.service.costsheet;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.axelor.apps.base.AxelorException;
+import com.axelor.apps.base.db.Company;
+import com.axelor.apps.base.db.Product;
+import com.axelor.apps.production.db.BillOfMaterial;
+import com.axelor.apps.production.db.BillOfMaterialLine;
+import com.axelor.apps.production.db.CostSheetLine;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class TestSubAssemblyCostCache {
+
+  private Company company;
+  private Map<Long, BigDecimal> unitCostMap;
+  private Map<Long, Integer> consumedLineCountMap;
+  private SubAssemblyCostCache subAssemblyCostCache;
+  private CostSheetServiceImpl costSheetService;
+
+  @BeforeEach
+  void prepare() throws AxelorException {
+    company = new Company();
+    company.setId(1L);
+    unitCostMap = new HashMap<>();
+    consumedLineCountMap = new HashMap<>();
+    subAssemblyCostCache = new SubAssemblyCostCache();
+
+    CostSheetLineService costSheetLineService = mock(CostSheetLineService.class);
+    when(costSheetLineService.createConsumedProductCostSheetLine(
+            any(), any(), any(), anyInt(), any(), any(), anyInt(), any()))
+        .thenAnswer(
+            invocation -> {
+              Product product = invocation.getArgument(1);
+              CostSheetLine parentCostSheetLine = invocation.getArgument(4);
+              BigDecimal qty = invocation.getArgument(5);
+              consumedLineCountMap.merge(product.getId(), 1, Integer::sum);
+
+              CostSheetLine costSheetLine = new CostSheetLine();
+              costSheetLine.setProduct(product);
+              costSheetLine.setBomLevel(invocation.getArgument(3));
+              costSheetLine.setCostPrice(qty.multiply(unitCostMap.get(product.getId())));
+              parentCostSheetLine.addCostSheetLineListItem(costSheetLine);
+              return costSheetLine;
+            });
+
+    costSheetService = new CostSheetServiceImpl(null, null, null, null, costSheetLineService, null);
+    costSheetService.subAssemblyCostCache = subAssemblyCostCache;
+  }
+
+  @Test
+  void testSharedSubAssemblyIsComputedOnce() throws AxelorException {
+    Product a = product(1L, "0");
+    Product s = product(2L, "100");
+    Product r1 = product(3L, "5");
+    Product r2 = product(4L, "3");
+    BillOfMaterial sBillOfMaterial = billOfMaterial(s, line(r1, "2", null), line(r2, "1", null));
+    BillOfMaterial aBillOfMaterial =
+        billOfMaterial(
+            a, line(s, "1", sBillOfMaterial), line(s, "1", sBillOfMaterial), line(r1, "1", null));
+
+    CostSheetLine producedCostSheetLine = computeConsumedProducts(aBillOfMaterial);
+
+    List<CostSheetLine> costSheetLineList = producedCostSheetLine.getCostSheetLineList();
+    Assertions.assertEquals(3, costSheetLineList.size());
+    assertCost("13", costSheetLineList.get(0).getCostPrice());
+    assertCost("13", costSheetLineList.get(1).getCostPrice());
+    assertCost("5", costSheetLineList.get(2).getCostPrice());
+    Assertions.assertFalse(costSheetService.hasChildren(costSheetLineList.get(0)));
+    Assertions.assertFalse(costSheetService.hasChildren(costSheetLineList.get(1)));
+    Assertions.assertEquals(1, consumedLineCountMap.get(r2.getId()));
+    assertCost("13", subAssemblyCostCache.get(sBillOfMaterial, company, s).get());
+  }
+
+  @Test
+  void testNestedSubAssemblyCostIsRolledUp() throws AxelorException {
+    Product a = product(1L, "0");
+    Product s = product(2L, "100");
+    Product t = product(3L, "50");
+    Product r1 = product(4L, "5");
+    Product r2 = product(5L, "3");
+    BillOfMaterial tBillOfMaterial = billOfMaterial(t, line(r2, "1", null));
+    BillOfMaterial sBillOfMaterial =
+        billOfMaterial(s, line(t, "1", tBillOfMaterial), line(r1, "2", null));
+    BillOfMaterial aBillOfMaterial = billOfMaterial(a, line(s, "1", sBillOfMaterial));
+
+    CostSheetLine producedCostSheetLine = computeConsumedProducts(aBillOfMaterial);
+
+    assertCost("13", producedCostSheetLine.getCostSheetLineList().get(0).getCostPrice());
+    assertCost("3", subAssemblyCostCache.get(tBillOfMaterial, company, t).get());
+    assertCost("13", subAssemblyCostCache.get(sBillOfMaterial, company, s).get());
+  }
+
+  @Test
+  void testCachedCostIsReused() throws AxelorException {
+    Product a = product(1L, "0");
+    Product s = product(2L, "100");
+    Product r1 = product(3L, "5");
+    BillOfMaterial sBillOfMaterial = billOfMaterial(s, line(r1, "2", null));
+    BillOfMaterial aBillOfMaterial = billOfMaterial(a, line(s, "1", sBillOfMaterial));
+    subAssemblyCostCache.put(sBillOfMaterial, company, s, new BigDecimal("42"));
+
+    CostSheetLine producedCostSheetLine = computeConsumedProducts(aBillOfMaterial);
+
+    assertCost("42", producedCostSheetLine.getCostSheetLineList().get(0).getCostPrice());
+    Assertions.assertNull(consumedLineCountMap.get(r1.getId()));
+  }
+
+  @Test
+  void testEmptySubAssemblyKeepsConsumedCost() throws AxelorException {
+    Product a = product(1L, "0");
+    Product s = product(2L, "100");
+    BillOfMaterial sBillOfMaterial = billOfMaterial(s);
+    BillOfMaterial aBillOfMaterial = billOfMaterial(a, line(s, "2", sBillOfMaterial));
+
+    CostSheetLine producedCostSheetLine = computeConsumedProducts(aBillOfMaterial);
+
+    assertCost("200", producedCostSheetLine.getCostSheetLineList().get(0).getCostPrice());
+    Assertions.assertEquals(
+        Optional.empty(), subAssemblyCostCache.get(sBillOfMaterial, company, s));
+  }
+
+  @Test
+  void testFirstCostIsKeptByKey() {
+    Product s = product(2L, "100");
+    BillOfMaterial sBillOfMaterial = billOfMaterial(s);
+    Company otherCompany = new Company();
+    otherCompany.setId(2L);
+
+    subAssemblyCostCache.put(sBillOfMaterial, company, s, BigDecimal.ONE);
+    subAssemblyCostCache.put(sBillOfMaterial, company, s, BigDecimal.TEN);
+    subAssemblyCostCache.put(sBillOfMaterial, null, s, BigDecimal.TEN);
+
+    assertCost("1", subAssemblyCostCache.get(sBillOfMaterial, company, s).get());
+    assertCost("10", subAssemblyCostCache.get(sBillOfMaterial, null, s).get());
+    Assertions.assertEquals(
+        Optional.empty(), subAssemblyCostCache.get(sBillOfMaterial, otherCompany, s));
+  }
+
+  private CostSheetLine computeConsumedProducts(BillOfMaterial billOfMaterial)
+      throws AxelorException {
+    CostSheetLine producedCostSheetLine = new CostSheetLine();
+    producedCostSheetLine.setProduct(billOfMaterial.getProduct());
+    producedCostSheetLine.setBomLevel(0);
+    costSheetService._computeToConsumeProduct(
+        company, billOfMaterial, 1, producedCostSheetLine, 0, null);
+    return producedCostSheetLine;
+  }
+
+  private void assertCost(String expected, BigDecimal costPrice) {
+    Assertions.assertEquals(0, new BigDecimal(expected).compareTo(costPrice));
+  }
+
+  private Product product(Long id, String unitCost) {
+    Product product = new Product();
+    product.setId(id);
+    unitCostMap.put(id, new BigDecimal(unitCost));
+    return product;
+  }
+
+  private BillOfMaterial billOfMaterial(Product product, BillOfMaterialLine... lines) {
+    BillOfMaterial billOfMaterial = new BillOfMaterial();
+    billOfMaterial.setId(product.getId());
+    billOfMaterial.setProduct(product);
+    billOfMaterial.setQty(BigDecimal.ONE);
+    billOfMaterial.setCalculationQty(BigDecimal.ONE);
+    billOfMaterial.setBillOfMaterialLineList(new ArrayList<>(List.of(lines)));
+    return billOfMaterial;
+  }
+
+  private BillOfMaterialLine line(Product product, String qty, BillOfMaterial subBillOfMaterial) {
+    BillOfMaterialLine billOfMaterialLine = new BillOfMaterialLine();
+    billOfMaterialLine.setProduct(product);
+    billOfMaterialLine.setQty(new BigDecimal(qty));
+    billOfMaterialLine.setBillOfMaterial(subBillOfMaterial);
+    return billOfMaterialLine;
+  }
+}
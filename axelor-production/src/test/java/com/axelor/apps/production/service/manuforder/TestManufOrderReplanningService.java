@@ -0,0 +1,269 @@
+/*
+ * Axelor Business Solutions
+ *
+ * Copyright (C) 2005-2025 Axelor (<http://axelor.com>).
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.axelor.apps.production.service.manuforder;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.axelor.apps.base.AxelorException;
+import com.axelor.apps.base.db.Product;
+import com.axelor.apps.base.service.app.AppBaseService;
+import com.axelor.apps.production.db.Machine;
+import com.axelor.apps.production.db.ManufOrder;
+import com.axelor.apps.production.db.OperationOrder;
+import com.axelor.apps.production.db.ProdProcessLine;
+import com.axelor.apps.production.db.repo.OperationOrderRepository;
+import com.axelor.apps.production.model.machine.MachineTimeSlot;
+import com.axelor.apps.production.service.machine.MachineService;
+import com.axelor.apps.production.service.operationorder.OperationOrderService;
+import com.google.common.collect.Lists;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.MockitoAnnotations;
+
+class TestManufOrderReplanningService {
+
+  private static final long DURATION = 3600;
+  private static final long TIME_BEFORE_NEXT_OPERATION = 600;
+  private static final LocalDateTime TODAY = LocalDateTime.of(2026, 1, 1, 8, 0);
+
+  private ManufOrderReplanningServiceImpl manufOrderReplanningService;
+
+  @Captor private ArgumentCaptor<List<OperationOrder>> sortedListCaptor;
+  @Captor private ArgumentCaptor<List<OperationOrder>> reversedListCaptor;
+  @Captor private ArgumentCaptor<LocalDateTime> startDateTCaptor;
+  @Captor private ArgumentCaptor<LocalDateTime> endDateTCaptor;
+
+  @BeforeEach
+  void prepare() throws AxelorException {
+    MockitoAnnotations.openMocks(this);
+    Comparator<OperationOrder> operationOrderComparator =
+        Comparator.comparing(OperationOrder::getPriority).thenComparing(OperationOrder::getId);
+
+    OperationOrderService operationOrderService = mock(OperationOrderService.class);
+    when(operationOrderService.getSortedOperationOrderList(sortedListCaptor.capture()))
+        .thenAnswer(
+            invocation ->
+                sortedListCaptor.getValue().stream()
+                    .sorted(operationOrderComparator)
+                    .collect(Collectors.toList()));
+    when(operationOrderService.getReversedSortedOperationOrderList(reversedListCaptor.capture()))
+        .thenAnswer(
+            invocation ->
+                Lists.reverse(
+                    reversedListCaptor.getValue().stream()
+                        .sorted(operationOrderComparator)
+                        .collect(Collectors.toList())));
+    when(operationOrderService.getDuration(any())).thenReturn(DURATION);
+
+    // The machines are always available
+    MachineService machineService = mock(MachineService.class);
+    when(machineService.getClosestTimeSlotFrom(
+            any(), startDateTCaptor.capture(), endDateTCaptor.capture(), any()))
+        .thenAnswer(
+            invocation ->
+                new MachineTimeSlot(startDateTCaptor.getValue(), endDateTCaptor.getValue()));
+    when(machineService.getFurthestTimeSlotFrom(
+            any(), startDateTCaptor.capture(), endDateTCaptor.capture(), any()))
+        .thenAnswer(
+            invocation ->
+                new MachineTimeSlot(startDateTCaptor.getValue(), endDateTCaptor.getValue()));
+
+    AppBaseService appBaseService = mock(AppBaseService.class);
+    when(appBaseService.getNbDecimalDigitForQty()).thenReturn(2);
+
+    manufOrderReplanningService =
+        new ManufOrderReplanningServiceImpl(
+            null, appBaseService, operationOrderService, null, machineService, null);
+  }
+
+  @Test
+  void testPlanAsapChainsOperationsWithWaitingTime() throws AxelorException {
+    ManufOrder manufOrder = manufOrder(1L, LocalDateTime.of(2026, 1, 5, 8, 0), null);
+    OperationOrder first = operationOrder(1L, 10, OperationOrderRepository.STATUS_PLANNED);
+    OperationOrder second = operationOrder(2L, 20, OperationOrderRepository.STATUS_PLANNED);
+    Map<OperationOrder, MachineTimeSlot> slotMap = new HashMap<>();
+
+    manufOrderReplanningService.planAsap(
+        manufOrder, Lists.newArrayList(second, first), false, TODAY, slotMap);
+
+    assertSlot(slotMap.get(first), LocalDateTime.of(2026, 1, 5, 8, 0));
+    assertSlot(slotMap.get(second), LocalDateTime.of(2026, 1, 5, 9, 10));
+  }
+
+  @Test
+  void testPlanAsapDoesNotStartBeforeToday() throws AxelorException {
+    ManufOrder manufOrder = manufOrder(1L, LocalDateTime.of(2025, 12, 1, 8, 0), null);
+    OperationOrder operationOrder = operationOrder(1L, 10, OperationOrderRepository.STATUS_PLANNED);
+    Map<OperationOrder, MachineTimeSlot> slotMap = new HashMap<>();
+
+    manufOrderReplanningService.planAsap(
+        manufOrder, Lists.newArrayList(operationOrder), false, TODAY, slotMap);
+
+    assertSlot(slotMap.get(operationOrder), TODAY);
+  }
+
+  @Test
+  void testPlanAtTheLatestChainsOperationsBackwards() throws AxelorException {
+    ManufOrder manufOrder = manufOrder(1L, null, LocalDateTime.of(2026, 1, 5, 18, 0));
+    OperationOrder first = operationOrder(1L, 10, OperationOrderRepository.STATUS_PLANNED);
+    OperationOrder second = operationOrder(2L, 20, OperationOrderRepository.STATUS_PLANNED);
+    Map<OperationOrder, MachineTimeSlot> slotMap = new HashMap<>();
+
+    manufOrderReplanningService.planAtTheLatest(
+        manufOrder, Lists.newArrayList(first, second), false, TODAY, slotMap);
+
+    assertSlot(slotMap.get(second), LocalDateTime.of(2026, 1, 5, 17, 0));
+    assertSlot(slotMap.get(first), LocalDateTime.of(2026, 1, 5, 15, 50));
+  }
+
+  @Test
+  void testPlanAsapChainsSamePriorityOnSameMachine() throws AxelorException {
+    ManufOrder manufOrder = manufOrder(1L, LocalDateTime.of(2026, 1, 5, 8, 0), null);
+    Machine machine = machine(1L);
+    OperationOrder first = operationOrder(1L, 10, OperationOrderRepository.STATUS_PLANNED);
+    OperationOrder second = operationOrder(2L, 10, OperationOrderRepository.STATUS_PLANNED);
+    OperationOrder otherMachine = operationOrder(3L, 10, OperationOrderRepository.STATUS_PLANNED);
+    first.setMachine(machine);
+    second.setMachine(machine);
+    otherMachine.setMachine(machine(2L));
+    Map<OperationOrder, MachineTimeSlot> slotMap = new HashMap<>();
+
+    manufOrderReplanningService.planAsap(
+        manufOrder, Lists.newArrayList(second, otherMachine, first), false, TODAY, slotMap);
+
+    assertSlot(slotMap.get(first), LocalDateTime.of(2026, 1, 5, 8, 0));
+    assertSlot(slotMap.get(second), LocalDateTime.of(2026, 1, 5, 9, 10));
+    assertSlot(slotMap.get(otherMachine), LocalDateTime.of(2026, 1, 5, 8, 0));
+  }
+
+  @Test
+  void testPlanAtTheLatestChainsSamePriorityOnSameMachine() throws AxelorException {
+    ManufOrder manufOrder = manufOrder(1L, null, LocalDateTime.of(2026, 1, 5, 18, 0));
+    Machine machine = machine(1L);
+    OperationOrder first = operationOrder(1L, 10, OperationOrderRepository.STATUS_PLANNED);
+    OperationOrder second = operationOrder(2L, 10, OperationOrderRepository.STATUS_PLANNED);
+    OperationOrder otherMachine = operationOrder(3L, 10, OperationOrderRepository.STATUS_PLANNED);
+    first.setMachine(machine);
+    second.setMachine(machine);
+    otherMachine.setMachine(machine(2L));
+    Map<OperationOrder, MachineTimeSlot> slotMap = new HashMap<>();
+
+    manufOrderReplanningService.planAtTheLatest(
+        manufOrder, Lists.newArrayList(first, otherMachine, second), false, TODAY, slotMap);
+
+    assertSlot(slotMap.get(second), LocalDateTime.of(2026, 1, 5, 17, 0));
+    assertSlot(slotMap.get(first), LocalDateTime.of(2026, 1, 5, 15, 50));
+    assertSlot(slotMap.get(otherMachine), LocalDateTime.of(2026, 1, 5, 17, 0));
+  }
+
+  @Test
+  void testPlanAtTheLatestBeforeTodayIsRejected() {
+    ManufOrder manufOrder = manufOrder(1L, null, TODAY.plusMinutes(30));
+    OperationOrder operationOrder = operationOrder(1L, 10, OperationOrderRepository.STATUS_PLANNED);
+    Map<OperationOrder, MachineTimeSlot> slotMap = new HashMap<>();
+
+    Assertions.assertThrows(
+        AxelorException.class,
+        () ->
+            manufOrderReplanningService.planAtTheLatest(
+                manufOrder, Lists.newArrayList(operationOrder), false, TODAY, slotMap));
+  }
+
+  @Test
+  void testOperationInProgressKeepsItsSlot() throws AxelorException {
+    ManufOrder manufOrder = manufOrder(1L, LocalDateTime.of(2026, 1, 5, 8, 0), null);
+    OperationOrder inProgress =
+        operationOrder(1L, 10, OperationOrderRepository.STATUS_IN_PROGRESS);
+    inProgress.setPlannedStartDateT(LocalDateTime.of(2026, 1, 6, 8, 0));
+    inProgress.setPlannedEndDateT(LocalDateTime.of(2026, 1, 6, 9, 0));
+    OperationOrder next = operationOrder(2L, 20, OperationOrderRepository.STATUS_PLANNED);
+    Map<OperationOrder, MachineTimeSlot> slotMap = new HashMap<>();
+
+    manufOrderReplanningService.planAsap(
+        manufOrder, Lists.newArrayList(inProgress, next), false, TODAY, slotMap);
+
+    assertSlot(slotMap.get(inProgress), LocalDateTime.of(2026, 1, 6, 8, 0));
+    assertSlot(slotMap.get(next), LocalDateTime.of(2026, 1, 6, 9, 10));
+  }
+
+  @Test
+  void testManufOrdersAreSortedByPriorityThenDate() {
+    ManufOrder late = manufOrder(1L, LocalDateTime.of(2026, 1, 10, 8, 0), null);
+    ManufOrder early = manufOrder(2L, LocalDateTime.of(2026, 1, 5, 8, 0), null);
+    ManufOrder urgent = manufOrder(3L, LocalDateTime.of(2026, 1, 20, 8, 0), null);
+    late.setPrioritySelect(2);
+    early.setPrioritySelect(2);
+    urgent.setPrioritySelect(4);
+    List<ManufOrder> manufOrderList = new ArrayList<>(List.of(late, early, urgent));
+
+    manufOrderList.sort(manufOrderReplanningService.getManufOrderComparator(true));
+
+    Assertions.assertEquals(List.of(urgent, early, late), manufOrderList);
+  }
+
+  private ManufOrder manufOrder(
+      Long id, LocalDateTime plannedStartDateT, LocalDateTime plannedEndDateT) {
+    Product product = new Product();
+    product.setFullName("Product");
+    ManufOrder manufOrder = new ManufOrder();
+    manufOrder.setId(id);
+    manufOrder.setQty(BigDecimal.ONE);
+    manufOrder.setProduct(product);
+    manufOrder.setPlannedStartDateT(plannedStartDateT);
+    manufOrder.setPlannedEndDateT(plannedEndDateT);
+    return manufOrder;
+  }
+
+  private Machine machine(Long id) {
+    Machine machine = new Machine();
+    machine.setId(id);
+    return machine;
+  }
+
+  private OperationOrder operationOrder(Long id, int priority, int statusSelect) {
+    ProdProcessLine prodProcessLine = new ProdProcessLine();
+    prodProcessLine.setTimeBeforeNextOperation(TIME_BEFORE_NEXT_OPERATION);
+    OperationOrder operationOrder = new OperationOrder();
+    operationOrder.setId(id);
+    operationOrder.setPriority(priority);
+    operationOrder.setStatusSelect(statusSelect);
+    operationOrder.setOutsourcing(false);
+    operationOrder.setProdProcessLine(prodProcessLine);
+    return operationOrder;
+  }
+
+  private void assertSlot(MachineTimeSlot slot, LocalDateTime startDateT) {
+    Assertions.assertNotNull(slot);
+    Assertions.assertEquals(startDateT, slot.getStartDateT());
+    Assertions.assertEquals(startDateT.plusSeconds(DURATION), slot.getEndDateT());
+  }
+}
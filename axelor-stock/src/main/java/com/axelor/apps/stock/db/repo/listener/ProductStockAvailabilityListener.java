@@ -0,0 +1,38 @@
+/*
+ * Axelor Business Solutions
+ *
+ * Copyright (C) 2005-2025 Axelor (<http://axelor.com>).
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.axelor.apps.stock.db.repo.listener;
+
+import com.axelor.apps.base.db.Product;
+import com.axelor.apps.stock.service.StockAvailabilityService;
+import com.axelor.inject.Beans;
+import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
+
+/**
+ * Discards the quantities kept in memory for a modified product, as its unit or its stock managed
+ * flag may have changed.
+ */
+public class ProductStockAvailabilityListener {
+
+  @PostUpdate
+  @PostRemove
+  protected void invalidateStockAvailability(Product product) {
+    Beans.get(StockAvailabilityService.class).invalidateProduct(product.getId());
+  }
+}
@@ -0,0 +1,75 @@
+/*
+ * Axelor Business Solutions
+ *
+ * Copyright (C) 2005-2025 Axelor (<http://axelor.com>).
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.axelor.apps.stock.db.repo.listener;
+
+import com.axelor.apps.stock.db.StockLocation;
+import com.axelor.apps.stock.service.StockAvailabilityService;
+import com.axelor.apps.stock.service.StockLocationTreeService;
+import com.axelor.db.JPA;
+import com.axelor.inject.Beans;
+import javax.persistence.PostPersist;
+import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
+import javax.transaction.Synchronization;
+import org.hibernate.Session;
+import org.hibernate.Transaction;
+
+/**
+ * Discards the stock location hierarchy and the stock availability kept in memory when a stock
+ * location is modified, as its parent, company or type may have changed. They are discarded again
+ * once the transaction is completed, as another thread may have reloaded them in the meantime
+ * from the former stock locations.
+ */
+public class StockLocationTreeListener {
+
+  /** Whether the current transaction already discards them on completion. */
+  protected static final ThreadLocal<Boolean> isPending = new ThreadLocal<>();
+
+  @PostPersist
+  @PostUpdate
+  @PostRemove
+  protected void invalidateStockLocationTree(StockLocation stockLocation) {
+    invalidate();
+    if (Boolean.TRUE.equals(isPending.get())) {
+      return;
+    }
+
+    Transaction transaction = JPA.em().unwrap(Session.class).getTransaction();
+    if (!transaction.isActive()) {
+      return;
+    }
+    isPending.set(true);
+    transaction.registerSynchronization(
+        new Synchronization() {
+          @Override
+          public void beforeCompletion() {}
+
+          @Override
+          public void afterCompletion(int status) {
+            isPending.remove();
+            invalidate();
+          }
+        });
+  }
+
+  protected void invalidate() {
+    Beans.get(StockLocationTreeService.class).invalidate();
+    Beans.get(StockAvailabilityService.class).invalidateAll();
+  }
+}
@@ -349,4 +349,22 @@ public final class StockExceptionMessage {
 
   public static final String STOCK_MOVE_MASS_NO_FROM_STOCK_LOCATION_SELECTED = /*$$(*/
       "No stock location has been selected." /*)*/;
+
+  public static final String STOCK_LOCATION_LINE_LOCK_TIMEOUT = /*$$(*/
+      "The stock is being updated by another operation on the same products, please try again." /*)*/;
+
+  public static final String BATCH_RECOMPUTE_STOCK_LOCATION_LINES_DIFFERENCES = /*$$(*/
+      "%s stock location line(s) differ from the stock moves." /*)*/;
+
+  public static final String BATCH_RECOMPUTE_STOCK_LOCATION_LINES_UPDATED = /*$$(*/
+      "%s stock location line(s) updated." /*)*/;
+
+  public static final String BATCH_RECOMPUTE_STOCK_LOCATION_LINES_DIFFERENCE = /*$$(*/
+      "%s, %s: current qty %s instead of %s, future qty %s instead of %s, WAP %s instead of %s" /*)*/;
+
+  public static final String BATCH_RECOMPUTE_WAP_UPDATED = /*$$(*/
+      "%s stock location line(s) with a corrected WAP." /*)*/;
+
+  public static final String BATCH_RECOMPUTE_STOCK_LOCATION_LINES_CONCURRENT_UPDATE = /*$$(*/
+      "%s stock location line(s) were modified during the recomputation, nothing was saved for these products, please run it again." /*)*/;
 }
@@ -68,10 +68,14 @@ import com.axelor.apps.stock.service.PartnerProductQualityRatingService;
 import com.axelor.apps.stock.service.PartnerProductQualityRatingServiceImpl;
 import com.axelor.apps.stock.service.PartnerStockSettingsService;
 import com.axelor.apps.stock.service.PartnerStockSettingsServiceImpl;
+import com.axelor.apps.stock.service.StockAvailabilityService;
+import com.axelor.apps.stock.service.StockAvailabilityServiceImpl;
 import com.axelor.apps.stock.service.StockCorrectionService;
 import com.axelor.apps.stock.service.StockCorrectionServiceImpl;
 import com.axelor.apps.stock.service.StockHistoryService;
 import com.axelor.apps.stock.service.StockHistoryServiceImpl;
+import com.axelor.apps.stock.service.StockLedgerService;
+import com.axelor.apps.stock.service.StockLedgerServiceImpl;
 import com.axelor.apps.stock.service.StockLocationAttrsService;
 import com.axelor.apps.stock.service.StockLocationAttrsServiceImpl;
 import com.axelor.apps.stock.service.StockLocationDomainService;
@@ -80,12 +84,16 @@ import com.axelor.apps.stock.service.StockLocationLineFetchService;
 import com.axelor.apps.stock.service.StockLocationLineFetchServiceImpl;
 import com.axelor.apps.stock.service.StockLocationLineHistoryService;
 import com.axelor.apps.stock.service.StockLocationLineHistoryServiceImpl;
+import com.axelor.apps.stock.service.StockLocationLineLockService;
+import com.axelor.apps.stock.service.StockLocationLineLockServiceImpl;
 import com.axelor.apps.stock.service.StockLocationLineService;
 import com.axelor.apps.stock.service.StockLocationLineServiceImpl;
 import com.axelor.apps.stock.service.StockLocationPrintService;
 import com.axelor.apps.stock.service.StockLocationPrintServiceImpl;
 import com.axelor.apps.stock.service.StockLocationService;
 import com.axelor.apps.stock.service.StockLocationServiceImpl;
+import com.axelor.apps.stock.service.StockLocationTreeService;
+import com.axelor.apps.stock.service.StockLocationTreeServiceImpl;
 import com.axelor.apps.stock.service.StockMoveCheckWapService;
 import com.axelor.apps.stock.service.StockMoveCheckWapServiceImpl;
 import com.axelor.apps.stock.service.StockMoveLineService;
@@ -114,6 +122,10 @@ import com.axelor.apps.stock.service.WeightedAveragePriceService;
 import com.axelor.apps.stock.service.WeightedAveragePriceServiceImpl;
 import com.axelor.apps.stock.service.app.AppStockService;
 import com.axelor.apps.stock.service.app.AppStockServiceImpl;
+import com.axelor.apps.stock.service.batch.StockLocationLineRecomputeService;
+import com.axelor.apps.stock.service.batch.StockLocationLineRecomputeServiceImpl;
+import com.axelor.apps.stock.service.batch.WapRecomputeService;
+import com.axelor.apps.stock.service.batch.WapRecomputeServiceImpl;
 import com.axelor.apps.stock.service.massstockmove.MassStockMovableProductAttrsService;
 import com.axelor.apps.stock.service.massstockmove.MassStockMovableProductAttrsServiceImpl;
 import com.axelor.apps.stock.service.massstockmove.MassStockMovableProductCancelService;
@@ -221,5 +233,11 @@ public class StockModule extends AxelorModule {
     bind(StoredProductService.class).to(StoredProductServiceImpl.class);
     bind(LogisticalFormSequenceService.class).to(LogisticalFormSequenceServiceImpl.class);
     bind(TrackingNumberCompanyService.class).to(TrackingNumberCompanyServiceImpl.class);
+    bind(StockLedgerService.class).to(StockLedgerServiceImpl.class);
+    bind(StockLocationTreeService.class).to(StockLocationTreeServiceImpl.class);
+    bind(StockLocationLineLockService.class).to(StockLocationLineLockServiceImpl.class);
+    bind(StockLocationLineRecomputeService.class).to(StockLocationLineRecomputeServiceImpl.class);
+    bind(WapRecomputeService.class).to(WapRecomputeServiceImpl.class);
+    bind(StockAvailabilityService.class).to(StockAvailabilityServiceImpl.class);
   }
 }
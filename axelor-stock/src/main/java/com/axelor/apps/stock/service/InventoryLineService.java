@@ -53,6 +53,28 @@ public interface InventoryLineService {
   public InventoryLine compute(InventoryLine inventoryLine, Inventory inventory)
       throws AxelorException;
 
+  /**
+   * Compute the unit, gap and valuations of the inventory line with an already known valuation
+   * price.
+   *
+   * @param inventoryLine an inventory line with a product
+   * @param valuationPrice the price given by {@link #getValuationPrice(Inventory, Product)}
+   * @return the computed inventory line
+   */
+  public InventoryLine compute(InventoryLine inventoryLine, BigDecimal valuationPrice);
+
+  /**
+   * Get the unit price used to value the given product in the inventory, depending on the
+   * inventory valuation type of the stock configuration.
+   *
+   * @param inventory an inventory
+   * @param product a product
+   * @return the valuation price
+   * @throws AxelorException if the stock configuration is missing
+   */
+  public BigDecimal getValuationPrice(Inventory inventory, Product product)
+      throws AxelorException;
+
   public BigDecimal getCurrentQty(StockLocation stockLocation, Product product);
 
   public void updateInventoryLine(
@@ -147,69 +147,72 @@ public class InventoryLineServiceImpl implements InventoryLineService {
   public InventoryLine compute(InventoryLine inventoryLine, Inventory inventory)
       throws AxelorException {
 
-    StockLocation stockLocation = inventory.getStockLocation();
     Product product = inventoryLine.getProduct();
-    StockLocationLine stockLocationLine =
-        stockLocationLineFetchService.getStockLocationLine(stockLocation, product);
 
     if (product != null) {
-      inventoryLine.setUnit(product.getUnit());
-
-      BigDecimal gap =
-          inventoryLine.getRealQty() != null
-              ? inventoryLine
-                  .getRealQty()
-                  .subtract(inventoryLine.getCurrentQty())
-                  .setScale(2, RoundingMode.HALF_UP)
-              : BigDecimal.ZERO;
-      inventoryLine.setGap(gap);
-
-      BigDecimal price;
-      int inventoryValuationTypeSelect =
-          stockConfigService
-              .getStockConfig(stockLocation.getCompany())
-              .getInventoryValuationTypeSelect();
-
-      BigDecimal productAvgPrice =
-          (BigDecimal)
-              productCompanyService.get(
-                  product, "avgPrice", inventory.getStockLocation().getCompany());
-
-      switch (inventoryValuationTypeSelect) {
-        case StockConfigRepository.VALUATION_TYPE_WAP_VALUE:
-          price = productAvgPrice;
-          break;
-        case StockConfigRepository.VALUATION_TYPE_ACCOUNTING_VALUE:
-          price = product.getCostPrice();
-          break;
-        case StockConfigRepository.VALUATION_TYPE_SALE_VALUE:
-          price = product.getSalePrice();
-          break;
-        case StockConfigRepository.VALUATION_TYPE_PURCHASE_VALUE:
-          price = product.getPurchasePrice();
-          break;
-        case StockConfigRepository.VALUATION_TYPE_WAP_STOCK_LOCATION_VALUE:
-          if (stockLocationLine != null) {
-            price = stockLocationLine.getAvgPrice();
-          } else {
-            price = productAvgPrice;
-          }
-          break;
-        default:
-          price = productAvgPrice;
-          break;
-      }
-
-      inventoryLine.setGapValue(gap.multiply(price).setScale(2, RoundingMode.HALF_UP));
-      inventoryLine.setRealValue(
-          inventoryLine.getRealQty() != null
-              ? inventoryLine.getRealQty().multiply(price).setScale(2, RoundingMode.HALF_UP)
-              : BigDecimal.ZERO);
+      compute(inventoryLine, getValuationPrice(inventory, product));
     }
 
     return inventoryLine;
   }
 
+  @Override
+  public InventoryLine compute(InventoryLine inventoryLine, BigDecimal valuationPrice) {
+
+    inventoryLine.setUnit(inventoryLine.getProduct().getUnit());
+
+    BigDecimal gap =
+        inventoryLine.getRealQty() != null
+            ? inventoryLine
+                .getRealQty()
+                .subtract(inventoryLine.getCurrentQty())
+                .setScale(2, RoundingMode.HALF_UP)
+            : BigDecimal.ZERO;
+    inventoryLine.setGap(gap);
+
+    inventoryLine.setGapValue(gap.multiply(valuationPrice).setScale(2, RoundingMode.HALF_UP));
+    inventoryLine.setRealValue(
+        inventoryLine.getRealQty() != null
+            ? inventoryLine.getRealQty().multiply(valuationPrice).setScale(2, RoundingMode.HALF_UP)
+            : BigDecimal.ZERO);
+
+    return inventoryLine;
+  }
+
+  @Override
+  public BigDecimal getValuationPrice(Inventory inventory, Product product)
+      throws AxelorException {
+
+    StockLocation stockLocation = inventory.getStockLocation();
+    int inventoryValuationTypeSelect =
+        stockConfigService
+            .getStockConfig(stockLocation.getCompany())
+            .getInventoryValuationTypeSelect();
+
+    BigDecimal productAvgPrice =
+        (BigDecimal) productCompanyService.get(product, "avgPrice", stockLocation.getCompany());
+
+    switch (inventoryValuationTypeSelect) {
+      case StockConfigRepository.VALUATION_TYPE_WAP_VALUE:
+        return productAvgPrice;
+      case StockConfigRepository.VALUATION_TYPE_ACCOUNTING_VALUE:
+        return product.getCostPrice();
+      case StockConfigRepository.VALUATION_TYPE_SALE_VALUE:
+        return product.getSalePrice();
+      case StockConfigRepository.VALUATION_TYPE_PURCHASE_VALUE:
+        return product.getPurchasePrice();
+      case StockConfigRepository.VALUATION_TYPE_WAP_STOCK_LOCATION_VALUE:
+        StockLocationLine stockLocationLine =
+            stockLocationLineFetchService.getStockLocationLine(stockLocation, product);
+        if (stockLocationLine != null) {
+          return stockLocationLine.getAvgPrice();
+        }
+        return productAvgPrice;
+      default:
+        return productAvgPrice;
+    }
+  }
+
   @Override
   public BigDecimal getCurrentQty(StockLocation stockLocation, Product product) {
     BigDecimal currentQty = BigDecimal.ZERO;
@@ -26,6 +26,7 @@ import com.axelor.apps.base.db.Company;
 import com.axelor.apps.base.db.Product;
 import com.axelor.apps.base.db.ProductCategory;
 import com.axelor.apps.base.db.ProductFamily;
+import com.axelor.apps.base.db.Unit;
 import com.axelor.apps.base.db.repo.ProductRepository;
 import com.axelor.apps.base.db.repo.SequenceRepository;
 import com.axelor.apps.base.db.repo.TraceBackRepository;
@@ -48,6 +49,8 @@ import com.axelor.apps.stock.exception.StockExceptionMessage;
 import com.axelor.apps.stock.service.config.StockConfigService;
 import com.axelor.auth.AuthUtils;
 import com.axelor.common.ObjectUtils;
+import com.axelor.common.csv.CSVFile;
+import com.axelor.db.JPA;
 import com.axelor.db.Query;
 import com.axelor.i18n.I18n;
 import com.axelor.i18n.L10n;
@@ -55,8 +58,8 @@ import com.axelor.inject.Beans;
 import com.axelor.meta.MetaFiles;
 import com.axelor.meta.db.MetaFile;
 import com.axelor.utils.helpers.StringHtmlListBuilder;
-import com.axelor.utils.helpers.file.CsvHelper;
 import com.google.common.base.Strings;
+import com.google.common.collect.Iterables;
 import com.google.inject.Inject;
 import com.google.inject.persist.Transactional;
 import java.io.File;
@@ -66,22 +69,33 @@ import java.io.InputStream;
 import java.lang.invoke.MethodHandles;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
+import java.sql.PreparedStatement;
 import java.time.LocalDate;
 import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
 import org.apache.commons.collections.CollectionUtils;
+import org.apache.commons.csv.CSVParser;
 import org.apache.commons.csv.CSVRecord;
 import org.apache.commons.lang3.LocaleUtils;
 import org.apache.commons.lang3.StringUtils;
@@ -107,6 +121,10 @@ public class InventoryService {
 
   static final int INVENTORY_LINE_WITHOUT_STOCK_LOCATION_DISPLAY_LIMIT = 15;
 
+  static final int INVENTORY_LINE_BATCH_SIZE = 500;
+
+  static final int ID_CHUNK_SIZE = 1000;
+
   protected InventoryLineRepository inventoryLineRepository;
   protected InventoryLineService inventoryLineService;
   protected SequenceService sequenceService;
@@ -121,6 +139,7 @@ public class InventoryService {
   protected TrackingNumberRepository trackingNumberRepository;
   protected AppBaseService appBaseService;
   protected StockLocationRepository stockLocationRepository;
+  protected StockLocationTreeService stockLocationTreeService;
 
   @Inject
   public InventoryService(
@@ -137,7 +156,8 @@ public class InventoryService {
       TrackingNumberRepository trackingNumberRepository,
       AppBaseService appBaseService,
       StockLocationRepository stockLocationRepository,
-      InventoryLineRepository inventoryLineRepository) {
+      InventoryLineRepository inventoryLineRepository,
+      StockLocationTreeService stockLocationTreeService) {
     this.inventoryLineService = inventoryLineService;
     this.sequenceService = sequenceService;
     this.stockConfigService = stockConfigService;
@@ -152,6 +172,7 @@ public class InventoryService {
     this.appBaseService = appBaseService;
     this.stockLocationRepository = stockLocationRepository;
     this.inventoryLineRepository = inventoryLineRepository;
+    this.stockLocationTreeService = stockLocationTreeService;
   }
 
   public Inventory createInventory(
@@ -214,78 +235,303 @@ public class InventoryService {
   @Transactional(rollbackOn = {Exception.class})
   public Path importFile(Inventory inventory) throws AxelorException {
 
-    HashMap<String, InventoryLine> inventoryLineMap = this.getInventoryLines(inventory);
-
+    Long inventoryId = inventory.getId();
     Path filePath = MetaFiles.getPath(inventory.getImportFile());
-    List<CSVRecord> data = this.getDatas(filePath);
 
-    inventory.clearInventoryLineList();
+    Set<Long> removedInventoryLineIdSet = new HashSet<>();
+    Map<String, Object[]> inventoryLineMap =
+        this.getInventoryLineRows(inventoryId, removedInventoryLineIdSet);
+    Map<String, Long> stockLocationIdMap = new HashMap<>();
+    Map<Long, BigDecimal> valuationPriceMap = new HashMap<>();
+    boolean isEmpty = true;
+
+    CSVFile csvFormat = CSVFile.DEFAULT.withDelimiter(';').withFirstRecordAsHeader();
+    try (CSVParser csvParser = csvFormat.parse(filePath.toFile(), StandardCharsets.UTF_8)) {
+      for (List<CSVRecord> lines : Iterables.partition(csvParser, INVENTORY_LINE_BATCH_SIZE)) {
+        isEmpty = false;
+        importInventoryLines(
+            inventoryRepo.find(inventoryId),
+            lines,
+            inventoryLineMap,
+            removedInventoryLineIdSet,
+            stockLocationIdMap,
+            valuationPriceMap);
+        JPA.clear();
+      }
+    } catch (IOException | IllegalStateException e) {
+      throw new AxelorException(
+          e,
+          TraceBackRepository.CATEGORY_CONFIGURATION_ERROR,
+          I18n.get(StockExceptionMessage.INVENTORY_5));
+    }
 
-    for (CSVRecord line : data) {
-      inventory.addInventoryLineListItem(createInventoryLine(inventory, inventoryLineMap, line));
+    if (isEmpty) {
+      throw new AxelorException(
+          new Throwable(I18n.get(StockExceptionMessage.INVENTORY_3_DATA_NULL_OR_EMPTY)),
+          TraceBackRepository.CATEGORY_CONFIGURATION_ERROR,
+          I18n.get(StockExceptionMessage.INVENTORY_3));
     }
 
-    inventoryRepo.save(inventory);
+    // Lines missing from the file are removed, as the file replaces the inventory lines.
+    for (List<Long> idChunk : Iterables.partition(removedInventoryLineIdSet, ID_CHUNK_SIZE)) {
+      JPA.em()
+          .createQuery("DELETE FROM InventoryLine self WHERE self.id IN (:ids)")
+          .setParameter("ids", idChunk)
+          .executeUpdate();
+    }
 
     return filePath;
   }
 
-  protected InventoryLine createInventoryLine(
-      Inventory inventory, HashMap<String, InventoryLine> inventoryLineMap, CSVRecord line)
+  /**
+   * Import a chunk of lines of the inventory file. Lines matching an existing inventory line are
+   * written with one batched statement, other lines create new inventory lines.
+   *
+   * @param inventory the inventory being imported
+   * @param lines a chunk of the file lines
+   * @param inventoryLineMap the existing inventory lines not matched yet, see {@link
+   *     #getInventoryLineRows(Long, Set)}
+   * @param removedInventoryLineIdSet ids of the existing inventory lines not matched yet
+   * @param stockLocationIdMap the stock location ids already found by name
+   * @param valuationPriceMap the valuation prices already computed by product id
+   * @throws AxelorException if a line of the file is invalid
+   */
+  protected void importInventoryLines(
+      Inventory inventory,
+      List<CSVRecord> lines,
+      Map<String, Object[]> inventoryLineMap,
+      Set<Long> removedInventoryLineIdSet,
+      Map<String, Long> stockLocationIdMap,
+      Map<Long, BigDecimal> valuationPriceMap)
       throws AxelorException {
-    if (line.size() < 6) {
-      throw new AxelorException(
-          new Throwable(I18n.get(StockExceptionMessage.INVENTORY_3_LINE_LENGHT)),
-          inventory,
-          TraceBackRepository.CATEGORY_CONFIGURATION_ERROR,
-          I18n.get(StockExceptionMessage.INVENTORY_3));
+
+    Set<String> codeSet = new HashSet<>();
+    Set<Long> stockLocationIdSet = new HashSet<>();
+    for (CSVRecord line : lines) {
+      if (line.size() >= 6) {
+        codeSet.add(line.get(PRODUCT_CODE).replace("\"", ""));
+        Long stockLocationId =
+            getStockLocationId(line.get(STOCK_LOCATION).replace("\"", ""), stockLocationIdMap);
+        if (stockLocationId != null) {
+          stockLocationIdSet.add(stockLocationId);
+        }
+      }
     }
+    Map<String, List<Product>> productMap = getProductMap(codeSet);
+    Set<List<Long>> stockLocationProductSet =
+        getStockLocationProductSet(stockLocationIdSet, productMap);
+
+    Map<Long, InventoryLine> updatedInventoryLineMap = new LinkedHashMap<>();
+    for (CSVRecord line : lines) {
+      if (line.size() < 6) {
+        throw new AxelorException(
+            new Throwable(I18n.get(StockExceptionMessage.INVENTORY_3_LINE_LENGHT)),
+            inventory,
+            TraceBackRepository.CATEGORY_CONFIGURATION_ERROR,
+            I18n.get(StockExceptionMessage.INVENTORY_3));
+      }
 
-    String code = line.get(PRODUCT_CODE).replace("\"", "");
-    String rack = line.get(RACK).replace("\"", "");
-    String trackingNumberSeq = line.get(TRACKING_NUMBER).replace("\"", "");
-    String description = line.get(DESCRIPTION).replace("\"", "");
-    String stockLocationName = line.get(STOCK_LOCATION).replace("\"", "");
-    StockLocation stockLocation = null;
-    if (stockLocationName != null) {
-      stockLocation = stockLocationRepository.findByName(stockLocationName);
+      String code = line.get(PRODUCT_CODE).replace("\"", "");
+      String rack = line.get(RACK).replace("\"", "");
+      String trackingNumberSeq = line.get(TRACKING_NUMBER).replace("\"", "");
+      String description = line.get(DESCRIPTION).replace("\"", "");
+      String stockLocationName = line.get(STOCK_LOCATION).replace("\"", "");
+      Long stockLocationId = stockLocationIdMap.get(stockLocationName);
+      String key = code + trackingNumberSeq + stockLocationName;
+      BigDecimal realQty = getRealQty(inventory, line);
+      BigDecimal currentQty = getCurrentQty(inventory, line);
+      Product product = getProduct(inventory, code, productMap);
+      BigDecimal price = getPrice(line.get(PRICE));
+
+      if (!product.getProductTypeSelect().equals(ProductRepository.PRODUCT_TYPE_STORABLE)) {
+        throw new AxelorException(
+            inventory,
+            TraceBackRepository.CATEGORY_CONFIGURATION_ERROR,
+            I18n.get(StockExceptionMessage.INVENTORY_4) + " " + code);
+      }
+
+      if (stockLocationProductSet.contains(Arrays.asList(stockLocationId, product.getId()))) {
+        price = BigDecimal.ZERO;
+      }
+
+      Object[] inventoryLineRow = inventoryLineMap.remove(key);
+      if (inventoryLineRow != null) {
+        Long inventoryLineId = (Long) inventoryLineRow[0];
+        removedInventoryLineIdSet.remove(inventoryLineId);
+
+        InventoryLine inventoryLine = new InventoryLine();
+        inventoryLine.setProduct(product);
+        inventoryLine.setCurrentQty((BigDecimal) inventoryLineRow[1]);
+        inventoryLine.setRealQty(realQty);
+        inventoryLine.setDescription(description);
+        inventoryLine.setPrice(price);
+        inventoryLineService.compute(
+            inventoryLine, getValuationPrice(inventory, product, valuationPriceMap));
+        updatedInventoryLineMap.put(inventoryLineId, inventoryLine);
+      } else {
+        InventoryLine inventoryLine =
+            createInventoryLine(
+                inventory,
+                rack,
+                trackingNumberSeq,
+                description,
+                realQty,
+                currentQty,
+                product,
+                stockLocationId != null ? stockLocationRepository.find(stockLocationId) : null);
+        inventoryLine.setPrice(price);
+        inventoryLineRepository.save(inventoryLine);
+      }
     }
-    String key = code + trackingNumberSeq + stockLocationName;
-    BigDecimal realQty = getRealQty(inventory, line);
-    BigDecimal currentQty = getCurrentQty(inventory, line);
-    Product product = getProduct(inventory, code);
-    BigDecimal price = getPrice(line.get(PRICE));
-
-    if (product == null
-        || !product.getProductTypeSelect().equals(ProductRepository.PRODUCT_TYPE_STORABLE)) {
-      throw new AxelorException(
-          inventory,
-          TraceBackRepository.CATEGORY_CONFIGURATION_ERROR,
-          I18n.get(StockExceptionMessage.INVENTORY_4) + " " + code);
+
+    JPA.flush();
+    saveInventoryLines(updatedInventoryLineMap);
+  }
+
+  /**
+   * Fetch the lines of the inventory, keyed like the lines of an imported file by product code,
+   * tracking number and stock location name.
+   *
+   * @param inventoryId the id of the inventory
+   * @param inventoryLineIdSet filled with the ids of all the lines of the inventory
+   * @return rows of id and current quantity, by key
+   */
+  protected Map<String, Object[]> getInventoryLineRows(
+      Long inventoryId, Set<Long> inventoryLineIdSet) {
+    TypedQuery<Object[]> query =
+        JPA.em()
+            .createQuery(
+                "SELECT self.id, self.currentQty, product.code,"
+                    + " trackingNumber.trackingNumberSeq, stockLocation.name"
+                    + " FROM InventoryLine self"
+                    + " LEFT JOIN self.product product"
+                    + " LEFT JOIN self.trackingNumber trackingNumber"
+                    + " LEFT JOIN self.stockLocation stockLocation"
+                    + " WHERE self.inventory.id = :inventoryId"
+                    + " ORDER BY self.id",
+                Object[].class)
+            .setParameter("inventoryId", inventoryId)
+            .setHint("org.hibernate.fetchSize", INVENTORY_LINE_BATCH_SIZE)
+            .setHint("org.hibernate.readOnly", true);
+
+    Map<String, Object[]> inventoryLineMap = new HashMap<>();
+    try (Stream<Object[]> rows = query.getResultStream()) {
+      rows.forEach(
+          row -> {
+            String key =
+                Strings.nullToEmpty((String) row[2])
+                    + Strings.nullToEmpty((String) row[3])
+                    + Strings.nullToEmpty((String) row[4]);
+            inventoryLineMap.put(key, row);
+            inventoryLineIdSet.add((Long) row[0]);
+          });
     }
+    return inventoryLineMap;
+  }
 
-    InventoryLine inventoryLine;
-    if (inventoryLineMap.containsKey(key)) {
-      inventoryLine =
-          copyAndEditInventoryLine(inventoryLineMap.get(key), description, realQty, price);
-    } else {
-      inventoryLine =
-          createInventoryLine(
-              inventory,
-              rack,
-              trackingNumberSeq,
-              description,
-              realQty,
-              currentQty,
-              product,
-              stockLocation);
-      inventoryLine.setPrice(price);
+  /**
+   * Write the imported values of existing inventory lines with batched JDBC statements. The version
+   * is incremented so that concurrent edits of the same lines fail instead of overwriting them.
+   *
+   * @param inventoryLineMap the computed values, by inventory line id
+   */
+  protected void saveInventoryLines(Map<Long, InventoryLine> inventoryLineMap) {
+    if (inventoryLineMap.isEmpty()) {
+      return;
     }
 
-    if (inventoryLineService.isPresentInStockLocation(inventoryLine)) {
-      inventoryLine.setPrice(BigDecimal.ZERO);
+    JPA.jdbcWork(
+        connection -> {
+          try (PreparedStatement statement =
+              connection.prepareStatement(
+                  "UPDATE stock_inventory_line"
+                      + " SET real_qty = ?, description = ?, price = ?, gap = ?, gap_value = ?,"
+                      + " real_value = ?, version = version + 1"
+                      + " WHERE id = ?")) {
+            for (Map.Entry<Long, InventoryLine> entry : inventoryLineMap.entrySet()) {
+              InventoryLine inventoryLine = entry.getValue();
+              statement.setBigDecimal(1, inventoryLine.getRealQty());
+              statement.setString(2, inventoryLine.getDescription());
+              statement.setBigDecimal(3, inventoryLine.getPrice());
+              statement.setBigDecimal(4, inventoryLine.getGap());
+              statement.setBigDecimal(5, inventoryLine.getGapValue());
+              statement.setBigDecimal(6, inventoryLine.getRealValue());
+              statement.setLong(7, entry.getKey());
+              statement.addBatch();
+            }
+            statement.executeBatch();
+          }
+        });
+  }
+
+  protected Long getStockLocationId(
+      String stockLocationName, Map<String, Long> stockLocationIdMap) {
+    if (!stockLocationIdMap.containsKey(stockLocationName)) {
+      StockLocation stockLocation = stockLocationRepository.findByName(stockLocationName);
+      stockLocationIdMap.put(
+          stockLocationName, stockLocation != null ? stockLocation.getId() : null);
     }
-    return inventoryLine;
+    return stockLocationIdMap.get(stockLocationName);
+  }
+
+  protected Map<String, List<Product>> getProductMap(Collection<String> codes) {
+    Map<String, List<Product>> productMap = new HashMap<>();
+    if (codes.isEmpty()) {
+      return productMap;
+    }
+    for (Product product :
+        productRepo
+            .all()
+            .filter("self.code IN (:codes) AND self.dtype = 'Product'")
+            .bind("codes", codes)
+            .fetch()) {
+      productMap.computeIfAbsent(product.getCode(), code -> new ArrayList<>()).add(product);
+    }
+    return productMap;
+  }
+
+  /**
+   * Find which of the given products have a stock location line in the given stock locations.
+   *
+   * @return the (stock location id, product id) pairs having a stock location line
+   */
+  protected Set<List<Long>> getStockLocationProductSet(
+      Collection<Long> stockLocationIds, Map<String, List<Product>> productMap) {
+    Set<List<Long>> stockLocationProductSet = new HashSet<>();
+    if (stockLocationIds.isEmpty() || productMap.isEmpty()) {
+      return stockLocationProductSet;
+    }
+
+    List<Long> productIds =
+        productMap.values().stream()
+            .flatMap(List::stream)
+            .map(Product::getId)
+            .collect(Collectors.toList());
+    List<Object[]> rows =
+        JPA.em()
+            .createQuery(
+                "SELECT self.stockLocation.id, self.product.id FROM StockLocationLine self"
+                    + " WHERE self.stockLocation.id IN (:stockLocationIds)"
+                    + " AND self.product.id IN (:productIds)",
+                Object[].class)
+            .setParameter("stockLocationIds", stockLocationIds)
+            .setParameter("productIds", productIds)
+            .getResultList();
+    for (Object[] row : rows) {
+      stockLocationProductSet.add(Arrays.asList((Long) row[0], (Long) row[1]));
+    }
+    return stockLocationProductSet;
+  }
+
+  protected BigDecimal getValuationPrice(
+      Inventory inventory, Product product, Map<Long, BigDecimal> valuationPriceMap)
+      throws AxelorException {
+    BigDecimal valuationPrice = valuationPriceMap.get(product.getId());
+    if (valuationPrice == null) {
+      valuationPrice = inventoryLineService.getValuationPrice(inventory, product);
+      valuationPriceMap.put(product.getId(), valuationPrice);
+    }
+    return valuationPrice;
   }
 
   protected BigDecimal getPrice(String price) {
@@ -298,19 +544,6 @@ public class InventoryService {
     return BigDecimal.ZERO;
   }
 
-  protected InventoryLine copyAndEditInventoryLine(
-      InventoryLine inventoryLine, String description, BigDecimal realQty, BigDecimal price)
-      throws AxelorException {
-
-    // There is not one to many for inventoryLine, so true or false is the same.
-    InventoryLine inventoryLineResult = inventoryLineRepository.copy(inventoryLine, true);
-    inventoryLineResult.setRealQty(realQty);
-    inventoryLineResult.setDescription(description);
-    inventoryLineResult.setPrice(price);
-    inventoryLineService.compute(inventoryLineResult, inventoryLineResult.getInventory());
-    return inventoryLineResult;
-  }
-
   protected InventoryLine createInventoryLine(
       Inventory inventory,
       String rack,
@@ -334,13 +567,10 @@ public class InventoryService {
         null);
   }
 
-  protected Product getProduct(Inventory inventory, String code) throws AxelorException {
-    List<Product> productList =
-        productRepo
-            .all()
-            .filter("self.code = :code AND self.dtype = 'Product'")
-            .bind("code", code)
-            .fetch();
+  protected Product getProduct(
+      Inventory inventory, String code, Map<String, List<Product>> productMap)
+      throws AxelorException {
+    List<Product> productList = productMap.get(code);
     if (CollectionUtils.isNotEmpty(productList)) {
       if (productList.size() > 1) {
         throw new AxelorException(
@@ -388,50 +618,6 @@ public class InventoryService {
     return null;
   }
 
-  public List<CSVRecord> getDatas(Path filePath) throws AxelorException {
-
-    List<CSVRecord> data;
-    char separator = ';';
-    try {
-      data = CsvHelper.csvFileReader(filePath.toString(), separator);
-    } catch (Exception e) {
-      throw new AxelorException(
-          e.getCause(),
-          TraceBackRepository.CATEGORY_CONFIGURATION_ERROR,
-          I18n.get(StockExceptionMessage.INVENTORY_5));
-    }
-
-    if (data == null || data.isEmpty()) {
-      throw new AxelorException(
-          new Throwable(I18n.get(StockExceptionMessage.INVENTORY_3_DATA_NULL_OR_EMPTY)),
-          TraceBackRepository.CATEGORY_CONFIGURATION_ERROR,
-          I18n.get(StockExceptionMessage.INVENTORY_3));
-    }
-
-    return data;
-  }
-
-  public HashMap<String, InventoryLine> getInventoryLines(Inventory inventory) {
-    HashMap<String, InventoryLine> inventoryLineMap = new HashMap<>();
-
-    for (InventoryLine line : inventory.getInventoryLineList()) {
-      StringBuilder key = new StringBuilder();
-      if (line.getProduct() != null) {
-        key.append(line.getProduct().getCode());
-      }
-      if (line.getTrackingNumber() != null) {
-        key.append(line.getTrackingNumber().getTrackingNumberSeq());
-      }
-      if (line.getStockLocation() != null) {
-        key.append(line.getStockLocation().getName());
-      }
-
-      inventoryLineMap.put(key.toString(), line);
-    }
-
-    return inventoryLineMap;
-  }
-
   public TrackingNumber getTrackingNumber(String sequence, Product product, BigDecimal realQty) {
 
     TrackingNumber trackingNumber = null;
@@ -645,29 +831,42 @@ public class InventoryService {
 
   public void generateStockMoves(Inventory inventory, boolean isEnteringStock)
       throws AxelorException {
-    Set<StockLocation> stockLocationSet = new HashSet<>();
+    Map<StockLocation, List<InventoryLine>> inventoryLineMap = new LinkedHashMap<>();
 
-    for (InventoryLine inventoryLine : inventory.getInventoryLineList()) {
-      if (inventoryLine.getStockLocation() != null) {
-        stockLocationSet.add(inventoryLine.getStockLocation());
-      }
+    for (InventoryLine inventoryLine : getGapInventoryLines(inventory, isEnteringStock)) {
+      inventoryLineMap
+          .computeIfAbsent(inventoryLine.getStockLocation(), key -> new ArrayList<>())
+          .add(inventoryLine);
     }
 
-    InventoryLineRepository inventoryLineRepo = Beans.get(InventoryLineRepository.class);
-    for (StockLocation stockLocation : stockLocationSet) {
-      List<InventoryLine> inventoryLineList =
-          inventoryLineRepo
-              .all()
-              .filter(
-                  "self.stockLocation.id = ? AND self.inventory.id = ?",
-                  stockLocation.getId(),
-                  inventory.getId())
-              .fetch();
-
+    for (List<InventoryLine> inventoryLineList : inventoryLineMap.values()) {
       generateStockMove(inventory, inventoryLineList, isEnteringStock);
     }
   }
 
+  /**
+   * Fetch with one query the inventory lines having a gap in the given direction, ordered by stock
+   * location. Lines without gap would not create any stock move line.
+   *
+   * @param inventory a realized inventory.
+   * @param isEnteringStock whether we want the lines with a real quantity greater or lower than
+   *     the current quantity.
+   * @return the inventory lines with a stock location and a gap.
+   */
+  protected List<InventoryLine> getGapInventoryLines(Inventory inventory, boolean isEnteringStock) {
+    return inventoryLineRepository
+        .all()
+        .filter(
+            "self.inventory.id = :inventoryId AND self.stockLocation IS NOT NULL"
+                + (isEnteringStock
+                    ? " AND self.realQty > self.currentQty"
+                    : " AND self.realQty < self.currentQty"))
+        .bind("inventoryId", inventory.getId())
+        .order("stockLocation.id")
+        .order("id")
+        .fetch();
+  }
+
   /**
    * Generate a stock move from an inventory.
    *
@@ -717,9 +916,24 @@ public class InventoryService {
     stockMove.setInventory(inventory);
     stockMove.setOrigin(inventorySeq);
 
+    Set<Long> productIdSet =
+        inventoryLineList.stream()
+            .map(inventoryLine -> inventoryLine.getProduct().getId())
+            .collect(Collectors.toSet());
+    Map<Long, BigDecimal> avgPriceMap = getAvgPriceMap(toStockLocation, productIdSet);
+    Set<Long> presentProductIdSet =
+        isEnteringStock
+            ? avgPriceMap.keySet()
+            : getAvgPriceMap(fromStockLocation, productIdSet).keySet();
+
     for (InventoryLine inventoryLine : inventoryLineList) {
+      Long productId = inventoryLine.getProduct().getId();
+      BigDecimal unitPrice =
+          presentProductIdSet.contains(productId)
+              ? avgPriceMap.getOrDefault(productId, BigDecimal.ZERO)
+              : inventoryLine.getPrice();
       generateStockMoveLines(
-          inventoryLine, stockMove, isEnteringStock, fromStockLocation, toStockLocation);
+          inventoryLine, stockMove, isEnteringStock, fromStockLocation, toStockLocation, unitPrice);
     }
     if (stockMove.getStockMoveLineList() != null && !stockMove.getStockMoveLineList().isEmpty()) {
 
@@ -737,6 +951,7 @@ public class InventoryService {
    * @param inventoryLine an inventory line
    * @param stockMove a stock move being created
    * @param isEnteringStock whether we are creating an incoming or outgoing stock move.
+   * @param unitPrice the unit price of the stock move line.
    * @throws AxelorException
    */
   protected void generateStockMoveLines(
@@ -744,7 +959,8 @@ public class InventoryService {
       StockMove stockMove,
       boolean isEnteringStock,
       StockLocation fromStockLocation,
-      StockLocation toStockLocation)
+      StockLocation toStockLocation,
+      BigDecimal unitPrice)
       throws AxelorException {
     Product product = inventoryLine.getProduct();
     TrackingNumber trackingNumber = inventoryLine.getTrackingNumber();
@@ -753,14 +969,6 @@ public class InventoryService {
       diff = diff.negate();
     }
     if (diff.signum() > 0) {
-
-      StockLocationLine stockLocationLine =
-          stockLocationLineFetchService.getStockLocationLine(toStockLocation, product);
-      BigDecimal unitPrice = getAvgPrice(stockLocationLine);
-      if (!inventoryLineService.isPresentInStockLocation(inventoryLine)) {
-        unitPrice = inventoryLine.getPrice();
-      }
-
       StockMoveLine stockMoveLine =
           stockMoveLineService.createStockMoveLine(
               product,
@@ -790,14 +998,35 @@ public class InventoryService {
     }
   }
 
-  protected BigDecimal getAvgPrice(StockLocationLine stockLocationLine) {
-    BigDecimal avgPrice;
-    if (stockLocationLine != null) {
-      avgPrice = stockLocationLine.getAvgPrice();
-    } else {
-      avgPrice = BigDecimal.ZERO;
+  /**
+   * Fetch the average prices of the given products in the stock location with one query per chunk
+   * of products. Products that are not stock managed have a zero average price.
+   *
+   * @return the average prices by product id, for the products having a stock location line
+   */
+  protected Map<Long, BigDecimal> getAvgPriceMap(
+      StockLocation stockLocation, Collection<Long> productIds) {
+    Map<Long, BigDecimal> avgPriceMap = new HashMap<>();
+
+    for (List<Long> productIdChunk : Iterables.partition(productIds, ID_CHUNK_SIZE)) {
+      List<Object[]> rows =
+          JPA.em()
+              .createQuery(
+                  "SELECT product.id, self.avgPrice, product.stockManaged"
+                      + " FROM StockLocationLine self"
+                      + " JOIN self.product product"
+                      + " WHERE self.stockLocation.id = :stockLocationId"
+                      + " AND product.id IN (:productIds)",
+                  Object[].class)
+              .setParameter("stockLocationId", stockLocation.getId())
+              .setParameter("productIds", productIdChunk)
+              .getResultList();
+      for (Object[] row : rows) {
+        avgPriceMap.put(
+            (Long) row[0], Boolean.TRUE.equals(row[2]) ? (BigDecimal) row[1] : BigDecimal.ZERO);
+      }
     }
-    return avgPrice;
+    return avgPriceMap;
   }
 
   @Transactional(rollbackOn = {Exception.class})
@@ -810,91 +1039,169 @@ public class InventoryService {
           I18n.get(StockExceptionMessage.INVENTORY_1));
     }
 
-    this.initInventoryLines(inventory);
-
-    List<? extends StockLocationLine> stockLocationLineList = this.getStockLocationLines(inventory);
-
-    if (stockLocationLineList != null) {
-      Boolean succeed = false;
-      for (StockLocationLine stockLocationLine : stockLocationLineList) {
-        if (ObjectUtils.isEmpty(stockLocationLine.getTrackingNumber())) {
-          long numberOfTrackingNumberOnAProduct =
-              stockLocationLineList.stream()
-                  .filter(
-                      sll ->
-                          stockLocationLine.getProduct() != null
-                              && stockLocationLine.getProduct().equals(sll.getProduct())
-                              && sll.getTrackingNumber() != null
-                              && inventory.getStockLocation().equals(sll.getDetailsStockLocation()))
-                  .count();
-
-          if (numberOfTrackingNumberOnAProduct != 0) {
-            continue;
-          }
+    Long inventoryId = inventory.getId();
+    Map<String, Object> params = new HashMap<>();
+    String filter = this.getStockLocationLineFilter(inventory, params);
+    Set<Long> trackedProductIdSet = this.getTrackedProductIdSet(inventory, filter, params);
+
+    JPA.flush();
+    JPA.em()
+        .createQuery("DELETE FROM InventoryLine self WHERE self.inventory.id = :inventoryId")
+        .setParameter("inventoryId", inventoryId)
+        .executeUpdate();
+    JPA.clear();
+
+    TypedQuery<Object[]> query =
+        JPA.em()
+            .createQuery(
+                "SELECT product.id, unit.id, self.currentQty, self.rack, trackingNumber.id,"
+                    + " COALESCE(stockLocation.id, detailsStockLocation.id)"
+                    + " FROM StockLocationLine self"
+                    + " JOIN self.product product"
+                    + " LEFT JOIN product.unit unit"
+                    + " LEFT JOIN self.trackingNumber trackingNumber"
+                    + " LEFT JOIN self.stockLocation stockLocation"
+                    + " LEFT JOIN self.detailsStockLocation detailsStockLocation"
+                    + " WHERE "
+                    + filter
+                    + " ORDER BY self.id",
+                Object[].class)
+            .setHint("org.hibernate.fetchSize", INVENTORY_LINE_BATCH_SIZE)
+            .setHint("org.hibernate.readOnly", true);
+    params.forEach(query::setParameter);
+
+    int count = 0;
+    try (Stream<Object[]> rows = query.getResultStream()) {
+      Iterator<Object[]> rowIterator = rows.iterator();
+      while (rowIterator.hasNext()) {
+        Object[] row = rowIterator.next();
+        // Products with tracking numbers are counted on their detail lines only.
+        if (row[4] == null && trackedProductIdSet.contains((Long) row[0])) {
+          continue;
+        }
+        JPA.em().persist(this.createInventoryLine(inventoryId, row));
+        if (++count % INVENTORY_LINE_BATCH_SIZE == 0) {
+          JPA.flush();
+          JPA.clear();
         }
-        inventory.addInventoryLineListItem(this.createInventoryLine(inventory, stockLocationLine));
-        succeed = true;
       }
-      inventoryRepo.save(inventory);
-      return succeed;
     }
-    return null;
+    return count > 0;
+  }
+
+  /**
+   * Create an inventory line from a stock location line row without loading any entity. Its real
+   * quantity is not filled yet, so the gap and the valuations are zero.
+   *
+   * @param inventoryId the id of the inventory
+   * @param stockLocationLineRow a row of product id, unit id, current quantity, rack, tracking
+   *     number id and stock location id
+   * @return the new inventory line
+   */
+  protected InventoryLine createInventoryLine(Long inventoryId, Object[] stockLocationLineRow) {
+    EntityManager em = JPA.em();
+    Long unitId = (Long) stockLocationLineRow[1];
+    Long trackingNumberId = (Long) stockLocationLineRow[4];
+    Long stockLocationId = (Long) stockLocationLineRow[5];
+
+    InventoryLine inventoryLine = new InventoryLine();
+    inventoryLine.setInventory(em.getReference(Inventory.class, inventoryId));
+    inventoryLine.setProduct(em.getReference(Product.class, stockLocationLineRow[0]));
+    inventoryLine.setUnit(unitId != null ? em.getReference(Unit.class, unitId) : null);
+    inventoryLine.setCurrentQty((BigDecimal) stockLocationLineRow[2]);
+    inventoryLine.setRack((String) stockLocationLineRow[3]);
+    inventoryLine.setTrackingNumber(
+        trackingNumberId != null ? em.getReference(TrackingNumber.class, trackingNumberId) : null);
+    inventoryLine.setStockLocation(
+        stockLocationId != null ? em.getReference(StockLocation.class, stockLocationId) : null);
+    inventoryLine.setGap(BigDecimal.ZERO);
+    inventoryLine.setGapValue(BigDecimal.ZERO);
+    inventoryLine.setRealValue(BigDecimal.ZERO);
+    return inventoryLine;
   }
 
   public List<StockLocationLine> getStockLocationLines(Inventory inventory) {
-    String query = "";
-    List<Object> params = new ArrayList<>();
-    Set<StockLocation> stockLocations = new HashSet<>();
-
-    if (inventory.getIncludeSubStockLocation()) {
-      stockLocations.add(inventory.getStockLocation());
-      stockLocations = this.getStockLocations(stockLocations);
-      if (CollectionUtils.isNotEmpty(stockLocations)) {
-        query = "(self.stockLocation IN (?) OR self.detailsStockLocation IN (?))";
-        params.add(stockLocations);
-        params.add(stockLocations);
-      }
-    } else {
-      query = "(self.stockLocation = ? OR self.detailsStockLocation = ?)";
-      params.add(inventory.getStockLocation());
-      params.add(inventory.getStockLocation());
-    }
+    Map<String, Object> params = new HashMap<>();
+    String filter = this.getStockLocationLineFilter(inventory, params);
+    return stockLocationLineRepository.all().filter(filter).bind(params).fetch();
+  }
+
+  /**
+   * Build the filter selecting the stock location lines and detail stock location lines to count
+   * in the inventory.
+   *
+   * @param inventory an inventory with a stock location
+   * @param params filled with the named parameters of the filter
+   * @return the filter on the {@code self} stock location line
+   */
+  protected String getStockLocationLineFilter(Inventory inventory, Map<String, Object> params) {
+    StringBuilder filter =
+        new StringBuilder(
+            "(self.stockLocation.id IN (:stockLocationIds)"
+                + " OR self.detailsStockLocation.id IN (:stockLocationIds))");
+
+    Long stockLocationId = inventory.getStockLocation().getId();
+    params.put(
+        "stockLocationIds",
+        inventory.getIncludeSubStockLocation()
+            ? stockLocationTreeService.getLocationAndSubLocationIds(stockLocationId, true)
+            : Collections.singletonList(stockLocationId));
 
     if (inventory.getExcludeOutOfStock()) {
-      query += " and self.currentQty > 0";
+      filter.append(" AND self.currentQty > 0");
     }
 
     if (!inventory.getIncludeObsolete()) {
-      query += " and (self.product.endDate > ? or self.product.endDate is null)";
-      params.add(inventory.getPlannedEndDateT().toLocalDate());
+      filter.append(
+          " AND (self.product.endDate > :plannedEndDate OR self.product.endDate IS NULL)");
+      params.put("plannedEndDate", inventory.getPlannedEndDateT().toLocalDate());
     }
 
     if (inventory.getProductFamily() != null) {
-      query += " and self.product.productFamily = ?";
-      params.add(inventory.getProductFamily());
+      filter.append(" AND self.product.productFamily = :productFamily");
+      params.put("productFamily", inventory.getProductFamily());
     }
 
     if (inventory.getProductCategory() != null) {
-      query += " and self.product.productCategory = ?";
-      params.add(inventory.getProductCategory());
+      filter.append(" AND self.product.productCategory = :productCategory");
+      params.put("productCategory", inventory.getProductCategory());
     }
 
     if (inventory.getProduct() != null) {
-      query += " and self.product = ?";
-      params.add(inventory.getProduct());
+      filter.append(" AND self.product = :product");
+      params.put("product", inventory.getProduct());
     }
 
     if (!Strings.isNullOrEmpty(inventory.getFromRack())) {
-      query += " and self.rack >= ?";
-      params.add(inventory.getFromRack());
+      filter.append(" AND self.rack >= :fromRack");
+      params.put("fromRack", inventory.getFromRack());
     }
 
     if (!Strings.isNullOrEmpty(inventory.getToRack())) {
-      query += " and self.rack <= ?";
-      params.add(inventory.getToRack());
+      filter.append(" AND self.rack <= :toRack");
+      params.put("toRack", inventory.getToRack());
     }
 
-    return stockLocationLineRepository.all().filter(query, params.toArray()).fetch();
+    return filter.toString();
+  }
+
+  /**
+   * Get the products having detail lines with a tracking number in the stock location of the
+   * inventory, among the stock location lines of the inventory.
+   */
+  protected Set<Long> getTrackedProductIdSet(
+      Inventory inventory, String filter, Map<String, Object> params) {
+    TypedQuery<Long> query =
+        JPA.em()
+            .createQuery(
+                "SELECT DISTINCT self.product.id FROM StockLocationLine self WHERE "
+                    + filter
+                    + " AND self.trackingNumber IS NOT NULL"
+                    + " AND self.detailsStockLocation.id = :inventoryStockLocationId",
+                Long.class)
+            .setParameter("inventoryStockLocationId", inventory.getStockLocation().getId());
+    params.forEach(query::setParameter);
+    return new HashSet<>(query.getResultList());
   }
 
   public Set<StockLocation> getStockLocations(Set<StockLocation> stockLocationSet) {
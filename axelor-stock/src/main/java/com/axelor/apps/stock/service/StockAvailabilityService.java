@@ -0,0 +1,89 @@
+/*
+ * Axelor Business Solutions
+ *
+ * Copyright (C) 2005-2025 Axelor (<http://axelor.com>).
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.axelor.apps.stock.service;
+
+import com.axelor.apps.base.AxelorException;
+import java.math.BigDecimal;
+import java.util.Collection;
+
+/**
+ * Keeps in memory the quantities of the stock location lines of each product, converted to the
+ * unit of the product, so that availability can be read without querying the stock location lines.
+ * The quantities of a product are dropped whenever the product or one of its stock location lines
+ * is modified and reloaded on the next read.
+ */
+public interface StockAvailabilityService {
+
+  /**
+   * Get the sum of a quantity of a product in the given non virtual stock locations.
+   *
+   * @param productId the id of the product
+   * @param stockLocationIds the ids of the stock locations, all stock locations if null or empty
+   * @param companyId the company of the stock locations, any company if null
+   * @param qtyFieldName the quantity field of the stock location lines (currentQty, futureQty, ...)
+   * @return the quantity in the unit of the product, zero if the product is not stock managed
+   * @throws AxelorException if one of the stock location lines has no unit
+   */
+  BigDecimal getQty(
+      Long productId, Collection<Long> stockLocationIds, Long companyId, String qtyFieldName)
+      throws AxelorException;
+
+  /**
+   * Get the sum of a quantity of a product in a stock location and its non virtual sub-locations.
+   *
+   * @param productId the id of the product
+   * @param stockLocationId the id of the stock location
+   * @param qtyFieldName the quantity field of the stock location lines
+   * @return the quantity in the unit of the product
+   * @throws AxelorException if one of the stock location lines has no unit
+   */
+  BigDecimal getQtyInSubLocations(Long productId, Long stockLocationId, String qtyFieldName)
+      throws AxelorException;
+
+  /**
+   * Get a quantity of the stock location line of a product in a stock location.
+   *
+   * @param productId the id of the product
+   * @param stockLocationId the id of the stock location, virtual or not
+   * @param qtyFieldName the quantity field of the stock location line
+   * @return the quantity in the unit of the product, null if there is no stock location line or if
+   *     the product is not stock managed
+   * @throws AxelorException if the stock location line has no unit
+   */
+  BigDecimal getLocationQty(Long productId, Long stockLocationId, String qtyFieldName)
+      throws AxelorException;
+
+  /**
+   * Drop the quantities of the given product. They are dropped again once the current transaction
+   * is completed, so that a read concurrent to this transaction cannot keep its former quantities.
+   */
+  void invalidateProduct(Long productId);
+
+  /** Drop the quantities of every product. */
+  void invalidateAll();
+
+  /**
+   * Compare the quantities kept in memory for the current tenant to the stock location lines and
+   * drop the ones that differ.
+   *
+   * @return the number of products whose quantities were dropped
+   * @throws AxelorException if the quantities of a product cannot be reloaded
+   */
+  int checkConsistency() throws AxelorException;
+}
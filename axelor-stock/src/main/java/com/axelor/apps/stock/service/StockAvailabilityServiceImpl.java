@@ -0,0 +1,358 @@
+/*
+ * Axelor Business Solutions
+ *
+ * Copyright (C) 2005-2025 Axelor (<http://axelor.com>).
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.axelor.apps.stock.service;
+
+import com.axelor.apps.base.AxelorException;
+import com.axelor.apps.base.db.Product;
+import com.axelor.apps.base.db.Unit;
+import com.axelor.apps.base.db.repo.TraceBackRepository;
+import com.axelor.apps.base.db.repo.UnitRepository;
+import com.axelor.apps.base.service.UnitConversionService;
+import com.axelor.apps.stock.db.repo.StockLocationRepository;
+import com.axelor.apps.stock.exception.StockExceptionMessage;
+import com.axelor.db.JPA;
+import com.axelor.db.tenants.TenantResolver;
+import com.axelor.i18n.I18n;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.transaction.Synchronization;
+import org.hibernate.Session;
+import org.hibernate.Transaction;
+
+@Singleton
+public class StockAvailabilityServiceImpl implements StockAvailabilityService {
+
+  protected static final int MAXIMUM_SIZE = 100000;
+  protected static final int EXPIRATION_MINUTES = 10;
+  protected static final String SEPARATOR = "|";
+
+  /** One snapshot by tenant and product. */
+  protected final Cache<String, ProductAvailability> cache =
+      CacheBuilder.newBuilder()
+          .maximumSize(MAXIMUM_SIZE)
+          .expireAfterWrite(EXPIRATION_MINUTES, TimeUnit.MINUTES)
+          .build();
+
+  /**
+   * Version of each key being loaded, removed when the key is dropped. A loaded snapshot is only
+   * kept if its key was not dropped while it was loaded, otherwise it may hold the quantities
+   * committed before the modification. Versions are never reused, and a key is removed once its
+   * snapshot is stored, so that only the keys being loaded are kept.
+   */
+  protected final ConcurrentMap<String, Long> versionMap = new ConcurrentHashMap<>();
+
+  protected final AtomicLong versionSequence = new AtomicLong();
+
+  /** Keys to drop again once the transaction of the current thread is completed. */
+  protected final ThreadLocal<Set<String>> pendingKeys = new ThreadLocal<>();
+
+  protected UnitRepository unitRepository;
+  protected UnitConversionService unitConversionService;
+  protected StockLocationTreeService stockLocationTreeService;
+
+  @Inject
+  public StockAvailabilityServiceImpl(
+      UnitRepository unitRepository,
+      UnitConversionService unitConversionService,
+      StockLocationTreeService stockLocationTreeService) {
+    this.unitRepository = unitRepository;
+    this.unitConversionService = unitConversionService;
+    this.stockLocationTreeService = stockLocationTreeService;
+  }
+
+  @Override
+  public BigDecimal getQty(
+      Long productId, Collection<Long> stockLocationIds, Long companyId, String qtyFieldName)
+      throws AxelorException {
+    ProductAvailability productAvailability = getProductAvailability(productId);
+    Collection<Long> locationIds =
+        stockLocationIds == null || stockLocationIds.isEmpty()
+            ? productAvailability.locationMap.keySet()
+            : new HashSet<>(stockLocationIds);
+
+    BigDecimal qty = BigDecimal.ZERO;
+    for (Long locationId : locationIds) {
+      LocationAvailability locationAvailability =
+          productAvailability.locationMap.get(locationId);
+      if (locationAvailability == null
+          || locationAvailability.isVirtual
+          || (companyId != null
+              && companyId > 0L
+              && !companyId.equals(locationAvailability.companyId))) {
+        continue;
+      }
+      qty = qty.add(getQty(locationAvailability, qtyFieldName));
+    }
+    return qty;
+  }
+
+  @Override
+  public BigDecimal getQtyInSubLocations(Long productId, Long stockLocationId, String qtyFieldName)
+      throws AxelorException {
+    if (stockLocationId == null) {
+      return BigDecimal.ZERO;
+    }
+    return getQty(
+        productId,
+        stockLocationTreeService.getLocationAndSubLocationIds(stockLocationId, false),
+        null,
+        qtyFieldName);
+  }
+
+  @Override
+  public BigDecimal getLocationQty(Long productId, Long stockLocationId, String qtyFieldName)
+      throws AxelorException {
+    LocationAvailability locationAvailability =
+        getProductAvailability(productId).locationMap.get(stockLocationId);
+    if (locationAvailability == null) {
+      return null;
+    }
+    return getQty(locationAvailability, qtyFieldName);
+  }
+
+  protected BigDecimal getQty(LocationAvailability locationAvailability, String qtyFieldName)
+      throws AxelorException {
+    if (locationAvailability.isUnitMissing) {
+      throw new AxelorException(
+          TraceBackRepository.CATEGORY_NO_VALUE,
+          I18n.get(StockExceptionMessage.STOCK_LOCATION_UNIT_NULL));
+    }
+    BigDecimal qty = locationAvailability.qtyMap.get(qtyFieldName);
+    if (qty == null) {
+      throw new IllegalArgumentException(qtyFieldName);
+    }
+    return qty;
+  }
+
+  @Override
+  public void invalidateProduct(Long productId) {
+    String key = getKey(productId);
+    invalidate(key);
+    getPendingKeys().add(key);
+  }
+
+  @Override
+  public void invalidateAll() {
+    versionMap.clear();
+    cache.invalidateAll();
+  }
+
+  protected void invalidate(String key) {
+    versionMap.remove(key);
+    cache.invalidate(key);
+  }
+
+  @Override
+  public int checkConsistency() throws AxelorException {
+    String prefix = TenantResolver.currentTenantIdentifier() + SEPARATOR;
+    List<String> keyList = new ArrayList<>();
+    for (String key : cache.asMap().keySet()) {
+      if (key.startsWith(prefix)) {
+        keyList.add(key);
+      }
+    }
+
+    int invalidatedCount = 0;
+    for (String key : keyList) {
+      ProductAvailability productAvailability = cache.getIfPresent(key);
+      if (productAvailability == null) {
+        continue;
+      }
+      Long productId = Long.valueOf(key.substring(prefix.length()));
+      if (!productAvailability.isSameAs(loadProductAvailability(productId))) {
+        cache.asMap().remove(key, productAvailability);
+        invalidatedCount++;
+      }
+      JPA.clear();
+    }
+    return invalidatedCount;
+  }
+
+  protected ProductAvailability getProductAvailability(Long productId) throws AxelorException {
+    String key = getKey(productId);
+    Set<String> keySet = pendingKeys.get();
+    if (keySet != null && keySet.contains(key)) {
+      // Modified by the current transaction, its quantities must not be seen by other threads
+      return loadProductAvailability(productId);
+    }
+    ProductAvailability productAvailability = cache.getIfPresent(key);
+    if (productAvailability != null) {
+      return productAvailability;
+    }
+
+    long version = versionMap.computeIfAbsent(key, k -> versionSequence.incrementAndGet());
+    ProductAvailability loadedProductAvailability;
+    try {
+      loadedProductAvailability = loadProductAvailability(productId);
+    } catch (AxelorException | RuntimeException e) {
+      versionMap.remove(key, version);
+      throw e;
+    }
+    versionMap.computeIfPresent(
+        key,
+        (k, currentVersion) -> {
+          if (currentVersion != version) {
+            return currentVersion;
+          }
+          cache.put(k, loadedProductAvailability);
+          return null;
+        });
+    return loadedProductAvailability;
+  }
+
+  /** Load the stock location lines of the product in one query, detail lines excluded. */
+  protected ProductAvailability loadProductAvailability(Long productId) throws AxelorException {
+    ProductAvailability productAvailability = new ProductAvailability();
+    Product product = JPA.find(Product.class, productId);
+    if (product == null || !Boolean.TRUE.equals(product.getStockManaged())) {
+      return productAvailability;
+    }
+
+    List<String> qtyFieldNameList = getQtyFieldNameList();
+    StringBuilder query =
+        new StringBuilder("SELECT location.id, company.id, location.typeSelect, unit.id");
+    for (String qtyFieldName : qtyFieldNameList) {
+      query.append(", self.").append(qtyFieldName);
+    }
+    query.append(" FROM StockLocationLine self");
+    query.append(" JOIN self.stockLocation location");
+    query.append(" LEFT JOIN location.company company");
+    query.append(" LEFT JOIN self.unit unit");
+    query.append(" WHERE self.product.id = :productId");
+
+    List<Object[]> rowList =
+        JPA.em()
+            .createQuery(query.toString(), Object[].class)
+            .setParameter("productId", productId)
+            .getResultList();
+
+    Unit productUnit = product.getUnit();
+    for (Object[] row : rowList) {
+      LocationAvailability locationAvailability =
+          productAvailability.locationMap.computeIfAbsent(
+              (Long) row[0], key -> new LocationAvailability());
+      locationAvailability.companyId = (Long) row[1];
+      locationAvailability.isVirtual =
+          Integer.valueOf(StockLocationRepository.TYPE_VIRTUAL).equals(row[2]);
+      Long unitId = (Long) row[3];
+      if (unitId == null) {
+        locationAvailability.isUnitMissing = true;
+        continue;
+      }
+      Unit unit =
+          productUnit == null || productUnit.getId().equals(unitId)
+              ? null
+              : unitRepository.find(unitId);
+
+      for (int i = 0; i < qtyFieldNameList.size(); i++) {
+        BigDecimal qty = row[i + 4] == null ? BigDecimal.ZERO : (BigDecimal) row[i + 4];
+        if (unit != null) {
+          qty = unitConversionService.convert(unit, productUnit, qty, qty.scale(), product);
+        }
+        locationAvailability.qtyMap.merge(qtyFieldNameList.get(i), qty, BigDecimal::add);
+      }
+    }
+    return productAvailability;
+  }
+
+  /** The quantity fields of the stock location lines kept in memory. */
+  protected List<String> getQtyFieldNameList() {
+    return Arrays.asList("currentQty", "futureQty");
+  }
+
+  protected String getKey(Long productId) {
+    return TenantResolver.currentTenantIdentifier() + SEPARATOR + productId;
+  }
+
+  /**
+   * Get the keys to drop once the transaction of the current thread is completed, a reader could
+   * otherwise load the quantities committed before this transaction in the meantime.
+   */
+  protected Set<String> getPendingKeys() {
+    Set<String> keySet = pendingKeys.get();
+    if (keySet != null) {
+      return keySet;
+    }
+
+    Set<String> newKeySet = new HashSet<>();
+    Transaction transaction = JPA.em().unwrap(Session.class).getTransaction();
+    if (!transaction.isActive()) {
+      return newKeySet;
+    }
+    pendingKeys.set(newKeySet);
+    transaction.registerSynchronization(
+        new Synchronization() {
+          @Override
+          public void beforeCompletion() {}
+
+          @Override
+          public void afterCompletion(int status) {
+            pendingKeys.remove();
+            newKeySet.forEach(key -> invalidate(key));
+          }
+        });
+    return newKeySet;
+  }
+
+  protected static class ProductAvailability {
+    protected final Map<Long, LocationAvailability> locationMap = new HashMap<>();
+
+    protected boolean isSameAs(ProductAvailability other) {
+      if (!locationMap.keySet().equals(other.locationMap.keySet())) {
+        return false;
+      }
+      return locationMap.entrySet().stream()
+          .allMatch(entry -> entry.getValue().isSameAs(other.locationMap.get(entry.getKey())));
+    }
+  }
+
+  protected static class LocationAvailability {
+    protected Long companyId;
+    protected boolean isVirtual;
+    protected boolean isUnitMissing;
+    protected final Map<String, BigDecimal> qtyMap = new HashMap<>();
+
+    protected boolean isSameAs(LocationAvailability other) {
+      if (!Objects.equals(companyId, other.companyId)
+          || isVirtual != other.isVirtual
+          || isUnitMissing != other.isUnitMissing
+          || !qtyMap.keySet().equals(other.qtyMap.keySet())) {
+        return false;
+      }
+      return qtyMap.entrySet().stream()
+          .allMatch(entry -> entry.getValue().compareTo(other.qtyMap.get(entry.getKey())) == 0);
+    }
+  }
+}
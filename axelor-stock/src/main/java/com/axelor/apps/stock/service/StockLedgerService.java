@@ -0,0 +1,54 @@
+/*
+ * Axelor Business Solutions
+ *
+ * Copyright (C) 2005-2025 Axelor (<http://axelor.com>).
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.axelor.apps.stock.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.SortedMap;
+
+/**
+ * Computes the quantity of a product in a stock location over time from the stock move lines that
+ * are not canceled. A line is taken into account from the earliest of its estimated and real dates.
+ */
+public interface StockLedgerService {
+
+  /**
+   * Get the quantity of a product in a stock location at a date.
+   *
+   * @param locationId the id of the stock location
+   * @param productId the id of the product
+   * @param date the date, included
+   * @return the quantity at the end of the date
+   */
+  BigDecimal getStock(Long locationId, Long productId, LocalDate date);
+
+  /**
+   * Get the quantity of a product in a stock location at the end of each day of a range. The
+   * quantity at the start of the range is computed once, the following days are computed from the
+   * daily variations.
+   *
+   * @param locationId the id of the stock location
+   * @param productId the id of the product
+   * @param fromDate the first day of the range
+   * @param toDate the last day of the range, included
+   * @return the quantity by day, with one entry for each day of the range
+   */
+  SortedMap<LocalDate, BigDecimal> getStockPerDay(
+      Long locationId, Long productId, LocalDate fromDate, LocalDate toDate);
+}
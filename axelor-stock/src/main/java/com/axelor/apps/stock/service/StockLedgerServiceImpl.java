@@ -0,0 +1,118 @@
+/*
+ * Axelor Business Solutions
+ *
+ * Copyright (C) 2005-2025 Axelor (<http://axelor.com>).
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.axelor.apps.stock.service;
+
+import com.axelor.apps.stock.db.repo.StockMoveRepository;
+import com.axelor.db.JPA;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+public class StockLedgerServiceImpl implements StockLedgerService {
+
+  @Override
+  public BigDecimal getStock(Long locationId, Long productId, LocalDate date) {
+    return getStockPerDay(locationId, productId, date, date).get(date);
+  }
+
+  @Override
+  public SortedMap<LocalDate, BigDecimal> getStockPerDay(
+      Long locationId, Long productId, LocalDate fromDate, LocalDate toDate) {
+
+    BigDecimal qty = BigDecimal.ZERO;
+    Map<LocalDate, BigDecimal> variationMap = new HashMap<>();
+
+    for (Object[] row : getQtyVariations(locationId, productId, toDate)) {
+      LocalDate date = getEffectiveDate((LocalDate) row[0], (LocalDate) row[1]);
+      BigDecimal variation =
+          getVariation(locationId, (Long) row[2], (Long) row[3], (BigDecimal) row[4]);
+
+      if (date.isAfter(fromDate)) {
+        variationMap.merge(date, variation, BigDecimal::add);
+      } else {
+        qty = qty.add(variation);
+      }
+    }
+
+    SortedMap<LocalDate, BigDecimal> stockPerDay = new TreeMap<>();
+    for (LocalDate date = fromDate; !date.isAfter(toDate); date = date.plusDays(1)) {
+      qty = qty.add(variationMap.getOrDefault(date, BigDecimal.ZERO));
+      stockPerDay.put(date, qty);
+    }
+
+    return stockPerDay;
+  }
+
+  /**
+   * Sum the quantities of the lines moving the product from or to the location until the given
+   * date, grouped by dates of the stock move and by direction.
+   */
+  @SuppressWarnings("unchecked")
+  protected List<Object[]> getQtyVariations(Long locationId, Long productId, LocalDate toDate) {
+    return JPA.em()
+        .createQuery(
+            "SELECT stockMove.estimatedDate, stockMove.realDate, "
+                + "self.fromStockLocation.id, self.toStockLocation.id, SUM(self.qty) "
+                + "FROM StockMoveLine self JOIN self.stockMove stockMove "
+                + "WHERE self.product.id = :productId "
+                + "AND (self.fromStockLocation.id = :locationId "
+                + "OR self.toStockLocation.id = :locationId) "
+                + "AND stockMove.statusSelect != :canceledStatus "
+                + "AND (stockMove.estimatedDate <= :toDate OR stockMove.realDate <= :toDate) "
+                + "GROUP BY stockMove.estimatedDate, stockMove.realDate, "
+                + "self.fromStockLocation.id, self.toStockLocation.id")
+        .setParameter("productId", productId)
+        .setParameter("locationId", locationId)
+        .setParameter("canceledStatus", StockMoveRepository.STATUS_CANCELED)
+        .setParameter("toDate", toDate)
+        .getResultList();
+  }
+
+  /** A line is counted as soon as one of the estimated and real dates is reached. */
+  protected LocalDate getEffectiveDate(LocalDate estimatedDate, LocalDate realDate) {
+    if (estimatedDate == null) {
+      return realDate;
+    }
+    if (realDate == null) {
+      return estimatedDate;
+    }
+    return realDate.isBefore(estimatedDate) ? realDate : estimatedDate;
+  }
+
+  /** A line moving the product inside the location is counted both in and out. */
+  protected BigDecimal getVariation(
+      Long locationId, Long fromLocationId, Long toLocationId, BigDecimal qty) {
+    BigDecimal variation = BigDecimal.ZERO;
+    if (qty == null) {
+      return variation;
+    }
+    if (Objects.equals(locationId, toLocationId)) {
+      variation = variation.add(qty);
+    }
+    if (Objects.equals(locationId, fromLocationId)) {
+      variation = variation.subtract(qty);
+    }
+    return variation;
+  }
+}
@@ -0,0 +1,46 @@
+/*
+ * Axelor Business Solutions
+ *
+ * Copyright (C) 2005-2025 Axelor (<http://axelor.com>).
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.axelor.apps.stock.service;
+
+import com.axelor.apps.base.AxelorException;
+import com.axelor.apps.stock.db.StockMoveLine;
+import java.util.List;
+
+/**
+ * Serializes the updates of stock location lines by stock location, product and tracking number,
+ * so that concurrent stock moves on the same products neither lose quantities nor create duplicate
+ * lines.
+ */
+public interface StockLocationLineLockService {
+
+  /**
+   * Lock the stock location lines and detail stock location lines updated by the given stock move
+   * lines until the end of the current transaction. Locks are taken in the same order by every
+   * transaction, lines which do not exist yet are covered by an in-memory lock on their key.
+   *
+   * <p>Locks already held by the transaction are kept. Only the first call of a transaction waits
+   * for its in-memory locks, later calls take the free ones and rely on the database locks for the
+   * others, so a transaction updating several lists of stock move lines should lock all of them in
+   * a first call.
+   *
+   * @param stockMoveLineList the stock move lines about to update stock locations
+   * @throws AxelorException if the locks could not be taken in time
+   */
+  void lockStockLocationLines(List<StockMoveLine> stockMoveLineList) throws AxelorException;
+}
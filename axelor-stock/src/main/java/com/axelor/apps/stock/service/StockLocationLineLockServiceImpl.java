@@ -0,0 +1,232 @@
+/*
+ * Axelor Business Solutions
+ *
+ * Copyright (C) 2005-2025 Axelor (<http://axelor.com>).
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.axelor.apps.stock.service;
+
+import com.axelor.apps.base.AxelorException;
+import com.axelor.apps.base.db.Product;
+import com.axelor.apps.base.db.repo.ProductRepository;
+import com.axelor.apps.base.db.repo.TraceBackRepository;
+import com.axelor.apps.stock.db.StockLocation;
+import com.axelor.apps.stock.db.StockLocationLine;
+import com.axelor.apps.stock.db.StockMoveLine;
+import com.axelor.apps.stock.exception.StockExceptionMessage;
+import com.axelor.db.JPA;
+import com.axelor.db.tenants.TenantResolver;
+import com.axelor.i18n.I18n;
+import com.google.common.util.concurrent.Striped;
+import com.google.inject.Singleton;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.stream.Collectors;
+import javax.persistence.LockModeType;
+import javax.transaction.Synchronization;
+import org.hibernate.Session;
+
+@Singleton
+public class StockLocationLineLockServiceImpl implements StockLocationLineLockService {
+
+  protected static final int STRIPE_COUNT = 1024;
+  protected static final long LOCK_TIMEOUT_SECONDS = 30;
+
+  protected final Striped<Lock> locks = Striped.lazyWeakLock(STRIPE_COUNT);
+
+  /** Stripes held by the transaction of the current thread, released when it completes. */
+  protected final ThreadLocal<Set<Lock>> heldLocks = new ThreadLocal<>();
+
+  @Override
+  public void lockStockLocationLines(List<StockMoveLine> stockMoveLineList)
+      throws AxelorException {
+    if (stockMoveLineList == null
+        || stockMoveLineList.isEmpty()
+        || !JPA.em().getTransaction().isActive()) {
+      return;
+    }
+
+    Set<List<Object>> keySet = getKeys(stockMoveLineList);
+    if (keySet.isEmpty()) {
+      return;
+    }
+
+    // the stripe of a stock location and product also covers its detail lines
+    acquireStripes(
+        keySet.stream().filter(key -> key.get(3) == null).collect(Collectors.toSet()));
+    lockExistingLines(keySet);
+  }
+
+  /**
+   * Get the (tenant, stock location id, product id, tracking number id) keys of the lines updated
+   * by the given stock move lines. The tracking number is null for the stock location line itself.
+   */
+  protected Set<List<Object>> getKeys(List<StockMoveLine> stockMoveLineList) {
+    String tenant = TenantResolver.currentTenantIdentifier();
+    Set<List<Object>> keySet = new LinkedHashSet<>();
+
+    for (StockMoveLine stockMoveLine : stockMoveLineList) {
+      Product product = stockMoveLine.getProduct();
+      if (product == null
+          || product.getId() == null
+          || !ProductRepository.PRODUCT_TYPE_STORABLE.equals(product.getProductTypeSelect())
+          || !product.getStockManaged()) {
+        continue;
+      }
+      Long trackingNumberId =
+          stockMoveLine.getTrackingNumber() != null
+              ? stockMoveLine.getTrackingNumber().getId()
+              : null;
+
+      for (StockLocation stockLocation :
+          Arrays.asList(stockMoveLine.getFromStockLocation(), stockMoveLine.getToStockLocation())) {
+        if (stockLocation == null || stockLocation.getId() == null) {
+          continue;
+        }
+        keySet.add(Arrays.asList(tenant, stockLocation.getId(), product.getId(), null));
+        if (trackingNumberId != null) {
+          keySet.add(
+              Arrays.asList(tenant, stockLocation.getId(), product.getId(), trackingNumberId));
+        }
+      }
+    }
+    return keySet;
+  }
+
+  /**
+   * Take the in-memory stripes of the keys, which also cover the lines that are not created yet.
+   * The stripes are kept until the end of the transaction.
+   *
+   * <p>Only the first call of a transaction waits for its stripes, which are taken in a global
+   * order. A transaction already holding stripes could wait for a transaction waiting for one of
+   * them, so it only takes the new stripes which are free, and relies on the database locks for the
+   * others.
+   */
+  protected void acquireStripes(Set<List<Object>> keySet) throws AxelorException {
+    Set<Lock> transactionLocks = getTransactionLocks();
+    boolean firstAcquisition = transactionLocks.isEmpty();
+
+    for (Lock lock : locks.bulkGet(keySet)) {
+      if (transactionLocks.contains(lock)) {
+        continue;
+      }
+      if (!firstAcquisition) {
+        if (lock.tryLock()) {
+          transactionLocks.add(lock);
+        }
+        continue;
+      }
+      boolean acquired;
+      try {
+        acquired = lock.tryLock(LOCK_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new AxelorException(e, TraceBackRepository.CATEGORY_INCONSISTENCY);
+      }
+      if (!acquired) {
+        throw new AxelorException(
+            TraceBackRepository.CATEGORY_INCONSISTENCY,
+            I18n.get(StockExceptionMessage.STOCK_LOCATION_LINE_LOCK_TIMEOUT));
+      }
+      transactionLocks.add(lock);
+    }
+  }
+
+  protected Set<Lock> getTransactionLocks() {
+    Set<Lock> transactionLocks = heldLocks.get();
+    if (transactionLocks != null) {
+      return transactionLocks;
+    }
+
+    Set<Lock> newTransactionLocks = Collections.newSetFromMap(new IdentityHashMap<>());
+    heldLocks.set(newTransactionLocks);
+    JPA.em()
+        .unwrap(Session.class)
+        .getTransaction()
+        .registerSynchronization(
+            new Synchronization() {
+              @Override
+              public void beforeCompletion() {}
+
+              @Override
+              public void afterCompletion(int status) {
+                heldLocks.remove();
+                newTransactionLocks.forEach(Lock::unlock);
+              }
+            });
+    return newTransactionLocks;
+  }
+
+  /**
+   * Lock the existing lines in the database, ordered by id, so that transactions running on other
+   * servers are serialized too.
+   */
+  protected void lockExistingLines(Set<List<Object>> keySet) {
+    Set<Object> stockLocationIdSet = new HashSet<>();
+    Set<Object> productIdSet = new HashSet<>();
+    for (List<Object> key : keySet) {
+      stockLocationIdSet.add(key.get(1));
+      productIdSet.add(key.get(2));
+    }
+
+    List<Object[]> candidateList =
+        JPA.em()
+            .createQuery(
+                "SELECT self.id, stockLocation.id, detailsStockLocation.id, self.product.id,"
+                    + " trackingNumber.id"
+                    + " FROM StockLocationLine self"
+                    + " LEFT JOIN self.stockLocation stockLocation"
+                    + " LEFT JOIN self.detailsStockLocation detailsStockLocation"
+                    + " LEFT JOIN self.trackingNumber trackingNumber"
+                    + " WHERE (stockLocation.id IN :stockLocationIds"
+                    + " OR detailsStockLocation.id IN :stockLocationIds)"
+                    + " AND self.product.id IN :productIds",
+                Object[].class)
+            .setParameter("stockLocationIds", stockLocationIdSet)
+            .setParameter("productIds", productIdSet)
+            .getResultList();
+
+    String tenant = TenantResolver.currentTenantIdentifier();
+    List<Long> idList = new ArrayList<>();
+    for (Object[] row : candidateList) {
+      List<Object> key =
+          row[2] == null
+              ? Arrays.asList(tenant, row[1], row[3], null)
+              : Arrays.asList(tenant, row[2], row[3], row[4]);
+      if (keySet.contains(key)) {
+        idList.add((Long) row[0]);
+      }
+    }
+    if (idList.isEmpty()) {
+      return;
+    }
+
+    JPA.em()
+        .createQuery(
+            "SELECT self FROM StockLocationLine self WHERE self.id IN :ids ORDER BY self.id",
+            StockLocationLine.class)
+        .setParameter("ids", idList.stream().sorted().collect(Collectors.toList()))
+        .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+        .getResultList();
+  }
+}
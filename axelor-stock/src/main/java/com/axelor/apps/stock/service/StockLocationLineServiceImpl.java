@@ -74,6 +74,8 @@ public class StockLocationLineServiceImpl implements StockLocationLineService {
 
   protected StockLocationLineFetchService stockLocationLineFetchService;
 
+  protected StockAvailabilityService stockAvailabilityService;
+
   @Inject
   public StockLocationLineServiceImpl(
       StockLocationLineRepository stockLocationLineRepo,
@@ -82,7 +84,8 @@ public class StockLocationLineServiceImpl implements StockLocationLineService {
       AppBaseService appBaseService,
       UnitConversionService unitConversionService,
       StockLocationLineHistoryService stockLocationLineHistoryService,
-      StockLocationLineFetchService stockLocationLineFetchService) {
+      StockLocationLineFetchService stockLocationLineFetchService,
+      StockAvailabilityService stockAvailabilityService) {
     this.stockLocationLineRepo = stockLocationLineRepo;
     this.stockRulesService = stockRulesService;
     this.stockMoveLineRepository = stockMoveLineRepository;
@@ -90,6 +93,7 @@ public class StockLocationLineServiceImpl implements StockLocationLineService {
     this.unitConversionService = unitConversionService;
     this.stockLocationLineHistoryService = stockLocationLineHistoryService;
     this.stockLocationLineFetchService = stockLocationLineFetchService;
+    this.stockAvailabilityService = stockAvailabilityService;
   }
 
   @Override
@@ -405,22 +409,32 @@ public class StockLocationLineServiceImpl implements StockLocationLineService {
       return;
     }
 
-    StockLocationLine stockLocationLine =
-        stockLocationLineFetchService.getStockLocationLine(stockLocation, product);
-    if (stockLocationLine == null) {
+    BigDecimal currentQty =
+        stockAvailabilityService.getLocationQty(
+            product.getId(), stockLocation.getId(), "currentQty");
+    if (currentQty == null) {
       return;
     }
-    BigDecimal convertedQty =
-        unitConversionService.convert(unit, stockLocationLine.getUnit(), qty, qty.scale(), product);
 
-    if (stockLocationLine.getCurrentQty().compareTo(convertedQty) < 0) {
+    if (currentQty.compareTo(convertToProductUnit(product, unit, qty)) < 0) {
+      StockLocationLine stockLocationLine =
+          stockLocationLineFetchService.getStockLocationLine(stockLocation, product);
       throw new AxelorException(
           stockLocationLine,
           TraceBackRepository.CATEGORY_CONFIGURATION_ERROR,
           I18n.get(StockExceptionMessage.LOCATION_LINE_1),
-          stockLocationLine.getProduct().getName(),
-          stockLocationLine.getProduct().getCode());
+          product.getName(),
+          product.getCode());
+    }
+  }
+
+  /** Convert a quantity to the unit of the product, in which the stock availability is kept. */
+  protected BigDecimal convertToProductUnit(Product product, Unit unit, BigDecimal qty)
+      throws AxelorException {
+    if (product.getUnit() == null || product.getUnit().equals(unit)) {
+      return qty;
     }
+    return unitConversionService.convert(unit, product.getUnit(), qty, qty.scale(), product);
   }
 
   @Override
@@ -33,7 +33,6 @@ import com.axelor.apps.stock.db.repo.StockLocationRepository;
 import com.axelor.apps.stock.db.repo.StockRulesRepository;
 import com.axelor.apps.stock.service.config.StockConfigService;
 import com.axelor.apps.stock.utils.StockLocationUtilsService;
-import com.axelor.db.JPA;
 import com.axelor.rpc.filter.Filter;
 import com.axelor.rpc.filter.JPQLFilter;
 import com.google.common.collect.Lists;
@@ -67,9 +66,12 @@ public class StockLocationServiceImpl implements StockLocationService {
 
   protected final StockRulesRepository stockRulesRepository;
   protected final StockLocationLineRepository stockLocationLineRepository;
+  protected StockLocationTreeService stockLocationTreeService;
 
   protected Set<Long> locationIdSet = new HashSet<>();
 
+  protected static final int ID_CHUNK_SIZE = 1000;
+
   @Inject
   public StockLocationServiceImpl(
       StockLocationRepository stockLocationRepo,
@@ -81,7 +83,8 @@ public class StockLocationServiceImpl implements StockLocationService {
       UnitConversionService unitConversionService,
       StockLocationUtilsService stockLocationUtilsService,
       StockRulesRepository stockRulesRepository,
-      StockLocationLineRepository stockLocationLineRepository) {
+      StockLocationLineRepository stockLocationLineRepository,
+      StockLocationTreeService stockLocationTreeService) {
     this.stockLocationRepo = stockLocationRepo;
     this.stockLocationLineService = stockLocationLineService;
     this.productRepo = productRepo;
@@ -92,6 +95,7 @@ public class StockLocationServiceImpl implements StockLocationService {
     this.stockLocationUtilsService = stockLocationUtilsService;
     this.stockRulesRepository = stockRulesRepository;
     this.stockLocationLineRepository = stockLocationLineRepository;
+    this.stockLocationTreeService = stockLocationTreeService;
   }
 
   protected List<StockLocation> getNonVirtualStockLocations(Long companyId) {
@@ -199,66 +203,40 @@ public class StockLocationServiceImpl implements StockLocationService {
     if (stockLocation == null) {
       return resultList;
     }
-    if (isVirtualInclude) {
-      for (StockLocation subLocation :
-          stockLocationRepo
-              .all()
-              .filter("self.parentStockLocation.id = :stockLocationId")
-              .bind("stockLocationId", stockLocation.getId())
-              .fetch()) {
+    if (stockLocation.getId() == null) {
+      resultList.add(stockLocation);
+      return resultList;
+    }
 
-        resultList.addAll(this.getAllLocationAndSubLocation(subLocation, isVirtualInclude));
-      }
-    } else {
-      for (StockLocation subLocation :
-          stockLocationRepo
-              .all()
-              .filter(
-                  "self.parentStockLocation.id = :stockLocationId AND self.typeSelect != :virtual")
-              .bind("stockLocationId", stockLocation.getId())
-              .bind("virtual", StockLocationRepository.TYPE_VIRTUAL)
-              .fetch()) {
+    List<Long> idList = getAllLocationAndSubLocation(stockLocation.getId(), isVirtualInclude);
+    Map<Long, StockLocation> stockLocationMap = new HashMap<>();
+    for (List<Long> idChunk : Lists.partition(idList, ID_CHUNK_SIZE)) {
+      stockLocationRepo
+          .findByIds(idChunk)
+          .forEach(subLocation -> stockLocationMap.put(subLocation.getId(), subLocation));
+    }
+    stockLocationMap.put(stockLocation.getId(), stockLocation);
 
-        resultList.addAll(this.getAllLocationAndSubLocation(subLocation, isVirtualInclude));
+    for (Long id : idList) {
+      StockLocation subLocation = stockLocationMap.get(id);
+      if (subLocation != null) {
+        resultList.add(subLocation);
       }
     }
-    resultList.add(stockLocation);
 
     return resultList;
   }
 
   public List<Long> getAllLocationAndSubLocation(Long stockLocationId, boolean isVirtualInclude) {
-
-    List<Long> resultList = new ArrayList<>();
-    if (stockLocationId == null) {
-      return resultList;
-    }
-    for (Long subLocationId :
-        JPA.em()
-            .createQuery(
-                "SELECT sl.id FROM StockLocation sl WHERE sl.parentStockLocation.id = :stockLocationId AND (:isVirtual is true OR sl.typeSelect != :isVirtual)",
-                Long.class)
-            .setParameter("stockLocationId", stockLocationId)
-            .setParameter("isVirtual", isVirtualInclude)
-            .getResultList()) {
-      resultList.addAll(this.getAllLocationAndSubLocation(subLocationId, isVirtualInclude));
-    }
-    resultList.add(stockLocationId);
-
-    return resultList;
+    return stockLocationTreeService.getLocationAndSubLocationIds(
+        stockLocationId, isVirtualInclude);
   }
 
   @Override
   public List<Long> getAllLocationAndSubLocationId(
       StockLocation stockLocation, boolean isVirtualInclude) {
-    List<StockLocation> stockLocationList =
-        getAllLocationAndSubLocation(stockLocation, isVirtualInclude);
-    List<Long> stockLocationListId = null;
-    if (stockLocationList != null) {
-      stockLocationListId =
-          stockLocationList.stream().map(StockLocation::getId).collect(Collectors.toList());
-    }
-    return stockLocationListId;
+    return getAllLocationAndSubLocation(
+        stockLocation != null ? stockLocation.getId() : null, isVirtualInclude);
   }
 
   @Override
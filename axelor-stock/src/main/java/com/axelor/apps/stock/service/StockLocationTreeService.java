@@ -0,0 +1,42 @@
+/*
+ * Axelor Business Solutions
+ *
+ * Copyright (C) 2005-2025 Axelor (<http://axelor.com>).
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.axelor.apps.stock.service;
+
+import java.util.List;
+
+/**
+ * Keeps the stock location hierarchy in memory so that the sub-locations of a location can be
+ * found without querying each level of the tree.
+ */
+public interface StockLocationTreeService {
+
+  /**
+   * Get the ids of a stock location and of all its sub-locations, each location being listed
+   * after its sub-locations.
+   *
+   * @param stockLocationId the id of the stock location
+   * @param isVirtualInclude if false, virtual sub-locations and their own sub-locations are
+   *     excluded
+   * @return the ids of the stock location and its sub-locations
+   */
+  List<Long> getLocationAndSubLocationIds(Long stockLocationId, boolean isVirtualInclude);
+
+  /** Discard the hierarchy of the current tenant, it is reloaded on the next call. */
+  void invalidate();
+}
@@ -0,0 +1,116 @@
+/*
+ * Axelor Business Solutions
+ *
+ * Copyright (C) 2005-2025 Axelor (<http://axelor.com>).
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.axelor.apps.stock.service;
+
+import com.axelor.apps.stock.db.repo.StockLocationRepository;
+import com.axelor.db.JPA;
+import com.axelor.db.tenants.TenantResolver;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.inject.Singleton;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+@Singleton
+public class StockLocationTreeServiceImpl implements StockLocationTreeService {
+
+  protected static final int EXPIRATION_MINUTES = 30;
+
+  /** One tree by tenant. */
+  protected final LoadingCache<String, StockLocationTree> cache =
+      CacheBuilder.newBuilder()
+          .expireAfterWrite(EXPIRATION_MINUTES, TimeUnit.MINUTES)
+          .build(CacheLoader.from(tenantId -> loadTree()));
+
+  @Override
+  public List<Long> getLocationAndSubLocationIds(Long stockLocationId, boolean isVirtualInclude) {
+    List<Long> resultList = new ArrayList<>();
+    if (stockLocationId == null) {
+      return resultList;
+    }
+
+    StockLocationTree tree = getTree();
+    addLocationAndSubLocationIds(
+        tree, stockLocationId, isVirtualInclude, resultList, new HashSet<>());
+    return resultList;
+  }
+
+  protected void addLocationAndSubLocationIds(
+      StockLocationTree tree,
+      Long stockLocationId,
+      boolean isVirtualInclude,
+      List<Long> resultList,
+      Set<Long> visitedIdSet) {
+    if (!visitedIdSet.add(stockLocationId)) {
+      return;
+    }
+    for (Long subLocationId :
+        tree.childrenMap.getOrDefault(stockLocationId, Collections.emptyList())) {
+      if (isVirtualInclude || !tree.virtualIdSet.contains(subLocationId)) {
+        addLocationAndSubLocationIds(
+            tree, subLocationId, isVirtualInclude, resultList, visitedIdSet);
+      }
+    }
+    resultList.add(stockLocationId);
+  }
+
+  @Override
+  public void invalidate() {
+    cache.invalidate(TenantResolver.currentTenantIdentifier());
+  }
+
+  protected StockLocationTree getTree() {
+    return cache.getUnchecked(TenantResolver.currentTenantIdentifier());
+  }
+
+  protected StockLocationTree loadTree() {
+    StockLocationTree tree = new StockLocationTree();
+    List<Object[]> rowList =
+        JPA.em()
+            .createQuery(
+                "SELECT self.id, self.parentStockLocation.id, self.typeSelect "
+                    + "FROM StockLocation self ORDER BY self.id",
+                Object[].class)
+            .getResultList();
+
+    for (Object[] row : rowList) {
+      Long id = (Long) row[0];
+      Long parentId = (Long) row[1];
+      if (parentId != null) {
+        tree.childrenMap.computeIfAbsent(parentId, key -> new ArrayList<>()).add(id);
+      }
+      if (Integer.valueOf(StockLocationRepository.TYPE_VIRTUAL).equals(row[2])) {
+        tree.virtualIdSet.add(id);
+      }
+    }
+    return tree;
+  }
+
+  protected static class StockLocationTree {
+    protected final Map<Long, List<Long>> childrenMap = new HashMap<>();
+    protected final Set<Long> virtualIdSet = new HashSet<>();
+  }
+}
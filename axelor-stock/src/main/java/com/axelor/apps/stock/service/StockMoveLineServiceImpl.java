@@ -65,6 +65,7 @@ import java.math.RoundingMode;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -94,6 +95,7 @@ public class StockMoveLineServiceImpl implements StockMoveLineService {
   protected StockLocationLineHistoryService stockLocationLineHistoryService;
   protected StockLocationLineFetchService stockLocationLineFetchService;
   protected TrackingNumberCreateService trackingNumberCreateService;
+  protected StockLocationLineLockService stockLocationLineLockService;
 
   @Inject
   public StockMoveLineServiceImpl(
@@ -110,7 +112,8 @@ public class StockMoveLineServiceImpl implements StockMoveLineService {
       ShippingCoefService shippingCoefService,
       StockLocationLineHistoryService stockLocationLineHistoryService,
       StockLocationLineFetchService stockLocationLineFetchService,
-      TrackingNumberCreateService trackingNumberCreateService) {
+      TrackingNumberCreateService trackingNumberCreateService,
+      StockLocationLineLockService stockLocationLineLockService) {
     this.trackingNumberService = trackingNumberService;
     this.appBaseService = appBaseService;
     this.appStockService = appStockService;
@@ -125,6 +128,7 @@ public class StockMoveLineServiceImpl implements StockMoveLineService {
     this.stockLocationLineHistoryService = stockLocationLineHistoryService;
     this.stockLocationLineFetchService = stockLocationLineFetchService;
     this.trackingNumberCreateService = trackingNumberCreateService;
+    this.stockLocationLineLockService = stockLocationLineLockService;
   }
 
   @Override
@@ -612,7 +616,10 @@ public class StockMoveLineServiceImpl implements StockMoveLineService {
       boolean generateOrder)
       throws AxelorException {
 
-    stockMoveLineList = MoreObjects.firstNonNull(stockMoveLineList, Collections.emptyList());
+    stockMoveLineList =
+        getOrderedStockMoveLines(
+            MoreObjects.firstNonNull(stockMoveLineList, Collections.emptyList()));
+    stockLocationLineLockService.lockStockLocationLines(stockMoveLineList);
 
     for (StockMoveLine stockMoveLine : stockMoveLineList) {
       StockLocation fromStockLocation = stockMoveLine.getFromStockLocation();
@@ -668,6 +675,29 @@ public class StockMoveLineServiceImpl implements StockMoveLineService {
     }
   }
 
+  /**
+   * Sort the lines by product and tracking number so that concurrent stock moves update the same
+   * stock location lines in the same order. Lines of a same product and tracking number keep their
+   * order.
+   */
+  protected List<StockMoveLine> getOrderedStockMoveLines(List<StockMoveLine> stockMoveLineList) {
+    return stockMoveLineList.stream()
+        .sorted(
+            Comparator.comparing(
+                    (StockMoveLine stockMoveLine) ->
+                        stockMoveLine.getProduct() != null
+                            ? stockMoveLine.getProduct().getId()
+                            : null,
+                    Comparator.nullsLast(Comparator.<Long>naturalOrder()))
+                .thenComparing(
+                    stockMoveLine ->
+                        stockMoveLine.getTrackingNumber() != null
+                            ? stockMoveLine.getTrackingNumber().getId()
+                            : null,
+                    Comparator.nullsFirst(Comparator.<Long>naturalOrder())))
+        .collect(Collectors.toList());
+  }
+
   @Override
   public void updateAveragePriceAndLocationLineHistory(
       StockLocation stockLocation,
@@ -23,13 +23,14 @@ import com.axelor.apps.base.db.Address;
 import com.axelor.apps.base.service.PartnerService;
 import com.axelor.apps.base.service.app.AppBaseService;
 import com.axelor.apps.stock.db.StockMove;
-import com.axelor.apps.stock.db.StockMoveLine;
 import com.axelor.apps.stock.db.repo.StockMoveLineRepository;
 import com.axelor.apps.stock.db.repo.StockMoveRepository;
 import com.axelor.apps.stock.exception.StockExceptionMessage;
+import com.axelor.db.JPA;
 import com.axelor.i18n.I18n;
 import com.google.inject.Inject;
 import com.google.inject.persist.Transactional;
+import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Comparator;
@@ -162,11 +163,16 @@ public class StockMoveMergingServiceImpl implements StockMoveMergingService {
 
     fillStockMoveFields(stockMoveList, stockMove, mergedStockMove);
 
-    mergeStockMoveLines(mergedStockMove, stockMoveList);
-    mergedStockMove.setExTaxTotal(stockMoveToolService.compute(mergedStockMove));
+    mergedStockMove.setExTaxTotal(
+        stockMoveList.stream()
+            .map(StockMove::getExTaxTotal)
+            .filter(Objects::nonNull)
+            .reduce(BigDecimal.ZERO, BigDecimal::add));
     stockMoveList.forEach(stockMoveService::setMergedStatus);
+    mergedStockMove = stockMoveRepository.save(mergedStockMove);
 
-    return stockMoveRepository.save(mergedStockMove);
+    mergeStockMoveLines(mergedStockMove, stockMoveList);
+    return mergedStockMove;
   }
 
   protected void fillStockMoveFields(
@@ -209,12 +215,24 @@ public class StockMoveMergingServiceImpl implements StockMoveMergingService {
     }
   }
 
+  /**
+   * Move the lines of the merged stock moves to the saved new stock move with bulk updates instead
+   * of copying them, then reload the stock moves.
+   */
   protected void mergeStockMoveLines(StockMove mergedStockMove, List<StockMove> stockMoveList) {
-    for (StockMove stockMove : stockMoveList) {
-      for (StockMoveLine stockMoveLine : stockMove.getStockMoveLineList()) {
-        mergedStockMove.addStockMoveLineListItem(
-            stockMoveLineRepository.copy(stockMoveLine, false));
-      }
-    }
+    stockMoveList.forEach(stockMove -> stockMove.setExTaxTotal(BigDecimal.ZERO));
+    JPA.flush();
+
+    List<Long> stockMoveLineIdList =
+        JPA.em()
+            .createQuery(
+                "SELECT self.id FROM StockMoveLine self WHERE self.stockMove IN :stockMoves",
+                Long.class)
+            .setParameter("stockMoves", stockMoveList)
+            .getResultList();
+    stockMoveToolService.moveStockMoveLines(stockMoveLineIdList, mergedStockMove);
+
+    JPA.em().refresh(mergedStockMove);
+    stockMoveList.forEach(JPA.em()::refresh);
   }
 }
@@ -54,6 +54,7 @@ import com.axelor.apps.stock.exception.StockExceptionMessage;
 import com.axelor.apps.stock.service.app.AppStockService;
 import com.axelor.apps.stock.service.config.StockConfigService;
 import com.axelor.common.ObjectUtils;
+import com.axelor.db.JPA;
 import com.axelor.i18n.I18n;
 import com.axelor.inject.Beans;
 import com.axelor.message.db.Template;
@@ -74,6 +75,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import org.apache.commons.collections.CollectionUtils;
 import org.slf4j.Logger;
@@ -94,6 +96,8 @@ public class StockMoveServiceImpl implements StockMoveService {
   protected StockConfigService stockConfigService;
   protected AppStockService appStockService;
   protected ProductCompanyService productCompanyService;
+  protected StockLedgerService stockLedgerService;
+  protected StockLocationLineLockService stockLocationLineLockService;
 
   @Inject
   public StockMoveServiceImpl(
@@ -107,7 +111,9 @@ public class StockMoveServiceImpl implements StockMoveService {
       PartnerStockSettingsService partnerStockSettingsService,
       StockConfigService stockConfigService,
       AppStockService appStockService,
-      ProductCompanyService productCompanyService) {
+      ProductCompanyService productCompanyService,
+      StockLedgerService stockLedgerService,
+      StockLocationLineLockService stockLocationLineLockService) {
     this.stockMoveLineService = stockMoveLineService;
     this.stockMoveToolService = stockMoveToolService;
     this.stockMoveLineRepo = stockMoveLineRepository;
@@ -119,6 +125,8 @@ public class StockMoveServiceImpl implements StockMoveService {
     this.stockConfigService = stockConfigService;
     this.appStockService = appStockService;
     this.productCompanyService = productCompanyService;
+    this.stockLedgerService = stockLedgerService;
+    this.stockLocationLineLockService = stockLocationLineLockService;
   }
 
   /**
@@ -473,6 +481,19 @@ public class StockMoveServiceImpl implements StockMoveService {
         true);
   }
 
+  /**
+   * Lock the stock location lines updated by both lists of stock move lines before updating them,
+   * so that the locks of the two successive updates are taken in one global order.
+   */
+  protected void lockStockLocationLines(
+      List<StockMoveLine> plannedStockMoveLineList, List<StockMoveLine> stockMoveLineList)
+      throws AxelorException {
+    List<StockMoveLine> allStockMoveLineList = new ArrayList<>();
+    Optional.ofNullable(plannedStockMoveLineList).ifPresent(allStockMoveLineList::addAll);
+    Optional.ofNullable(stockMoveLineList).ifPresent(allStockMoveLineList::addAll);
+    stockLocationLineLockService.lockStockLocationLines(allStockMoveLineList);
+  }
+
   protected void copyPlannedStockMovLines(StockMove stockMove) {
     List<StockMoveLine> stockMoveLineList =
         MoreObjects.firstNonNull(stockMove.getStockMoveLineList(), Collections.emptyList());
@@ -531,6 +552,8 @@ public class StockMoveServiceImpl implements StockMoveService {
     stockMoveLineService.checkExpirationDates(stockMove);
 
     setRealizedStatus(stockMove);
+    lockStockLocationLines(
+        stockMove.getPlannedStockMoveLineList(), stockMove.getStockMoveLineList());
     stockMoveLineService.updateLocations(
         initialStatus,
         StockMoveRepository.STATUS_CANCELED,
@@ -791,11 +814,13 @@ public class StockMoveServiceImpl implements StockMoveService {
 
     setOrigin(stockMove, newStockMove);
     newStockMove.setOrigin(stockMove.getOrigin());
+    BigDecimal exTaxTotal = BigDecimal.ZERO;
     for (StockMoveLine stockMoveLine : stockMoveLines) {
 
       if (stockMoveLine.getQty().compareTo(stockMoveLine.getRealQty()) > 0) {
         StockMoveLine newStockMoveLine = copySplittedStockMoveLine(stockMoveLine);
         newStockMove.addStockMoveLineListItem(newStockMoveLine);
+        exTaxTotal = exTaxTotal.add(stockMoveToolService.computeExTaxTotal(newStockMoveLine));
       }
     }
 
@@ -816,7 +841,7 @@ public class StockMoveServiceImpl implements StockMoveService {
                 + " "
                 + stockMove.getStockMoveSeq()
                 + " )"));
-    newStockMove.setExTaxTotal(stockMoveToolService.compute(newStockMove));
+    newStockMove.setExTaxTotal(exTaxTotal);
 
     plan(newStockMove);
     newStockMove.setStockMoveOrigin(stockMove);
@@ -1090,6 +1115,13 @@ public class StockMoveServiceImpl implements StockMoveService {
     StockMove newStockMove = stockMoveRepo.copy(originalStockMove, false);
     newStockMove.setStockMoveLineList(new ArrayList<>());
 
+    Map<Long, StockMoveLine> originalStockMoveLineMap =
+        originalStockMove.getStockMoveLineList().stream()
+            .collect(Collectors.toMap(StockMoveLine::getId, Function.identity()));
+    List<Long> movedStockMoveLineIdList = new ArrayList<>();
+    BigDecimal originalExTaxTotal = originalStockMove.getExTaxTotal();
+    BigDecimal newExTaxTotal = BigDecimal.ZERO;
+
     modifiedStockMoveLines =
         modifiedStockMoveLines.stream()
             .filter(stockMoveLine -> stockMoveLine.getQty().compareTo(BigDecimal.ZERO) != 0)
@@ -1097,37 +1129,71 @@ public class StockMoveServiceImpl implements StockMoveService {
     for (StockMoveLine moveLine : modifiedStockMoveLines) {
 
       // find the original move line to update it
-      Optional<StockMoveLine> correspondingMoveLine =
-          originalStockMove.getStockMoveLineList().stream()
-              .filter(stockMoveLine -> stockMoveLine.getId().equals(moveLine.getId()))
-              .findFirst();
+      StockMoveLine correspondingMoveLine = originalStockMoveLineMap.get(moveLine.getId());
       if (BigDecimal.ZERO.compareTo(moveLine.getQty()) > 0
-          || (correspondingMoveLine.isPresent()
-              && moveLine.getQty().compareTo(correspondingMoveLine.get().getRealQty()) > 0)) {
+          || (correspondingMoveLine != null
+              && moveLine.getQty().compareTo(correspondingMoveLine.getRealQty()) > 0)) {
         throw new AxelorException(
             TraceBackRepository.CATEGORY_INCONSISTENCY,
             I18n.get(StockExceptionMessage.STOCK_MOVE_16),
             originalStockMove);
       }
+      if (correspondingMoveLine == null) {
+        continue;
+      }
 
-      if (correspondingMoveLine.isPresent()) {
-        newStockMove.addStockMoveLineListItem(
-            createSplitStockMoveLine(originalStockMove, correspondingMoveLine.get(), moveLine));
+      BigDecimal lineExTaxTotal = stockMoveToolService.computeExTaxTotal(correspondingMoveLine);
+      originalExTaxTotal = originalExTaxTotal.subtract(lineExTaxTotal);
+      if (moveLine.getQty().compareTo(correspondingMoveLine.getQty()) == 0) {
+        // the whole line goes to the new stock move: move it instead of copying it
+        updateMovedStockMoveLine(correspondingMoveLine, moveLine);
+        movedStockMoveLineIdList.add(correspondingMoveLine.getId());
+        newExTaxTotal =
+            newExTaxTotal.add(stockMoveToolService.computeExTaxTotal(correspondingMoveLine));
+      } else {
+        StockMoveLine newStockMoveLine =
+            createSplitStockMoveLine(originalStockMove, correspondingMoveLine, moveLine);
+        newStockMove.addStockMoveLineListItem(newStockMoveLine);
+        originalExTaxTotal =
+            originalExTaxTotal.add(stockMoveToolService.computeExTaxTotal(correspondingMoveLine));
+        newExTaxTotal = newExTaxTotal.add(stockMoveToolService.computeExTaxTotal(newStockMoveLine));
       }
     }
 
-    if (!newStockMove.getStockMoveLineList().isEmpty()) {
-      newStockMove.setExTaxTotal(stockMoveToolService.compute(newStockMove));
-      originalStockMove.setExTaxTotal(stockMoveToolService.compute(originalStockMove));
-      newStockMove = stockMoveRepo.save(newStockMove);
-      if (originalStatusSelect == StockMoveRepository.STATUS_PLANNED) {
-        plan(originalStockMove);
-        plan(newStockMove);
-      }
-      return newStockMove;
-    } else {
+    if (newStockMove.getStockMoveLineList().isEmpty() && movedStockMoveLineIdList.isEmpty()) {
       return null;
     }
+
+    newStockMove.setExTaxTotal(newExTaxTotal);
+    originalStockMove.setExTaxTotal(originalExTaxTotal);
+    newStockMove = stockMoveRepo.save(newStockMove);
+    if (!movedStockMoveLineIdList.isEmpty()) {
+      JPA.flush();
+      stockMoveToolService.moveStockMoveLines(movedStockMoveLineIdList, newStockMove);
+      JPA.em().refresh(originalStockMove);
+      JPA.em().refresh(newStockMove);
+    }
+    if (originalStatusSelect == StockMoveRepository.STATUS_PLANNED) {
+      plan(originalStockMove);
+      plan(newStockMove);
+    }
+    return newStockMove;
+  }
+
+  /**
+   * Update a stock move line moved as a whole by {@link this#splitInto2(StockMove, List)} like the
+   * copy created by {@link this#createSplitStockMoveLine(StockMove, StockMoveLine, StockMoveLine)}.
+   *
+   * @param originalStockMoveLine the original stock move line
+   * @param modifiedStockMoveLine the modified stock move line corresponding to the original stock
+   *     move line
+   */
+  protected void updateMovedStockMoveLine(
+      StockMoveLine originalStockMoveLine, StockMoveLine modifiedStockMoveLine) {
+    BigDecimal qty = modifiedStockMoveLine.getQty();
+    originalStockMoveLine.setRealQty(qty);
+    originalStockMoveLine.setTotalNetMass(originalStockMoveLine.getNetMass().multiply(qty));
+    originalStockMoveLine.setUnitPriceUntaxed(modifiedStockMoveLine.getUnitPriceUntaxed());
   }
 
   /**
@@ -1194,51 +1260,21 @@ public class StockMoveServiceImpl implements StockMoveService {
 
     List<Map<String, Object>> stock = new ArrayList<>();
 
-    while (!fromDate.isAfter(toDate)) {
-      Double qty = getStock(locationId, productId, fromDate);
-      Map<String, Object> dateStock = new HashMap<>();
-      dateStock.put("$date", fromDate);
-      dateStock.put("$qty", new BigDecimal(qty));
-      stock.add(dateStock);
-      fromDate = fromDate.plusDays(1);
+    if (fromDate.isAfter(toDate)) {
+      return stock;
     }
 
-    return stock;
-  }
-
-  protected Double getStock(Long locationId, Long productId, LocalDate date) {
+    stockLedgerService
+        .getStockPerDay(locationId, productId, fromDate, toDate)
+        .forEach(
+            (date, qty) -> {
+              Map<String, Object> dateStock = new HashMap<>();
+              dateStock.put("$date", date);
+              dateStock.put("$qty", qty);
+              stock.add(dateStock);
+            });
 
-    List<StockMoveLine> inLines =
-        stockMoveLineRepo
-            .all()
-            .filter(
-                "self.product.id = ?1 AND self.toStockLocation.id = ?2 AND self.stockMove.statusSelect != ?3 AND (self.stockMove.estimatedDate <= ?4 OR self.stockMove.realDate <= ?4)",
-                productId,
-                locationId,
-                StockMoveRepository.STATUS_CANCELED,
-                date)
-            .fetch();
-
-    List<StockMoveLine> outLines =
-        stockMoveLineRepo
-            .all()
-            .filter(
-                "self.product.id = ?1 AND self.fromStockLocation.id = ?2 AND self.stockMove.statusSelect != ?3 AND (self.stockMove.estimatedDate <= ?4 OR self.stockMove.realDate <= ?4)",
-                productId,
-                locationId,
-                StockMoveRepository.STATUS_CANCELED,
-                date)
-            .fetch();
-
-    Double inQty =
-        inLines.stream().mapToDouble(inl -> Double.parseDouble(inl.getQty().toString())).sum();
-
-    Double outQty =
-        outLines.stream().mapToDouble(out -> Double.parseDouble(out.getQty().toString())).sum();
-
-    Double qty = inQty - outQty;
-
-    return qty;
+    return stock;
   }
 
   @Override
@@ -1412,6 +1448,7 @@ public class StockMoveServiceImpl implements StockMoveService {
     List<StockMoveLine> stockMoveLineList =
         Optional.ofNullable(stockMove.getStockMoveLineList()).orElse(new ArrayList<>());
 
+    lockStockLocationLines(savedStockMoveLineList, stockMoveLineList);
     stockMoveLineService.updateLocations(
         StockMoveRepository.STATUS_PLANNED,
         StockMoveRepository.STATUS_CANCELED,
@@ -25,6 +25,7 @@ import com.axelor.apps.base.db.Partner;
 import com.axelor.apps.stock.db.StockMove;
 import com.axelor.apps.stock.db.StockMoveLine;
 import java.math.BigDecimal;
+import java.util.List;
 
 public interface StockMoveToolService {
 
@@ -42,6 +43,26 @@ public interface StockMoveToolService {
 
   public BigDecimal compute(StockMove stockMove);
 
+  /**
+   * Compute the amount of a stock move line in the total of its stock move, so that the total can
+   * be updated when lines are moved between stock moves.
+   *
+   * @param stockMoveLine
+   * @return the real quantity multiplied by the unit price, rounded like in {@link
+   *     #compute(StockMove)}
+   */
+  BigDecimal computeExTaxTotal(StockMoveLine stockMoveLine);
+
+  /**
+   * Move stock move lines to another stock move with bulk updates, without loading them. Pending
+   * changes must be flushed before, and the stock moves holding the lines in memory must be
+   * refreshed after.
+   *
+   * @param stockMoveLineIdList the ids of the stock move lines to move
+   * @param stockMove the saved stock move receiving the lines
+   */
+  void moveStockMoveLines(List<Long> stockMoveLineIdList, StockMove stockMove);
+
   public boolean getDefaultISPM(Partner clientPartner, Address toAddress);
 
   /**
@@ -32,14 +32,21 @@ import com.axelor.apps.stock.db.StockMoveLine;
 import com.axelor.apps.stock.db.repo.StockMoveLineRepository;
 import com.axelor.apps.stock.db.repo.StockMoveRepository;
 import com.axelor.apps.stock.exception.StockExceptionMessage;
+import com.axelor.auth.AuthUtils;
+import com.axelor.auth.db.User;
 import com.axelor.common.StringUtils;
+import com.axelor.db.JPA;
 import com.axelor.i18n.I18n;
 import com.axelor.inject.Beans;
 import com.google.common.base.Strings;
+import com.google.common.collect.Lists;
 import com.google.inject.Inject;
 import java.lang.invoke.MethodHandles;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -48,6 +55,8 @@ public class StockMoveToolServiceImpl implements StockMoveToolService {
 
   private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
 
+  protected static final int STOCK_MOVE_LINE_CHUNK_SIZE = 1000;
+
   protected StockMoveLineService stockMoveLineService;
   protected AppBaseService appBaseService;
   protected StockMoveRepository stockMoveRepo;
@@ -76,17 +85,55 @@ public class StockMoveToolServiceImpl implements StockMoveToolService {
     BigDecimal exTaxTotal = BigDecimal.ZERO;
     if (stockMove.getStockMoveLineList() != null && !stockMove.getStockMoveLineList().isEmpty()) {
       for (StockMoveLine stockMoveLine : stockMove.getStockMoveLineList()) {
-        exTaxTotal =
-            exTaxTotal.add(
-                stockMoveLine
-                    .getRealQty()
-                    .multiply(stockMoveLine.getUnitPriceUntaxed())
-                    .setScale(2, RoundingMode.HALF_UP));
+        exTaxTotal = exTaxTotal.add(computeExTaxTotal(stockMoveLine));
       }
     }
     return exTaxTotal;
   }
 
+  @Override
+  public BigDecimal computeExTaxTotal(StockMoveLine stockMoveLine) {
+    return stockMoveLine
+        .getRealQty()
+        .multiply(stockMoveLine.getUnitPriceUntaxed())
+        .setScale(2, RoundingMode.HALF_UP);
+  }
+
+  @Override
+  public void moveStockMoveLines(List<Long> stockMoveLineIdList, StockMove stockMove) {
+    StringBuilder query =
+        new StringBuilder("UPDATE StockMoveLine self SET self.stockMove = :stockMove");
+    for (String fieldName : getResetFieldNamesOfMovedLines()) {
+      query.append(", self.").append(fieldName).append(" = NULL");
+    }
+    query.append(", self.updatedOn = :updatedOn, self.updatedBy = :updatedBy");
+    query.append(", self.version = self.version + 1 WHERE self.id IN :stockMoveLineIds");
+
+    // the bulk update bypasses the audit of the entities
+    LocalDateTime updatedOn = LocalDateTime.now();
+    User updatedBy = AuthUtils.getUser();
+    for (List<Long> stockMoveLineIdChunk :
+        Lists.partition(stockMoveLineIdList, STOCK_MOVE_LINE_CHUNK_SIZE)) {
+      JPA.em()
+          .createQuery(query.toString())
+          .setParameter("stockMove", stockMove)
+          .setParameter("updatedOn", updatedOn)
+          .setParameter("updatedBy", updatedBy)
+          .setParameter("stockMoveLineIds", stockMoveLineIdChunk)
+          .executeUpdate();
+    }
+  }
+
+  /**
+   * The fields of the stock move lines reset when they are moved to another stock move, the same
+   * ones as when a stock move line is copied.
+   */
+  protected List<String> getResetFieldNamesOfMovedLines() {
+    List<String> fieldNameList = new ArrayList<>();
+    fieldNameList.add("plannedStockMove");
+    return fieldNameList;
+  }
+
   /**
    * Méthode permettant d'obtenir la séquence du StockMove.
    *
@@ -0,0 +1,119 @@
+/*
+ * Axelor Business Solutions
+ *
+ * Copyright (C) 2005-2025 Axelor (<http://axelor.com>).
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.axelor.apps.stock.service;
+
+import com.axelor.apps.base.AxelorException;
+import com.axelor.apps.base.db.Product;
+import com.axelor.apps.base.db.Unit;
+import com.axelor.apps.base.db.repo.ProductRepository;
+import com.axelor.apps.base.db.repo.TraceBackRepository;
+import com.axelor.apps.base.db.repo.UnitRepository;
+import com.axelor.apps.base.exceptions.BaseExceptionMessage;
+import com.axelor.apps.base.service.UnitConversionService;
+import com.axelor.apps.base.service.exception.TraceBackService;
+import com.axelor.i18n.I18n;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Unit conversion coefficients resolved once per (start unit, end unit, product) for the duration
+ * of a bulk computation. Instances are not thread safe and are meant to be created for one
+ * computation.
+ */
+public class UnitConversionFactorCache {
+
+  protected final UnitConversionService unitConversionService;
+  protected final UnitRepository unitRepository;
+  protected final ProductRepository productRepository;
+
+  protected final Map<List<Long>, BigDecimal> factorMap = new HashMap<>();
+
+  public UnitConversionFactorCache(
+      UnitConversionService unitConversionService,
+      UnitRepository unitRepository,
+      ProductRepository productRepository) {
+    this.unitConversionService = unitConversionService;
+    this.unitRepository = unitRepository;
+    this.productRepository = productRepository;
+  }
+
+  /**
+   * Convert a quantity between two units, rounded to the scale of the quantity like {@link
+   * UnitConversionService#convert(Unit, Unit, BigDecimal, int, Product)}.
+   */
+  public BigDecimal convert(Long startUnitId, Long endUnitId, Long productId, BigDecimal value)
+      throws AxelorException {
+    if (Objects.equals(startUnitId, endUnitId)) {
+      return value;
+    }
+    return value
+        .multiply(getFactor(startUnitId, endUnitId, productId))
+        .setScale(value.scale(), RoundingMode.HALF_UP);
+  }
+
+  public BigDecimal getFactor(Long startUnitId, Long endUnitId, Long productId)
+      throws AxelorException {
+    if (Objects.equals(startUnitId, endUnitId)) {
+      return BigDecimal.ONE;
+    }
+    if (startUnitId == null) {
+      throw new AxelorException(
+          TraceBackRepository.CATEGORY_CONFIGURATION_ERROR,
+          I18n.get(BaseExceptionMessage.UNIT_CONVERSION_2));
+    }
+    if (endUnitId == null) {
+      throw new AxelorException(
+          TraceBackRepository.CATEGORY_CONFIGURATION_ERROR,
+          I18n.get(BaseExceptionMessage.UNIT_CONVERSION_4));
+    }
+
+    List<Long> key = Arrays.asList(startUnitId, endUnitId, productId);
+    BigDecimal factor = factorMap.get(key);
+    if (factor != null) {
+      return factor;
+    }
+
+    Unit startUnit = unitRepository.find(startUnitId);
+    Unit endUnit = unitRepository.find(endUnitId);
+    Product product = productId != null ? productRepository.find(productId) : null;
+    try {
+      factor = unitConversionService.getCoefficient(startUnit, endUnit, product);
+    } catch (IOException | ClassNotFoundException e) {
+      TraceBackService.trace(e);
+      factor = BigDecimal.ONE;
+    }
+
+    if (factor.signum() == 0) {
+      throw new AxelorException(
+          TraceBackRepository.CATEGORY_CONFIGURATION_ERROR,
+          I18n.get(BaseExceptionMessage.COEFFICIENT_SHOULD_NOT_BE_ZERO),
+          startUnit.getName(),
+          endUnit.getName());
+    }
+
+    factorMap.put(key, factor);
+    return factor;
+  }
+}
@@ -22,10 +22,17 @@ import com.axelor.apps.base.AxelorException;
 import com.axelor.apps.base.db.Company;
 import com.axelor.apps.base.db.Product;
 import java.math.BigDecimal;
+import java.util.Collection;
 
 public interface WeightedAveragePriceService {
 
   void computeAvgPriceForProduct(Product product) throws AxelorException;
 
+  /**
+   * Same as {@link #computeAvgPriceForProduct(Product)} for a set of products, the stock values of
+   * the products being summed by company in one query per chunk of products.
+   */
+  void computeAvgPriceForProducts(Collection<Long> productIdList) throws AxelorException;
+
   BigDecimal computeAvgPriceForCompany(Product product, Company company);
 }
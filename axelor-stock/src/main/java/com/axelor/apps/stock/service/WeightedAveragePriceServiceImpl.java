@@ -30,16 +30,25 @@ import com.axelor.apps.stock.db.repo.StockLocationRepository;
 import com.axelor.db.JPA;
 import com.axelor.inject.Beans;
 import com.axelor.meta.db.MetaField;
+import com.google.common.collect.Lists;
 import com.google.inject.Inject;
 import com.google.inject.persist.Transactional;
 import com.google.inject.servlet.RequestScoped;
 import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 @RequestScoped
 public class WeightedAveragePriceServiceImpl implements WeightedAveragePriceService {
 
+  protected static final int PRODUCT_CHUNK_SIZE = 1000;
+
   protected ProductRepository productRepo;
   protected AppBaseService appBaseService;
   protected ProductCompanyService productCompanyService;
@@ -57,6 +66,40 @@ public class WeightedAveragePriceServiceImpl implements WeightedAveragePriceServ
   @Override
   @Transactional(rollbackOn = {Exception.class})
   public void computeAvgPriceForProduct(Product product) throws AxelorException {
+    computeAvgPriceForProduct(
+        product,
+        getCompanyStockValueMap(Collections.singletonList(product.getId()))
+            .getOrDefault(product.getId(), Collections.emptyMap()));
+  }
+
+  @Override
+  @Transactional(rollbackOn = {Exception.class})
+  public void computeAvgPriceForProducts(Collection<Long> productIdList) throws AxelorException {
+    for (List<Long> productIdChunk :
+        Lists.partition(new ArrayList<>(productIdList), PRODUCT_CHUNK_SIZE)) {
+      Map<Long, Map<Long, BigDecimal[]>> companyStockValueMap =
+          getCompanyStockValueMap(productIdChunk);
+      for (Product product :
+          productRepo
+              .all()
+              .filter("self.id IN :productIds")
+              .bind("productIds", productIdChunk)
+              .fetch()) {
+        computeAvgPriceForProduct(
+            product,
+            companyStockValueMap.getOrDefault(product.getId(), Collections.emptyMap()));
+      }
+    }
+  }
+
+  /**
+   * Update the average price of the product, and of its company specific values, from the stock
+   * values of its internal stock locations.
+   *
+   * @param companyStockValueMap the stock value and quantity of the product by company id
+   */
+  protected void computeAvgPriceForProduct(
+      Product product, Map<Long, BigDecimal[]> companyStockValueMap) throws AxelorException {
 
     Boolean avgPriceHandledByCompany = false;
     Set<MetaField> companySpecificFields =
@@ -72,7 +115,7 @@ public class WeightedAveragePriceServiceImpl implements WeightedAveragePriceServ
         && !product.getProductCompanyList().isEmpty()) {
       for (ProductCompany productCompany : product.getProductCompanyList()) {
         Company company = productCompany.getCompany();
-        BigDecimal productAvgPrice = this.computeAvgPriceForCompany(product, company);
+        BigDecimal productAvgPrice = computeAvgPrice(companyStockValueMap, company.getId());
         if (productAvgPrice.compareTo(BigDecimal.ZERO) == 0) {
           continue;
         }
@@ -87,7 +130,7 @@ public class WeightedAveragePriceServiceImpl implements WeightedAveragePriceServ
         }
       }
     } else {
-      BigDecimal productAvgPrice = this.computeAvgPriceForCompany(product, null);
+      BigDecimal productAvgPrice = computeAvgPrice(companyStockValueMap, null);
 
       if (productAvgPrice.compareTo(BigDecimal.ZERO) == 0) {
         return;
@@ -104,6 +147,59 @@ public class WeightedAveragePriceServiceImpl implements WeightedAveragePriceServ
     productRepo.save(product);
   }
 
+  /**
+   * Sum the stock values and quantities of the internal stock location lines of the products,
+   * grouped by product id then by company id. The company id is null for the stock locations
+   * without company.
+   */
+  protected Map<Long, Map<Long, BigDecimal[]>> getCompanyStockValueMap(List<Long> productIdList) {
+    Map<Long, Map<Long, BigDecimal[]>> companyStockValueMap = new HashMap<>();
+    for (Object[] row :
+        JPA.em()
+            .createQuery(
+                "SELECT product.id, company.id, SUM(self.avgPrice * self.currentQty),"
+                    + " SUM(self.currentQty)"
+                    + " FROM StockLocationLine self"
+                    + " JOIN self.product product"
+                    + " JOIN self.stockLocation stockLocation"
+                    + " LEFT JOIN stockLocation.company company"
+                    + " WHERE product.id IN :productIds"
+                    + " AND stockLocation.typeSelect != :virtual"
+                    + " GROUP BY product.id, company.id",
+                Object[].class)
+            .setParameter("productIds", productIdList)
+            .setParameter("virtual", StockLocationRepository.TYPE_VIRTUAL)
+            .getResultList()) {
+      companyStockValueMap
+          .computeIfAbsent((Long) row[0], key -> new HashMap<>())
+          .put(
+              (Long) row[1],
+              new BigDecimal[] {
+                row[2] != null ? (BigDecimal) row[2] : BigDecimal.ZERO,
+                row[3] != null ? (BigDecimal) row[3] : BigDecimal.ZERO
+              });
+    }
+    return companyStockValueMap;
+  }
+
+  /** @param companyId the company to compute the average price for, null for all companies */
+  protected BigDecimal computeAvgPrice(
+      Map<Long, BigDecimal[]> companyStockValueMap, Long companyId) {
+    BigDecimal stockValue = BigDecimal.ZERO;
+    BigDecimal qtyTot = BigDecimal.ZERO;
+    for (Map.Entry<Long, BigDecimal[]> entry : companyStockValueMap.entrySet()) {
+      if (companyId == null || companyId.equals(entry.getKey())) {
+        stockValue = stockValue.add(entry.getValue()[0]);
+        qtyTot = qtyTot.add(entry.getValue()[1]);
+      }
+    }
+    if (qtyTot.signum() == 0) {
+      return BigDecimal.ZERO;
+    }
+    return stockValue.divide(
+        qtyTot, appBaseService.getNbDecimalDigitForUnitPrice(), RoundingMode.HALF_UP);
+  }
+
   @Override
   public BigDecimal computeAvgPriceForCompany(Product product, Company company) {
     Long productId = product.getId();
@@ -21,289 +21,151 @@ package com.axelor.apps.stock.service.batch;
 import com.axelor.apps.base.AxelorException;
 import com.axelor.apps.base.db.repo.BatchRepository;
 import com.axelor.apps.base.db.repo.ExceptionOriginRepository;
+import com.axelor.apps.base.db.repo.ProductRepository;
+import com.axelor.apps.base.exceptions.BaseExceptionMessage;
 import com.axelor.apps.base.service.administration.AbstractBatch;
 import com.axelor.apps.base.service.exception.TraceBackService;
-import com.axelor.apps.stock.db.StockMove;
-import com.axelor.apps.stock.db.StockMoveLine;
+import com.axelor.apps.base.service.parallel.ParallelProcessService;
+import com.axelor.apps.stock.db.StockBatch;
 import com.axelor.apps.stock.db.repo.StockLocationRepository;
-import com.axelor.apps.stock.db.repo.StockMoveLineRepository;
-import com.axelor.apps.stock.db.repo.StockMoveRepository;
-import com.axelor.apps.stock.service.StockMoveLineService;
-import com.axelor.apps.stock.service.StockMoveService;
-import com.axelor.apps.stock.service.batch.model.StockMoveGroup;
-import com.axelor.apps.stock.service.batch.model.StockMoveLineOrigin;
-import com.axelor.apps.stock.service.batch.model.TrackProduct;
+import com.axelor.apps.stock.db.repo.TrackingNumberRepository;
+import com.axelor.apps.stock.exception.StockExceptionMessage;
+import com.axelor.apps.stock.service.batch.model.StockLocationLineQty;
 import com.axelor.db.JPA;
-import com.axelor.db.Query;
+import com.axelor.i18n.I18n;
+import com.google.common.collect.Lists;
 import com.google.inject.Inject;
-import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map.Entry;
-import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * Recompute the stock location lines from the stock moves. Products are processed in parallel by
+ * chunks, each chunk replays its stock move lines in one streamed query. In verify only mode, the
+ * differences are reported without updating the lines.
+ */
 public class BatchRecomputeStockLocationLines extends AbstractBatch {
 
-  protected StockMoveRepository stockMoveRepository;
-  protected StockMoveService stockMoveService;
-  protected StockMoveLineService stockMoveLineService;
-  protected StockMoveLineRepository stockMoveLineRepository;
+  protected static final int PRODUCT_CHUNK_SIZE = 100;
+
+  protected static final int MAX_REPORTED_DIFFERENCES = 100;
+
+  protected StockLocationLineRecomputeService stockLocationLineRecomputeService;
+  protected ParallelProcessService parallelProcessService;
   protected StockLocationRepository stockLocationRepository;
+  protected ProductRepository productRepository;
+  protected TrackingNumberRepository trackingNumberRepository;
+
+  protected final AtomicInteger doneCount = new AtomicInteger();
+  protected final AtomicInteger anomalyCount = new AtomicInteger();
+  protected final AtomicInteger differenceCount = new AtomicInteger();
+  protected final List<StockLocationLineQty> reportedDifferenceList =
+      Collections.synchronizedList(new ArrayList<>());
+
+  protected boolean verifyOnly;
 
   @Inject
   public BatchRecomputeStockLocationLines(
-      StockMoveRepository stockMoveRepository,
-      StockMoveService stockMoveService,
-      StockMoveLineService stockMoveLineService,
-      StockMoveLineRepository stockMoveLineRepository,
-      StockLocationRepository stockLocationRepository) {
-
-    this.stockMoveLineRepository = stockMoveLineRepository;
-    this.stockMoveRepository = stockMoveRepository;
-    this.stockMoveService = stockMoveService;
-    this.stockMoveLineService = stockMoveLineService;
+      StockLocationLineRecomputeService stockLocationLineRecomputeService,
+      ParallelProcessService parallelProcessService,
+      StockLocationRepository stockLocationRepository,
+      ProductRepository productRepository,
+      TrackingNumberRepository trackingNumberRepository) {
+    this.stockLocationLineRecomputeService = stockLocationLineRecomputeService;
+    this.parallelProcessService = parallelProcessService;
     this.stockLocationRepository = stockLocationRepository;
+    this.productRepository = productRepository;
+    this.trackingNumberRepository = trackingNumberRepository;
   }
 
   @Override
   protected void process() {
-    clearWapHistoryLines();
-    resetStockLocations();
-    List<StockMoveGroup> groups = fetchStockMoveGroup();
-
-    // Recomputing stockLocationLine with realized stock move
-    groups.stream()
-        .filter(
-            stockMoveGroup ->
-                stockMoveGroup.getStatusSelect() == StockMoveRepository.STATUS_REALIZED)
-        .forEachOrdered(
-            stockMoveGroup -> {
-              try {
-                recomputeStockMoves(stockMoveGroup);
-                incrementDone();
-              } catch (Exception e) {
-                incrementAnomaly();
-                TraceBackService.trace(
-                    e, ExceptionOriginRepository.RECOMPUTE_STOCK_MOVE_LINES, batch.getId());
-              } finally {
-                JPA.clear();
-              }
-            });
-
-    // Updating planned quantities
-    groups.stream()
-        .filter(
-            stockMoveGroup ->
-                stockMoveGroup.getStatusSelect() == StockMoveRepository.STATUS_PLANNED)
-        .forEachOrdered(
-            stockMoveGroup -> {
-              try {
-                updatePlannedQty(stockMoveGroup);
-                incrementDone();
-              } catch (Exception e) {
-                incrementAnomaly();
-                TraceBackService.trace(
-                    e, ExceptionOriginRepository.RECOMPUTE_STOCK_MOVE_LINES, batch.getId());
-              }
-            });
-  }
-
-  protected void resetStockLocations() {
-
-    javax.persistence.Query clearWapHistoryLinesQuery =
-        JPA.em()
-            .createNativeQuery(
-                "UPDATE stock_stock_location_line SET "
-                    + " avg_price = 0, "
-                    + " current_qty = 0, "
-                    + " future_qty = 0 ");
-
-    JPA.runInTransaction(clearWapHistoryLinesQuery::executeUpdate);
-  }
-
-  protected void updatePlannedQty(StockMoveGroup stockMoveGroup) throws AxelorException {
-
-    List<StockMoveLine> stockMoveLineList;
-    Query<StockMoveLine> query = buildQueryFetchStockMoveLineFromGroup(stockMoveGroup).order("id");
-    int offSet = 0;
-    while (!(stockMoveLineList = query.fetch(FETCH_LIMIT, offSet)).isEmpty()) {
-
-      for (StockMoveLine stockMoveLine : stockMoveLineList) {
-        stockMoveLineService.updateLocations(
-            StockMoveRepository.STATUS_DRAFT,
-            StockMoveRepository.STATUS_PLANNED,
-            stockMoveLine.getStockMove().getPlannedStockMoveLineList(),
-            stockMoveLine.getStockMove().getEstimatedDate(),
-            false,
-            true);
-      }
-
-      offSet += FETCH_LIMIT;
-      JPA.clear();
-    }
-  }
-
-  protected String getOrigin(StockMove stockMove) {
-    return Optional.ofNullable(stockMove).map(StockMove::getStockMoveSeq).orElse("");
-  }
-
-  protected void recomputeStockMoves(StockMoveGroup group) throws AxelorException {
-    List<StockMove> stockMoves;
-    Query<StockMove> query = buildQueryFetchStockMoveFromGroup(group).order("id");
-    HashMap<TrackProduct, StockMoveLineOrigin> stockMoveLinesMap = new HashMap<>();
-    int offSet = 0;
-
-    while (!(stockMoves = query.fetch(FETCH_LIMIT, offSet)).isEmpty()) {
-
-      stockMoves.stream()
-          .forEach(
-              stockMove -> {
-                stockMove.getStockMoveLineList().stream()
-                    .forEach(
-                        stockMoveLine -> {
-                          TrackProduct trackProduct =
-                              new TrackProduct(
-                                  stockMoveLine.getProduct(), stockMoveLine.getTrackingNumber());
-                          if (!stockMoveLinesMap.containsKey(trackProduct)) {
-                            stockMoveLinesMap.put(
-                                trackProduct,
-                                new StockMoveLineOrigin(
-                                    stockMoveLineRepository.copy(stockMoveLine, false),
-                                    getOrigin(stockMove)));
-                          } else {
-                            stockMoveLinesMap.merge(
-                                trackProduct,
-                                new StockMoveLineOrigin(stockMoveLine, getOrigin(stockMove)),
-                                this::merge);
-                          }
-                        });
-              });
-
-      offSet += FETCH_LIMIT;
+    StockBatch stockBatch = batch.getStockBatch();
+    verifyOnly = stockBatch != null && stockBatch.getVerifyOnlyOk();
+    String origin = stockBatch != null ? stockBatch.getCode() : null;
+    Long batchId = batch.getId();
+
+    List<Runnable> tasks = new ArrayList<>();
+    for (List<Long> productIdChunk :
+        Lists.partition(
+            stockLocationLineRecomputeService.getProductIdList(), PRODUCT_CHUNK_SIZE)) {
+      tasks.add(() -> recomputeProducts(batchId, productIdChunk, origin));
     }
 
-    for (Entry<TrackProduct, StockMoveLineOrigin> entry : stockMoveLinesMap.entrySet()) {
-      stockMoveLineService.updateLocations(
-          StockMoveRepository.STATUS_PLANNED,
-          StockMoveRepository.STATUS_REALIZED,
-          Collections.singletonList(entry.getValue().getStockMoveLine()),
-          null,
-          false,
-          group.getRealDate(),
-          entry.getValue().getOrigin(),
-          true);
+    try {
+      parallelProcessService.runAll(tasks, parallelProcessService.getDefaultWorkerCount());
+    } catch (AxelorException e) {
+      TraceBackService.trace(e, ExceptionOriginRepository.RECOMPUTE_STOCK_MOVE_LINES, batchId);
+      anomalyCount.incrementAndGet();
     }
-  }
-
-  protected StockMoveLineOrigin merge(StockMoveLineOrigin sml1, StockMoveLineOrigin sml2) {
-
-    return sml1.merge(sml2);
-  }
-
-  protected void clearWapHistoryLines() {
-
-    javax.persistence.Query clearStockLocationsHistoryLinesQuery =
-        JPA.em().createNativeQuery("Delete FROM stock_stock_location_line_history");
-
-    JPA.runInTransaction(clearStockLocationsHistoryLinesQuery::executeUpdate);
-  }
-
-  protected Query<StockMove> buildQueryFetchStockMoveFromGroup(StockMoveGroup stockMoveGroup) {
 
-    StringBuilder query =
-        new StringBuilder(
-            "self.fromStockLocation.id = :fromStockLocation"
-                + " AND self.toStockLocation.id = :toStockLocation"
-                + " AND self.statusSelect = :status");
-
-    if (stockMoveGroup.getRealDate() == null) {
-      query.append(" AND self.realDate is NULL");
-    } else {
-      query.append(" AND self.realDate = :realDate");
-    }
-
-    return stockMoveRepository
-        .all()
-        .filter(query.toString())
-        .bind("realDate", stockMoveGroup.getRealDate())
-        .bind("fromStockLocation", stockMoveGroup.getFromStockLocation())
-        .bind("toStockLocation", stockMoveGroup.getToStockLocation())
-        .bind("status", stockMoveGroup.getStatusSelect());
+    incrementDone(doneCount.get());
+    incrementAnomaly(anomalyCount.get());
   }
 
-  protected Query<StockMoveLine> buildQueryFetchStockMoveLineFromGroup(
-      StockMoveGroup stockMoveGroup) {
-
-    StringBuilder query =
-        new StringBuilder(
-            "self.fromStockLocation.id = :fromStockLocation"
-                + " AND self.toStockLocation.id = :toStockLocation"
-                + " AND self.stockMove.statusSelect = :status");
-
-    if (stockMoveGroup.getRealDate() == null) {
-      query.append(" AND self.stockMove.realDate is NULL");
-    } else {
-      query.append(" AND self.stockMove.realDate = :realDate");
+  /** Recompute a chunk of products. Runs on a worker thread, in its own transaction. */
+  protected void recomputeProducts(Long batchId, List<Long> productIdList, String origin) {
+    try {
+      List<StockLocationLineQty> differenceList =
+          stockLocationLineRecomputeService.recompute(productIdList, verifyOnly, origin);
+      differenceCount.addAndGet(differenceList.size());
+      synchronized (reportedDifferenceList) {
+        int remaining = MAX_REPORTED_DIFFERENCES - reportedDifferenceList.size();
+        reportedDifferenceList.addAll(
+            differenceList.subList(0, Math.max(0, Math.min(remaining, differenceList.size()))));
+      }
+      doneCount.addAndGet(productIdList.size());
+    } catch (Exception e) {
+      anomalyCount.incrementAndGet();
+      TraceBackService.trace(e, ExceptionOriginRepository.RECOMPUTE_STOCK_MOVE_LINES, batchId);
+    } finally {
+      JPA.clear();
     }
-
-    return stockMoveLineRepository
-        .all()
-        .filter(query.toString())
-        .bind("realDate", stockMoveGroup.getRealDate())
-        .bind("fromStockLocation", stockMoveGroup.getFromStockLocation())
-        .bind("toStockLocation", stockMoveGroup.getToStockLocation())
-        .bind("status", stockMoveGroup.getStatusSelect());
   }
 
-  protected List<StockMoveGroup> fetchStockMoveGroup() {
-    List<StockMoveGroup> stockMoveGroups = new ArrayList<>();
-    javax.persistence.Query query =
-        JPA.em()
-            .createQuery(
-                "SELECT "
-                    + "self.realDate,"
-                    + " self.fromStockLocation.id,"
-                    + " self.toStockLocation.id,"
-                    + " self.statusSelect,"
-                    + " self.toStockLocation.typeSelect"
-                    + " FROM StockMove self "
-                    + " GROUP BY"
-                    + " self.realDate, self.fromStockLocation.id, self.toStockLocation.id, self.statusSelect, self.toStockLocation.typeSelect"
-                    + " ORDER BY self.realDate, self.toStockLocation.typeSelect");
-
-    List<Object[]> resultList = query.getResultList();
-    for (Object[] result : resultList) {
-      stockMoveGroups.add(createStockMoveGroup(result));
+  @Override
+  protected void stop() {
+    StringBuilder comment = new StringBuilder();
+    comment.append(
+        String.format(
+            I18n.get(
+                verifyOnly
+                    ? StockExceptionMessage.BATCH_RECOMPUTE_STOCK_LOCATION_LINES_DIFFERENCES
+                    : StockExceptionMessage.BATCH_RECOMPUTE_STOCK_LOCATION_LINES_UPDATED),
+            differenceCount.get()));
+    comment.append("\n");
+    comment.append(String.format(I18n.get(BaseExceptionMessage.BASE_BATCH_3), anomalyCount.get()));
+
+    for (StockLocationLineQty difference : reportedDifferenceList) {
+      comment.append("\n").append(formatDifference(difference));
     }
 
-    return stockMoveGroups;
+    super.stop();
+    addComment(comment.toString());
   }
 
-  protected StockMoveGroup createStockMoveGroup(Object[] result) {
-    LocalDate realDate = null;
-    Long fromStockLocation = null;
-    Long toStockLocation = null;
-    Integer status = null;
-
-    if (result[0] != null) {
-      realDate = (LocalDate) result[0];
+  protected String formatDifference(StockLocationLineQty difference) {
+    String stockLocationName =
+        stockLocationRepository.find(difference.getStockLocationId()).getName();
+    String productName = productRepository.find(difference.getProductId()).getFullName();
+    if (difference.isDetail()) {
+      productName +=
+          " - "
+              + trackingNumberRepository
+                  .find(difference.getTrackingNumberId())
+                  .getTrackingNumberSeq();
     }
-
-    if (result[1] != null) {
-      fromStockLocation = (Long) result[1];
-    }
-
-    if (result[2] != null) {
-      toStockLocation = (Long) result[2];
-    }
-
-    if (result[3] != null) {
-      status = (Integer) result[3];
-    }
-
-    return new StockMoveGroup(realDate, fromStockLocation, toStockLocation, status);
+    return String.format(
+        I18n.get(StockExceptionMessage.BATCH_RECOMPUTE_STOCK_LOCATION_LINES_DIFFERENCE),
+        stockLocationName,
+        productName,
+        difference.getSavedCurrentQty(),
+        difference.getCurrentQty(),
+        difference.getSavedFutureQty(),
+        difference.getFutureQty(),
+        difference.getSavedAvgPrice(),
+        difference.getAvgPrice());
   }
 
   @Override
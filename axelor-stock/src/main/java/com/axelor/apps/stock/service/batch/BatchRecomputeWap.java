@@ -0,0 +1,117 @@
+/*
+ * Axelor Business Solutions
+ *
+ * Copyright (C) 2005-2025 Axelor (<http://axelor.com>).
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.axelor.apps.stock.service.batch;
+
+import com.axelor.apps.base.AxelorException;
+import com.axelor.apps.base.db.repo.BatchRepository;
+import com.axelor.apps.base.db.repo.ExceptionOriginRepository;
+import com.axelor.apps.base.exceptions.BaseExceptionMessage;
+import com.axelor.apps.base.service.administration.AbstractBatch;
+import com.axelor.apps.base.service.exception.TraceBackService;
+import com.axelor.apps.base.service.parallel.ParallelProcessService;
+import com.axelor.apps.stock.db.StockBatch;
+import com.axelor.apps.stock.exception.StockExceptionMessage;
+import com.axelor.db.JPA;
+import com.axelor.i18n.I18n;
+import com.google.common.collect.Lists;
+import com.google.inject.Inject;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Recompute the weighted average prices of the stock location lines and of the products from the
+ * realized stock moves. Products are processed in parallel by chunks. With a from date, each stock
+ * location line starts from its last average price saved before this date.
+ */
+public class BatchRecomputeWap extends AbstractBatch {
+
+  protected static final int PRODUCT_CHUNK_SIZE = 100;
+
+  protected WapRecomputeService wapRecomputeService;
+  protected ParallelProcessService parallelProcessService;
+
+  protected final AtomicInteger doneCount = new AtomicInteger();
+  protected final AtomicInteger anomalyCount = new AtomicInteger();
+  protected final AtomicInteger correctedCount = new AtomicInteger();
+
+  @Inject
+  public BatchRecomputeWap(
+      WapRecomputeService wapRecomputeService, ParallelProcessService parallelProcessService) {
+    this.wapRecomputeService = wapRecomputeService;
+    this.parallelProcessService = parallelProcessService;
+  }
+
+  @Override
+  protected void process() {
+    StockBatch stockBatch = batch.getStockBatch();
+    LocalDate fromDate = stockBatch != null ? stockBatch.getFromDate() : null;
+    String origin = stockBatch != null ? stockBatch.getCode() : null;
+    Long batchId = batch.getId();
+
+    List<Runnable> tasks = new ArrayList<>();
+    for (List<Long> productIdChunk :
+        Lists.partition(wapRecomputeService.getProductIdList(), PRODUCT_CHUNK_SIZE)) {
+      tasks.add(() -> recomputeProducts(batchId, productIdChunk, fromDate, origin));
+    }
+
+    try {
+      parallelProcessService.runAll(tasks, parallelProcessService.getDefaultWorkerCount());
+    } catch (AxelorException e) {
+      TraceBackService.trace(e, ExceptionOriginRepository.RECOMPUTE_STOCK_MOVE_LINES, batchId);
+      anomalyCount.incrementAndGet();
+    }
+
+    incrementDone(doneCount.get());
+    incrementAnomaly(anomalyCount.get());
+  }
+
+  /** Recompute a chunk of products. Runs on a worker thread, in its own transaction. */
+  protected void recomputeProducts(
+      Long batchId, List<Long> productIdList, LocalDate fromDate, String origin) {
+    try {
+      correctedCount.addAndGet(wapRecomputeService.recompute(productIdList, fromDate, origin));
+      doneCount.addAndGet(productIdList.size());
+    } catch (Exception e) {
+      anomalyCount.incrementAndGet();
+      TraceBackService.trace(e, ExceptionOriginRepository.RECOMPUTE_STOCK_MOVE_LINES, batchId);
+    } finally {
+      JPA.clear();
+    }
+  }
+
+  @Override
+  protected void stop() {
+    StringBuilder comment = new StringBuilder();
+    comment.append(
+        String.format(
+            I18n.get(StockExceptionMessage.BATCH_RECOMPUTE_WAP_UPDATED), correctedCount.get()));
+    comment.append("\n");
+    comment.append(String.format(I18n.get(BaseExceptionMessage.BASE_BATCH_3), anomalyCount.get()));
+
+    super.stop();
+    addComment(comment.toString());
+  }
+
+  @Override
+  protected void setBatchTypeSelect() {
+    this.batch.setBatchTypeSelect(BatchRepository.BATCH_TYPE_STOCK_BATCH);
+  }
+}
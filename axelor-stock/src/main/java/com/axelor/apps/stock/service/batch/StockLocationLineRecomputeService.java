@@ -0,0 +1,51 @@
+/*
+ * Axelor Business Solutions
+ *
+ * Copyright (C) 2005-2025 Axelor (<http://axelor.com>).
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.axelor.apps.stock.service.batch;
+
+import com.axelor.apps.base.AxelorException;
+import com.axelor.apps.stock.service.batch.model.StockLocationLineQty;
+import java.util.List;
+
+/**
+ * Recomputes the quantities and the weighted average price of stock location lines from the
+ * realized and planned stock move lines, one set of products at a time.
+ */
+public interface StockLocationLineRecomputeService {
+
+  /**
+   * @return the ids of the products having stock location lines or stock move lines to replay,
+   *     sorted
+   */
+  List<Long> getProductIdList();
+
+  /**
+   * Replay the stock move lines of the given products in date order and compare the result with
+   * the saved stock location lines. Unless verifying only, the lines which differ are updated,
+   * the missing ones are created and a WAP correction history line is added when the average
+   * price changes.
+   *
+   * @param productIdList the ids of the products to recompute
+   * @param verifyOnly true to only report the differences
+   * @param origin the origin of the history lines
+   * @return the stock location lines whose saved values differ from the computed ones
+   * @throws AxelorException if a unit is missing or a unit conversion fails
+   */
+  List<StockLocationLineQty> recompute(List<Long> productIdList, boolean verifyOnly, String origin)
+      throws AxelorException;
+}
@@ -0,0 +1,591 @@
+/*
+ * Axelor Business Solutions
+ *
+ * Copyright (C) 2005-2025 Axelor (<http://axelor.com>).
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.axelor.apps.stock.service.batch;
+
+import com.axelor.apps.base.AxelorException;
+import com.axelor.apps.base.db.Product;
+import com.axelor.apps.base.db.repo.ProductRepository;
+import com.axelor.apps.base.db.repo.TraceBackRepository;
+import com.axelor.apps.base.db.repo.UnitRepository;
+import com.axelor.apps.base.service.UnitConversionService;
+import com.axelor.apps.base.service.app.AppBaseService;
+import com.axelor.apps.stock.db.StockLocation;
+import com.axelor.apps.stock.db.StockLocationLine;
+import com.axelor.apps.stock.db.repo.StockLocationLineHistoryRepository;
+import com.axelor.apps.stock.db.repo.StockLocationLineRepository;
+import com.axelor.apps.stock.db.repo.StockLocationRepository;
+import com.axelor.apps.stock.db.repo.StockMoveRepository;
+import com.axelor.apps.stock.db.repo.TrackingNumberRepository;
+import com.axelor.apps.stock.exception.StockExceptionMessage;
+import com.axelor.apps.stock.service.StockAvailabilityService;
+import com.axelor.apps.stock.service.StockLocationLineHistoryService;
+import com.axelor.apps.stock.service.StockLocationLineService;
+import com.axelor.apps.stock.service.UnitConversionFactorCache;
+import com.axelor.apps.stock.service.WeightedAveragePriceService;
+import com.axelor.apps.stock.service.batch.model.StockLocationLineQty;
+import com.axelor.db.JPA;
+import com.axelor.db.mapper.Mapper;
+import com.axelor.i18n.I18n;
+import com.google.inject.Inject;
+import com.google.inject.persist.Transactional;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.PreparedStatement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.persistence.TypedQuery;
+
+public class StockLocationLineRecomputeServiceImpl implements StockLocationLineRecomputeService {
+
+  protected static final int FETCH_SIZE = 1000;
+
+  protected static final int UPDATE_BATCH_SIZE = 500;
+
+  /** Index of the first additional quantity in the stock move line rows. */
+  protected static final int STOCK_MOVE_LINE_OTHER_QTY_INDEX = 12;
+
+  /** Index of the first additional quantity in the stock location line rows. */
+  protected static final int STOCK_LOCATION_LINE_OTHER_QTY_INDEX = 10;
+
+  protected StockLocationLineService stockLocationLineService;
+  protected StockLocationLineHistoryService stockLocationLineHistoryService;
+  protected WeightedAveragePriceService weightedAveragePriceService;
+  protected StockLocationLineRepository stockLocationLineRepo;
+  protected StockLocationRepository stockLocationRepo;
+  protected ProductRepository productRepo;
+  protected TrackingNumberRepository trackingNumberRepo;
+  protected UnitRepository unitRepo;
+  protected UnitConversionService unitConversionService;
+  protected AppBaseService appBaseService;
+  protected StockAvailabilityService stockAvailabilityService;
+
+  @Inject
+  public StockLocationLineRecomputeServiceImpl(
+      StockLocationLineService stockLocationLineService,
+      StockLocationLineHistoryService stockLocationLineHistoryService,
+      WeightedAveragePriceService weightedAveragePriceService,
+      StockLocationLineRepository stockLocationLineRepo,
+      StockLocationRepository stockLocationRepo,
+      ProductRepository productRepo,
+      TrackingNumberRepository trackingNumberRepo,
+      UnitRepository unitRepo,
+      UnitConversionService unitConversionService,
+      AppBaseService appBaseService,
+      StockAvailabilityService stockAvailabilityService) {
+    this.stockLocationLineService = stockLocationLineService;
+    this.stockLocationLineHistoryService = stockLocationLineHistoryService;
+    this.weightedAveragePriceService = weightedAveragePriceService;
+    this.stockLocationLineRepo = stockLocationLineRepo;
+    this.stockLocationRepo = stockLocationRepo;
+    this.productRepo = productRepo;
+    this.trackingNumberRepo = trackingNumberRepo;
+    this.unitRepo = unitRepo;
+    this.unitConversionService = unitConversionService;
+    this.appBaseService = appBaseService;
+    this.stockAvailabilityService = stockAvailabilityService;
+  }
+
+  /**
+   * Quantities of the stock location lines which are computed from the planned outgoing stock move
+   * lines, in addition to the current and future quantities. The keys are the field names, shared
+   * by the stock move line and the stock location line, the values are the columns of the stock
+   * location line.
+   */
+  protected Map<String, String> getOtherQtyColumnMap() {
+    return Collections.emptyMap();
+  }
+
+  @Override
+  public List<Long> getProductIdList() {
+    Set<Long> productIdSet = new TreeSet<>();
+    productIdSet.addAll(
+        JPA.em()
+            .createQuery(
+                "SELECT DISTINCT self.product.id FROM StockMoveLine self"
+                    + " WHERE self.stockMove.statusSelect IN :statusList"
+                    + " AND self.product.productTypeSelect = :storable"
+                    + " AND self.product.stockManaged IS TRUE",
+                Long.class)
+            .setParameter("statusList", getReplayedStatusList())
+            .setParameter("storable", ProductRepository.PRODUCT_TYPE_STORABLE)
+            .getResultList());
+    productIdSet.addAll(
+        JPA.em()
+            .createQuery("SELECT DISTINCT self.product.id FROM StockLocationLine self", Long.class)
+            .getResultList());
+    return new ArrayList<>(productIdSet);
+  }
+
+  protected List<Integer> getReplayedStatusList() {
+    return Arrays.asList(StockMoveRepository.STATUS_PLANNED, StockMoveRepository.STATUS_REALIZED);
+  }
+
+  @Override
+  @Transactional(rollbackOn = {Exception.class})
+  public List<StockLocationLineQty> recompute(
+      List<Long> productIdList, boolean verifyOnly, String origin) throws AxelorException {
+    if (productIdList.isEmpty()) {
+      return Collections.emptyList();
+    }
+
+    Map<List<Long>, StockLocationLineQty> lineMap = getSavedLines(productIdList);
+    Map<Long, Long> productUnitMap = getProductUnits(productIdList);
+    UnitConversionFactorCache unitConversionFactorCache =
+        new UnitConversionFactorCache(unitConversionService, unitRepo, productRepo);
+    int scale = appBaseService.getNbDecimalDigitForUnitPrice();
+
+    try (Stream<Object[]> rowStream = streamStockMoveLines(productIdList)) {
+      Iterator<Object[]> rowIterator = rowStream.iterator();
+      while (rowIterator.hasNext()) {
+        replay(rowIterator.next(), lineMap, productUnitMap, unitConversionFactorCache, scale);
+      }
+    }
+
+    List<StockLocationLineQty> discrepancyList =
+        lineMap.values().stream()
+            .filter(StockLocationLineQty::hasDiscrepancy)
+            .collect(Collectors.toList());
+
+    if (!verifyOnly && !discrepancyList.isEmpty()) {
+      save(discrepancyList, origin);
+    }
+    return discrepancyList;
+  }
+
+  /**
+   * Load the saved stock location lines of the products, keyed by stock location id, product id
+   * and tracking number id. The tracking number is null for stock location lines.
+   */
+  protected Map<List<Long>, StockLocationLineQty> getSavedLines(List<Long> productIdList) {
+    List<String> otherQtyNameList = new ArrayList<>(getOtherQtyColumnMap().keySet());
+    StringBuilder queryStr =
+        new StringBuilder(
+            "SELECT self.id, stockLocation.id, detailsStockLocation.id, product.id,"
+                + " trackingNumber.id, unit.id, self.currentQty, self.futureQty, self.avgPrice,"
+                + " self.version");
+    otherQtyNameList.forEach(name -> queryStr.append(", self.").append(name));
+    queryStr.append(
+        " FROM StockLocationLine self"
+            + " JOIN self.product product"
+            + " LEFT JOIN self.stockLocation stockLocation"
+            + " LEFT JOIN self.detailsStockLocation detailsStockLocation"
+            + " LEFT JOIN self.trackingNumber trackingNumber"
+            + " LEFT JOIN self.unit unit"
+            + " WHERE product.id IN :productIds");
+
+    Map<List<Long>, StockLocationLineQty> lineMap = new LinkedHashMap<>();
+    for (Object[] row :
+        JPA.em()
+            .createQuery(queryStr.toString(), Object[].class)
+            .setParameter("productIds", productIdList)
+            .getResultList()) {
+      boolean isDetail = row[2] != null;
+      Long stockLocationId = (Long) (isDetail ? row[2] : row[1]);
+      Long trackingNumberId = isDetail ? (Long) row[4] : null;
+
+      Map<String, BigDecimal> savedOtherQtyMap = new HashMap<>();
+      for (int i = 0; i < otherQtyNameList.size(); i++) {
+        savedOtherQtyMap.put(
+            otherQtyNameList.get(i), (BigDecimal) row[STOCK_LOCATION_LINE_OTHER_QTY_INDEX + i]);
+      }
+
+      lineMap.putIfAbsent(
+          Arrays.asList(stockLocationId, (Long) row[3], trackingNumberId),
+          new StockLocationLineQty(
+              (Long) row[0],
+              (Integer) row[9],
+              stockLocationId,
+              (Long) row[3],
+              trackingNumberId,
+              (Long) row[5],
+              (BigDecimal) row[6],
+              (BigDecimal) row[7],
+              (BigDecimal) row[8],
+              savedOtherQtyMap));
+    }
+    return lineMap;
+  }
+
+  protected Map<Long, Long> getProductUnits(List<Long> productIdList) {
+    Map<Long, Long> productUnitMap = new HashMap<>();
+    for (Object[] row :
+        JPA.em()
+            .createQuery(
+                "SELECT self.id, unit.id FROM Product self LEFT JOIN self.unit unit"
+                    + " WHERE self.id IN :productIds",
+                Object[].class)
+            .setParameter("productIds", productIdList)
+            .getResultList()) {
+      productUnitMap.put((Long) row[0], (Long) row[1]);
+    }
+    return productUnitMap;
+  }
+
+  /**
+   * Stream the planned and realized stock move lines of storable products. Realized lines are
+   * ordered by date, then incoming lines in internal stock locations come first like when stock
+   * moves are realized.
+   */
+  protected Stream<Object[]> streamStockMoveLines(List<Long> productIdList) {
+    StringBuilder queryStr =
+        new StringBuilder(
+            "SELECT product.id, fromStockLocation.id, toStockLocation.id,"
+                + " toStockLocation.typeSelect, trackingNumber.id, unit.id, self.realQty,"
+                + " stockMove.statusSelect, stockMove.archived, self.archived, self.wapPrice,"
+                + " self.companyUnitPriceUntaxed");
+    getOtherQtyColumnMap().keySet().forEach(name -> queryStr.append(", self.").append(name));
+    queryStr.append(
+        " FROM StockMoveLine self"
+            + " JOIN self.stockMove stockMove"
+            + " JOIN self.product product"
+            + " LEFT JOIN self.fromStockLocation fromStockLocation"
+            + " LEFT JOIN self.toStockLocation toStockLocation"
+            + " LEFT JOIN self.trackingNumber trackingNumber"
+            + " LEFT JOIN self.unit unit"
+            + " WHERE product.id IN :productIds"
+            + " AND product.productTypeSelect = :storable"
+            + " AND product.stockManaged IS TRUE"
+            + " AND stockMove.statusSelect IN :statusList"
+            + " ORDER BY product.id, stockMove.realDate, toStockLocation.typeSelect, self.id");
+
+    TypedQuery<Object[]> query =
+        JPA.em()
+            .createQuery(queryStr.toString(), Object[].class)
+            .setParameter("productIds", productIdList)
+            .setParameter("storable", ProductRepository.PRODUCT_TYPE_STORABLE)
+            .setParameter("statusList", getReplayedStatusList())
+            .setHint("org.hibernate.fetchSize", FETCH_SIZE)
+            .setHint("org.hibernate.readOnly", true);
+    return query.getResultStream();
+  }
+
+  protected void replay(
+      Object[] row,
+      Map<List<Long>, StockLocationLineQty> lineMap,
+      Map<Long, Long> productUnitMap,
+      UnitConversionFactorCache unitConversionFactorCache,
+      int scale)
+      throws AxelorException {
+    Long productId = (Long) row[0];
+    Long fromStockLocationId = (Long) row[1];
+    Long toStockLocationId = (Long) row[2];
+    Integer toStockLocationTypeSelect = (Integer) row[3];
+    Long trackingNumberId = (Long) row[4];
+    Long unitId = (Long) row[5];
+    BigDecimal qty = row[6] != null ? (BigDecimal) row[6] : BigDecimal.ZERO;
+    boolean isRealized = StockMoveRepository.STATUS_REALIZED == (Integer) row[7];
+    // same filter as the future quantity of a single stock location line
+    boolean isCountedInFutureQty = row[8] == null || Boolean.FALSE.equals(row[9]);
+
+    if (fromStockLocationId != null) {
+      for (StockLocationLineQty line :
+          getLines(lineMap, productUnitMap, fromStockLocationId, productId, trackingNumberId)) {
+        BigDecimal convertedQty =
+            unitConversionFactorCache.convert(unitId, line.getUnitId(), productId, qty).negate();
+        if (isRealized) {
+          line.addCurrentQty(convertedQty);
+        } else {
+          if (isCountedInFutureQty) {
+            line.addPlannedQty(convertedQty);
+          }
+          if (!line.isDetail()) {
+            addOtherQty(line, row, unitId, unitConversionFactorCache);
+          }
+        }
+      }
+    }
+
+    if (toStockLocationId != null) {
+      for (StockLocationLineQty line :
+          getLines(lineMap, productUnitMap, toStockLocationId, productId, trackingNumberId)) {
+        BigDecimal convertedQty =
+            unitConversionFactorCache.convert(unitId, line.getUnitId(), productId, qty);
+        if (isRealized) {
+          if (!line.isDetail()
+              && toStockLocationTypeSelect != StockLocationRepository.TYPE_VIRTUAL) {
+            computeAvgPrice(line, row, unitId, convertedQty, unitConversionFactorCache, scale);
+          }
+          line.addCurrentQty(convertedQty);
+        } else if (isCountedInFutureQty) {
+          line.addPlannedQty(convertedQty);
+        }
+      }
+    }
+  }
+
+  /**
+   * Get the stock location line of a product in a stock location and, with a tracking number, its
+   * detail line. Missing lines are created in memory with the unit of the product.
+   */
+  protected List<StockLocationLineQty> getLines(
+      Map<List<Long>, StockLocationLineQty> lineMap,
+      Map<Long, Long> productUnitMap,
+      Long stockLocationId,
+      Long productId,
+      Long trackingNumberId)
+      throws AxelorException {
+    List<StockLocationLineQty> lineList = new ArrayList<>();
+    lineList.add(getLine(lineMap, productUnitMap, stockLocationId, productId, null));
+    if (trackingNumberId != null) {
+      lineList.add(getLine(lineMap, productUnitMap, stockLocationId, productId, trackingNumberId));
+    }
+    return lineList;
+  }
+
+  protected StockLocationLineQty getLine(
+      Map<List<Long>, StockLocationLineQty> lineMap,
+      Map<Long, Long> productUnitMap,
+      Long stockLocationId,
+      Long productId,
+      Long trackingNumberId)
+      throws AxelorException {
+    StockLocationLineQty line =
+        lineMap.computeIfAbsent(
+            Arrays.asList(stockLocationId, productId, trackingNumberId),
+            key ->
+                new StockLocationLineQty(
+                    null,
+                    null,
+                    stockLocationId,
+                    productId,
+                    trackingNumberId,
+                    productUnitMap.get(productId),
+                    BigDecimal.ZERO,
+                    BigDecimal.ZERO,
+                    BigDecimal.ZERO,
+                    Collections.emptyMap()));
+    if (line.getUnitId() == null) {
+      throwMissingUnit(line);
+    }
+    return line;
+  }
+
+  /** Same computation as when a stock move line is realized in a stock location. */
+  protected void computeAvgPrice(
+      StockLocationLineQty line,
+      Object[] row,
+      Long unitId,
+      BigDecimal newQty,
+      UnitConversionFactorCache unitConversionFactorCache,
+      int scale)
+      throws AxelorException {
+    BigDecimal newPrice = (BigDecimal) (row[10] != null ? row[10] : row[11]);
+    if (newPrice == null) {
+      newPrice = BigDecimal.ZERO;
+    }
+    newPrice =
+        unitConversionFactorCache.convert(line.getUnitId(), unitId, line.getProductId(), newPrice);
+
+    BigDecimal oldQty = line.getCurrentQty();
+    BigDecimal denominator = oldQty.add(newQty);
+    if (denominator.signum() != 0) {
+      line.setAvgPrice(
+          line.getAvgPrice()
+              .multiply(oldQty)
+              .add(newPrice.multiply(newQty))
+              .divide(denominator, scale, RoundingMode.HALF_UP));
+    }
+  }
+
+  protected void addOtherQty(
+      StockLocationLineQty line,
+      Object[] row,
+      Long unitId,
+      UnitConversionFactorCache unitConversionFactorCache)
+      throws AxelorException {
+    int index = STOCK_MOVE_LINE_OTHER_QTY_INDEX;
+    for (String name : getOtherQtyColumnMap().keySet()) {
+      BigDecimal qty = (BigDecimal) row[index++];
+      if (qty != null) {
+        line.addOtherQty(
+            name,
+            unitConversionFactorCache.convert(unitId, line.getUnitId(), line.getProductId(), qty));
+      }
+    }
+  }
+
+  protected void throwMissingUnit(StockLocationLineQty line) throws AxelorException {
+    StockLocation stockLocation = stockLocationRepo.find(line.getStockLocationId());
+    Product product = productRepo.find(line.getProductId());
+    if (line.isDetail()) {
+      throw new AxelorException(
+          TraceBackRepository.CATEGORY_CONFIGURATION_ERROR,
+          I18n.get(StockExceptionMessage.DETAIL_LOCATION_LINE_MISSING_UNIT),
+          trackingNumberRepo.find(line.getTrackingNumberId()).getTrackingNumberSeq(),
+          stockLocation.getName(),
+          product.getFullName());
+    }
+    throw new AxelorException(
+        TraceBackRepository.CATEGORY_CONFIGURATION_ERROR,
+        I18n.get(StockExceptionMessage.LOCATION_LINE_MISSING_UNIT),
+        stockLocation.getName(),
+        product.getFullName());
+  }
+
+  protected void save(List<StockLocationLineQty> discrepancyList, String origin)
+      throws AxelorException {
+    List<StockLocationLineQty> savedLineList = new ArrayList<>();
+    for (StockLocationLineQty line : discrepancyList) {
+      if (line.getStockLocationLineId() != null) {
+        savedLineList.add(line);
+      } else {
+        createLine(line);
+      }
+    }
+    updateLines(savedLineList);
+    // The JDBC updates bypass the entity listeners
+    savedLineList.stream()
+        .map(StockLocationLineQty::getProductId)
+        .distinct()
+        .forEach(stockAvailabilityService::invalidateProduct);
+
+    Set<Long> productIdSet = new LinkedHashSet<>();
+    for (StockLocationLineQty line : discrepancyList) {
+      if (!line.isDetail() && line.getAvgPrice().compareTo(line.getSavedAvgPrice()) != 0) {
+        addWapCorrectionHistory(line, origin);
+        productIdSet.add(line.getProductId());
+      }
+    }
+    weightedAveragePriceService.computeAvgPriceForProducts(productIdSet);
+  }
+
+  protected void createLine(StockLocationLineQty line) {
+    StockLocation stockLocation = stockLocationRepo.find(line.getStockLocationId());
+    Product product = productRepo.find(line.getProductId());
+    StockLocationLine stockLocationLine =
+        line.isDetail()
+            ? stockLocationLineService.createDetailLocationLine(
+                stockLocation, product, trackingNumberRepo.find(line.getTrackingNumberId()))
+            : stockLocationLineService.createLocationLine(stockLocation, product);
+
+    stockLocationLine.setCurrentQty(line.getCurrentQty());
+    stockLocationLine.setFutureQty(line.getFutureQty());
+    stockLocationLine.setAvgPrice(line.getAvgPrice());
+    Mapper mapper = Mapper.of(StockLocationLine.class);
+    for (String name : getOtherQtyColumnMap().keySet()) {
+      mapper.set(stockLocationLine, name, line.getOtherQty(name));
+    }
+    stockLocationLineRepo.save(stockLocationLine);
+  }
+
+  /**
+   * Update the saved lines with batched statements, provided they were not modified since their
+   * quantities were read.
+   *
+   * @throws AxelorException if one of the lines was modified meanwhile, the transaction is then
+   *     rolled back
+   */
+  protected void updateLines(List<StockLocationLineQty> lineList) throws AxelorException {
+    if (lineList.isEmpty()) {
+      return;
+    }
+    JPA.em().flush();
+
+    List<String> otherQtyNameList = new ArrayList<>(getOtherQtyColumnMap().keySet());
+    StringBuilder sql =
+        new StringBuilder(
+            "UPDATE stock_stock_location_line SET current_qty = ?, future_qty = ?, avg_price = ?");
+    otherQtyNameList.forEach(
+        name -> sql.append(", ").append(getOtherQtyColumnMap().get(name)).append(" = ?"));
+    sql.append(", version = version + 1 WHERE id = ? AND version = ?");
+
+    AtomicInteger staleCount = new AtomicInteger();
+    JPA.jdbcWork(
+        connection -> {
+          try (PreparedStatement statement = connection.prepareStatement(sql.toString())) {
+            int count = 0;
+            for (StockLocationLineQty line : lineList) {
+              int index = 1;
+              statement.setBigDecimal(index++, line.getCurrentQty());
+              statement.setBigDecimal(index++, line.getFutureQty());
+              statement.setBigDecimal(index++, line.getAvgPrice());
+              for (String name : otherQtyNameList) {
+                statement.setBigDecimal(index++, line.getOtherQty(name));
+              }
+              statement.setLong(index++, line.getStockLocationLineId());
+              statement.setInt(index, line.getVersion());
+              statement.addBatch();
+
+              if (++count % UPDATE_BATCH_SIZE == 0) {
+                staleCount.addAndGet(countStaleLines(statement.executeBatch()));
+              }
+            }
+            staleCount.addAndGet(countStaleLines(statement.executeBatch()));
+          }
+        });
+
+    if (staleCount.get() > 0) {
+      throw new AxelorException(
+          TraceBackRepository.CATEGORY_INCONSISTENCY,
+          I18n.get(StockExceptionMessage.BATCH_RECOMPUTE_STOCK_LOCATION_LINES_CONCURRENT_UPDATE),
+          staleCount.get());
+    }
+  }
+
+  /** Count the updates which matched no line, the line having a newer version. */
+  protected int countStaleLines(int[] updateCounts) {
+    int staleCount = 0;
+    for (int updateCount : updateCounts) {
+      if (updateCount == 0) {
+        staleCount++;
+      }
+    }
+    return staleCount;
+  }
+
+  protected void addWapCorrectionHistory(StockLocationLineQty line, String origin)
+      throws AxelorException {
+    StockLocationLine stockLocationLine;
+    if (line.getStockLocationLineId() != null) {
+      stockLocationLine = stockLocationLineRepo.find(line.getStockLocationLineId());
+      JPA.em().refresh(stockLocationLine);
+    } else {
+      stockLocationLine =
+          stockLocationLineRepo
+              .all()
+              .filter("self.stockLocation.id = :stockLocationId AND self.product.id = :productId")
+              .bind("stockLocationId", line.getStockLocationId())
+              .bind("productId", line.getProductId())
+              .fetchOne();
+    }
+
+    LocalDateTime dateT =
+        appBaseService
+            .getTodayDateTime(stockLocationLine.getStockLocation().getCompany())
+            .toLocalDateTime();
+    stockLocationLineHistoryService.saveHistory(
+        stockLocationLine,
+        dateT,
+        origin,
+        StockLocationLineHistoryRepository.TYPE_SELECT_WAP_CORRECTION);
+  }
+}
@@ -0,0 +1,54 @@
+/*
+ * Axelor Business Solutions
+ *
+ * Copyright (C) 2005-2025 Axelor (<http://axelor.com>).
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.axelor.apps.stock.service.batch;
+
+import com.axelor.apps.base.AxelorException;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Recomputes the weighted average price of stock location lines from the realized stock move
+ * lines, one set of products at a time, without changing their quantities.
+ */
+public interface WapRecomputeService {
+
+  /**
+   * @return the ids of the products having stock location lines in internal stock locations,
+   *     sorted
+   */
+  List<Long> getProductIdList();
+
+  /**
+   * Replay the incoming realized stock move lines of the given products in date order and update
+   * the stock location lines whose average price changes, with a WAP correction history line, then
+   * the average prices of the products.
+   *
+   * <p>With a from date, each stock location line starts from its last history line before this
+   * date and only the stock move lines realized from this date are replayed. The lines without
+   * history before this date are replayed from the start.
+   *
+   * @param productIdList the ids of the products to recompute
+   * @param fromDate the date to replay the stock moves from, null to replay all of them
+   * @param origin the origin of the history lines
+   * @return the number of stock location lines whose average price has been corrected
+   * @throws AxelorException if a unit conversion fails
+   */
+  int recompute(List<Long> productIdList, LocalDate fromDate, String origin)
+      throws AxelorException;
+}
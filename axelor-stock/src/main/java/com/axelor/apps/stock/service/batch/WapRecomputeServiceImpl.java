@@ -0,0 +1,397 @@
+/*
+ * Axelor Business Solutions
+ *
+ * Copyright (C) 2005-2025 Axelor (<http://axelor.com>).
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.axelor.apps.stock.service.batch;
+
+import com.axelor.apps.base.AxelorException;
+import com.axelor.apps.base.db.repo.ProductRepository;
+import com.axelor.apps.base.db.repo.TraceBackRepository;
+import com.axelor.apps.base.db.repo.UnitRepository;
+import com.axelor.apps.base.service.UnitConversionService;
+import com.axelor.apps.base.service.app.AppBaseService;
+import com.axelor.apps.stock.db.StockLocationLine;
+import com.axelor.apps.stock.db.repo.StockLocationLineHistoryRepository;
+import com.axelor.apps.stock.db.repo.StockLocationLineRepository;
+import com.axelor.apps.stock.db.repo.StockLocationRepository;
+import com.axelor.apps.stock.db.repo.StockMoveRepository;
+import com.axelor.apps.stock.exception.StockExceptionMessage;
+import com.axelor.apps.stock.service.StockLocationLineHistoryService;
+import com.axelor.apps.stock.service.UnitConversionFactorCache;
+import com.axelor.apps.stock.service.WeightedAveragePriceService;
+import com.axelor.apps.stock.service.batch.model.StockLocationLineWap;
+import com.axelor.db.JPA;
+import com.axelor.i18n.I18n;
+import com.google.common.collect.Lists;
+import com.google.inject.Inject;
+import com.google.inject.persist.Transactional;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.PreparedStatement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.persistence.TypedQuery;
+
+public class WapRecomputeServiceImpl implements WapRecomputeService {
+
+  protected static final int FETCH_SIZE = 1000;
+
+  protected static final int UPDATE_BATCH_SIZE = 500;
+
+  protected StockLocationLineHistoryService stockLocationLineHistoryService;
+  protected WeightedAveragePriceService weightedAveragePriceService;
+  protected StockLocationLineRepository stockLocationLineRepo;
+  protected ProductRepository productRepo;
+  protected UnitRepository unitRepo;
+  protected UnitConversionService unitConversionService;
+  protected AppBaseService appBaseService;
+
+  @Inject
+  public WapRecomputeServiceImpl(
+      StockLocationLineHistoryService stockLocationLineHistoryService,
+      WeightedAveragePriceService weightedAveragePriceService,
+      StockLocationLineRepository stockLocationLineRepo,
+      ProductRepository productRepo,
+      UnitRepository unitRepo,
+      UnitConversionService unitConversionService,
+      AppBaseService appBaseService) {
+    this.stockLocationLineHistoryService = stockLocationLineHistoryService;
+    this.weightedAveragePriceService = weightedAveragePriceService;
+    this.stockLocationLineRepo = stockLocationLineRepo;
+    this.productRepo = productRepo;
+    this.unitRepo = unitRepo;
+    this.unitConversionService = unitConversionService;
+    this.appBaseService = appBaseService;
+  }
+
+  @Override
+  public List<Long> getProductIdList() {
+    return JPA.em()
+        .createQuery(
+            "SELECT DISTINCT self.product.id FROM StockLocationLine self"
+                + " WHERE self.stockLocation.typeSelect != :virtual"
+                + " ORDER BY self.product.id",
+            Long.class)
+        .setParameter("virtual", StockLocationRepository.TYPE_VIRTUAL)
+        .getResultList();
+  }
+
+  @Override
+  @Transactional(rollbackOn = {Exception.class})
+  public int recompute(List<Long> productIdList, LocalDate fromDate, String origin)
+      throws AxelorException {
+    if (productIdList.isEmpty()) {
+      return 0;
+    }
+
+    Map<List<Long>, StockLocationLineWap> lineMap = getSavedLines(productIdList);
+    if (lineMap.isEmpty()) {
+      return 0;
+    }
+    UnitConversionFactorCache unitConversionFactorCache =
+        new UnitConversionFactorCache(unitConversionService, unitRepo, productRepo);
+    int scale = appBaseService.getNbDecimalDigitForUnitPrice();
+
+    if (fromDate != null) {
+      startFromCheckpoints(productIdList, fromDate, lineMap, unitConversionFactorCache);
+    }
+    // the stock moves realized before the from date are only needed by the lines without
+    // checkpoint
+    LocalDate streamFromDate =
+        lineMap.values().stream().allMatch(line -> line.getFromDate() != null) ? fromDate : null;
+
+    try (Stream<Object[]> rowStream = streamStockMoveLines(productIdList, streamFromDate)) {
+      Iterator<Object[]> rowIterator = rowStream.iterator();
+      while (rowIterator.hasNext()) {
+        replay(rowIterator.next(), lineMap, unitConversionFactorCache, scale);
+      }
+    }
+
+    List<StockLocationLineWap> changedLineList =
+        lineMap.values().stream()
+            .filter(StockLocationLineWap::isChanged)
+            .collect(Collectors.toList());
+    if (!changedLineList.isEmpty()) {
+      save(changedLineList, origin);
+    }
+    return changedLineList.size();
+  }
+
+  /**
+   * Load the stock location lines of the products in internal stock locations, keyed by stock
+   * location id and product id.
+   */
+  protected Map<List<Long>, StockLocationLineWap> getSavedLines(List<Long> productIdList) {
+    Map<List<Long>, StockLocationLineWap> lineMap = new LinkedHashMap<>();
+    for (Object[] row :
+        JPA.em()
+            .createQuery(
+                "SELECT self.id, self.version, stockLocation.id, product.id, unit.id, self.avgPrice"
+                    + " FROM StockLocationLine self"
+                    + " JOIN self.stockLocation stockLocation"
+                    + " JOIN self.product product"
+                    + " JOIN self.unit unit"
+                    + " WHERE product.id IN :productIds"
+                    + " AND stockLocation.typeSelect != :virtual",
+                Object[].class)
+            .setParameter("productIds", productIdList)
+            .setParameter("virtual", StockLocationRepository.TYPE_VIRTUAL)
+            .getResultList()) {
+      lineMap.put(
+          Arrays.asList((Long) row[2], (Long) row[3]),
+          new StockLocationLineWap(
+              (Long) row[0],
+              (Integer) row[1],
+              (Long) row[2],
+              (Long) row[3],
+              (Long) row[4],
+              (BigDecimal) row[5]));
+    }
+    return lineMap;
+  }
+
+  /**
+   * Start each stock location line from its last history line before the from date, which holds
+   * its quantity and average price at that time.
+   */
+  protected void startFromCheckpoints(
+      List<Long> productIdList,
+      LocalDate fromDate,
+      Map<List<Long>, StockLocationLineWap> lineMap,
+      UnitConversionFactorCache unitConversionFactorCache)
+      throws AxelorException {
+    for (Object[] row :
+        JPA.em()
+            .createQuery(
+                "SELECT stockLocation.id, product.id, unit.id, self.qty, self.wap"
+                    + " FROM StockLocationLineHistory self"
+                    + " JOIN self.stockLocationLine stockLocationLine"
+                    + " JOIN stockLocationLine.stockLocation stockLocation"
+                    + " JOIN stockLocationLine.product product"
+                    + " LEFT JOIN self.unit unit"
+                    + " WHERE product.id IN :productIds"
+                    + " AND self.dateT < :fromDateT"
+                    + " AND NOT EXISTS (SELECT 1 FROM StockLocationLineHistory next"
+                    + " WHERE next.stockLocationLine = self.stockLocationLine"
+                    + " AND next.dateT < :fromDateT"
+                    + " AND (next.dateT > self.dateT"
+                    + " OR (next.dateT = self.dateT AND next.id > self.id)))",
+                Object[].class)
+            .setParameter("productIds", productIdList)
+            .setParameter("fromDateT", fromDate.atStartOfDay())
+            .getResultList()) {
+      StockLocationLineWap line = lineMap.get(Arrays.asList((Long) row[0], (Long) row[1]));
+      if (line == null) {
+        continue;
+      }
+      Long unitId = row[2] != null ? (Long) row[2] : line.getUnitId();
+      BigDecimal qty = row[3] != null ? (BigDecimal) row[3] : BigDecimal.ZERO;
+      line.startFrom(
+          fromDate,
+          unitConversionFactorCache.convert(unitId, line.getUnitId(), line.getProductId(), qty),
+          (BigDecimal) row[4]);
+    }
+  }
+
+  /**
+   * Stream the realized stock move lines of storable products, ordered like in {@link
+   * StockLocationLineRecomputeServiceImpl}.
+   */
+  protected Stream<Object[]> streamStockMoveLines(List<Long> productIdList, LocalDate fromDate) {
+    String queryStr =
+        "SELECT product.id, fromStockLocation.id, toStockLocation.id, unit.id, self.realQty,"
+            + " self.wapPrice, self.companyUnitPriceUntaxed, stockMove.realDate"
+            + " FROM StockMoveLine self"
+            + " JOIN self.stockMove stockMove"
+            + " JOIN self.product product"
+            + " LEFT JOIN self.fromStockLocation fromStockLocation"
+            + " LEFT JOIN self.toStockLocation toStockLocation"
+            + " LEFT JOIN self.unit unit"
+            + " WHERE product.id IN :productIds"
+            + " AND product.productTypeSelect = :storable"
+            + " AND product.stockManaged IS TRUE"
+            + " AND stockMove.statusSelect = :realized"
+            + (fromDate != null ? " AND stockMove.realDate >= :fromDate" : "")
+            + " ORDER BY product.id, stockMove.realDate, toStockLocation.typeSelect, self.id";
+
+    TypedQuery<Object[]> query =
+        JPA.em()
+            .createQuery(queryStr, Object[].class)
+            .setParameter("productIds", productIdList)
+            .setParameter("storable", ProductRepository.PRODUCT_TYPE_STORABLE)
+            .setParameter("realized", StockMoveRepository.STATUS_REALIZED)
+            .setHint("org.hibernate.fetchSize", FETCH_SIZE)
+            .setHint("org.hibernate.readOnly", true);
+    if (fromDate != null) {
+      query.setParameter("fromDate", fromDate);
+    }
+    return query.getResultStream();
+  }
+
+  protected void replay(
+      Object[] row,
+      Map<List<Long>, StockLocationLineWap> lineMap,
+      UnitConversionFactorCache unitConversionFactorCache,
+      int scale)
+      throws AxelorException {
+    Long productId = (Long) row[0];
+    Long unitId = (Long) row[3];
+    BigDecimal qty = row[4] != null ? (BigDecimal) row[4] : BigDecimal.ZERO;
+    LocalDate realDate = (LocalDate) row[7];
+
+    StockLocationLineWap fromLine = lineMap.get(Arrays.asList((Long) row[1], productId));
+    if (fromLine != null && fromLine.isReplayed(realDate)) {
+      fromLine.addQty(
+          unitConversionFactorCache.convert(unitId, fromLine.getUnitId(), productId, qty).negate());
+    }
+
+    StockLocationLineWap toLine = lineMap.get(Arrays.asList((Long) row[2], productId));
+    if (toLine != null && toLine.isReplayed(realDate)) {
+      BigDecimal convertedQty =
+          unitConversionFactorCache.convert(unitId, toLine.getUnitId(), productId, qty);
+      computeAvgPrice(toLine, row, unitId, convertedQty, unitConversionFactorCache, scale);
+      toLine.addQty(convertedQty);
+    }
+  }
+
+  /** Same computation as when a stock move line is realized in a stock location. */
+  protected void computeAvgPrice(
+      StockLocationLineWap line,
+      Object[] row,
+      Long unitId,
+      BigDecimal newQty,
+      UnitConversionFactorCache unitConversionFactorCache,
+      int scale)
+      throws AxelorException {
+    BigDecimal newPrice = (BigDecimal) (row[5] != null ? row[5] : row[6]);
+    if (newPrice == null) {
+      newPrice = BigDecimal.ZERO;
+    }
+    newPrice =
+        unitConversionFactorCache.convert(line.getUnitId(), unitId, line.getProductId(), newPrice);
+
+    BigDecimal oldQty = line.getQty();
+    BigDecimal denominator = oldQty.add(newQty);
+    if (denominator.signum() != 0) {
+      line.setAvgPrice(
+          line.getAvgPrice()
+              .multiply(oldQty)
+              .add(newPrice.multiply(newQty))
+              .divide(denominator, scale, RoundingMode.HALF_UP));
+    }
+  }
+
+  protected void save(List<StockLocationLineWap> changedLineList, String origin)
+      throws AxelorException {
+    updateAvgPrices(changedLineList);
+
+    Set<Long> productIdSet = new LinkedHashSet<>();
+    for (List<StockLocationLineWap> lineChunk :
+        Lists.partition(changedLineList, UPDATE_BATCH_SIZE)) {
+      List<Long> stockLocationLineIdList =
+          lineChunk.stream()
+              .map(StockLocationLineWap::getStockLocationLineId)
+              .collect(Collectors.toList());
+      for (StockLocationLine stockLocationLine :
+          stockLocationLineRepo
+              .all()
+              .filter("self.id IN :stockLocationLineIds")
+              .bind("stockLocationLineIds", stockLocationLineIdList)
+              .fetch()) {
+        addWapCorrectionHistory(stockLocationLine, origin);
+        productIdSet.add(stockLocationLine.getProduct().getId());
+      }
+      JPA.flush();
+      JPA.clear();
+    }
+
+    weightedAveragePriceService.computeAvgPriceForProducts(productIdSet);
+  }
+
+  /**
+   * Update the average prices with batched statements, provided the lines were not modified since
+   * they were read.
+   *
+   * @throws AxelorException if one of the lines was modified meanwhile, the transaction is then
+   *     rolled back
+   */
+  protected void updateAvgPrices(List<StockLocationLineWap> lineList) throws AxelorException {
+    JPA.em().flush();
+    AtomicInteger staleCount = new AtomicInteger();
+    JPA.jdbcWork(
+        connection -> {
+          try (PreparedStatement statement =
+              connection.prepareStatement(
+                  "UPDATE stock_stock_location_line SET avg_price = ?, version = version + 1"
+                      + " WHERE id = ? AND version = ?")) {
+            int count = 0;
+            for (StockLocationLineWap line : lineList) {
+              statement.setBigDecimal(1, line.getAvgPrice());
+              statement.setLong(2, line.getStockLocationLineId());
+              statement.setInt(3, line.getVersion());
+              statement.addBatch();
+
+              if (++count % UPDATE_BATCH_SIZE == 0) {
+                staleCount.addAndGet(countStaleLines(statement.executeBatch()));
+              }
+            }
+            staleCount.addAndGet(countStaleLines(statement.executeBatch()));
+          }
+        });
+
+    if (staleCount.get() > 0) {
+      throw new AxelorException(
+          TraceBackRepository.CATEGORY_INCONSISTENCY,
+          I18n.get(StockExceptionMessage.BATCH_RECOMPUTE_STOCK_LOCATION_LINES_CONCURRENT_UPDATE),
+          staleCount.get());
+    }
+  }
+
+  /** Count the updates which matched no line, the line having a newer version. */
+  protected int countStaleLines(int[] updateCounts) {
+    int staleCount = 0;
+    for (int updateCount : updateCounts) {
+      if (updateCount == 0) {
+        staleCount++;
+      }
+    }
+    return staleCount;
+  }
+
+  protected void addWapCorrectionHistory(StockLocationLine stockLocationLine, String origin)
+      throws AxelorException {
+    LocalDateTime dateT =
+        appBaseService
+            .getTodayDateTime(stockLocationLine.getStockLocation().getCompany())
+            .toLocalDateTime();
+    stockLocationLineHistoryService.saveHistory(
+        stockLocationLine,
+        dateT,
+        origin,
+        StockLocationLineHistoryRepository.TYPE_SELECT_WAP_CORRECTION);
+  }
+}
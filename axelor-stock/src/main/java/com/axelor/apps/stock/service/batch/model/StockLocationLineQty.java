@@ -0,0 +1,188 @@
+/*
+ * Axelor Business Solutions
+ *
+ * Copyright (C) 2005-2025 Axelor (<http://axelor.com>).
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.axelor.apps.stock.service.batch.model;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Quantities of a stock location line, as saved and as recomputed from its stock move lines. The
+ * tracking number is only set for detail stock location lines.
+ */
+public class StockLocationLineQty {
+
+  private final Long stockLocationLineId;
+  private final Integer version;
+  private final Long stockLocationId;
+  private final Long productId;
+  private final Long trackingNumberId;
+  private final Long unitId;
+
+  private final BigDecimal savedCurrentQty;
+  private final BigDecimal savedFutureQty;
+  private final BigDecimal savedAvgPrice;
+  private final Map<String, BigDecimal> savedOtherQtyMap;
+
+  private BigDecimal currentQty = BigDecimal.ZERO;
+  private BigDecimal plannedQty = BigDecimal.ZERO;
+  private BigDecimal avgPrice;
+  private final Map<String, BigDecimal> otherQtyMap = new HashMap<>();
+
+  public StockLocationLineQty(
+      Long stockLocationLineId,
+      Integer version,
+      Long stockLocationId,
+      Long productId,
+      Long trackingNumberId,
+      Long unitId,
+      BigDecimal savedCurrentQty,
+      BigDecimal savedFutureQty,
+      BigDecimal savedAvgPrice,
+      Map<String, BigDecimal> savedOtherQtyMap) {
+    this.stockLocationLineId = stockLocationLineId;
+    this.version = version;
+    this.stockLocationId = stockLocationId;
+    this.productId = productId;
+    this.trackingNumberId = trackingNumberId;
+    this.unitId = unitId;
+    this.savedCurrentQty = zeroIfNull(savedCurrentQty);
+    this.savedFutureQty = zeroIfNull(savedFutureQty);
+    this.savedAvgPrice = zeroIfNull(savedAvgPrice);
+    this.savedOtherQtyMap = savedOtherQtyMap;
+    // the average price is only computed on stock location lines, not on detail lines
+    this.avgPrice = isDetail() ? this.savedAvgPrice : BigDecimal.ZERO;
+  }
+
+  public Long getStockLocationLineId() {
+    return stockLocationLineId;
+  }
+
+  /** The version of the saved stock location line, when its quantities were read. */
+  public Integer getVersion() {
+    return version;
+  }
+
+  public Long getStockLocationId() {
+    return stockLocationId;
+  }
+
+  public Long getProductId() {
+    return productId;
+  }
+
+  public Long getTrackingNumberId() {
+    return trackingNumberId;
+  }
+
+  public Long getUnitId() {
+    return unitId;
+  }
+
+  public boolean isDetail() {
+    return trackingNumberId != null;
+  }
+
+  public BigDecimal getSavedCurrentQty() {
+    return savedCurrentQty;
+  }
+
+  public BigDecimal getSavedFutureQty() {
+    return savedFutureQty;
+  }
+
+  public BigDecimal getSavedAvgPrice() {
+    return savedAvgPrice;
+  }
+
+  public BigDecimal getSavedOtherQty(String name) {
+    return zeroIfNull(savedOtherQtyMap.get(name));
+  }
+
+  public BigDecimal getCurrentQty() {
+    return currentQty;
+  }
+
+  /** The future quantity is the current quantity plus the planned incoming minus outgoing. */
+  public BigDecimal getFutureQty() {
+    return currentQty.add(plannedQty);
+  }
+
+  public BigDecimal getAvgPrice() {
+    return avgPrice;
+  }
+
+  public void setAvgPrice(BigDecimal avgPrice) {
+    this.avgPrice = avgPrice;
+  }
+
+  public BigDecimal getOtherQty(String name) {
+    return otherQtyMap.getOrDefault(name, BigDecimal.ZERO);
+  }
+
+  public void addCurrentQty(BigDecimal qty) {
+    currentQty = currentQty.add(qty);
+  }
+
+  public void addPlannedQty(BigDecimal qty) {
+    plannedQty = plannedQty.add(qty);
+  }
+
+  public void addOtherQty(String name, BigDecimal qty) {
+    otherQtyMap.merge(name, qty, BigDecimal::add);
+  }
+
+  /**
+   * @return true if the saved quantities differ from the computed ones. A missing line only
+   *     differs if some of its computed quantities are not zero.
+   */
+  public boolean hasDiscrepancy() {
+    boolean otherQtyDiffers =
+        otherQtyMap.keySet().stream()
+                .anyMatch(name -> getOtherQty(name).compareTo(getSavedOtherQty(name)) != 0)
+            || savedOtherQtyMap.keySet().stream()
+                .anyMatch(name -> getOtherQty(name).compareTo(getSavedOtherQty(name)) != 0);
+
+    return currentQty.compareTo(savedCurrentQty) != 0
+        || getFutureQty().compareTo(savedFutureQty) != 0
+        || avgPrice.compareTo(savedAvgPrice) != 0
+        || otherQtyDiffers;
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (!(obj instanceof StockLocationLineQty)) {
+      return false;
+    }
+    StockLocationLineQty stockLocationLineQty = (StockLocationLineQty) obj;
+    return Objects.equals(stockLocationId, stockLocationLineQty.stockLocationId)
+        && Objects.equals(productId, stockLocationLineQty.productId)
+        && Objects.equals(trackingNumberId, stockLocationLineQty.trackingNumberId);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(stockLocationId, productId, trackingNumberId);
+  }
+
+  protected static BigDecimal zeroIfNull(BigDecimal value) {
+    return value != null ? value : BigDecimal.ZERO;
+  }
+}
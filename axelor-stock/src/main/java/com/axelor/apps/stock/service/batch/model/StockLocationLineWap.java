@@ -0,0 +1,115 @@
+/*
+ * Axelor Business Solutions
+ *
+ * Copyright (C) 2005-2025 Axelor (<http://axelor.com>).
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.axelor.apps.stock.service.batch.model;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Weighted average price of a stock location line, as saved and as recomputed from its realized
+ * stock move lines. When replayed from a checkpoint, only the stock move lines realized from the
+ * checkpoint date are replayed.
+ */
+public class StockLocationLineWap {
+
+  private final Long stockLocationLineId;
+  private final Integer version;
+  private final Long stockLocationId;
+  private final Long productId;
+  private final Long unitId;
+  private final BigDecimal savedAvgPrice;
+
+  private LocalDate fromDate;
+  private BigDecimal qty = BigDecimal.ZERO;
+  private BigDecimal avgPrice = BigDecimal.ZERO;
+
+  public StockLocationLineWap(
+      Long stockLocationLineId,
+      Integer version,
+      Long stockLocationId,
+      Long productId,
+      Long unitId,
+      BigDecimal savedAvgPrice) {
+    this.stockLocationLineId = stockLocationLineId;
+    this.version = version;
+    this.stockLocationId = stockLocationId;
+    this.productId = productId;
+    this.unitId = unitId;
+    this.savedAvgPrice = savedAvgPrice != null ? savedAvgPrice : BigDecimal.ZERO;
+  }
+
+  public Long getStockLocationLineId() {
+    return stockLocationLineId;
+  }
+
+  public Integer getVersion() {
+    return version;
+  }
+
+  public Long getStockLocationId() {
+    return stockLocationId;
+  }
+
+  public Long getProductId() {
+    return productId;
+  }
+
+  public Long getUnitId() {
+    return unitId;
+  }
+
+  public BigDecimal getSavedAvgPrice() {
+    return savedAvgPrice;
+  }
+
+  public LocalDate getFromDate() {
+    return fromDate;
+  }
+
+  public BigDecimal getQty() {
+    return qty;
+  }
+
+  public BigDecimal getAvgPrice() {
+    return avgPrice;
+  }
+
+  public void setAvgPrice(BigDecimal avgPrice) {
+    this.avgPrice = avgPrice;
+  }
+
+  public void addQty(BigDecimal qty) {
+    this.qty = this.qty.add(qty);
+  }
+
+  /** Start the replay from a saved quantity and average price. */
+  public void startFrom(LocalDate fromDate, BigDecimal qty, BigDecimal avgPrice) {
+    this.fromDate = fromDate;
+    this.qty = qty != null ? qty : BigDecimal.ZERO;
+    this.avgPrice = avgPrice != null ? avgPrice : BigDecimal.ZERO;
+  }
+
+  public boolean isReplayed(LocalDate realDate) {
+    return fromDate == null || (realDate != null && !realDate.isBefore(fromDate));
+  }
+
+  public boolean isChanged() {
+    return avgPrice.compareTo(savedAvgPrice) != 0;
+  }
+}
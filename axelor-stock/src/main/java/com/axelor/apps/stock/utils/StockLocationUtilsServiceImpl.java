@@ -19,41 +19,35 @@
 package com.axelor.apps.stock.utils;
 
 import com.axelor.apps.base.AxelorException;
-import com.axelor.apps.base.db.Product;
-import com.axelor.apps.base.db.Unit;
-import com.axelor.apps.base.db.repo.TraceBackRepository;
 import com.axelor.apps.base.db.repo.UnitRepository;
 import com.axelor.apps.base.service.UnitConversionService;
 import com.axelor.apps.base.service.app.AppBaseService;
 import com.axelor.apps.stock.db.StockLocation;
-import com.axelor.apps.stock.db.repo.StockLocationRepository;
-import com.axelor.apps.stock.exception.StockExceptionMessage;
+import com.axelor.apps.stock.service.StockAvailabilityService;
 import com.axelor.db.JPA;
-import com.axelor.i18n.I18n;
 import com.google.inject.Inject;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import javax.persistence.Query;
-import javax.persistence.Tuple;
-import javax.persistence.TypedQuery;
 
 public class StockLocationUtilsServiceImpl implements StockLocationUtilsService {
 
   protected UnitRepository unitRepository;
   protected UnitConversionService unitConversionService;
   protected AppBaseService appBaseService;
+  protected StockAvailabilityService stockAvailabilityService;
 
   @Inject
   public StockLocationUtilsServiceImpl(
       UnitRepository unitRepository,
       UnitConversionService unitConversionService,
-      AppBaseService appBaseService) {
+      AppBaseService appBaseService,
+      StockAvailabilityService stockAvailabilityService) {
     this.unitRepository = unitRepository;
     this.unitConversionService = unitConversionService;
     this.appBaseService = appBaseService;
+    this.stockAvailabilityService = stockAvailabilityService;
   }
 
   @Override
@@ -73,61 +67,9 @@ public class StockLocationUtilsServiceImpl implements StockLocationUtilsService
   protected BigDecimal getQtyOfProductInStockLocations(
       Long productId, List<Long> stockLocationIds, Long companyId, String qtyFieldName)
       throws AxelorException {
-    Product product = JPA.find(Product.class, productId);
-    Unit productUnit = product.getUnit();
-
-    StringBuilder query = new StringBuilder();
-    Map<String, Object> parameterMap = new HashMap<>();
-    query.append("SELECT self.unit.id, sum(self.%s)");
-    query.append(" FROM StockLocationLine self");
-    query.append(" WHERE self.stockLocation.typeSelect != :stockLocationTypeSelectVirtual");
-    query.append(" AND self.product.id = :productId AND self.product.stockManaged is TRUE");
-
-    parameterMap.put("stockLocationTypeSelectVirtual", StockLocationRepository.TYPE_VIRTUAL);
-    parameterMap.put("productId", product.getId());
-
-    if (companyId != null && companyId > 0L) {
-      query.append(" AND self.stockLocation.company.id = :companyId");
-      parameterMap.put("companyId", companyId);
-    }
-
-    if (stockLocationIds != null && !stockLocationIds.isEmpty()) {
-      query.append(" AND self.stockLocation.id IN (:stockLocationIds)");
-      parameterMap.put("stockLocationIds", stockLocationIds);
-    }
-
-    query.append(" GROUP BY self.unit.id");
-
-    TypedQuery<Tuple> sumOfQtyPerUnitQuery =
-        JPA.em().createQuery(String.format(query.toString(), qtyFieldName), Tuple.class);
-
-    parameterMap.forEach(sumOfQtyPerUnitQuery::setParameter);
-
-    BigDecimal sumOfQty = BigDecimal.ZERO;
-    for (Tuple qtyPerUnit : sumOfQtyPerUnitQuery.getResultList()) {
-      Long stockLocationLineUnitId = (Long) qtyPerUnit.get(0);
-      BigDecimal sumOfQtyOfStockLocationLineUnit = (BigDecimal) qtyPerUnit.get(1);
-      if (stockLocationLineUnitId == null) {
-        throw new AxelorException(
-            TraceBackRepository.CATEGORY_NO_VALUE,
-            I18n.get(StockExceptionMessage.STOCK_LOCATION_UNIT_NULL));
-      }
-      if (productUnit != null && !productUnit.getId().equals(stockLocationLineUnitId)) {
-        Unit stockLocationLineUnit = unitRepository.find(stockLocationLineUnitId);
-
-        sumOfQty =
-            sumOfQty.add(
-                unitConversionService.convert(
-                    stockLocationLineUnit,
-                    productUnit,
-                    sumOfQtyOfStockLocationLineUnit,
-                    sumOfQtyOfStockLocationLineUnit.scale(),
-                    product));
-      } else {
-        sumOfQty = sumOfQty.add(sumOfQtyOfStockLocationLineUnit);
-      }
-    }
-    return sumOfQty.setScale(appBaseService.getNbDecimalDigitForQty(), RoundingMode.HALF_UP);
+    return stockAvailabilityService
+        .getQty(productId, stockLocationIds, companyId, qtyFieldName)
+        .setScale(appBaseService.getNbDecimalDigitForQty(), RoundingMode.HALF_UP);
   }
 
   @Override
@@ -0,0 +1,168 @@
+/*
+ * Axelor Business Solutions
+ *
+ * Copyright (C) 2005-2025 Axelor (<http://axelor.com>).
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.axelor.apps.stock.service;
+
+import com.axelor.apps.base.AxelorException;
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class TestStockAvailabilityService {
+
+  private static final Long PRODUCT_ID = 1L;
+  private static final Long LOCATION_ID = 10L;
+
+  private TestAvailabilityService availabilityService;
+
+  @BeforeEach
+  void prepare() {
+    availabilityService = new TestAvailabilityService();
+    availabilityService.dbQtyMap.put(PRODUCT_ID, new BigDecimal("5"));
+  }
+
+  @AfterEach
+  void clean() {
+    availabilityService.pendingKeys.remove();
+  }
+
+  private BigDecimal getCurrentQty() throws AxelorException {
+    return availabilityService.getLocationQty(PRODUCT_ID, LOCATION_ID, "currentQty");
+  }
+
+  @Test
+  void testLoadedOnceAndKept() throws AxelorException {
+    Assertions.assertEquals(new BigDecimal("5"), getCurrentQty());
+    availabilityService.dbQtyMap.put(PRODUCT_ID, new BigDecimal("7"));
+    Assertions.assertEquals(new BigDecimal("5"), getCurrentQty());
+    Assertions.assertEquals(1, availabilityService.loadCount);
+    Assertions.assertTrue(availabilityService.versionMap.isEmpty());
+  }
+
+  @Test
+  void testLoadConcurrentToDropIsNotKept() throws AxelorException {
+    // The product is modified and dropped while its former quantities are loaded
+    availabilityService.onLoad =
+        () -> {
+          availabilityService.dbQtyMap.put(PRODUCT_ID, new BigDecimal("7"));
+          availabilityService.invalidate(availabilityService.getKey(PRODUCT_ID));
+        };
+    Assertions.assertEquals(new BigDecimal("5"), getCurrentQty());
+
+    availabilityService.onLoad = null;
+    Assertions.assertEquals(new BigDecimal("7"), getCurrentQty());
+    Assertions.assertEquals(new BigDecimal("7"), getCurrentQty());
+    Assertions.assertEquals(2, availabilityService.loadCount);
+    Assertions.assertTrue(availabilityService.versionMap.isEmpty());
+  }
+
+  @Test
+  void testFailedLoadIsNotKept() {
+    availabilityService.onLoad =
+        () -> {
+          throw new IllegalStateException();
+        };
+    Assertions.assertThrows(IllegalStateException.class, this::getCurrentQty);
+    Assertions.assertTrue(availabilityService.versionMap.isEmpty());
+  }
+
+  @Test
+  void testDroppedAgainAfterCompletion() throws AxelorException {
+    getCurrentQty();
+    availabilityService.invalidateProduct(PRODUCT_ID);
+    availabilityService.dbQtyMap.put(PRODUCT_ID, new BigDecimal("7"));
+
+    // The modifying transaction reads its own quantities without storing them
+    Assertions.assertEquals(new BigDecimal("7"), getCurrentQty());
+    Assertions.assertEquals(new BigDecimal("7"), getCurrentQty());
+    Assertions.assertEquals(3, availabilityService.loadCount);
+
+    // Another transaction loads the quantities committed before the modification
+    Set<String> keySet = availabilityService.pendingKeys.get();
+    availabilityService.pendingKeys.remove();
+    availabilityService.dbQtyMap.put(PRODUCT_ID, new BigDecimal("5"));
+    Assertions.assertEquals(new BigDecimal("5"), getCurrentQty());
+
+    availabilityService.dbQtyMap.put(PRODUCT_ID, new BigDecimal("7"));
+    availabilityService.complete(keySet);
+    Assertions.assertEquals(new BigDecimal("7"), getCurrentQty());
+    Assertions.assertEquals(5, availabilityService.loadCount);
+  }
+
+  @Test
+  void testInvalidateAll() throws AxelorException {
+    getCurrentQty();
+    availabilityService.dbQtyMap.put(PRODUCT_ID, new BigDecimal("7"));
+    availabilityService.invalidateAll();
+    Assertions.assertEquals(new BigDecimal("7"), getCurrentQty());
+  }
+
+  private static class TestAvailabilityService extends StockAvailabilityServiceImpl {
+
+    private final Map<Long, BigDecimal> dbQtyMap = new HashMap<>();
+    private Runnable onLoad;
+    private int loadCount;
+
+    TestAvailabilityService() {
+      super(null, null, null);
+    }
+
+    @Override
+    protected ProductAvailability loadProductAvailability(Long productId) {
+      loadCount++;
+      BigDecimal qty = dbQtyMap.get(productId);
+      if (onLoad != null) {
+        onLoad.run();
+      }
+      ProductAvailability productAvailability = new ProductAvailability();
+      LocationAvailability locationAvailability = new LocationAvailability();
+      locationAvailability.qtyMap.put("currentQty", qty);
+      locationAvailability.qtyMap.put("futureQty", qty);
+      productAvailability.locationMap.put(LOCATION_ID, locationAvailability);
+      return productAvailability;
+    }
+
+    @Override
+    protected String getKey(Long productId) {
+      return "tenant" + SEPARATOR + productId;
+    }
+
+    /** Registers the keys of the current thread as an active transaction would. */
+    @Override
+    protected Set<String> getPendingKeys() {
+      Set<String> keySet = pendingKeys.get();
+      if (keySet == null) {
+        keySet = new HashSet<>();
+        pendingKeys.set(keySet);
+      }
+      return keySet;
+    }
+
+    /** Runs what the transaction synchronization runs once the transaction is completed. */
+    private void complete(Set<String> keySet) {
+      pendingKeys.remove();
+      keySet.forEach(this::invalidate);
+    }
+  }
+}
@@ -0,0 +1,116 @@
+/*
+ * Axelor Business Solutions
+ *
+ * Copyright (C) 2005-2025 Axelor (<http://axelor.com>).
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.axelor.apps.stock.service;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.axelor.apps.base.AxelorException;
+import com.axelor.apps.base.db.Product;
+import com.axelor.apps.base.db.repo.ProductRepository;
+import com.axelor.apps.base.service.app.AppBaseService;
+import com.axelor.studio.db.AppBase;
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class TestWeightedAveragePriceService {
+
+  private static final Long COMPANY_ID = 1L;
+  private static final Long OTHER_COMPANY_ID = 2L;
+
+  private WeightedAveragePriceServiceImpl weightedAveragePriceService;
+  private ProductRepository productRepo;
+  private Map<Long, BigDecimal[]> companyStockValueMap;
+
+  @BeforeEach
+  void prepare() {
+    AppBase appBase = new AppBase();
+    appBase.setCompanySpecificProductFieldsSet(new HashSet<>());
+    AppBaseService appBaseService = mock(AppBaseService.class);
+    when(appBaseService.getNbDecimalDigitForUnitPrice()).thenReturn(2);
+    when(appBaseService.getAppBase()).thenReturn(appBase);
+    productRepo = mock(ProductRepository.class);
+    weightedAveragePriceService =
+        new WeightedAveragePriceServiceImpl(productRepo, appBaseService, null);
+
+    // stock value and quantity by company
+    companyStockValueMap = new HashMap<>();
+    companyStockValueMap.put(
+        COMPANY_ID, new BigDecimal[] {new BigDecimal("100"), new BigDecimal("10")});
+    companyStockValueMap.put(
+        OTHER_COMPANY_ID, new BigDecimal[] {new BigDecimal("200"), new BigDecimal("5")});
+  }
+
+  @Test
+  void testAvgPriceOfAllCompanies() {
+    Assertions.assertEquals(
+        new BigDecimal("20.00"),
+        weightedAveragePriceService.computeAvgPrice(companyStockValueMap, null));
+  }
+
+  @Test
+  void testAvgPriceOfOneCompany() {
+    Assertions.assertEquals(
+        new BigDecimal("10.00"),
+        weightedAveragePriceService.computeAvgPrice(companyStockValueMap, COMPANY_ID));
+    Assertions.assertEquals(
+        new BigDecimal("40.00"),
+        weightedAveragePriceService.computeAvgPrice(companyStockValueMap, OTHER_COMPANY_ID));
+  }
+
+  @Test
+  void testAvgPriceWithoutStockIsZero() {
+    Assertions.assertEquals(
+        0,
+        BigDecimal.ZERO.compareTo(
+            weightedAveragePriceService.computeAvgPrice(Collections.emptyMap(), null)));
+  }
+
+  @Test
+  void testProductAvgPriceUpdatesCostPrice() throws AxelorException {
+    Product product = new Product();
+    product.setCostTypeSelect(ProductRepository.COST_TYPE_AVERAGE_PRICE);
+    product.setAutoUpdateSalePrice(false);
+
+    weightedAveragePriceService.computeAvgPriceForProduct(product, companyStockValueMap);
+
+    Assertions.assertEquals(new BigDecimal("20.00"), product.getAvgPrice());
+    Assertions.assertEquals(new BigDecimal("20.00"), product.getCostPrice());
+    verify(productRepo).save(product);
+  }
+
+  @Test
+  void testProductWithoutStockKeepsAvgPrice() throws AxelorException {
+    Product product = new Product();
+    product.setAvgPrice(new BigDecimal("7"));
+
+    weightedAveragePriceService.computeAvgPriceForProduct(product, Collections.emptyMap());
+
+    Assertions.assertEquals(new BigDecimal("7"), product.getAvgPrice());
+    verify(productRepo, never()).save(product);
+  }
+}
@@ -0,0 +1,222 @@
+/*
+ * Axelor Business Solutions
+ *
+ * Copyright (C) 2005-2025 Axelor (<http://axelor.com>).
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.axelor.apps.stock.service.batch;
+
+import com.axelor.apps.base.AxelorException;
+import com.axelor.apps.stock.db.repo.StockLocationRepository;
+import com.axelor.apps.stock.db.repo.StockMoveRepository;
+import com.axelor.apps.stock.service.UnitConversionFactorCache;
+import com.axelor.apps.stock.service.batch.model.StockLocationLineQty;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class TestStockLocationLineRecomputeService {
+
+  private static final Long PRODUCT_ID = 1L;
+  private static final Long UNIT_ID = 1L;
+  private static final Long BOX_UNIT_ID = 2L;
+  private static final Long SUPPLIER_LOCATION_ID = 10L;
+  private static final Long CUSTOMER_LOCATION_ID = 11L;
+  private static final Long WAREHOUSE_ID = 20L;
+  private static final Long TRACKING_NUMBER_ID = 30L;
+  private static final int SCALE = 2;
+
+  private StockLocationLineRecomputeServiceImpl stockLocationLineRecomputeService;
+  private Map<List<Long>, StockLocationLineQty> lineMap;
+  private Map<Long, Long> productUnitMap;
+  private UnitConversionFactorCache unitConversionFactorCache;
+
+  @BeforeEach
+  void prepare() {
+    stockLocationLineRecomputeService =
+        new StockLocationLineRecomputeServiceImpl(
+            null, null, null, null, null, null, null, null, null, null, null);
+    lineMap = new LinkedHashMap<>();
+    productUnitMap = new HashMap<>();
+    productUnitMap.put(PRODUCT_ID, UNIT_ID);
+    // a box holds 10 units
+    unitConversionFactorCache =
+        new UnitConversionFactorCache(null, null, null) {
+          @Override
+          public BigDecimal getFactor(Long startUnitId, Long endUnitId, Long productId) {
+            if (startUnitId.equals(endUnitId)) {
+              return BigDecimal.ONE;
+            }
+            return BOX_UNIT_ID.equals(startUnitId) ? BigDecimal.TEN : new BigDecimal("0.1");
+          }
+        };
+  }
+
+  @Test
+  void testRealizedReceiptsComputeCurrentQtyAndAvgPrice() throws AxelorException {
+    replay(receipt(StockMoveRepository.STATUS_REALIZED, null, "10", "5"));
+    replay(receipt(StockMoveRepository.STATUS_REALIZED, null, "30", "7"));
+
+    StockLocationLineQty line = getLine(WAREHOUSE_ID, null);
+    Assertions.assertEquals(0, new BigDecimal("40").compareTo(line.getCurrentQty()));
+    Assertions.assertEquals(0, new BigDecimal("40").compareTo(line.getFutureQty()));
+    Assertions.assertEquals(0, new BigDecimal("6.50").compareTo(line.getAvgPrice()));
+
+    StockLocationLineQty supplierLine = getLine(SUPPLIER_LOCATION_ID, null);
+    Assertions.assertEquals(0, new BigDecimal("-40").compareTo(supplierLine.getCurrentQty()));
+  }
+
+  @Test
+  void testDeliveryKeepsAvgPrice() throws AxelorException {
+    replay(receipt(StockMoveRepository.STATUS_REALIZED, null, "10", "5"));
+    replay(delivery(StockMoveRepository.STATUS_REALIZED, "4"));
+
+    StockLocationLineQty line = getLine(WAREHOUSE_ID, null);
+    Assertions.assertEquals(0, new BigDecimal("6").compareTo(line.getCurrentQty()));
+    Assertions.assertEquals(0, new BigDecimal("5").compareTo(line.getAvgPrice()));
+    Assertions.assertEquals(
+        0, BigDecimal.ZERO.compareTo(getLine(CUSTOMER_LOCATION_ID, null).getAvgPrice()));
+  }
+
+  @Test
+  void testPlannedMovesOnlyChangeFutureQty() throws AxelorException {
+    replay(receipt(StockMoveRepository.STATUS_REALIZED, null, "10", "5"));
+    replay(delivery(StockMoveRepository.STATUS_PLANNED, "4"));
+    replay(receipt(StockMoveRepository.STATUS_PLANNED, null, "1", "9"));
+
+    StockLocationLineQty line = getLine(WAREHOUSE_ID, null);
+    Assertions.assertEquals(0, new BigDecimal("10").compareTo(line.getCurrentQty()));
+    Assertions.assertEquals(0, new BigDecimal("7").compareTo(line.getFutureQty()));
+    Assertions.assertEquals(0, new BigDecimal("5").compareTo(line.getAvgPrice()));
+  }
+
+  @Test
+  void testTrackingNumberUpdatesDetailLine() throws AxelorException {
+    replay(receipt(StockMoveRepository.STATUS_REALIZED, TRACKING_NUMBER_ID, "10", "5"));
+
+    StockLocationLineQty line = getLine(WAREHOUSE_ID, null);
+    StockLocationLineQty detailLine = getLine(WAREHOUSE_ID, TRACKING_NUMBER_ID);
+    Assertions.assertTrue(detailLine.isDetail());
+    Assertions.assertEquals(0, new BigDecimal("10").compareTo(line.getCurrentQty()));
+    Assertions.assertEquals(0, new BigDecimal("10").compareTo(detailLine.getCurrentQty()));
+    Assertions.assertEquals(0, new BigDecimal("5").compareTo(line.getAvgPrice()));
+    Assertions.assertEquals(0, BigDecimal.ZERO.compareTo(detailLine.getAvgPrice()));
+  }
+
+  @Test
+  void testQtyAndPriceAreConvertedToTheLineUnit() throws AxelorException {
+    Object[] row = receipt(StockMoveRepository.STATUS_REALIZED, null, "2", "50");
+    row[5] = BOX_UNIT_ID;
+    replay(row);
+
+    StockLocationLineQty line = getLine(WAREHOUSE_ID, null);
+    Assertions.assertEquals(0, new BigDecimal("20").compareTo(line.getCurrentQty()));
+    Assertions.assertEquals(0, new BigDecimal("5").compareTo(line.getAvgPrice()));
+  }
+
+  @Test
+  void testOnlyDifferingLinesHaveDiscrepancy() throws AxelorException {
+    lineMap.put(
+        Arrays.asList(WAREHOUSE_ID, PRODUCT_ID, null),
+        savedLine(WAREHOUSE_ID, "10", "10", "5"));
+    lineMap.put(
+        Arrays.asList(CUSTOMER_LOCATION_ID, PRODUCT_ID, null),
+        savedLine(CUSTOMER_LOCATION_ID, "3", "3", "0"));
+    replay(receipt(StockMoveRepository.STATUS_REALIZED, null, "10", "5"));
+    replay(delivery(StockMoveRepository.STATUS_PLANNED, "0"));
+
+    Assertions.assertFalse(getLine(WAREHOUSE_ID, null).hasDiscrepancy());
+    Assertions.assertTrue(getLine(CUSTOMER_LOCATION_ID, null).hasDiscrepancy());
+    Assertions.assertTrue(getLine(SUPPLIER_LOCATION_ID, null).hasDiscrepancy());
+  }
+
+  private void replay(Object[] row) throws AxelorException {
+    stockLocationLineRecomputeService.replay(
+        row, lineMap, productUnitMap, unitConversionFactorCache, SCALE);
+  }
+
+  private StockLocationLineQty getLine(Long stockLocationId, Long trackingNumberId) {
+    return lineMap.get(Arrays.asList(stockLocationId, PRODUCT_ID, trackingNumberId));
+  }
+
+  private StockLocationLineQty savedLine(
+      Long stockLocationId, String currentQty, String futureQty, String avgPrice) {
+    return new StockLocationLineQty(
+        1L,
+        0,
+        stockLocationId,
+        PRODUCT_ID,
+        null,
+        UNIT_ID,
+        new BigDecimal(currentQty),
+        new BigDecimal(futureQty),
+        new BigDecimal(avgPrice),
+        Collections.emptyMap());
+  }
+
+  private Object[] receipt(int statusSelect, Long trackingNumberId, String qty, String price) {
+    return row(
+        SUPPLIER_LOCATION_ID,
+        WAREHOUSE_ID,
+        StockLocationRepository.TYPE_INTERNAL,
+        trackingNumberId,
+        statusSelect,
+        qty,
+        price);
+  }
+
+  private Object[] delivery(int statusSelect, String qty) {
+    return row(
+        WAREHOUSE_ID,
+        CUSTOMER_LOCATION_ID,
+        StockLocationRepository.TYPE_VIRTUAL,
+        null,
+        statusSelect,
+        qty,
+        null);
+  }
+
+  /** A row as streamed by {@link StockLocationLineRecomputeServiceImpl#streamStockMoveLines}. */
+  private Object[] row(
+      Long fromStockLocationId,
+      Long toStockLocationId,
+      int toStockLocationTypeSelect,
+      Long trackingNumberId,
+      int statusSelect,
+      String qty,
+      String price) {
+    return new Object[] {
+      PRODUCT_ID,
+      fromStockLocationId,
+      toStockLocationId,
+      toStockLocationTypeSelect,
+      trackingNumberId,
+      UNIT_ID,
+      new BigDecimal(qty),
+      statusSelect,
+      null,
+      false,
+      price != null ? new BigDecimal(price) : null,
+      null
+    };
+  }
+}
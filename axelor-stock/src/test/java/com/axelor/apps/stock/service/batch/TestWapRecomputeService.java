@@ -0,0 +1,178 @@
+/*
+ * Axelor Business Solutions
+ *
+ * Copyright (C) 2005-2025 Axelor (<http://axelor.com>).
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.axelor.apps.stock.service.batch;
+
+import com.axelor.apps.base.AxelorException;
+import com.axelor.apps.stock.service.UnitConversionFactorCache;
+import com.axelor.apps.stock.service.batch.model.StockLocationLineWap;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class TestWapRecomputeService {
+
+  private static final Long PRODUCT_ID = 1L;
+  private static final Long UNIT_ID = 1L;
+  private static final Long BOX_UNIT_ID = 2L;
+  private static final Long SUPPLIER_LOCATION_ID = 10L;
+  private static final Long CUSTOMER_LOCATION_ID = 11L;
+  private static final Long WAREHOUSE_ID = 20L;
+  private static final LocalDate FROM_DATE = LocalDate.of(2026, 3, 1);
+  private static final int SCALE = 2;
+
+  private WapRecomputeServiceImpl wapRecomputeService;
+  private Map<List<Long>, StockLocationLineWap> lineMap;
+  private UnitConversionFactorCache unitConversionFactorCache;
+
+  @BeforeEach
+  void prepare() {
+    wapRecomputeService = new WapRecomputeServiceImpl(null, null, null, null, null, null, null);
+    lineMap = new LinkedHashMap<>();
+    lineMap.put(Arrays.asList(WAREHOUSE_ID, PRODUCT_ID), savedLine("0"));
+    // a box holds 10 units
+    unitConversionFactorCache =
+        new UnitConversionFactorCache(null, null, null) {
+          @Override
+          public BigDecimal getFactor(Long startUnitId, Long endUnitId, Long productId) {
+            if (startUnitId.equals(endUnitId)) {
+              return BigDecimal.ONE;
+            }
+            return BOX_UNIT_ID.equals(startUnitId) ? BigDecimal.TEN : new BigDecimal("0.1");
+          }
+        };
+  }
+
+  @Test
+  void testReceiptsComputeAvgPrice() throws AxelorException {
+    replay(receipt("10", "5", null, FROM_DATE));
+    replay(receipt("30", "7", null, FROM_DATE));
+
+    StockLocationLineWap line = getWarehouseLine();
+    assertDecimal("40", line.getQty());
+    assertDecimal("6.50", line.getAvgPrice());
+    Assertions.assertTrue(line.isChanged());
+  }
+
+  @Test
+  void testDeliveryKeepsAvgPrice() throws AxelorException {
+    replay(receipt("10", "5", null, FROM_DATE));
+    replay(delivery("4", FROM_DATE));
+    replay(receipt("6", "8", null, FROM_DATE));
+
+    StockLocationLineWap line = getWarehouseLine();
+    assertDecimal("12", line.getQty());
+    assertDecimal("6.50", line.getAvgPrice());
+  }
+
+  @Test
+  void testCompanyPriceIsUsedWithoutWapPrice() throws AxelorException {
+    replay(receipt("10", null, "3", FROM_DATE));
+
+    assertDecimal("3", getWarehouseLine().getAvgPrice());
+  }
+
+  @Test
+  void testQtyAndPriceAreConvertedToTheLineUnit() throws AxelorException {
+    Object[] row = receipt("2", "50", null, FROM_DATE);
+    row[3] = BOX_UNIT_ID;
+    replay(row);
+
+    StockLocationLineWap line = getWarehouseLine();
+    assertDecimal("20", line.getQty());
+    assertDecimal("5", line.getAvgPrice());
+  }
+
+  @Test
+  void testReplayStartsFromCheckpoint() throws AxelorException {
+    StockLocationLineWap line = getWarehouseLine();
+    line.startFrom(FROM_DATE, new BigDecimal("10"), new BigDecimal("4"));
+
+    replay(receipt("100", "50", null, FROM_DATE.minusDays(1)));
+    replay(receipt("10", "6", null, FROM_DATE));
+
+    assertDecimal("20", line.getQty());
+    assertDecimal("5", line.getAvgPrice());
+  }
+
+  @Test
+  void testUnchangedAvgPriceIsNotSaved() throws AxelorException {
+    lineMap.put(Arrays.asList(WAREHOUSE_ID, PRODUCT_ID), savedLine("5"));
+
+    replay(receipt("10", "5", null, FROM_DATE));
+
+    Assertions.assertFalse(getWarehouseLine().isChanged());
+  }
+
+  @Test
+  void testUpdatesMatchingNoLineAreStale() {
+    Assertions.assertEquals(0, wapRecomputeService.countStaleLines(new int[] {1, 1}));
+    Assertions.assertEquals(2, wapRecomputeService.countStaleLines(new int[] {0, 1, 0}));
+  }
+
+  private void replay(Object[] row) throws AxelorException {
+    wapRecomputeService.replay(row, lineMap, unitConversionFactorCache, SCALE);
+  }
+
+  private StockLocationLineWap getWarehouseLine() {
+    return lineMap.get(Arrays.asList(WAREHOUSE_ID, PRODUCT_ID));
+  }
+
+  private void assertDecimal(String expected, BigDecimal actual) {
+    Assertions.assertEquals(0, new BigDecimal(expected).compareTo(actual));
+  }
+
+  private StockLocationLineWap savedLine(String avgPrice) {
+    return new StockLocationLineWap(
+        1L, 0, WAREHOUSE_ID, PRODUCT_ID, UNIT_ID, new BigDecimal(avgPrice));
+  }
+
+  private Object[] receipt(String qty, String wapPrice, String companyPrice, LocalDate realDate) {
+    return row(SUPPLIER_LOCATION_ID, WAREHOUSE_ID, qty, wapPrice, companyPrice, realDate);
+  }
+
+  private Object[] delivery(String qty, LocalDate realDate) {
+    return row(WAREHOUSE_ID, CUSTOMER_LOCATION_ID, qty, null, null, realDate);
+  }
+
+  /** A row as streamed by {@link WapRecomputeServiceImpl#streamStockMoveLines}. */
+  private Object[] row(
+      Long fromStockLocationId,
+      Long toStockLocationId,
+      String qty,
+      String wapPrice,
+      String companyPrice,
+      LocalDate realDate) {
+    return new Object[] {
+      PRODUCT_ID,
+      fromStockLocationId,
+      toStockLocationId,
+      UNIT_ID,
+      new BigDecimal(qty),
+      wapPrice != null ? new BigDecimal(wapPrice) : null,
+      companyPrice != null ? new BigDecimal(companyPrice) : null,
+      realDate
+    };
+  }
+}
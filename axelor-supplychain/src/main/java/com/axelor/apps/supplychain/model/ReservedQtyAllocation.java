@@ -0,0 +1,71 @@
+/*
+ * Axelor Business Solutions
+ *
+ * Copyright (C) 2005-2025 Axelor (<http://axelor.com>).
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.axelor.apps.supplychain.model;
+
+import java.math.BigDecimal;
+
+/**
+ * A quantity allocated to a stock move line waiting for a reservation, as computed by the
+ * reservation engine before being saved.
+ */
+public class ReservedQtyAllocation {
+
+  protected Long stockMoveLineId;
+  protected Long stockMoveId;
+  protected Long saleOrderLineId;
+
+  /** The allocated quantity, in the unit of the stock move line. */
+  protected BigDecimal qty;
+
+  /** The allocated quantity, in the unit of the stock location line. */
+  protected BigDecimal stockLocationQty;
+
+  public ReservedQtyAllocation(
+      Long stockMoveLineId,
+      Long stockMoveId,
+      Long saleOrderLineId,
+      BigDecimal qty,
+      BigDecimal stockLocationQty) {
+    this.stockMoveLineId = stockMoveLineId;
+    this.stockMoveId = stockMoveId;
+    this.saleOrderLineId = saleOrderLineId;
+    this.qty = qty;
+    this.stockLocationQty = stockLocationQty;
+  }
+
+  public Long getStockMoveLineId() {
+    return stockMoveLineId;
+  }
+
+  public Long getStockMoveId() {
+    return stockMoveId;
+  }
+
+  public Long getSaleOrderLineId() {
+    return saleOrderLineId;
+  }
+
+  public BigDecimal getQty() {
+    return qty;
+  }
+
+  public BigDecimal getStockLocationQty() {
+    return stockLocationQty;
+  }
+}
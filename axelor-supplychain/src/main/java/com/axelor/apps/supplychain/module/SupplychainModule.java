@@ -86,6 +86,7 @@ import com.axelor.apps.stock.db.repo.StockMoveLineStockRepository;
 import com.axelor.apps.stock.db.repo.StockMoveManagementRepository;
 import com.axelor.apps.stock.rest.StockProductRestServiceImpl;
 import com.axelor.apps.stock.service.LogisticalFormServiceImpl;
+import com.axelor.apps.stock.service.StockAvailabilityServiceImpl;
 import com.axelor.apps.stock.service.StockCorrectionServiceImpl;
 import com.axelor.apps.stock.service.StockHistoryServiceImpl;
 import com.axelor.apps.stock.service.StockLocationLineFetchServiceImpl;
@@ -96,6 +97,7 @@ import com.axelor.apps.stock.service.StockMoveServiceImpl;
 import com.axelor.apps.stock.service.StockRulesService;
 import com.axelor.apps.stock.service.StockRulesServiceImpl;
 import com.axelor.apps.stock.service.TrackingNumberCompanyServiceImpl;
+import com.axelor.apps.stock.service.batch.StockLocationLineRecomputeServiceImpl;
 import com.axelor.apps.stock.utils.StockLocationUtilsServiceImpl;
 import com.axelor.apps.supplychain.db.repo.AdvancePaymentSupplychainRepository;
 import com.axelor.apps.supplychain.db.repo.AnalyticMoveLineSupplychainRepository;
@@ -181,12 +183,15 @@ import com.axelor.apps.supplychain.service.PurchaseOrderStockServiceImpl;
 import com.axelor.apps.supplychain.service.PurchaseOrderSupplychainService;
 import com.axelor.apps.supplychain.service.PurchaseOrderWorkflowServiceSupplychainImpl;
 import com.axelor.apps.supplychain.service.PurchaseRequestServiceSupplychainImpl;
+import com.axelor.apps.supplychain.service.ReservedQtyAllocationService;
+import com.axelor.apps.supplychain.service.ReservedQtyAllocationServiceImpl;
 import com.axelor.apps.supplychain.service.ReservedQtyService;
 import com.axelor.apps.supplychain.service.ReservedQtyServiceImpl;
 import com.axelor.apps.supplychain.service.SaleInvoicingStateService;
 import com.axelor.apps.supplychain.service.SaleInvoicingStateServiceImpl;
 import com.axelor.apps.supplychain.service.ShippingService;
 import com.axelor.apps.supplychain.service.ShippingServiceImpl;
+import com.axelor.apps.supplychain.service.StockAvailabilityServiceSupplychainImpl;
 import com.axelor.apps.supplychain.service.StockCorrectionServiceSupplychainImpl;
 import com.axelor.apps.supplychain.service.StockHistoryServiceSupplyChainImpl;
 import com.axelor.apps.supplychain.service.StockLocationLineFetchServiceSupplychainImpl;
@@ -222,6 +227,7 @@ import com.axelor.apps.supplychain.service.app.AppSupplychainService;
 import com.axelor.apps.supplychain.service.app.AppSupplychainServiceImpl;
 import com.axelor.apps.supplychain.service.batch.BatchAccountingCutOffSupplyChain;
 import com.axelor.apps.supplychain.service.batch.SaleBatchSupplyChainService;
+import com.axelor.apps.supplychain.service.batch.StockLocationLineRecomputeServiceSupplychainImpl;
 import com.axelor.apps.supplychain.service.cart.CartResetSupplychainServiceImpl;
 import com.axelor.apps.supplychain.service.cart.CartSaleOrderGeneratorSupplychainServiceImpl;
 import com.axelor.apps.supplychain.service.cart.CartStockLocationService;
@@ -497,5 +503,9 @@ public class SupplychainModule extends AxelorModule {
     bind(PurchaseOrderShipmentService.class).to(PurchaseOrderShipmentServiceImpl.class);
     bind(ShippingService.class).to(ShippingServiceImpl.class);
     bind(FreightCarrierModeService.class).to(FreightCarrierModeServiceImpl.class);
+    bind(StockLocationLineRecomputeServiceImpl.class)
+        .to(StockLocationLineRecomputeServiceSupplychainImpl.class);
+    bind(ReservedQtyAllocationService.class).to(ReservedQtyAllocationServiceImpl.class);
+    bind(StockAvailabilityServiceImpl.class).to(StockAvailabilityServiceSupplychainImpl.class);
   }
 }
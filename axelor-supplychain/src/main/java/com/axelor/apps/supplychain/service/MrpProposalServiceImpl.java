@@ -70,6 +70,8 @@ public class MrpProposalServiceImpl implements MrpProposalService {
           I18n.get(SupplychainExceptionMessage.MRP_GENERATE_PROPOSAL_NO_LINE_SELECTED));
     }
 
+    generateProposalsInBulk(mrp, true);
+
     while (!(mrpLineList = getSelectedMrpLines(mrp).fetch(1)).isEmpty()) {
       mrp = mrpRepository.find(mrp.getId());
       generateProposals(
@@ -99,6 +101,8 @@ public class MrpProposalServiceImpl implements MrpProposalService {
           I18n.get(SupplychainExceptionMessage.MRP_GENERATE_PROPOSAL_NO_POSSIBLE_LINE));
     }
 
+    generateProposalsInBulk(mrp, false);
+
     while (!(mrpLineList = getAllMrpLines(mrp).fetch(1)).isEmpty()) {
       mrp = mrpRepository.find(mrp.getId());
       generateProposals(
@@ -118,6 +122,15 @@ public class MrpProposalServiceImpl implements MrpProposalService {
         .order("maturityDate");
   }
 
+  /**
+   * Generate at once the proposals which can be generated in bulk, before the remaining ones are
+   * generated line by line. Does nothing here.
+   *
+   * @param mrp the MRP
+   * @param selectedOnly whether to generate only the proposals selected to be processed
+   */
+  protected void generateProposalsInBulk(Mrp mrp, boolean selectedOnly) throws AxelorException {}
+
   @Transactional(rollbackOn = {Exception.class})
   protected void generateProposals(
       boolean isProposalPerSupplier,
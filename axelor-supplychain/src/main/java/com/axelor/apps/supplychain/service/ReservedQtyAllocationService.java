@@ -0,0 +1,77 @@
+/*
+ * Axelor Business Solutions
+ *
+ * Copyright (C) 2005-2025 Axelor (<http://axelor.com>).
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.axelor.apps.supplychain.service;
+
+import com.axelor.apps.base.AxelorException;
+import com.axelor.apps.base.db.Product;
+import com.axelor.apps.base.db.Unit;
+import com.axelor.apps.stock.db.StockLocation;
+import com.axelor.apps.stock.db.StockMove;
+import com.axelor.apps.supplychain.model.ReservedQtyAllocation;
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Allocates an available quantity of a product in a stock location to the planned stock move lines
+ * waiting for a reservation, in one pass over the backlog ordered by priority.
+ *
+ * <p>The backlog is ordered by estimated date of the stock move, then by date of the sale order,
+ * then by reservation date. Lines of a priority stock move are served first.
+ */
+public interface ReservedQtyAllocationService {
+
+  /**
+   * Compute how a quantity would be allocated, without changing anything.
+   *
+   * @param stockLocation the stock location the stock move lines are leaving
+   * @param product the product to allocate
+   * @param qtyToAllocate the available quantity, in stock location line unit
+   * @param stockLocationLineUnit the unit of the stock location line
+   * @param priorityStockMove a stock move whose lines are served first, can be null
+   * @return the quantities allocated to each stock move line, in priority order
+   * @throws AxelorException if a unit conversion is missing
+   */
+  List<ReservedQtyAllocation> simulateAllocation(
+      StockLocation stockLocation,
+      Product product,
+      BigDecimal qtyToAllocate,
+      Unit stockLocationLineUnit,
+      StockMove priorityStockMove)
+      throws AxelorException;
+
+  /**
+   * Allocate a quantity and update the reserved quantities of the stock move lines and of their
+   * sale order lines. The stock location line is not updated.
+   *
+   * @param stockLocation the stock location the stock move lines are leaving
+   * @param product the product to allocate
+   * @param qtyToAllocate the available quantity, in stock location line unit
+   * @param stockLocationLineUnit the unit of the stock location line
+   * @param priorityStockMove a stock move whose lines are served first, can be null
+   * @return the allocated quantity, in stock location line unit
+   * @throws AxelorException if a unit conversion is missing
+   */
+  BigDecimal allocate(
+      StockLocation stockLocation,
+      Product product,
+      BigDecimal qtyToAllocate,
+      Unit stockLocationLineUnit,
+      StockMove priorityStockMove)
+      throws AxelorException;
+}
@@ -0,0 +1,279 @@
+/*
+ * Axelor Business Solutions
+ *
+ * Copyright (C) 2005-2025 Axelor (<http://axelor.com>).
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.axelor.apps.supplychain.service;
+
+import com.axelor.apps.base.AxelorException;
+import com.axelor.apps.base.db.Product;
+import com.axelor.apps.base.db.Unit;
+import com.axelor.apps.base.db.repo.ProductRepository;
+import com.axelor.apps.base.db.repo.UnitRepository;
+import com.axelor.apps.base.service.UnitConversionService;
+import com.axelor.apps.sale.db.SaleOrderLine;
+import com.axelor.apps.stock.db.StockLocation;
+import com.axelor.apps.stock.db.StockMove;
+import com.axelor.apps.stock.db.StockMoveLine;
+import com.axelor.apps.stock.db.repo.StockMoveRepository;
+import com.axelor.apps.stock.service.UnitConversionFactorCache;
+import com.axelor.apps.supplychain.model.ReservedQtyAllocation;
+import com.axelor.db.JPA;
+import com.google.inject.Inject;
+import com.google.inject.persist.Transactional;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+public class ReservedQtyAllocationServiceImpl implements ReservedQtyAllocationService {
+
+  protected UnitConversionService unitConversionService;
+  protected UnitRepository unitRepository;
+  protected ProductRepository productRepository;
+
+  @Inject
+  public ReservedQtyAllocationServiceImpl(
+      UnitConversionService unitConversionService,
+      UnitRepository unitRepository,
+      ProductRepository productRepository) {
+    this.unitConversionService = unitConversionService;
+    this.unitRepository = unitRepository;
+    this.productRepository = productRepository;
+  }
+
+  @Override
+  public List<ReservedQtyAllocation> simulateAllocation(
+      StockLocation stockLocation,
+      Product product,
+      BigDecimal qtyToAllocate,
+      Unit stockLocationLineUnit,
+      StockMove priorityStockMove)
+      throws AxelorException {
+    List<ReservedQtyAllocation> allocationList = new ArrayList<>();
+    if (product == null
+        || !product.getStockManaged()
+        || qtyToAllocate == null
+        || qtyToAllocate.signum() <= 0) {
+      return allocationList;
+    }
+
+    UnitConversionFactorCache unitConversionFactorCache =
+        new UnitConversionFactorCache(unitConversionService, unitRepository, productRepository);
+    Long productId = product.getId();
+    Long stockLocationLineUnitId = getUnitId(stockLocationLineUnit);
+
+    BigDecimal leftQtyToAllocate = qtyToAllocate;
+    for (Object[] row : getBacklog(stockLocation, product, priorityStockMove)) {
+      if (leftQtyToAllocate.signum() <= 0) {
+        break;
+      }
+      Long unitId = (Long) row[3];
+      BigDecimal neededQty = ((BigDecimal) row[1]).subtract((BigDecimal) row[2]);
+      BigDecimal allocatedQty =
+          convert(
+                  unitConversionFactorCache,
+                  stockLocationLineUnitId,
+                  unitId,
+                  productId,
+                  leftQtyToAllocate)
+              .min(neededQty);
+      if (allocatedQty.signum() <= 0) {
+        continue;
+      }
+      BigDecimal allocatedStockLocationQty =
+          convert(
+              unitConversionFactorCache, unitId, stockLocationLineUnitId, productId, allocatedQty);
+
+      allocationList.add(
+          new ReservedQtyAllocation(
+              (Long) row[0],
+              (Long) row[4],
+              (Long) row[5],
+              allocatedQty,
+              allocatedStockLocationQty));
+      leftQtyToAllocate = leftQtyToAllocate.subtract(allocatedStockLocationQty);
+    }
+    return allocationList;
+  }
+
+  @Override
+  @Transactional(rollbackOn = {Exception.class})
+  public BigDecimal allocate(
+      StockLocation stockLocation,
+      Product product,
+      BigDecimal qtyToAllocate,
+      Unit stockLocationLineUnit,
+      StockMove priorityStockMove)
+      throws AxelorException {
+    List<ReservedQtyAllocation> allocationList =
+        simulateAllocation(
+            stockLocation, product, qtyToAllocate, stockLocationLineUnit, priorityStockMove);
+    if (allocationList.isEmpty()) {
+      return BigDecimal.ZERO;
+    }
+
+    Map<Long, StockMoveLine> stockMoveLineMap =
+        JPA.em()
+            .createQuery(
+                "SELECT self FROM StockMoveLine self"
+                    + " LEFT JOIN FETCH self.saleOrderLine"
+                    + " WHERE self.id IN (:ids)",
+                StockMoveLine.class)
+            .setParameter(
+                "ids",
+                allocationList.stream()
+                    .map(ReservedQtyAllocation::getStockMoveLineId)
+                    .collect(Collectors.toList()))
+            .getResultList()
+            .stream()
+            .collect(Collectors.toMap(StockMoveLine::getId, stockMoveLine -> stockMoveLine));
+
+    UnitConversionFactorCache unitConversionFactorCache =
+        new UnitConversionFactorCache(unitConversionService, unitRepository, productRepository);
+    Map<Long, SaleOrderLine> saleOrderLineMap = new LinkedHashMap<>();
+    BigDecimal allocatedQty = BigDecimal.ZERO;
+
+    for (ReservedQtyAllocation allocation : allocationList) {
+      StockMoveLine stockMoveLine = stockMoveLineMap.get(allocation.getStockMoveLineId());
+      stockMoveLine.setReservedQty(stockMoveLine.getReservedQty().add(allocation.getQty()));
+
+      SaleOrderLine saleOrderLine = stockMoveLine.getSaleOrderLine();
+      if (saleOrderLine != null) {
+        saleOrderLineMap.put(saleOrderLine.getId(), saleOrderLine);
+      }
+      allocatedQty = allocatedQty.add(allocation.getStockLocationQty());
+    }
+
+    updateReservedQty(saleOrderLineMap, product, unitConversionFactorCache);
+    return allocatedQty;
+  }
+
+  /**
+   * Recompute the reserved quantity of the sale order lines from their planned stock move lines, as
+   * {@link ReservedQtyService#updateReservedQty(SaleOrderLine)} does, with one query for all of
+   * them. Each sale order line is updated once, whatever the number of its allocated stock move
+   * lines.
+   */
+  protected void updateReservedQty(
+      Map<Long, SaleOrderLine> saleOrderLineMap,
+      Product product,
+      UnitConversionFactorCache unitConversionFactorCache)
+      throws AxelorException {
+    if (saleOrderLineMap.isEmpty()) {
+      return;
+    }
+    JPA.flush();
+
+    List<Object[]> rowList =
+        JPA.em()
+            .createQuery(
+                "SELECT saleOrderLine.id, unit.id, SUM(self.reservedQty)"
+                    + " FROM StockMoveLine self"
+                    + " JOIN self.saleOrderLine saleOrderLine"
+                    + " JOIN self.stockMove stockMove"
+                    + " LEFT JOIN self.unit unit"
+                    + " WHERE saleOrderLine.id IN (:saleOrderLineIds)"
+                    + " AND stockMove.statusSelect = :planned"
+                    + " GROUP BY saleOrderLine.id, unit.id",
+                Object[].class)
+            .setParameter("saleOrderLineIds", saleOrderLineMap.keySet())
+            .setParameter("planned", StockMoveRepository.STATUS_PLANNED)
+            .getResultList();
+
+    Map<Long, BigDecimal> reservedQtyMap = new HashMap<>();
+    for (Object[] row : rowList) {
+      SaleOrderLine saleOrderLine = saleOrderLineMap.get((Long) row[0]);
+      reservedQtyMap.merge(
+          saleOrderLine.getId(),
+          convert(
+              unitConversionFactorCache,
+              (Long) row[1],
+              getUnitId(saleOrderLine.getUnit()),
+              product.getId(),
+              (BigDecimal) row[2]),
+          BigDecimal::add);
+    }
+    for (SaleOrderLine saleOrderLine : saleOrderLineMap.values()) {
+      saleOrderLine.setReservedQty(
+          reservedQtyMap.getOrDefault(saleOrderLine.getId(), BigDecimal.ZERO));
+    }
+  }
+
+  /**
+   * Fetch the planned stock move lines waiting for a reservation of the product in the stock
+   * location, with one projection query.
+   *
+   * @return rows of stock move line id, requested reserved quantity, reserved quantity, unit id,
+   *     stock move id and sale order line id, in priority order
+   */
+  protected List<Object[]> getBacklog(
+      StockLocation stockLocation, Product product, StockMove priorityStockMove) {
+    List<Object[]> rowList =
+        JPA.em()
+            .createQuery(
+                "SELECT self.id, self.requestedReservedQty, self.reservedQty, unit.id,"
+                    + " stockMove.id, saleOrderLine.id"
+                    + " FROM StockMoveLine self"
+                    + " JOIN self.stockMove stockMove"
+                    + " LEFT JOIN self.unit unit"
+                    + " LEFT JOIN self.saleOrderLine saleOrderLine"
+                    + " LEFT JOIN saleOrderLine.saleOrder saleOrder"
+                    + " WHERE self.fromStockLocation.id = :stockLocationId"
+                    + " AND self.product.id = :productId"
+                    + " AND stockMove.statusSelect = :planned"
+                    + " AND self.reservationDateTime IS NOT NULL"
+                    + " AND self.reservedQty < self.requestedReservedQty"
+                    + " ORDER BY stockMove.estimatedDate, saleOrder.orderDate,"
+                    + " self.reservationDateTime, self.id",
+                Object[].class)
+            .setParameter("stockLocationId", stockLocation.getId())
+            .setParameter("productId", product.getId())
+            .setParameter("planned", StockMoveRepository.STATUS_PLANNED)
+            .getResultList();
+
+    if (priorityStockMove != null) {
+      Long priorityStockMoveId = priorityStockMove.getId();
+      rowList = new ArrayList<>(rowList);
+      // The sort is stable, so the priority order is kept inside both groups.
+      rowList.sort(Comparator.comparing(row -> !Objects.equals(row[4], priorityStockMoveId)));
+    }
+    return rowList;
+  }
+
+  /** Convert a quantity, keeping it unchanged if one of the units is missing. */
+  protected BigDecimal convert(
+      UnitConversionFactorCache unitConversionFactorCache,
+      Long startUnitId,
+      Long endUnitId,
+      Long productId,
+      BigDecimal qty)
+      throws AxelorException {
+    if (startUnitId == null || endUnitId == null) {
+      return qty;
+    }
+    return unitConversionFactorCache.convert(startUnitId, endUnitId, productId, qty);
+  }
+
+  protected Long getUnitId(Unit unit) {
+    return unit != null ? unit.getId() : null;
+  }
+}
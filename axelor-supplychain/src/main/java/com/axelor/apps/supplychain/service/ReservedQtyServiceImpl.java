@@ -40,6 +40,7 @@ import com.axelor.apps.supplychain.db.SupplyChainConfig;
 import com.axelor.apps.supplychain.exception.SupplychainExceptionMessage;
 import com.axelor.apps.supplychain.service.app.AppSupplychainService;
 import com.axelor.apps.supplychain.service.config.SupplyChainConfigService;
+import com.axelor.db.JPA;
 import com.axelor.i18n.I18n;
 import com.axelor.inject.Beans;
 import com.google.inject.Inject;
@@ -60,6 +61,7 @@ public class ReservedQtyServiceImpl implements ReservedQtyService {
   protected SupplyChainConfigService supplychainConfigService;
   protected AppBaseService appBaseService;
   protected StockLocationLineFetchService stockLocationLineFetchService;
+  protected ReservedQtyAllocationService reservedQtyAllocationService;
 
   @Inject
   public ReservedQtyServiceImpl(
@@ -68,13 +70,15 @@ public class ReservedQtyServiceImpl implements ReservedQtyService {
       UnitConversionService unitConversionService,
       SupplyChainConfigService supplyChainConfigService,
       AppBaseService appBaseService,
-      StockLocationLineFetchService stockLocationLineFetchService) {
+      StockLocationLineFetchService stockLocationLineFetchService,
+      ReservedQtyAllocationService reservedQtyAllocationService) {
     this.stockLocationLineService = stockLocationLineService;
     this.stockMoveLineRepository = stockMoveLineRepository;
     this.unitConversionService = unitConversionService;
     this.supplychainConfigService = supplyChainConfigService;
     this.appBaseService = appBaseService;
     this.stockLocationLineFetchService = stockLocationLineFetchService;
+    this.reservedQtyAllocationService = reservedQtyAllocationService;
   }
 
   @Override
@@ -424,6 +428,9 @@ public class ReservedQtyServiceImpl implements ReservedQtyService {
    * other stock move lines.
    *
    * <p>We are using an optional because in the basic use of the method, the argument is empty.
+   *
+   * <p>The allocation is computed in one pass over the waiting stock move lines by {@link
+   * ReservedQtyAllocationService}.
    */
   protected BigDecimal allocateReservedQuantityInSaleOrderLines(
       BigDecimal qtyToAllocate,
@@ -432,58 +439,12 @@ public class ReservedQtyServiceImpl implements ReservedQtyService {
       Unit stockLocationLineUnit,
       Optional<StockMoveLine> allocatedStockMoveLine)
       throws AxelorException {
-    List<StockMoveLine> stockMoveLineListToAllocate =
-        stockMoveLineRepository
-            .all()
-            .filter(
-                "self.fromStockLocation.id = :stockLocationId "
-                    + "AND self.product.id = :productId "
-                    + "AND self.stockMove.statusSelect = :planned "
-                    + "AND self.reservationDateTime IS NOT NULL "
-                    + "AND self.reservedQty < self.requestedReservedQty")
-            .bind("stockLocationId", stockLocation.getId())
-            .bind("productId", product.getId())
-            .bind("planned", StockMoveRepository.STATUS_PLANNED)
-            .order("reservationDateTime")
-            .order("stockMove.estimatedDate")
-            .fetch();
-
-    // put stock move lines with the same stock move on the beginning of the list.
-    allocatedStockMoveLine.ifPresent(
-        stockMoveLine ->
-            stockMoveLineListToAllocate.sort(
-                // Note: this comparator imposes orderings that are inconsistent with equals.
-                (sml1, sml2) -> {
-                  if (sml1.getStockMove().equals(sml2.getStockMove())) {
-                    return 0;
-                  } else if (sml1.getStockMove().equals(stockMoveLine.getStockMove())) {
-                    return -1;
-                  } else if (sml2.getStockMove().equals(stockMoveLine.getStockMove())) {
-                    return 1;
-                  } else {
-                    return 0;
-                  }
-                }));
-    BigDecimal leftQtyToAllocate = qtyToAllocate;
-    for (StockMoveLine stockMoveLine : stockMoveLineListToAllocate) {
-      BigDecimal leftQtyToAllocateStockMove =
-          convertUnitWithProduct(
-              stockLocationLineUnit, stockMoveLine.getUnit(), leftQtyToAllocate, product);
-      BigDecimal neededQtyToAllocate =
-          stockMoveLine.getRequestedReservedQty().subtract(stockMoveLine.getReservedQty());
-      BigDecimal allocatedStockMoveQty = leftQtyToAllocateStockMove.min(neededQtyToAllocate);
-
-      BigDecimal allocatedQty =
-          convertUnitWithProduct(
-              stockMoveLine.getUnit(), stockLocationLineUnit, allocatedStockMoveQty, product);
-
-      // update reserved qty in stock move line and sale order line
-      updateReservedQuantityFromStockMoveLine(stockMoveLine, product, allocatedStockMoveQty);
-      // update left qty to allocate
-      leftQtyToAllocate = leftQtyToAllocate.subtract(allocatedQty);
-    }
-
-    return qtyToAllocate.subtract(leftQtyToAllocate);
+    return reservedQtyAllocationService.allocate(
+        stockLocation,
+        product,
+        qtyToAllocate,
+        stockLocationLineUnit,
+        allocatedStockMoveLine.map(StockMoveLine::getStockMove).orElse(null));
   }
 
   @Override
@@ -895,28 +856,50 @@ public class ReservedQtyServiceImpl implements ReservedQtyService {
     }
 
     // compute from stock move lines
-    List<StockMoveLine> stockMoveLineList =
-        stockMoveLineRepository
-            .all()
-            .filter(
-                "self.product.id = :productId "
-                    + "AND self.fromStockLocation.id = :stockLocationId "
-                    + "AND self.stockMove.statusSelect = :planned")
-            .bind("productId", stockLocationLine.getProduct().getId())
-            .bind("stockLocationId", stockLocation.getId())
-            .bind("planned", StockMoveRepository.STATUS_PLANNED)
-            .fetch();
-    BigDecimal requestedReservedQty = BigDecimal.ZERO;
-    for (StockMoveLine stockMoveLine : stockMoveLineList) {
-      requestedReservedQty =
-          requestedReservedQty.add(
+    stockLocationLine.setRequestedReservedQty(
+        sumPlannedStockMoveLineQty(stockLocationLine, "requestedReservedQty"));
+  }
+
+  /**
+   * Sum a quantity of the planned stock move lines leaving the stock location of the stock location
+   * line, with one query grouped by unit.
+   *
+   * @param stockLocationLine a stock location line
+   * @param qtyFieldName the name of the stock move line quantity to sum
+   * @return the sum, in stock location line unit
+   * @throws AxelorException if a unit conversion is missing
+   */
+  protected BigDecimal sumPlannedStockMoveLineQty(
+      StockLocationLine stockLocationLine, String qtyFieldName) throws AxelorException {
+    List<Object[]> rows =
+        JPA.em()
+            .createQuery(
+                "SELECT unit.id, SUM(self."
+                    + qtyFieldName
+                    + ") FROM StockMoveLine self"
+                    + " LEFT JOIN self.unit unit"
+                    + " WHERE self.product.id = :productId"
+                    + " AND self.fromStockLocation.id = :stockLocationId"
+                    + " AND self.stockMove.statusSelect = :planned"
+                    + " GROUP BY unit.id",
+                Object[].class)
+            .setParameter("productId", stockLocationLine.getProduct().getId())
+            .setParameter("stockLocationId", stockLocationLine.getStockLocation().getId())
+            .setParameter("planned", StockMoveRepository.STATUS_PLANNED)
+            .getResultList();
+
+    BigDecimal qty = BigDecimal.ZERO;
+    for (Object[] row : rows) {
+      Unit unit = row[0] != null ? JPA.find(Unit.class, (Long) row[0]) : null;
+      qty =
+          qty.add(
               convertUnitWithProduct(
-                  stockMoveLine.getUnit(),
+                  unit,
                   stockLocationLine.getUnit(),
-                  stockMoveLine.getRequestedReservedQty(),
+                  (BigDecimal) row[1],
                   stockLocationLine.getProduct()));
     }
-    stockLocationLine.setRequestedReservedQty(requestedReservedQty);
+    return qty;
   }
 
   @Override
@@ -947,28 +930,7 @@ public class ReservedQtyServiceImpl implements ReservedQtyService {
   @Override
   public void updateReservedQty(StockLocationLine stockLocationLine) throws AxelorException {
     // compute from stock move lines
-    List<StockMoveLine> stockMoveLineList =
-        stockMoveLineRepository
-            .all()
-            .filter(
-                "self.product.id = :productId "
-                    + "AND self.fromStockLocation.id = :stockLocationId "
-                    + "AND self.stockMove.statusSelect = :planned")
-            .bind("productId", stockLocationLine.getProduct().getId())
-            .bind("stockLocationId", stockLocationLine.getStockLocation().getId())
-            .bind("planned", StockMoveRepository.STATUS_PLANNED)
-            .fetch();
-    BigDecimal reservedQty = BigDecimal.ZERO;
-    for (StockMoveLine stockMoveLine : stockMoveLineList) {
-      reservedQty =
-          reservedQty.add(
-              convertUnitWithProduct(
-                  stockMoveLine.getUnit(),
-                  stockLocationLine.getUnit(),
-                  stockMoveLine.getReservedQty(),
-                  stockLocationLine.getProduct()));
-    }
-    stockLocationLine.setReservedQty(reservedQty);
+    stockLocationLine.setReservedQty(sumPlannedStockMoveLineQty(stockLocationLine, "reservedQty"));
   }
 
   @Override
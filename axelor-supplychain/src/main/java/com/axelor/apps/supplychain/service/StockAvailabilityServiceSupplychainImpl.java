@@ -0,0 +1,47 @@
+/*
+ * Axelor Business Solutions
+ *
+ * Copyright (C) 2005-2025 Axelor (<http://axelor.com>).
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.axelor.apps.supplychain.service;
+
+import com.axelor.apps.base.db.repo.UnitRepository;
+import com.axelor.apps.base.service.UnitConversionService;
+import com.axelor.apps.stock.service.StockAvailabilityServiceImpl;
+import com.axelor.apps.stock.service.StockLocationTreeService;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import java.util.ArrayList;
+import java.util.List;
+
+@Singleton
+public class StockAvailabilityServiceSupplychainImpl extends StockAvailabilityServiceImpl {
+
+  @Inject
+  public StockAvailabilityServiceSupplychainImpl(
+      UnitRepository unitRepository,
+      UnitConversionService unitConversionService,
+      StockLocationTreeService stockLocationTreeService) {
+    super(unitRepository, unitConversionService, stockLocationTreeService);
+  }
+
+  @Override
+  protected List<String> getQtyFieldNameList() {
+    List<String> qtyFieldNameList = new ArrayList<>(super.getQtyFieldNameList());
+    qtyFieldNameList.add("reservedQty");
+    return qtyFieldNameList;
+  }
+}
@@ -28,6 +28,7 @@ import com.axelor.apps.stock.db.StockLocation;
 import com.axelor.apps.stock.db.StockLocationLine;
 import com.axelor.apps.stock.db.repo.StockLocationLineRepository;
 import com.axelor.apps.stock.db.repo.StockMoveLineRepository;
+import com.axelor.apps.stock.service.StockAvailabilityService;
 import com.axelor.apps.stock.service.StockLocationLineFetchService;
 import com.axelor.apps.stock.service.StockLocationLineHistoryService;
 import com.axelor.apps.stock.service.StockLocationLineServiceImpl;
@@ -54,7 +55,8 @@ public class StockLocationLineServiceSupplychainImpl extends StockLocationLineSe
       UnitConversionService unitConversionService,
       AppSupplychainService appSupplychainService,
       StockLocationLineHistoryService stockLocationLineHistoryService,
-      StockLocationLineFetchService stockLocationLineFetchService) {
+      StockLocationLineFetchService stockLocationLineFetchService,
+      StockAvailabilityService stockAvailabilityService) {
     super(
         stockLocationLineRepo,
         stockRulesService,
@@ -62,7 +64,8 @@ public class StockLocationLineServiceSupplychainImpl extends StockLocationLineSe
         appBaseService,
         unitConversionService,
         stockLocationLineHistoryService,
-        stockLocationLineFetchService);
+        stockLocationLineFetchService,
+        stockAvailabilityService);
     this.appSupplychainService = appSupplychainService;
   }
 
@@ -75,25 +78,25 @@ public class StockLocationLineServiceSupplychainImpl extends StockLocationLineSe
     if (appSupplychainService.isApp("supplychain")
         && appSupplychainService.getAppSupplychain().getManageStockReservation()
         && product.getStockManaged()) {
-      StockLocationLine stockLocationLine =
-          stockLocationLineFetchService.getStockLocationLine(stockLocation, product);
-      if (stockLocationLine == null) {
+      Long productId = product.getId();
+      Long stockLocationId = stockLocation.getId();
+      BigDecimal currentQty =
+          stockAvailabilityService.getLocationQty(productId, stockLocationId, "currentQty");
+      if (currentQty == null) {
         return;
       }
-      BigDecimal convertedQty =
-          unitConversionService.convert(
-              unit, stockLocationLine.getUnit(), qty, qty.scale(), product);
-      if (stockLocationLine
-              .getCurrentQty()
-              .subtract(stockLocationLine.getReservedQty())
-              .compareTo(convertedQty)
+      BigDecimal reservedQty =
+          stockAvailabilityService.getLocationQty(productId, stockLocationId, "reservedQty");
+      if (currentQty.subtract(reservedQty).compareTo(convertToProductUnit(product, unit, qty))
           < 0) {
+        StockLocationLine stockLocationLine =
+            stockLocationLineFetchService.getStockLocationLine(stockLocation, product);
         throw new AxelorException(
             stockLocationLine,
             TraceBackRepository.CATEGORY_CONFIGURATION_ERROR,
             I18n.get(SupplychainExceptionMessage.LOCATION_LINE_RESERVED_QTY),
-            stockLocationLine.getProduct().getName(),
-            stockLocationLine.getProduct().getCode());
+            product.getName(),
+            product.getCode());
       }
     }
   }
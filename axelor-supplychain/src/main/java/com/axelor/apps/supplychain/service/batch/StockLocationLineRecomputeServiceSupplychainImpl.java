@@ -0,0 +1,76 @@
+/*
+ * Axelor Business Solutions
+ *
+ * Copyright (C) 2005-2025 Axelor (<http://axelor.com>).
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.axelor.apps.supplychain.service.batch;
+
+import com.axelor.apps.base.db.repo.ProductRepository;
+import com.axelor.apps.base.db.repo.UnitRepository;
+import com.axelor.apps.base.service.UnitConversionService;
+import com.axelor.apps.base.service.app.AppBaseService;
+import com.axelor.apps.stock.db.repo.StockLocationLineRepository;
+import com.axelor.apps.stock.db.repo.StockLocationRepository;
+import com.axelor.apps.stock.db.repo.TrackingNumberRepository;
+import com.axelor.apps.stock.service.StockAvailabilityService;
+import com.axelor.apps.stock.service.StockLocationLineHistoryService;
+import com.axelor.apps.stock.service.StockLocationLineService;
+import com.axelor.apps.stock.service.WeightedAveragePriceService;
+import com.axelor.apps.stock.service.batch.StockLocationLineRecomputeServiceImpl;
+import com.google.common.collect.ImmutableMap;
+import com.google.inject.Inject;
+import java.util.Map;
+
+public class StockLocationLineRecomputeServiceSupplychainImpl
+    extends StockLocationLineRecomputeServiceImpl {
+
+  @Inject
+  public StockLocationLineRecomputeServiceSupplychainImpl(
+      StockLocationLineService stockLocationLineService,
+      StockLocationLineHistoryService stockLocationLineHistoryService,
+      WeightedAveragePriceService weightedAveragePriceService,
+      StockLocationLineRepository stockLocationLineRepo,
+      StockLocationRepository stockLocationRepo,
+      ProductRepository productRepo,
+      TrackingNumberRepository trackingNumberRepo,
+      UnitRepository unitRepo,
+      UnitConversionService unitConversionService,
+      AppBaseService appBaseService,
+      StockAvailabilityService stockAvailabilityService) {
+    super(
+        stockLocationLineService,
+        stockLocationLineHistoryService,
+        weightedAveragePriceService,
+        stockLocationLineRepo,
+        stockLocationRepo,
+        productRepo,
+        trackingNumberRepo,
+        unitRepo,
+        unitConversionService,
+        appBaseService,
+        stockAvailabilityService);
+  }
+
+  /**
+   * The reserved and requested reserved quantities of a stock location line are the sums of the
+   * ones of the planned stock move lines leaving the stock location.
+   */
+  @Override
+  protected Map<String, String> getOtherQtyColumnMap() {
+    return ImmutableMap.of(
+        "reservedQty", "reserved_qty", "requestedReservedQty", "requested_reserved_qty");
+  }
+}
@@ -26,6 +26,7 @@ import com.axelor.apps.account.db.repo.InvoiceRepository;
 import com.axelor.apps.account.service.app.AppAccountService;
 import com.axelor.apps.account.service.config.AccountConfigService;
 import com.axelor.apps.account.service.invoice.InvoiceLineService;
+import com.axelor.apps.account.service.invoice.InvoiceMassProcessService;
 import com.axelor.apps.account.service.invoice.InvoiceServiceImpl;
 import com.axelor.apps.account.service.invoice.InvoiceTermFilterService;
 import com.axelor.apps.account.service.invoice.InvoiceTermPfpService;
@@ -95,6 +96,7 @@ public class InvoiceServiceSupplychainImpl extends InvoiceServiceImpl
       InvoiceTermFilterService invoiceTermFilterService,
       InvoicePrintService invoicePrintService,
       InvoiceTermPfpToolService invoiceTermPfpToolService,
+      InvoiceMassProcessService invoiceMassProcessService,
       InvoiceLineRepository invoiceLineRepo,
       IntercoService intercoService,
       StockMoveRepository stockMoveRepository) {
@@ -115,7 +117,8 @@ public class InvoiceServiceSupplychainImpl extends InvoiceServiceImpl
         templateMessageService,
         invoiceTermFilterService,
         invoicePrintService,
-        invoiceTermPfpToolService);
+        invoiceTermPfpToolService,
+        invoiceMassProcessService);
     this.invoiceLineRepo = invoiceLineRepo;
     this.intercoService = intercoService;
     this.stockMoveRepository = stockMoveRepository;
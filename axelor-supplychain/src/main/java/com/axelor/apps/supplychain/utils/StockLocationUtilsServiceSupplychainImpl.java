@@ -22,6 +22,7 @@ import com.axelor.apps.base.AxelorException;
 import com.axelor.apps.base.db.repo.UnitRepository;
 import com.axelor.apps.base.service.UnitConversionService;
 import com.axelor.apps.base.service.app.AppBaseService;
+import com.axelor.apps.stock.service.StockAvailabilityService;
 import com.axelor.apps.stock.utils.StockLocationUtilsServiceImpl;
 import com.google.inject.Inject;
 import java.math.BigDecimal;
@@ -34,8 +35,9 @@ public class StockLocationUtilsServiceSupplychainImpl extends StockLocationUtils
   public StockLocationUtilsServiceSupplychainImpl(
       UnitRepository unitRepository,
       UnitConversionService unitConversionService,
-      AppBaseService appBaseService) {
-    super(unitRepository, unitConversionService, appBaseService);
+      AppBaseService appBaseService,
+      StockAvailabilityService stockAvailabilityService) {
+    super(unitRepository, unitConversionService, appBaseService, stockAvailabilityService);
   }
 
   @Override